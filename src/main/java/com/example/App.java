@@ -1,10 +1,17 @@
 package com.example;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.stage.Stage;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -12,30 +19,43 @@ import java.util.List;
  */
 public class App extends Application {
 
-    private CourseManager courseManager;
-    private StudentManager studentManager;
-    private GradeManager gradeManager;
-    private DueDateManager dueDateManager;
-    private ModuleManager moduleManager; // Added module manager
+    private CourseRepository courseManager;
+    private StudentRepository studentManager;
+    private GradeRepository gradeManager;
+    private DueDateRepository dueDateManager;
+    private ModuleRepository moduleManager; // Added module manager
+    private DataStore dataStore; // Saves in-memory changes between runs
+    private JdbcDatabase database; // Used instead of the in-memory managers with -Dgradetracker.storage=jdbc
     
     private StudentSignupController studentSignupController;
     private CourseController courseController;
     private GradeController gradeController;
     private DueDateController dueDateController;
+    private ViewRefreshService refreshService; // Recalculates the Grades and Due Dates views off the JavaFX thread
+    private ChangeEventBus eventBus; // Carries repository changes to the views
+    private DueDateStatusEngine statusEngine; // Moves due date statuses on at midnight
+    private ReminderScheduler reminderScheduler; // Sends reminders before due dates
+    private final Clock clock = Clock.systemDefaultZone(); // Decides the current day for due dates
 
     @Override
     public void start(Stage stage) {
         // Initialize managers - these should be shared across controllers
-        courseManager = new CourseManager();
-        studentManager = new StudentManager();
-        gradeManager = new GradeManager();
-        dueDateManager = new DueDateManager();
-        moduleManager = new ModuleManager(); // Initialize the module manager
+        if ("jdbc".equalsIgnoreCase(System.getProperty("gradetracker.storage"))) {
+            openDatabase();
+        } else {
+            openDataStore();
+        }
         
         // Add sample data to module manager if needed
         initializeSampleModules();
         
         // Initialize controllers with managers
+        refreshService = new ViewRefreshService();
+        statusEngine = new DueDateStatusEngine(clock, dueDateManager);
+        reminderScheduler = createReminderScheduler();
+        NotificationCenter notifications = new NotificationCenter(stage);
+        reminderScheduler.setListener(reminder ->
+            Platform.runLater(() -> notifications.show("Due Date Reminder", reminder.getMessage())));
         courseController = new CourseController(courseManager);
         studentSignupController = new StudentSignupController(studentManager);
         gradeController = new GradeController(gradeManager, courseManager);
@@ -43,17 +63,123 @@ public class App extends Application {
         
         // Connect controllers to each other - critical for proper data flow
         connectControllers();
+        connectEventBus();
         
         // Create tabs
         TabPane tabPane = createTabPane();
         
         // Create scene and show
         Scene scene = new Scene(tabPane, 1000, 750); // Increased window size
+        scene.getStylesheets().add(UIHelper.STYLESHEET);
         stage.setTitle("Grade Tracker BETA");
         stage.setScene(scene);
         stage.show();
     }
     
+    /**
+     * Keeps everything in memory and loads saved data from the data store.
+     */
+    private void openDataStore() {
+        IdTables ids = new IdTables();
+        CourseManager courses = new CourseManager(ids);
+        StudentManager students = new StudentManager(ids);
+        GradeManager grades = new GradeManager(ids);
+        DueDateManager dueDates = new DueDateManager(ids, clock);
+        ModuleManager modules = new ModuleManager();
+        
+        courseManager = courses;
+        studentManager = students;
+        gradeManager = grades;
+        dueDateManager = dueDates;
+        moduleManager = modules;
+        
+        // Load saved data before anything else touches the managers
+        dataStore = new DataStore(DataStore.getDefaultDirectory(), students, courses, modules, grades, dueDates);
+        try {
+            dataStore.open();
+        } catch (IOException e) {
+            dataStore = null;
+            UIHelper.showAlert("Storage Error", "Saved data could not be loaded; changes will not be saved.\n" + e.getMessage());
+        }
+    }
+    
+    /**
+     * Keeps everything in the embedded database, falling back to memory if it cannot be opened.
+     */
+    private void openDatabase() {
+        try {
+            database = JdbcDatabase.openFile(DataStore.getDefaultDirectory());
+        } catch (SQLException e) {
+            UIHelper.showAlert("Storage Error", "The database could not be opened; using saved files instead.\n" + e.getMessage());
+            openDataStore();
+            return;
+        }
+        
+        courseManager = new JdbcCourseRepository(database);
+        studentManager = new JdbcStudentRepository(database);
+        gradeManager = new JdbcGradeRepository(database);
+        dueDateManager = new JdbcDueDateRepository(database, clock);
+        moduleManager = new JdbcModuleRepository(database);
+    }
+    
+    /**
+     * Creates the reminder scheduler. The lead times can be set with
+     * -Dgradetracker.reminders (e.g. "3d,1d,2h") and the time of day due
+     * dates are due with -Dgradetracker.deadlineTime (e.g. "17:00").
+     * 
+     * @return The scheduler, not yet started
+     */
+    private ReminderScheduler createReminderScheduler() {
+        List<Duration> leadTimes;
+        try {
+            leadTimes = ReminderScheduler.parseLeadTimes(
+                System.getProperty("gradetracker.reminders", ReminderScheduler.DEFAULT_LEAD_TIMES));
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage() + "; using " + ReminderScheduler.DEFAULT_LEAD_TIMES);
+            leadTimes = ReminderScheduler.parseLeadTimes(ReminderScheduler.DEFAULT_LEAD_TIMES);
+        }
+        
+        LocalTime deadlineTime;
+        try {
+            deadlineTime = LocalTime.parse(System.getProperty("gradetracker.deadlineTime", "23:59"));
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid deadline time; using 23:59");
+            deadlineTime = LocalTime.of(23, 59);
+        }
+        
+        return new ReminderScheduler(clock, dueDateManager, leadTimes, deadlineTime, 1000);
+    }
+    
+    @Override
+    public void stop() {
+        // Stop background reads before the storage is closed
+        if (refreshService != null) {
+            refreshService.shutdown();
+        }
+        if (statusEngine != null) {
+            statusEngine.shutdown();
+        }
+        if (reminderScheduler != null) {
+            reminderScheduler.shutdown();
+        }
+        
+        if (dataStore != null) {
+            try {
+                dataStore.close();
+            } catch (IOException e) {
+                System.out.println("Failed to save data: " + e.getMessage());
+            }
+        }
+        
+        if (database != null) {
+            try {
+                database.close();
+            } catch (SQLException e) {
+                System.out.println("Failed to close database: " + e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Initializes sample modules for courses if needed.
      */
@@ -88,13 +214,17 @@ public class App extends Application {
         // Connect GradeController with other components
         gradeController.setCourseController(courseController);
         gradeController.setDueDateManager(dueDateManager);
+        gradeController.setStudentManager(studentManager);
         gradeController.setModuleManager(moduleManager); // Important! Share the same module manager
+        gradeController.setRefreshService(refreshService);
         
         // Connect DueDateController with other components
         dueDateController.setCourseController(courseController);
         dueDateController.setStudentSignupController(studentSignupController);
         dueDateController.setGradeManager(gradeManager);
         dueDateController.setGradeController(gradeController); // NEW: Direct connection to grade controller
+        dueDateController.setRefreshService(refreshService);
+        dueDateController.setStatusEngine(statusEngine);
         
         // Set the module manager in the dialog helper
         DueDateDialogHelper dialogHelper = dueDateController.getDialogHelper();
@@ -104,6 +234,35 @@ public class App extends Application {
         }
     }
     
+    /**
+     * Publishes repository changes to the controllers, which apply them to
+     * their views in place.
+     */
+    private void connectEventBus() {
+        eventBus = new ChangeEventBus();
+        gradeController.setEventBus(eventBus);
+        dueDateController.setEventBus(eventBus);
+        
+        courseManager.setEventBus(eventBus);
+        moduleManager.setEventBus(eventBus);
+        statusEngine.setEventBus(eventBus);
+        statusEngine.start();
+        eventBus.subscribe(reminderScheduler::handleChange);
+        
+        // Loading the snapshot is not a change, so wait until it is done
+        if (dataStore != null && !dataStore.isLoaded()) {
+            dataStore.whenLoaded(() -> {
+                gradeManager.setEventBus(eventBus);
+                dueDateManager.setEventBus(eventBus);
+                reminderScheduler.start();
+            });
+        } else {
+            gradeManager.setEventBus(eventBus);
+            dueDateManager.setEventBus(eventBus);
+            reminderScheduler.start();
+        }
+    }
+    
     /**
      * Creates the tab pane with all tabs.
      * 
@@ -112,16 +271,11 @@ public class App extends Application {
     private TabPane createTabPane() {
         TabPane tabPane = new TabPane();
         
-        // Set up tab selection change listener to update views
+        // Set up tab selection change listener to update views. The Grades and
+        // Due Dates views are kept current by change events instead.
         tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
-            if (newTab != null) {
-                if (newTab.getText().equals("Grades")) {
-                    gradeController.refreshGradesView();
-                } else if (newTab.getText().equals("Due Dates")) {
-                    dueDateController.refreshDueDatesView();
-                } else if (newTab.getText().equals("Courses")) {
-                    courseController.refreshCourseView();
-                }
+            if (newTab != null && newTab.getText().equals("Courses")) {
+                courseController.refreshCourseView();
             }
         });
         
@@ -143,6 +297,18 @@ public class App extends Application {
         gradesTab.setContent(gradeController.createGradesView());
         dueDatesTab.setContent(dueDateController.createDueDatesView());
         
+        // Grades and due dates are still loading from the snapshot in the background
+        if (dataStore != null && !dataStore.isLoaded()) {
+            gradesTab.setDisable(true);
+            dueDatesTab.setDisable(true);
+            dataStore.whenLoaded(() -> {
+                gradesTab.setDisable(false);
+                dueDatesTab.setDisable(false);
+                gradeController.refreshGradesView();
+                dueDateController.refreshDueDatesView();
+            });
+        }
+        
         // Add tabs to tab pane
         tabPane.getTabs().addAll(signupTab, courseTab, gradesTab, dueDatesTab);
         
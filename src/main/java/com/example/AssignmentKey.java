@@ -0,0 +1,105 @@
+package com.example;
+
+/**
+ * Identifies an assignment by course, module and name. A grade and a due date
+ * with the same key belong to the same assignment, which is how the grade for
+ * a due date is found and the other way round.
+ *
+ * {@link GradeManager} and {@link DueDateManager} index their items by this
+ * key and keep the index up to date when a grade or due date is renamed,
+ * moved to another module or course, or removed.
+ */
+public final class AssignmentKey {
+    private final String courseId;
+    private final String moduleId; // Empty for due dates that belong to no module
+    private final String assignmentName;
+
+    /**
+     * Creates a key.
+     *
+     * @param courseId The ID of the course
+     * @param moduleId The ID of the module, or null or empty for none
+     * @param assignmentName The name of the assignment
+     */
+    public AssignmentKey(String courseId, String moduleId, String assignmentName) {
+        this.courseId = courseId;
+        this.moduleId = moduleId != null ? moduleId : "";
+        this.assignmentName = assignmentName;
+    }
+
+    /**
+     * Gets the key of a grade's assignment.
+     *
+     * @param grade The grade
+     * @return Its assignment key
+     */
+    public static AssignmentKey of(Grades grade) {
+        return new AssignmentKey(grade.getCourseId(), grade.getModuleId(), grade.getAssignmentName());
+    }
+
+    /**
+     * Gets the key of a due date's assignment.
+     *
+     * @param dueDate The due date
+     * @return Its assignment key
+     */
+    public static AssignmentKey of(DueDate dueDate) {
+        return new AssignmentKey(dueDate.getCourseId(), dueDate.getModuleId(), dueDate.getAssignmentName());
+    }
+
+    /**
+     * Gets the ID of the course.
+     *
+     * @return Course ID
+     */
+    public String getCourseId() {
+        return courseId;
+    }
+
+    /**
+     * Gets the ID of the module.
+     *
+     * @return Module ID, empty if there is none
+     */
+    public String getModuleId() {
+        return moduleId;
+    }
+
+    /**
+     * Gets the name of the assignment.
+     *
+     * @return Assignment name
+     */
+    public String getAssignmentName() {
+        return assignmentName;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof AssignmentKey)) {
+            return false;
+        }
+        AssignmentKey key = (AssignmentKey) other;
+        return equal(courseId, key.courseId) && moduleId.equals(key.moduleId)
+            && equal(assignmentName, key.assignmentName);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = courseId != null ? courseId.hashCode() : 0;
+        hash = 31 * hash + moduleId.hashCode();
+        return 31 * hash + (assignmentName != null ? assignmentName.hashCode() : 0);
+    }
+
+    @Override
+    public String toString() {
+        return courseId + "/" + moduleId + "/" + assignmentName;
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example;
+
+import javafx.css.PseudoClass;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.VBox;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One day of the month calendar, showing the day number, the first few
+ * due dates and how many more there are.
+ *
+ * The calendar keeps a fixed set of these cells and binds each one to a new
+ * day when the month changes, so no nodes are created while paging. Tooltips
+ * are only created the first time the mouse rests on a due date, and then
+ * reused with new text.
+ */
+public class CalendarDayCell extends VBox {
+    /**
+     * The most due dates listed in one cell; the rest are counted.
+     */
+    public static final int MAX_SHOWN = 3;
+
+    private static final PseudoClass TODAY = PseudoClass.getPseudoClass("today");
+    private static final PseudoClass OUTSIDE = PseudoClass.getPseudoClass("outside"); // Not a day of the month
+    private static final PseudoClass[] STATUS_PSEUDO_CLASSES = DueDateListCell.statusPseudoClasses();
+
+    private final Label dayLabel;
+    private final Label[] dueDateLabels;
+    private final Tooltip[] tooltips; // Created on first hover
+    private final DueDate[] shownDueDates;
+    private final Label moreLabel;
+    private LocalDate date; // Day shown, or null when outside the month
+    private LocalDate today; // The day statuses are shown for
+
+    /**
+     * Creates an empty cell.
+     *
+     * @param onDueDateClicked Called with a due date when its label is clicked
+     * @param onMoreClicked Called with the cell's date when the "more" label is clicked
+     */
+    public CalendarDayCell(Consumer<DueDate> onDueDateClicked, Consumer<LocalDate> onMoreClicked) {
+        getStyleClass().add("calendar-day");
+        setPrefSize(100, 100);
+
+        dayLabel = new Label();
+        dayLabel.getStyleClass().add("day-number");
+        getChildren().add(dayLabel);
+
+        dueDateLabels = new Label[MAX_SHOWN];
+        tooltips = new Tooltip[MAX_SHOWN];
+        shownDueDates = new DueDate[MAX_SHOWN];
+        for (int i = 0; i < MAX_SHOWN; i++) {
+            int index = i;
+            Label label = new Label();
+            label.getStyleClass().add("calendar-due-date");
+            label.setMaxWidth(90);
+            label.setOnMouseClicked(e -> {
+                if (shownDueDates[index] != null) {
+                    onDueDateClicked.accept(shownDueDates[index]);
+                }
+            });
+            label.setOnMouseEntered(e -> showTooltip(index));
+            dueDateLabels[i] = label;
+            getChildren().add(label);
+        }
+
+        moreLabel = new Label();
+        moreLabel.getStyleClass().add("more-label");
+        moreLabel.setOnMouseClicked(e -> {
+            if (date != null) {
+                onMoreClicked.accept(date);
+            }
+        });
+        getChildren().add(moreLabel);
+
+        showOutside();
+    }
+
+    /**
+     * Shows a day of the month.
+     *
+     * @param day The date of the cell
+     * @param dueDates The due dates on that day, or null if there are none
+     * @param today The current day, which statuses are worked out for
+     */
+    public void showDay(LocalDate day, List<DueDate> dueDates, LocalDate today) {
+        date = day;
+        this.today = today;
+        dayLabel.setText(String.valueOf(day.getDayOfMonth()));
+        pseudoClassStateChanged(OUTSIDE, false);
+        pseudoClassStateChanged(TODAY, day.equals(today));
+
+        int count = dueDates == null ? 0 : dueDates.size();
+        for (int i = 0; i < MAX_SHOWN; i++) {
+            DueDate dueDate = i < count ? dueDates.get(i) : null;
+            showDueDate(i, dueDate);
+        }
+
+        if (count > MAX_SHOWN) {
+            moreLabel.setText("+" + (count - MAX_SHOWN) + " more");
+            setShown(moreLabel, true);
+        } else {
+            setShown(moreLabel, false);
+        }
+    }
+
+    /**
+     * Shows the cell as a blank space before the first day of the month.
+     */
+    public void showOutside() {
+        date = null;
+        dayLabel.setText(null);
+        pseudoClassStateChanged(OUTSIDE, true);
+        pseudoClassStateChanged(TODAY, false);
+        for (int i = 0; i < MAX_SHOWN; i++) {
+            showDueDate(i, null);
+        }
+        setShown(moreLabel, false);
+    }
+
+    private void showDueDate(int index, DueDate dueDate) {
+        Label label = dueDateLabels[index];
+        shownDueDates[index] = dueDate;
+        DueDateStatus status = dueDate == null ? null : dueDate.getDueDateStatus(today);
+        for (int i = 0; i < STATUS_PSEUDO_CLASSES.length; i++) {
+            label.pseudoClassStateChanged(STATUS_PSEUDO_CLASSES[i], status != null && status.ordinal() == i);
+        }
+        label.setText(dueDate == null ? null : dueDate.getAssignmentName());
+        setShown(label, dueDate != null);
+    }
+
+    /**
+     * Installs the tooltip of a due date label the first time it is hovered,
+     * and updates its text to the due date now shown there.
+     */
+    private void showTooltip(int index) {
+        DueDate dueDate = shownDueDates[index];
+        if (dueDate == null) {
+            return;
+        }
+        if (tooltips[index] == null) {
+            tooltips[index] = new Tooltip();
+            Tooltip.install(dueDateLabels[index], tooltips[index]);
+        }
+        tooltips[index].setText(dueDate.getStatus(today) + ": " + dueDate);
+    }
+
+    private static void setShown(Label label, boolean shown) {
+        label.setVisible(shown);
+        label.setManaged(shown);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes one change made through a repository, so that views can update
+ * only the rows it affects instead of rebuilding everything.
+ * Events are created with the static factory methods, one per type.
+ */
+public class ChangeEvent {
+
+    /**
+     * The kinds of change that are published.
+     */
+    public enum Type {
+        GRADE_ADDED, // A grade with a new ID
+        GRADE_UPDATED,
+        GRADE_REMOVED,
+        DUE_DATE_CHANGED, // Added, updated or removed; see isRemoved()
+        DUE_DATES_ADDED, // Several due dates added at once; see getDueDates()
+        DUE_DATE_SERIES_CHANGED, // Any of its occurrences may have changed
+        MODULE_ADDED,
+        MODULE_RENAMED, // Any update to a module's name, number or description
+        MODULE_REMOVED,
+        ENROLLMENT_CHANGED
+    }
+
+    private final Type type;
+    private final Object subject; // The grade, due date, due dates, series, module or course that changed
+    private final String previousId; // ID of the subject before the change
+    private final String studentId; // Student whose enrollment changed, otherwise null
+    private final boolean removed;
+
+    private ChangeEvent(Type type, Object subject, String previousId, String studentId, boolean removed) {
+        this.type = type;
+        this.subject = subject;
+        this.previousId = previousId;
+        this.studentId = studentId;
+        this.removed = removed;
+    }
+
+    /**
+     * @param grade The added grade
+     * @return A GRADE_ADDED event
+     */
+    public static ChangeEvent gradeAdded(Grades grade) {
+        return new ChangeEvent(Type.GRADE_ADDED, grade, grade.getGradeId(), null, false);
+    }
+
+    /**
+     * @param previousId ID the grade was stored under before the update
+     * @param grade The grade in its updated state
+     * @return A GRADE_UPDATED event
+     */
+    public static ChangeEvent gradeUpdated(String previousId, Grades grade) {
+        return new ChangeEvent(Type.GRADE_UPDATED, grade, previousId, null, false);
+    }
+
+    /**
+     * @param grade The removed grade
+     * @return A GRADE_REMOVED event
+     */
+    public static ChangeEvent gradeRemoved(Grades grade) {
+        return new ChangeEvent(Type.GRADE_REMOVED, grade, grade.getGradeId(), null, true);
+    }
+
+    /**
+     * @param previousId ID the due date was stored under before the change
+     * @param dueDate The due date in its current state
+     * @param removed true if the due date was removed
+     * @return A DUE_DATE_CHANGED event
+     */
+    public static ChangeEvent dueDateChanged(String previousId, DueDate dueDate, boolean removed) {
+        return new ChangeEvent(Type.DUE_DATE_CHANGED, dueDate, previousId, null, removed);
+    }
+
+    /**
+     * @param dueDates The added due dates
+     * @return A DUE_DATES_ADDED event
+     */
+    public static ChangeEvent dueDatesAdded(List<DueDate> dueDates) {
+        return new ChangeEvent(Type.DUE_DATES_ADDED, Collections.unmodifiableList(dueDates), null, null, false);
+    }
+
+    /**
+     * @param series The series in its current state
+     * @param removed true if the series was removed
+     * @return A DUE_DATE_SERIES_CHANGED event
+     */
+    public static ChangeEvent dueDateSeriesChanged(DueDateSeries series, boolean removed) {
+        return new ChangeEvent(Type.DUE_DATE_SERIES_CHANGED, series, series.getSeriesId(), null, removed);
+    }
+
+    /**
+     * @param module The added module
+     * @return A MODULE_ADDED event
+     */
+    public static ChangeEvent moduleAdded(CourseModule module) {
+        return new ChangeEvent(Type.MODULE_ADDED, module, module.getModuleId(), null, false);
+    }
+
+    /**
+     * @param module The module in its updated state
+     * @return A MODULE_RENAMED event
+     */
+    public static ChangeEvent moduleRenamed(CourseModule module) {
+        return new ChangeEvent(Type.MODULE_RENAMED, module, module.getModuleId(), null, false);
+    }
+
+    /**
+     * @param module The removed module
+     * @return A MODULE_REMOVED event
+     */
+    public static ChangeEvent moduleRemoved(CourseModule module) {
+        return new ChangeEvent(Type.MODULE_REMOVED, module, module.getModuleId(), null, true);
+    }
+
+    /**
+     * @param course The course the student joined or left
+     * @param studentId ID of the student
+     * @return An ENROLLMENT_CHANGED event
+     */
+    public static ChangeEvent enrollmentChanged(Course course, String studentId) {
+        return new ChangeEvent(Type.ENROLLMENT_CHANGED, course, course.getId(), studentId, false);
+    }
+
+    /**
+     * @return The kind of change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The changed grade, or null if the event is not about a grade
+     */
+    public Grades getGrade() {
+        return subject instanceof Grades ? (Grades) subject : null;
+    }
+
+    /**
+     * @return The changed due date, or null if the event is not about a due date
+     */
+    public DueDate getDueDate() {
+        return subject instanceof DueDate ? (DueDate) subject : null;
+    }
+
+    /**
+     * @return The added due dates, or an empty list if the event is not about several due dates
+     */
+    @SuppressWarnings("unchecked")
+    public List<DueDate> getDueDates() {
+        return type == Type.DUE_DATES_ADDED ? (List<DueDate>) subject : Collections.emptyList();
+    }
+
+    /**
+     * @return The changed series, or null if the event is not about a series
+     */
+    public DueDateSeries getSeries() {
+        return subject instanceof DueDateSeries ? (DueDateSeries) subject : null;
+    }
+
+    /**
+     * @return The changed module, or null if the event is not about a module
+     */
+    public CourseModule getModule() {
+        return subject instanceof CourseModule ? (CourseModule) subject : null;
+    }
+
+    /**
+     * @return The course of an enrollment change, otherwise null
+     */
+    public Course getCourse() {
+        return subject instanceof Course ? (Course) subject : null;
+    }
+
+    /**
+     * @return The ID the changed entity had before the change
+     */
+    public String getPreviousId() {
+        return previousId;
+    }
+
+    /**
+     * @return The student of an enrollment change, otherwise null
+     */
+    public String getStudentId() {
+        return studentId;
+    }
+
+    /**
+     * @return true if the entity was removed
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + (type == Type.DUE_DATES_ADDED ? getDueDates().size() + " due dates" : previousId);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers change events from the repositories to the controllers.
+ *
+ * Events are delivered on the thread that published them. Changes made from
+ * the UI arrive on the JavaFX Application Thread, but background work such as
+ * {@link DueDateStatusEngine} publishes from its own threads, so a listener
+ * that updates controls must hand the event to the JavaFX Application Thread
+ * itself when it arrives elsewhere. A listener that throws does not stop the
+ * event from reaching the others.
+ */
+public class ChangeEventBus {
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener for every event.
+     *
+     * @param listener Called once per event
+     */
+    public void subscribe(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void unsubscribe(Consumer<ChangeEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Delivers an event to every listener.
+     *
+     * @param event The event
+     */
+    public void publish(ChangeEvent event) {
+        for (Consumer<ChangeEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                System.out.println("Error handling " + event + ": " + e.getMessage());
+            }
+        }
+    }
+}
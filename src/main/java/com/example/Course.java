@@ -1,21 +1,31 @@
 package com.example;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Represents a course in the grade tracking application.
- * A course has a unique ID, name, code, credits, and a list of enrolled students.
+ * A course has a unique ID, name, code, credits, and a set of enrolled students.
+ *
+ * While a {@link CourseManager} holds the course, its enrollments live only in
+ * the manager's enrollment store, and the enrollment methods here read and
+ * change them there under the manager's lock. A course that no manager holds
+ * keeps its enrollments itself, and is not safe to share between threads.
  */
 public class Course {
     private final String courseid; // Unique identifier for the course
+    private int key; // IdTable key of the ID, set by the manager that holds this course
+    private long sequence; // When the manager stored this course, relative to its other courses
     private String courseName; // Course name (e.g., "Introduction to Computer Science")
     private String courseCode; // Course code (e.g., "CS101")
     private int credits; // Number of credit hours
     private String instructor; // Name of the course instructor
     private String semester; // Semester (e.g., "Fall 2025")
-    private List<String> enrolledStudentIds; // IDs of students enrolled in this course
+    private final Set<String> enrolledStudentIds; // Enrolled students while no manager holds this course
+    private volatile CourseManager manager; // Manager that indexes this course and keeps its enrollments, if any
     
     /**
      * Constructs a new Course with the given details.
@@ -27,13 +37,27 @@ public class Course {
      * @param semester Current semester
      */
     public Course(String name, String code, int credits, String instructor, String semester) {
-        this.courseid = UUID.randomUUID().toString(); // Generate a unique ID
+        this(UUID.randomUUID().toString(), name, code, credits, instructor, semester); // Generate a unique ID
+    }
+    
+    /**
+     * Constructs a Course with an existing ID, e.g. when loading saved data.
+     * 
+     * @param id Unique ID of the course
+     * @param name Course name
+     * @param code Course code
+     * @param credits Number of credit hours
+     * @param instructor Name of the course instructor
+     * @param semester Current semester
+     */
+    public Course(String id, String name, String code, int credits, String instructor, String semester) {
+        this.courseid = id;
         this.courseName = name;
         this.courseCode = code;
         this.credits = credits;
         this.instructor = instructor;
         this.semester = semester;
-        this.enrolledStudentIds = new ArrayList<>();
+        this.enrolledStudentIds = new LinkedHashSet<>();
     }
 
     // SETTERS AND GETTERS
@@ -64,7 +88,12 @@ public class Course {
      * @param name New course name
      */
     public void setName(String name) {
-        this.courseName = name;
+        CourseManager manager = this.manager;
+        if (manager != null) {
+            manager.reindex(this, courseCode, () -> this.courseName = name);
+        } else {
+            this.courseName = name;
+        }
     }
 
     // course code
@@ -81,9 +110,15 @@ public class Course {
      * Sets the course code.
      * 
      * @param code New course code
+     * @throws IllegalArgumentException If the course belongs to a manager and another course there has the code
      */
     public void setCode(String code) {
-        this.courseCode = code;
+        CourseManager manager = this.manager;
+        if (manager != null) {
+            manager.reindex(this, code, () -> this.courseCode = code);
+        } else {
+            this.courseCode = code;
+        }
     }
 
     // credit hours
@@ -102,7 +137,12 @@ public class Course {
      * @param credits New credit hours
      */
     public void setCredits(int credits) {
-        this.credits = credits;
+        CourseManager manager = this.manager;
+        if (manager != null) {
+            manager.recredit(this, () -> this.credits = credits);
+        } else {
+            this.credits = credits;
+        }
     }
 
     // course instructor
@@ -121,7 +161,12 @@ public class Course {
      * @param instructor New course instructor name
      */
     public void setInstructor(String instructor) {
-        this.instructor = instructor;
+        CourseManager manager = this.manager;
+        if (manager != null) {
+            manager.reindex(this, courseCode, () -> this.instructor = instructor);
+        } else {
+            this.instructor = instructor;
+        }
     }
 
     // semester
@@ -140,7 +185,12 @@ public class Course {
      * @param semester New current semester
      */
     public void setSemester(String semester) {
-        this.semester = semester;
+        CourseManager manager = this.manager;
+        if (manager != null) {
+            manager.reindex(this, courseCode, () -> this.semester = semester);
+        } else {
+            this.semester = semester;
+        }
     }
     
     /**
@@ -150,11 +200,8 @@ public class Course {
      * @return true if the student was successfully enrolled, false if already enrolled
      */
     public boolean enrollStudent(String studentId) {
-        if (!enrolledStudentIds.contains(studentId)) {
-            enrolledStudentIds.add(studentId);
-            return true;
-        }
-        return false;
+        CourseManager manager = this.manager;
+        return manager != null ? manager.enroll(this, studentId) : enrolledStudentIds.add(studentId);
     }
     
     /**
@@ -164,7 +211,8 @@ public class Course {
      * @return true if the student was successfully removed, false if not enrolled
      */
     public boolean removeStudent(String studentId) {
-        return enrolledStudentIds.remove(studentId);
+        CourseManager manager = this.manager;
+        return manager != null ? manager.unenroll(this, studentId) : enrolledStudentIds.remove(studentId);
     }
     
     /**
@@ -174,7 +222,8 @@ public class Course {
      * @return true if the student is enrolled, false otherwise
      */
     public boolean isStudentEnrolled(String studentId) {
-        return enrolledStudentIds.contains(studentId);
+        CourseManager manager = this.manager;
+        return manager != null ? manager.isEnrolled(this, studentId) : enrolledStudentIds.contains(studentId);
     }
     
     /**
@@ -183,7 +232,8 @@ public class Course {
      * @return List of enrolled student IDs
      */
     public List<String> getEnrolledStudentIds() {
-        return new ArrayList<>(enrolledStudentIds);
+        CourseManager manager = this.manager;
+        return manager != null ? manager.getEnrolledStudentIds(this) : new ArrayList<>(enrolledStudentIds);
     }
     
     /**
@@ -192,7 +242,70 @@ public class Course {
      * @return Number of enrolled students
      */
     public int getEnrollmentCount() {
-        return enrolledStudentIds.size();
+        return getEnrolledStudentIds().size();
+    }
+
+    /**
+     * Sets the manager that indexes this course, so setters can keep its
+     * indexes up to date. A manager takes over the enrollments when it is
+     * set, after copying them into its store, and hands them back with
+     * {@link #enrollStudent(String)} once it has been cleared.
+     * 
+     * @param manager The manager, or null when the course is removed from it
+     */
+    void setManager(CourseManager manager) {
+        if (manager != null) {
+            enrolledStudentIds.clear();
+        }
+        this.manager = manager;
+    }
+    
+    /**
+     * Tells whether a manager holds this course and its enrollments.
+     * 
+     * @param manager The manager
+     * @return true if the manager holds the course
+     */
+    boolean isHeldBy(CourseManager manager) {
+        return this.manager == manager;
+    }
+    
+    /**
+     * Sets the {@link IdTable} key of the course ID. Called by CourseManager when it stores this course.
+     * 
+     * @param key Course key
+     */
+    void setKey(int key) {
+        this.key = key;
+    }
+    
+    /**
+     * Sets the position of the course in its manager's storage order. Called
+     * by CourseManager when it stores this course.
+     * 
+     * @param sequence Storage sequence number
+     */
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+    
+    /**
+     * Gets the position of the course in its manager's storage order, which
+     * is the order {@link CourseManager#getAllCourses()} lists courses in.
+     * 
+     * @return Storage sequence number
+     */
+    long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Gets the {@link IdTable} key of the course ID, which CourseManager indexes and joins courses by.
+     * 
+     * @return Course key
+     */
+    int getKey() {
+        return key;
     }
 
     // this is a bit long, but needed for displaying the full student info.
@@ -18,7 +18,7 @@ import java.util.List;
  * Controller for the course management view.
  */
 public class CourseController {
-    private CourseManager courseManager;
+    private CourseRepository courseManager;
     private ListView<Course> courseListView;
     private ObservableList<Course> courseObservableList;
     
@@ -33,7 +33,7 @@ public class CourseController {
      * 
      * @param courseManager The course manager
      */
-    public CourseController(CourseManager courseManager) {
+    public CourseController(CourseRepository courseManager) {
         this.courseManager = courseManager;
         this.courseObservableList = FXCollections.observableArrayList();
         
@@ -153,7 +153,12 @@ public class CourseController {
         
         if (!name.isEmpty() && !code.isEmpty()) {
             Course newCourse = new Course(name, code, 3, instructor, "Spring 2025");
-            courseManager.addCourse(newCourse);
+            try {
+                courseManager.addCourse(newCourse);
+            } catch (IllegalArgumentException e) {
+                UIHelper.showAlert("Duplicate Course Code", e.getMessage());
+                return;
+            }
             refreshCourseView(); // Use the refresh method
             nameField.clear();
             codeField.clear();
@@ -178,12 +183,8 @@ public class CourseController {
             return;
         }
         
-        String studentIdStr = String.valueOf(currentStudent.getStudentId());
-        
-        // Enroll the student in the course
-        if (selectedCourse.enrollStudent(studentIdStr)) {
-            // Also update the student's enrolled courses
-            currentStudent.enrollInCourse(selectedCourse.getId());
+        // Enroll the student in the course (updates both sides)
+        if (courseManager.enrollStudent(selectedCourse, currentStudent)) {
             UIHelper.showAlert("Success", "Enrolled in course: " + selectedCourse.getName());
         } else {
             UIHelper.showAlert("Already Enrolled", "You are already enrolled in this course.");
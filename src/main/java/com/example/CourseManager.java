@@ -1,23 +1,87 @@
 package com.example;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Manages the collection of courses in the application.
  * Provides methods to add, retrieve, update, and delete courses.
- * Uses ArrayList.
+ * Courses are stored in a map keyed by course ID, with secondary indexes by
+ * semester and instructor, ignoring case, so lookups only touch the courses
+ * they return. Course codes are unique, ignoring case, and indexed too.
+ * Names, codes and instructors are also kept in a {@link SearchIndex}, so
+ * searching them only looks at the courses that share text with the query.
+ * Enrollments are kept in an {@link EnrollmentStore} by the {@link IdTable}
+ * keys of the courses and students, so the courses of a student are found
+ * without looking at any other course.
+ * Course setters keep the indexes up to date for courses added here.
  */
-public class CourseManager {
+public class CourseManager implements CourseRepository {
 
-    private final List<Course> courses;
+    private final Map<String, Course> coursesById; // Primary index, in insertion order
+    private final DenseMap<Course> coursesByKey; // By IdTable key, for joins from the other indexes
+    private final IdTables ids; // Keys of the course and student IDs the indexes are keyed by
+    private final Map<String, Set<Course>> coursesBySemester; // Keyed by lower case semester
+    private final Map<String, Set<Course>> coursesByInstructor; // Keyed by lower case instructor
+    private final Map<String, Course> coursesByCode; // Keyed by lower case code
+    private final SearchIndex<Course> searchIndex; // Name, code, then instructor
+    private List<Course> allCourses; // Read-only snapshot of every course, or null after a change
+    private final EnrollmentStore enrollments; // Enrollments of the courses above, both ways
+    private final Map<String, Long> enrollmentVersions; // Bumped when a student's enrollments change
+    private long catalogVersion; // Bumped when a course is added, removed or changed
+    private long nextSequence; // Storage sequence number of the next course stored
+    private Journal journal; // Receives every change, or null when changes are not persisted
+    private ChangeEventBus eventBus; // Receives change events for the views, or null
     
     /**
-     * Creates a new CourseManager with an empty collection of courses.
+     * Creates a new CourseManager with an empty collection of courses and ID keys of its own.
      */
     public CourseManager() {
-        this.courses = new ArrayList<>();
+        this(new IdTables());
+    }
+    
+    /**
+     * Creates a new CourseManager with an empty collection of courses.
+     * 
+     * @param ids The ID keys shared by the managers this one is used with
+     */
+    public CourseManager(IdTables ids) {
+        this.ids = ids;
+        this.coursesById = new LinkedHashMap<>();
+        this.coursesByKey = new DenseMap<>();
+        this.coursesBySemester = new HashMap<>();
+        this.coursesByInstructor = new HashMap<>();
+        this.coursesByCode = new HashMap<>();
+        this.searchIndex = new SearchIndex<>();
+        this.enrollments = new EnrollmentStore();
+        this.enrollmentVersions = new HashMap<>();
+    }
+    
+    /**
+     * Sets the bus that receives a change event for every change made through this manager.
+     * 
+     * @param eventBus The event bus, or null to stop publishing changes
+     */
+    public synchronized void setEventBus(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+    
+    /**
+     * Sets the journal that records changes made through this manager.
+     * 
+     * @param journal The journal, or null to stop recording changes
+     */
+    public synchronized void setJournal(Journal journal) {
+        this.journal = journal;
     }
 
     // Add a course
@@ -25,9 +89,33 @@ public class CourseManager {
      * Adds a new course to the collection.
      * 
      * @param course Course to add
+     * @throws IllegalArgumentException If a course with the same ID or code already exists
+     */
+    public synchronized void addCourse(Course course) {
+        if (coursesById.containsKey(course.getId())) {
+            throw new IllegalArgumentException("A course with ID " + course.getId() + " already exists");
+        }
+        checkCode(course, course.getCode());
+        
+        store(course);
+        if (journal != null) {
+            journal.recordSaved(course);
+        }
+    }
+    
+    /**
+     * Adds or replaces a course read back from saved data. Unlike addCourse,
+     * a course whose code is already taken is kept, so data saved before codes
+     * had to be unique still loads; it is just not found by its code.
+     * 
+     * @param course Course to restore
      */
-    public void addCourse(Course course) {
-        courses.add(course);
+    synchronized void restoreCourse(Course course) {
+        Course existing = coursesById.get(course.getId());
+        if (existing != null) {
+            discard(existing);
+        }
+        store(course);
     }
 
     // Retrieve course by ID
@@ -37,24 +125,33 @@ public class CourseManager {
      * @param id ID of the course to retrieve
      * @return Course with the specified ID, or null if not found
      */
-    public Course getCourseById(String courseid) {
-        for (int i = 0; i < courses.size(); i++) {
-            Course course = courses.get(i);
-            if (course.getId().equals(courseid)) {
-                return course;
-            }
-        }
-        return null;
+    public synchronized Course getCourseById(String courseid) {
+        return coursesById.get(courseid);
+    }
+    
+    /**
+     * Retrieves a course by its code, ignoring case.
+     * 
+     * @param code Code of the course to retrieve
+     * @return Course with the specified code, or null if not found
+     */
+    public synchronized Course getCourseByCode(String code) {
+        return coursesByCode.get(key(code));
     }
 
     //list courses
     /**
-     * Gets a list of all courses.
+     * Gets a list of all courses. The list is a read-only snapshot that is
+     * shared between calls until the courses change, so calling this in a
+     * loop does not copy the collection each time.
      * 
      * @return List of all courses
      */
-    public List<Course> getAllCourses() {
-        return new ArrayList<>(courses); // Return a copy to prevent external modification
+    public synchronized List<Course> getAllCourses() {
+        if (allCourses == null) {
+            allCourses = Collections.unmodifiableList(new ArrayList<>(coursesById.values()));
+        }
+        return allCourses;
     }
 
     //update course
@@ -64,15 +161,28 @@ public class CourseManager {
      * @param courseId The ID of the course to update
      * @param updatedCourse The updated course data
      * @return true if the course was updated, false if the course was not found
+     * @throws IllegalArgumentException If another course already has the updated code
      */
-    public boolean updateCourse(String courseId, Course updatedCourse) {
-        for (int i = 0; i < courses.size(); i++) {
-            if (courses.get(i).getId().equals(courseId)) {
-                courses.set(i, updatedCourse);
-                return true;
-            }
+    public synchronized boolean updateCourse(String courseId, Course updatedCourse) {
+        Course existing = coursesById.get(courseId);
+        if (existing == null) {
+            return false;
         }
-        return false;
+        Course other = coursesById.get(updatedCourse.getId());
+        if (other != null && other != existing) {
+            throw new IllegalArgumentException("A course with ID " + updatedCourse.getId() + " already exists");
+        }
+        Course owner = coursesByCode.get(key(updatedCourse.getCode()));
+        if (owner != null && owner != existing) {
+            checkCode(updatedCourse, updatedCourse.getCode());
+        }
+        
+        discard(existing);
+        store(updatedCourse);
+        if (journal != null) {
+            journal.recordSaved(updatedCourse);
+        }
+        return true;
     }
 
         /**
@@ -81,14 +191,17 @@ public class CourseManager {
      * @param courseId The ID of the course to remove
      * @return true if the course was removed, false if the course was not found
      */
-    public boolean removeCourse(String courseId) {
-        for (int i = 0; i < courses.size(); i++) {
-            if (courses.get(i).getId().equals(courseId)) {
-                courses.remove(i);
-                return true;
-            }
+    public synchronized boolean removeCourse(String courseId) {
+        Course removed = coursesById.get(courseId);
+        if (removed == null) {
+            return false;
+        }
+        
+        discard(removed);
+        if (journal != null) {
+            journal.recordRemoved(removed);
         }
-        return false;
+        return true;
     }
     
     /**
@@ -96,28 +209,31 @@ public class CourseManager {
      * 
      * @return The number of courses
      */
-    public int getCourseCount() {
-        return courses.size();
+    public synchronized int getCourseCount() {
+        return coursesById.size();
     }
     
     /**
      * Finds courses by name or code (case-insensitive partial match).
+     * Courses whose name or code starts with the search term come first.
      * 
      * @param searchTerm The search term to match against course names or codes
      * @return List of courses that match the search term
      */
-    public List<Course> findCourses(String searchTerm) {
-        String term = searchTerm.toLowerCase();
-        List<Course> result = new ArrayList<>();
-        
-        for (Course course : courses) {
-            if (course.getName().toLowerCase().contains(term) || 
-                course.getCode().toLowerCase().contains(term)) {
-                result.add(course);
-            }
-        }
-        
-        return result;
+    public synchronized List<Course> findCourses(String searchTerm) {
+        return searchIndex.find(searchTerm, 2);
+    }
+    
+    /**
+     * Searches course names, codes and instructors, tolerating typos in longer
+     * queries, for search-as-you-type lookups.
+     * 
+     * @param query The text typed so far
+     * @param limit The most courses to return
+     * @return The best matching courses, best first
+     */
+    public synchronized List<Course> searchCourses(String query, int limit) {
+        return searchIndex.search(query, limit);
     }
     
     /**
@@ -126,16 +242,8 @@ public class CourseManager {
      * @param semester The semester to filter by
      * @return List of courses offered in the specified semester
      */
-    public List<Course> getCoursesBySemester(String semester) {
-        List<Course> result = new ArrayList<>();
-        
-        for (Course course : courses) {
-            if (course.getSemester().equalsIgnoreCase(semester)) {
-                result.add(course);
-            }
-        }
-        
-        return result;
+    public synchronized List<Course> getCoursesBySemester(String semester) {
+        return copyOf(coursesBySemester.get(key(semester)));
     }
     
     /**
@@ -144,34 +252,329 @@ public class CourseManager {
      * @param instructor The instructor to filter by
      * @return List of courses taught by the specified instructor
      */
-    public List<Course> getCoursesByInstructor(String instructor) {
+    public synchronized List<Course> getCoursesByInstructor(String instructor) {
+        return copyOf(coursesByInstructor.get(key(instructor)));
+    }
+    
+    /**
+     * Gets all courses in which you are enrolled.
+     * 
+     * @param studentId The ID of the student
+     * @return List of courses the student is enrolled in, in the order of {@link #getAllCourses()}
+     */
+    public synchronized List<Course> getCoursesForStudent(String studentId) {
         List<Course> result = new ArrayList<>();
         
-        for (Course course : courses) {
-            if (course.getInstructor().equalsIgnoreCase(instructor)) {
-                result.add(course);
-            }
+        BitSet courseKeys = enrollments.getCourseKeys(ids.students.find(studentId));
+        for (int key = courseKeys.nextSetBit(0); key >= 0; key = courseKeys.nextSetBit(key + 1)) {
+            result.add(coursesByKey.get(key));
         }
+        // Keys are reused after removals, so their order is not the order courses were stored in
+        result.sort(Comparator.comparingLong(Course::getSequence));
         
         return result;
     }
     
     /**
-     * Gets all courses in which you are enrolled.
+     * Gets the IDs of the courses a student is enrolled in.
      * 
      * @param studentId The ID of the student
-     * @return List of courses the student is enrolled in
+     * @return Set of the course IDs, in the order of {@link #getAllCourses()}
      */
-    public List<Course> getCoursesForStudent(String studentId) {
-        List<Course> result = new ArrayList<>();
+    public synchronized Set<String> getCourseIdsForStudent(String studentId) {
+        Set<String> result = new LinkedHashSet<>();
         
-        for (Course course : courses) {
-            if (course.isStudentEnrolled(studentId)) {
-                result.add(course);
-            }
+        for (Course course : getCoursesForStudent(studentId)) {
+            result.add(course.getId());
         }
         
         return result;
     }
-
-}
\ No newline at end of file
+    
+    /**
+     * Enrolls a student in a course. The enrollment store is the only record
+     * of the enrollments of courses held here, so readers never see a
+     * course and the store disagree.
+     * 
+     * @param course The course to enroll in
+     * @param student The student to enroll
+     * @return true if the student was enrolled, false if already enrolled
+     */
+    public synchronized boolean enrollStudent(Course course, Student student) {
+        String studentId = String.valueOf(student.getStudentId());
+        
+        if (!enroll(course, studentId)) {
+            return false;
+        }
+        
+        recordEnrollment(course, student);
+        return true;
+    }
+    
+    /**
+     * Removes a student from a course.
+     * 
+     * @param course The course to leave
+     * @param student The student to remove
+     * @return true if the student was removed, false if not enrolled
+     */
+    public synchronized boolean unenrollStudent(Course course, Student student) {
+        String studentId = String.valueOf(student.getStudentId());
+        
+        if (!unenroll(course, studentId)) {
+            return false;
+        }
+        
+        recordEnrollment(course, student);
+        return true;
+    }
+    
+    private void recordEnrollment(Course course, Student student) {
+        if (journal != null) {
+            journal.recordSaved(course);
+        }
+        publish(ChangeEvent.enrollmentChanged(course, String.valueOf(student.getStudentId())));
+    }
+    
+    /**
+     * Returns a counter that changes whenever a student's enrollments change
+     * through this manager. Used to tell when cached results are stale.
+     * 
+     * @param studentId The ID of the student
+     * @return Modification count for the student's enrollments
+     */
+    public synchronized long getEnrollmentVersion(String studentId) {
+        return enrollmentVersions.getOrDefault(studentId, 0L);
+    }
+    
+    /**
+     * Returns a counter that changes whenever a course is added, removed or
+     * changed through this manager or its setters, including its credits.
+     * 
+     * @return Modification count for the courses
+     */
+    public synchronized long getCatalogVersion() {
+        return catalogVersion;
+    }
+    
+    /**
+     * Changes indexed fields of a course under this manager's lock, so that
+     * other threads never see the course missing from its indexes or filed
+     * under stale values. Called by the Course setters for the name, code,
+     * instructor and semester. The code is checked first, so a change that
+     * would give the course another course's code is not made at all.
+     * 
+     * @param course Course being changed
+     * @param code The code the course will have after the change
+     * @param change Sets the new field values
+     * @throws IllegalArgumentException If another course here has the code
+     */
+    synchronized void reindex(Course course, String code, Runnable change) {
+        if (!course.isHeldBy(this)) {
+            change.run(); // Removed since the setter looked
+            return;
+        }
+        checkCode(course, code);
+        unindex(course);
+        change.run();
+        index(course);
+    }
+    
+    /**
+     * Changes the credits of a course under this manager's lock, so that
+     * cached results weighted by credits see the change. Called by
+     * Course.setCredits.
+     * 
+     * @param course Course being changed
+     * @param change Sets the new credits
+     */
+    synchronized void recredit(Course course, Runnable change) {
+        change.run();
+        if (course.isHeldBy(this)) {
+            catalogVersion++;
+        }
+    }
+    
+    /**
+     * Checks that no other course has a code, ignoring case.
+     * Called on add and update and by {@link #reindex} before a course's code changes.
+     * 
+     * @param course The course that would have the code
+     * @param code The code
+     * @throws IllegalArgumentException If another course has the code
+     */
+    synchronized void checkCode(Course course, String code) {
+        if (code == null || code.trim().isEmpty()) {
+            return; // Courses without a code do not clash
+        }
+        Course owner = coursesByCode.get(key(code));
+        if (owner != null && owner != course) {
+            throw new IllegalArgumentException("Course code " + code + " is already used by " + owner.getName());
+        }
+    }
+    
+    /**
+     * Adds a course to every secondary index using its current fields.
+     * Called on add and by {@link #reindex} after indexed fields have changed.
+     * 
+     * @param course Course to index
+     */
+    synchronized void index(Course course) {
+        bucket(coursesBySemester, key(course.getSemester())).add(course);
+        bucket(coursesByInstructor, key(course.getInstructor())).add(course);
+        if (course.getCode() != null && !course.getCode().trim().isEmpty()) {
+            coursesByCode.putIfAbsent(key(course.getCode()), course);
+        }
+        searchIndex.put(course.getKey(), course, course.getName(), course.getCode(), course.getInstructor());
+        allCourses = null;
+        catalogVersion++;
+    }
+    
+    /**
+     * Removes a course from every secondary index using its current fields.
+     * Called on removal and by {@link #reindex} before indexed fields change.
+     * 
+     * @param course Course to unindex
+     */
+    synchronized void unindex(Course course) {
+        removeFrom(coursesBySemester, key(course.getSemester()), course);
+        removeFrom(coursesByInstructor, key(course.getInstructor()), course);
+        coursesByCode.remove(key(course.getCode()), course);
+        searchIndex.remove(course.getKey());
+        allCourses = null;
+        catalogVersion++;
+    }
+    
+    /**
+     * Enrolls a student in a course. Called by Course for courses held here;
+     * a course removed since it looked keeps the enrollment itself.
+     * 
+     * @param course The course
+     * @param studentId The ID of the student
+     * @return true if the student was enrolled, false if already enrolled
+     */
+    synchronized boolean enroll(Course course, String studentId) {
+        if (!course.isHeldBy(this)) {
+            return course.enrollStudent(studentId);
+        }
+        return addEnrollment(course, studentId);
+    }
+    
+    /**
+     * Removes a student from a course. Called by Course for courses held here.
+     * 
+     * @param course The course
+     * @param studentId The ID of the student
+     * @return true if the student was removed, false if not enrolled
+     */
+    synchronized boolean unenroll(Course course, String studentId) {
+        if (!course.isHeldBy(this)) {
+            return course.removeStudent(studentId);
+        }
+        int studentKey = ids.students.find(studentId);
+        if (studentKey < 0 || !enrollments.remove(course.getKey(), studentKey)) {
+            return false;
+        }
+        ids.students.release(studentKey);
+        enrollmentVersions.merge(studentId, 1L, Long::sum);
+        return true;
+    }
+    
+    /**
+     * Tells whether a student is enrolled in a course. Called by Course for courses held here.
+     * 
+     * @param course The course
+     * @param studentId The ID of the student
+     * @return true if the student is enrolled
+     */
+    synchronized boolean isEnrolled(Course course, String studentId) {
+        if (!course.isHeldBy(this)) {
+            return course.isStudentEnrolled(studentId);
+        }
+        return enrollments.contains(course.getKey(), ids.students.find(studentId));
+    }
+    
+    /**
+     * Gets the students enrolled in a course. Called by Course for courses held here.
+     * 
+     * @param course The course
+     * @return The IDs of the enrolled students
+     */
+    synchronized List<String> getEnrolledStudentIds(Course course) {
+        if (!course.isHeldBy(this)) {
+            return course.getEnrolledStudentIds();
+        }
+        List<String> result = new ArrayList<>();
+        BitSet studentKeys = enrollments.getStudentKeys(course.getKey());
+        for (int key = studentKeys.nextSetBit(0); key >= 0; key = studentKeys.nextSetBit(key + 1)) {
+            result.add(ids.students.idOf(key));
+        }
+        return result;
+    }
+    
+    private boolean addEnrollment(Course course, String studentId) {
+        int studentKey = ids.students.acquire(studentId);
+        if (!enrollments.add(course.getKey(), studentKey)) {
+            ids.students.release(studentKey); // Already held by the existing enrollment
+            return false;
+        }
+        enrollmentVersions.merge(studentId, 1L, Long::sum);
+        return true;
+    }
+    
+    private void store(Course course) {
+        coursesById.put(course.getId(), course);
+        course.setKey(ids.courses.acquire(course.getId()));
+        course.setSequence(nextSequence++);
+        coursesByKey.put(course.getKey(), course);
+        index(course);
+        // Move the course's own enrollments into the store, which keeps them from now on
+        for (String studentId : course.getEnrolledStudentIds()) {
+            addEnrollment(course, studentId);
+        }
+        course.setManager(this);
+    }
+    
+    private void discard(Course course) {
+        List<String> studentIds = getEnrolledStudentIds(course);
+        course.setManager(null);
+        unindex(course);
+        BitSet studentKeys = enrollments.removeCourse(course.getKey());
+        for (int key = studentKeys.nextSetBit(0); key >= 0; key = studentKeys.nextSetBit(key + 1)) {
+            enrollmentVersions.merge(ids.students.idOf(key), 1L, Long::sum);
+            ids.students.release(key);
+        }
+        coursesById.remove(course.getId());
+        coursesByKey.remove(course.getKey());
+        ids.courses.release(course.getKey());
+        // Hand the enrollments back, so the course still has them when it is added again
+        for (String studentId : studentIds) {
+            course.enrollStudent(studentId);
+        }
+    }
+    
+    private static String key(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+    
+    private static Set<Course> bucket(Map<String, Set<Course>> index, String key) {
+        return index.computeIfAbsent(key, k -> new LinkedHashSet<>());
+    }
+    
+    private static void removeFrom(Map<String, Set<Course>> index, String key, Course course) {
+        Set<Course> courses = index.get(key);
+        if (courses != null && courses.remove(course) && courses.isEmpty()) {
+            index.remove(key);
+        }
+    }
+    
+    private static List<Course> copyOf(Set<Course> courses) {
+        return courses != null ? new ArrayList<>(courses) : new ArrayList<>();
+    }
+    
+    private void publish(ChangeEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+}
@@ -22,7 +22,20 @@ public class CourseModule {
      * @param description Description of the module content
      */
     public CourseModule(String courseId, String moduleName, int moduleNumber, String description) {
-        this.moduleId = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), courseId, moduleName, moduleNumber, description);
+    }
+    
+    /**
+     * Constructs a CourseModule with an existing ID, e.g. when loading saved data.
+     * 
+     * @param moduleId Unique ID of the module
+     * @param courseId ID of the course this module belongs to
+     * @param moduleName Name of the module
+     * @param moduleNumber Number of the module (1-9)
+     * @param description Description of the module content
+     */
+    public CourseModule(String moduleId, String courseId, String moduleName, int moduleNumber, String description) {
+        this.moduleId = moduleId;
         this.courseId = courseId;
         this.moduleName = moduleName;
         this.moduleNumber = moduleNumber;
@@ -0,0 +1,162 @@
+package com.example;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Storage for courses and enrollments. {@link CourseManager} keeps courses in
+ * memory; {@link JdbcCourseRepository} keeps them in an embedded database.
+ */
+public interface CourseRepository {
+
+    /**
+     * Sets the bus that receives a change event for every change made through this repository.
+     * 
+     * @param eventBus The event bus, or null to stop publishing changes
+     */
+    void setEventBus(ChangeEventBus eventBus);
+
+    /**
+     * Adds a new course.
+     * 
+     * @param course Course to add
+     * @throws IllegalArgumentException If a course with the same code already exists, ignoring case
+     */
+    void addCourse(Course course);
+
+    /**
+     * Retrieves a course by its unique ID.
+     * 
+     * @param courseId ID of the course to retrieve
+     * @return Course with the specified ID, or null if not found
+     */
+    Course getCourseById(String courseId);
+
+    /**
+     * Retrieves a course by its code, ignoring case.
+     * 
+     * @param code Code of the course to retrieve
+     * @return Course with the specified code, or null if not found
+     */
+    Course getCourseByCode(String code);
+
+    /**
+     * Gets a list of all courses. The list may be read-only.
+     * 
+     * @return List of all courses
+     */
+    List<Course> getAllCourses();
+
+    /**
+     * Updates an existing course.
+     * 
+     * @param courseId The ID of the course to update
+     * @param updatedCourse The updated course data
+     * @return true if the course was updated, false if the course was not found
+     * @throws IllegalArgumentException If another course already has the updated code, ignoring case
+     */
+    boolean updateCourse(String courseId, Course updatedCourse);
+
+    /**
+     * Removes a course.
+     * 
+     * @param courseId The ID of the course to remove
+     * @return true if the course was removed, false if the course was not found
+     */
+    boolean removeCourse(String courseId);
+
+    /**
+     * Gets the number of courses.
+     * 
+     * @return The number of courses
+     */
+    int getCourseCount();
+
+    /**
+     * Finds courses by name or code (case-insensitive partial match).
+     * Courses whose name or code starts with the search term come first.
+     * 
+     * @param searchTerm The search term to match against course names or codes
+     * @return List of courses that match the search term
+     */
+    List<Course> findCourses(String searchTerm);
+
+    /**
+     * Searches course names, codes and instructors for search-as-you-type lookups.
+     * Implementations may also match text a typo or two away from the query.
+     * 
+     * @param query The text typed so far
+     * @param limit The most courses to return
+     * @return The best matching courses, best first
+     */
+    List<Course> searchCourses(String query, int limit);
+
+    /**
+     * Gets all courses for a specific semester.
+     * 
+     * @param semester The semester to filter by
+     * @return List of courses offered in the specified semester
+     */
+    List<Course> getCoursesBySemester(String semester);
+
+    /**
+     * Gets all courses taught by a specific instructor.
+     * 
+     * @param instructor The instructor to filter by
+     * @return List of courses taught by the specified instructor
+     */
+    List<Course> getCoursesByInstructor(String instructor);
+
+    /**
+     * Gets all courses a student is enrolled in.
+     * 
+     * @param studentId The ID of the student
+     * @return List of courses the student is enrolled in
+     */
+    List<Course> getCoursesForStudent(String studentId);
+
+    /**
+     * Gets the IDs of the courses a student is enrolled in, without loading
+     * the courses themselves.
+     * 
+     * @param studentId The ID of the student
+     * @return Set of the course IDs
+     */
+    Set<String> getCourseIdsForStudent(String studentId);
+
+    /**
+     * Enrolls a student in a course, updating both the course and the student.
+     * 
+     * @param course The course to enroll in
+     * @param student The student to enroll
+     * @return true if the student was enrolled, false if already enrolled
+     */
+    boolean enrollStudent(Course course, Student student);
+
+    /**
+     * Removes a student from a course, updating both the course and the student.
+     * 
+     * @param course The course to leave
+     * @param student The student to remove
+     * @return true if the student was removed, false if not enrolled
+     */
+    boolean unenrollStudent(Course course, Student student);
+
+    /**
+     * Returns a counter that changes whenever a student's enrollments change.
+     * Used to tell when cached results are stale.
+     * 
+     * @param studentId The ID of the student
+     * @return Modification count for the student's enrollments
+     */
+    long getEnrollmentVersion(String studentId);
+
+    /**
+     * Returns a counter that changes whenever a course is added, removed or
+     * changed, including its credits. Used to tell when cached results that
+     * depend on course details are stale.
+     * 
+     * @return Modification count for the courses
+     */
+    long getCatalogVersion();
+}
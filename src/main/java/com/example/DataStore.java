@@ -0,0 +1,485 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.application.Platform;
+
+/**
+ * Keeps the managers' data on disk between runs.
+ *
+ * Every add, update and remove made through the managers is appended to a
+ * {@link WriteAheadLog}. After a number of records the full state is written
+ * to a {@link SnapshotFile} and the journal segments it covers are deleted, so
+ * startup only has to load the snapshot and replay the records that came after it.
+ *
+ * Students, courses and modules are loaded before {@link #open()} returns.
+ * Grades and due dates are decoded on a background thread and handed to the
+ * managers on the JavaFX thread; {@link #whenLoaded(Runnable)} runs code once
+ * that has happened.
+ */
+public class DataStore implements Journal {
+    private static final int SNAPSHOT_INTERVAL = 1000; // Minimum records between snapshots
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String TEXT_SNAPSHOT_FILE = "snapshot.dat"; // Version 1 format, read once to migrate
+    private static final String TEXT_SNAPSHOT_HEADER = "GRADETRACKER-SNAPSHOT";
+
+    private final Path directory;
+    private final StudentManager studentManager;
+    private final CourseManager courseManager;
+    private final ModuleManager moduleManager;
+    private final GradeManager gradeManager;
+    private final DueDateManager dueDateManager;
+
+    private WriteAheadLog log;
+    private int recordsSinceSnapshot;
+    private int entitiesInSnapshot; // Size of the last snapshot, which sets the next interval
+    private boolean loaded; // True once grades and due dates are in their managers
+    private final List<Runnable> loadListeners = new ArrayList<>();
+
+    /**
+     * Constructs a new DataStore for the given managers.
+     *
+     * @param directory Directory holding the snapshot and journal files
+     * @param studentManager The student manager
+     * @param courseManager The course manager
+     * @param moduleManager The module manager
+     * @param gradeManager The grade manager
+     * @param dueDateManager The due date manager
+     */
+    public DataStore(Path directory, StudentManager studentManager, CourseManager courseManager,
+                     ModuleManager moduleManager, GradeManager gradeManager, DueDateManager dueDateManager) {
+        this.directory = directory;
+        this.studentManager = studentManager;
+        this.courseManager = courseManager;
+        this.moduleManager = moduleManager;
+        this.gradeManager = gradeManager;
+        this.dueDateManager = dueDateManager;
+    }
+
+    /**
+     * Returns the default data directory, which can be overridden with the
+     * gradetracker.dataDir system property.
+     *
+     * @return The data directory
+     */
+    public static Path getDefaultDirectory() {
+        String configured = System.getProperty("gradetracker.dataDir");
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".gradetracker");
+    }
+
+    /**
+     * Loads the saved data into the managers and starts journaling their changes.
+     *
+     * @throws IOException if the data files cannot be read or the journal cannot be created
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+
+        SnapshotFile snapshot = null;
+        long lastLsn;
+        if (Files.exists(directory.resolve(SNAPSHOT_FILE))) {
+            snapshot = SnapshotFile.open(directory.resolve(SNAPSHOT_FILE));
+            for (Student student : snapshot.readStudents()) {
+                studentManager.addStudent(student);
+            }
+            for (Course course : snapshot.readCourses()) {
+                courseManager.restoreCourse(course);
+            }
+            for (CourseModule module : snapshot.readModules()) {
+                moduleManager.addModule(module);
+            }
+            for (DueDateSeries series : snapshot.readSeries()) {
+                dueDateManager.addSeries(series);
+            }
+            lastLsn = snapshot.getLsn();
+        } else {
+            lastLsn = loadTextSnapshot();
+        }
+
+        // Grade and due date records have to wait for the snapshot's grades and due dates
+        boolean deferBulk = snapshot != null && (snapshot.getGradeCount() > 0 || snapshot.getDueDateCount() > 0);
+        List<String[]> deferred = new ArrayList<>();
+        lastLsn = replayJournal(lastLsn, deferBulk ? deferred : null);
+
+        log = new WriteAheadLog(directory, lastLsn + 1);
+        studentManager.setJournal(this);
+        courseManager.setJournal(this);
+        moduleManager.setJournal(this);
+
+        if (deferBulk) {
+            loadBulkInBackground(snapshot, deferred);
+        } else {
+            finishLoading(new ArrayList<>(), new ArrayList<>(), deferred);
+        }
+    }
+
+    private void loadBulkInBackground(SnapshotFile snapshot, List<String[]> deferred) {
+        Thread loader = new Thread(() -> {
+            try {
+                List<Grades> grades = new ArrayList<>(snapshot.getGradeCount());
+                for (int row = 0; row < snapshot.getGradeCount(); row++) {
+                    grades.add(snapshot.readGrade(row));
+                }
+
+                List<DueDate> dueDates = new ArrayList<>(snapshot.getDueDateCount());
+                for (int row = 0; row < snapshot.getDueDateCount(); row++) {
+                    dueDates.add(snapshot.readDueDate(row));
+                }
+
+                Platform.runLater(() -> finishLoading(grades, dueDates, deferred));
+            } catch (RuntimeException e) {
+                // Leave loaded unset so a partial state is never written over the snapshot
+                System.out.println("Failed to load grades and due dates: " + e.getMessage());
+                Platform.runLater(() -> UIHelper.showAlert("Storage Error",
+                    "Saved grades and due dates could not be loaded; they will not be saved this session."));
+            }
+        }, "snapshot-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void finishLoading(List<Grades> grades, List<DueDate> dueDates, List<String[]> deferred) {
+        gradeManager.addGrades(grades);
+        dueDateManager.addDueDates(dueDates);
+        for (String[] fields : deferred) {
+            apply(fields);
+        }
+
+        gradeManager.setJournal(this);
+        dueDateManager.setJournal(this);
+        entitiesInSnapshot = studentManager.getStudentCount() + courseManager.getCourseCount()
+            + moduleManager.getAllModules().size() + gradeManager.getAllGrades().size() + dueDateManager.getDueDateCount()
+            + dueDateManager.getAllSeries().size();
+        loaded = true;
+
+        for (Runnable listener : loadListeners) {
+            listener.run();
+        }
+        loadListeners.clear();
+    }
+
+    /**
+     * Checks whether grades and due dates have finished loading.
+     *
+     * @return true if every manager holds its saved data
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Runs an action once grades and due dates have finished loading, or
+     * immediately if they already have. The action runs on the JavaFX thread.
+     *
+     * @param action The action to run
+     */
+    public void whenLoaded(Runnable action) {
+        if (loaded) {
+            action.run();
+        } else {
+            loadListeners.add(action);
+        }
+    }
+
+    /**
+     * Writes a final snapshot and closes the journal.
+     *
+     * @throws IOException if the final writes fail
+     */
+    public void close() throws IOException {
+        if (log == null) {
+            return;
+        }
+
+        attach(null);
+        if (loaded) {
+            checkpoint();
+        }
+        log.close();
+        log = null;
+    }
+
+    @Override
+    public void recordSaved(Object entity) {
+        append(RecordCodec.encodePut(entity));
+    }
+
+    @Override
+    public void recordAllSaved(List<?> entities) {
+        List<String> records = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            records.add(RecordCodec.encodePut(entity));
+        }
+        log.append(records);
+        checkSnapshot(records.size());
+    }
+
+    @Override
+    public void recordRemoved(Object entity) {
+        append(RecordCodec.encodeDelete(entity));
+    }
+
+    private void append(String record) {
+        log.append(record);
+        checkSnapshot(1);
+    }
+
+    private void checkSnapshot(int appended) {
+        // Let the journal grow as large as the snapshot before writing another, so bulk
+        // changes cost a bounded number of snapshots rather than one per thousand records
+        recordsSinceSnapshot += appended;
+        if (recordsSinceSnapshot >= Math.max(SNAPSHOT_INTERVAL, entitiesInSnapshot)) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Writes the current state to a new snapshot and deletes the journal
+     * segments it replaces. The state is encoded on the calling thread; the
+     * files are written on the journal's writer thread. Does nothing until
+     * grades and due dates have finished loading.
+     */
+    public void checkpoint() {
+        if (!loaded) {
+            return;
+        }
+
+        long snapshotLsn = log.getLastLsn();
+        List<Student> students = studentManager.getAllStudents();
+        List<Course> courses = courseManager.getAllCourses();
+        List<CourseModule> modules = moduleManager.getAllModules();
+        List<Grades> grades = gradeManager.getAllGrades();
+        List<DueDate> dueDates = dueDateManager.getAllDueDates();
+        List<DueDateSeries> series = dueDateManager.getAllSeries();
+        byte[] snapshot = SnapshotFile.encode(snapshotLsn, students, courses, modules, grades, dueDates, series);
+        long newSegmentStart = log.rotate();
+        recordsSinceSnapshot = 0;
+        entitiesInSnapshot = students.size() + courses.size() + modules.size() + grades.size() + dueDates.size()
+            + series.size();
+
+        log.submit(() -> {
+            try {
+                writeSnapshot(snapshot);
+                deleteSegmentsBefore(newSegmentStart);
+                Files.deleteIfExists(directory.resolve(TEXT_SNAPSHOT_FILE));
+            } catch (IOException e) {
+                System.out.println("Snapshot failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void attach(Journal journal) {
+        studentManager.setJournal(journal);
+        courseManager.setJournal(journal);
+        moduleManager.setJournal(journal);
+        gradeManager.setJournal(journal);
+        dueDateManager.setJournal(journal);
+    }
+
+    private void writeSnapshot(byte[] snapshot) throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap(snapshot);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        syncDirectory();
+
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // The rename must be durable before the journal segments it replaces are deleted
+        syncDirectory();
+    }
+
+    /**
+     * Flushes the directory's entries to disk, so files created, renamed or
+     * replaced in it survive a crash.
+     */
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows cannot open a directory, and its file system commits renames without this
+        }
+    }
+
+    private void deleteSegmentsBefore(long firstKeptLsn) throws IOException {
+        for (Path segment : WriteAheadLog.listSegments(directory)) {
+            if (WriteAheadLog.segmentStart(segment) < firstKeptLsn) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    /**
+     * Loads a text snapshot written by an earlier version, if there is one.
+     * It is deleted once the first binary snapshot has been written.
+     *
+     * @return The LSN of the last record included in the snapshot, or 0 if there is none
+     */
+    private long loadTextSnapshot() throws IOException {
+        Path snapshot = directory.resolve(TEXT_SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return 0;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+            String[] header = RecordCodec.split(reader.readLine());
+            if (header.length < 3 || !TEXT_SNAPSHOT_HEADER.equals(header[0])
+                    || Integer.parseInt(header[1]) != 1) {
+                throw new IOException("Unrecognized snapshot file: " + snapshot);
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                apply(RecordCodec.split(line));
+            }
+
+            return Long.parseLong(header[2]);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IOException("Corrupt snapshot file: " + snapshot, e);
+        }
+    }
+
+    /**
+     * Replays journal records written after the snapshot.
+     *
+     * @param snapshotLsn LSN of the last record included in the snapshot
+     * @param deferred If not null, grade and due date records are added here instead of applied
+     * @return The LSN of the last record read
+     * @throws IOException if a segment cannot be read or holds an intact record that cannot be decoded
+     */
+    private long replayJournal(long snapshotLsn, List<String[]> deferred) throws IOException {
+        long lastLsn = snapshotLsn;
+
+        for (Path segment : WriteAheadLog.listSegments(directory)) {
+            try (WriteAheadLog.SegmentReader reader = new WriteAheadLog.SegmentReader(segment)) {
+                WriteAheadLog.Record record;
+                while ((record = reader.next()) != null) {
+                    if (record.getLsn() <= lastLsn) {
+                        continue;
+                    }
+
+                    // The record is intact, so a record that cannot be decoded is corrupt, not torn
+                    String[] fields;
+                    Object entity = null; // Decoded entity of a PUT record
+                    try {
+                        fields = RecordCodec.split(record.getText());
+                        if (RecordCodec.PUT.equals(fields[0])) {
+                            entity = RecordCodec.decodeEntity(fields);
+                        } else if (!RecordCodec.DEL.equals(fields[0]) || fields.length < 3) {
+                            throw new IllegalArgumentException("Unknown record: " + record.getText());
+                        }
+                    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                        throw new IOException("Corrupt journal record " + record.getLsn() + " in " + segment.getFileName(), e);
+                    }
+
+                    // Errors from the managers are not corruption, so they are not caught here
+                    if (deferred != null && isBulkRecord(fields)) {
+                        deferred.add(fields);
+                    } else if (entity != null) {
+                        put(entity);
+                    } else {
+                        delete(fields[1], fields[2]);
+                    }
+                    lastLsn = record.getLsn();
+                }
+                if (reader.isTorn()) {
+                    // A torn write at the end of a segment; nothing after it was committed
+                    System.out.println("Skipping incomplete journal record in " + segment.getFileName());
+                }
+            }
+        }
+
+        return lastLsn;
+    }
+
+    private static boolean isBulkRecord(String[] fields) {
+        // PUT and DEL records both carry the type tag second
+        return RecordCodec.GRADE.equals(fields[1]) || RecordCodec.DUE_DATE.equals(fields[1]);
+    }
+
+    private void apply(String[] fields) {
+        if (RecordCodec.PUT.equals(fields[0])) {
+            put(RecordCodec.decodeEntity(fields));
+        } else if (RecordCodec.DEL.equals(fields[0])) {
+            delete(fields[1], fields[2]);
+        } else {
+            throw new IllegalArgumentException("Unknown record operation: " + fields[0]);
+        }
+    }
+
+    private void put(Object entity) {
+        if (entity instanceof Student) {
+            Student student = (Student) entity;
+            if (!studentManager.updateStudent(student.getStudentId(), student)) {
+                studentManager.addStudent(student);
+            }
+        } else if (entity instanceof Course) {
+            courseManager.restoreCourse((Course) entity);
+        } else if (entity instanceof CourseModule) {
+            CourseModule module = (CourseModule) entity;
+            if (!moduleManager.updateModule(module.getModuleId(), module)) {
+                moduleManager.addModule(module);
+            }
+        } else if (entity instanceof Grades) {
+            Grades grade = (Grades) entity;
+            if (!gradeManager.updateGrade(grade.getGradeId(), grade)) {
+                gradeManager.addGrade(grade);
+            }
+        } else if (entity instanceof DueDate) {
+            DueDate dueDate = (DueDate) entity;
+            if (!dueDateManager.updateDueDate(dueDate.getDueDateId(), dueDate)) {
+                dueDateManager.addDueDate(dueDate);
+            }
+        } else if (entity instanceof DueDateSeries) {
+            DueDateSeries series = (DueDateSeries) entity;
+            if (!dueDateManager.updateSeries(series.getSeriesId(), series)) {
+                dueDateManager.addSeries(series);
+            }
+        }
+    }
+
+    private void delete(String type, String id) {
+        switch (type) {
+            case RecordCodec.STUDENT:
+                studentManager.removeStudent(Integer.parseInt(id));
+                break;
+            case RecordCodec.COURSE:
+                courseManager.removeCourse(id);
+                break;
+            case RecordCodec.MODULE:
+                moduleManager.removeModule(id);
+                break;
+            case RecordCodec.GRADE:
+                gradeManager.removeGrade(id);
+                break;
+            case RecordCodec.DUE_DATE:
+                dueDateManager.removeDueDate(id);
+                break;
+            case RecordCodec.SERIES:
+                dueDateManager.removeSeries(id);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown record type: " + type);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Counts of due dates per day, kept by {@link DueDateManager} and updated
+ * one due date at a time.
+ *
+ * Counts live in blocks of 64 consecutive days, kept in date order, and a
+ * block is only allocated while one of its days has a due date. A stray date
+ * centuries away from the rest therefore costs one more block rather than an
+ * array spanning every day in between. The last snapshot is kept and handed
+ * out again until the counts change.
+ */
+class DayHistogram {
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_DAYS = 1 << BLOCK_SHIFT;
+
+    // By epoch day >> BLOCK_SHIFT; each block holds the count of each of its days, then their total
+    private final NavigableMap<Long, int[]> blocks = new TreeMap<>();
+    private int total;
+    private Workload snapshot; // Counts as of the last snapshot, or null after a change
+
+    /**
+     * Adds to the count of a day.
+     *
+     * @param date The day
+     * @param delta 1 when a due date arrives on the day, -1 when one leaves it
+     */
+    void add(LocalDate date, int delta) {
+        long day = date.toEpochDay();
+        long blockIndex = day >> BLOCK_SHIFT;
+        int[] block = blocks.computeIfAbsent(blockIndex, k -> new int[BLOCK_DAYS + 1]);
+        block[(int) (day & (BLOCK_DAYS - 1))] += delta;
+        block[BLOCK_DAYS] += delta;
+        if (block[BLOCK_DAYS] == 0) {
+            blocks.remove(blockIndex);
+        }
+        total += delta;
+        snapshot = null;
+    }
+
+    /**
+     * Tells whether every count is zero.
+     *
+     * @return true if no due dates are counted
+     */
+    boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * Takes a snapshot of the counts.
+     *
+     * @return The counts as of now
+     */
+    Workload snapshot() {
+        if (snapshot == null) {
+            snapshot = toWorkload(blocks);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Adds several histograms together.
+     *
+     * @param histograms The histograms to add; null entries are skipped
+     * @return The combined counts
+     */
+    static Workload sum(Iterable<DayHistogram> histograms) {
+        NavigableMap<Long, int[]> combined = new TreeMap<>();
+        for (DayHistogram histogram : histograms) {
+            if (histogram == null) {
+                continue;
+            }
+            for (Map.Entry<Long, int[]> entry : histogram.blocks.entrySet()) {
+                int[] sums = combined.computeIfAbsent(entry.getKey(), k -> new int[BLOCK_DAYS + 1]);
+                int[] block = entry.getValue();
+                for (int i = 0; i <= BLOCK_DAYS; i++) {
+                    sums[i] += block[i];
+                }
+            }
+        }
+        return toWorkload(combined);
+    }
+
+    /**
+     * Lists the days of some blocks that have due dates, with prefix sums over their counts.
+     */
+    private static Workload toWorkload(NavigableMap<Long, int[]> blocks) {
+        if (blocks.isEmpty()) {
+            return Workload.EMPTY;
+        }
+
+        long[] days = new long[blocks.size() * BLOCK_DAYS];
+        int[] prefixSums = new int[days.length + 1];
+        int size = 0;
+        for (Map.Entry<Long, int[]> entry : blocks.entrySet()) {
+            long firstDay = entry.getKey() << BLOCK_SHIFT;
+            int[] block = entry.getValue();
+            for (int i = 0; i < BLOCK_DAYS; i++) {
+                if (block[i] != 0) {
+                    days[size] = firstDay + i;
+                    prefixSums[size + 1] = prefixSums[size] + block[i];
+                    size++;
+                }
+            }
+        }
+        return new Workload(Arrays.copyOf(days, size), Arrays.copyOf(prefixSums, size + 1));
+    }
+}
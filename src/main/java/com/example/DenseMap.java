@@ -0,0 +1,83 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * A map from the dense keys given out by {@link IdTable} to values, stored as
+ * an array indexed by key. Lookups are a bounds check and an array read.
+ *
+ * The array grows to the largest key put in the map, so this suits indexes
+ * that hold most of the keys of their kind, such as grades by course. Indexes
+ * that hold only a few keys each, like the courses of one student, use
+ * {@link IntObjectHashMap} instead.
+ *
+ * Null values are not allowed, since null marks a missing key. The map is not
+ * thread safe.
+ *
+ * @param <V> The type of the values
+ */
+class DenseMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private Object[] values;
+
+    /**
+     * Creates an empty map.
+     */
+    DenseMap() {
+        this.values = new Object[MIN_CAPACITY];
+    }
+
+    /**
+     * Gets the value for a key.
+     *
+     * @param key The key; negative keys are never in the map
+     * @return The value, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        return key >= 0 && key < values.length ? (V) values[key] : null;
+    }
+
+    /**
+     * Sets the value for a key.
+     *
+     * @param key The key, at least 0
+     * @param value The value, not null
+     */
+    void put(int key, V value) {
+        if (key >= values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, key + 1));
+        }
+        values[key] = value;
+    }
+
+    /**
+     * Gets the value for a key, adding one made by the given function if the
+     * key is not in the map yet.
+     *
+     * @param key The key, at least 0
+     * @param factory Makes the value for a new key
+     * @return The value
+     */
+    V computeIfAbsent(int key, IntFunction<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes a key and its value.
+     *
+     * @param key The key
+     */
+    void remove(int key) {
+        if (key >= 0 && key < values.length) {
+            values[key] = null;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 import javafx.collections.*;
 
@@ -9,6 +10,18 @@ import javafx.collections.*;
  * Represents a due date for an assignment in the grade tracking application.
  */
 public class DueDate implements Comparable<DueDate> {
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    
+    /**
+     * The earliest date an imported due date may fall on.
+     */
+    public static final LocalDate EARLIEST_DATE = LocalDate.of(1900, 1, 1);
+    
+    /**
+     * The latest date an imported due date may fall on.
+     */
+    public static final LocalDate LATEST_DATE = LocalDate.of(2199, 12, 31);
+    
     private final String dueDateId;
     private String courseId;
     private String courseName; // For easier display
@@ -19,6 +32,12 @@ public class DueDate implements Comparable<DueDate> {
     private LocalDate dueDate;
     private boolean completed;
     private String priority; // "High", "Medium", "Low"
+    private DueDateManager manager; // Manager that indexes this due date, if any
+    private int courseKey; // IdTable keys of the course and module IDs, set by the manager while it indexes this due date
+    private int moduleKey;
+    private DueDateStatus status; // Cached status, valid on statusDay
+    private LocalDate statusDay;
+    private String dueDateFormatted; // Cached display text, cleared when the date changes
     
     /**
      * Constructs a new DueDate with the given details.
@@ -32,7 +51,23 @@ public class DueDate implements Comparable<DueDate> {
      */
     public DueDate(String courseId, String courseName, String assignmentName, String description, 
                   LocalDate dueDate, String priority) {
-        this.dueDateId = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), courseId, courseName, assignmentName, description, dueDate, priority);
+    }
+    
+    /**
+     * Constructs a DueDate with an existing ID, e.g. when loading saved data.
+     * 
+     * @param dueDateId The unique ID of this due date
+     * @param courseId The ID of the associated course
+     * @param courseName The name of the associated course
+     * @param assignmentName The name of the assignment
+     * @param description A description of the assignment
+     * @param dueDate The date the assignment is due
+     * @param priority The priority level of the assignment
+     */
+    public DueDate(String dueDateId, String courseId, String courseName, String assignmentName, String description, 
+                  LocalDate dueDate, String priority) {
+        this.dueDateId = dueDateId;
         this.courseId = courseId;
         this.courseName = courseName;
         this.assignmentName = assignmentName;
@@ -53,6 +88,15 @@ public class DueDate implements Comparable<DueDate> {
         return dueDateId;
     }
     
+    /**
+     * Gets the series this due date is an occurrence of.
+     * 
+     * @return Series ID, or null if the due date does not repeat
+     */
+    public String getSeriesId() {
+        return DueDateSeries.seriesIdOf(dueDateId);
+    }
+    
     /**
      * Gets the ID of the associated course.
      * 
@@ -68,7 +112,13 @@ public class DueDate implements Comparable<DueDate> {
      * @param courseId New course ID
      */
     public void setCourseId(String courseId) {
+        if (manager != null) {
+            manager.unindex(this);
+        }
         this.courseId = courseId;
+        if (manager != null) {
+            manager.index(this);
+        }
     }
     
     /**
@@ -104,7 +154,13 @@ public class DueDate implements Comparable<DueDate> {
      * @param moduleId New module ID
      */
     public void setModuleId(String moduleId) {
+        if (manager != null) {
+            manager.unindex(this);
+        }
         this.moduleId = moduleId;
+        if (manager != null) {
+            manager.index(this);
+        }
     }
     
     /**
@@ -140,7 +196,13 @@ public class DueDate implements Comparable<DueDate> {
      * @param assignmentName New assignment name
      */
     public void setAssignmentName(String assignmentName) {
+        if (manager != null) {
+            manager.unindex(this);
+        }
         this.assignmentName = assignmentName;
+        if (manager != null) {
+            manager.index(this);
+        }
     }
     
     /**
@@ -176,8 +238,10 @@ public class DueDate implements Comparable<DueDate> {
      * @return Formatted due date string
      */
     public String getDueDateFormatted() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
-        return dueDate.format(formatter);
+        if (dueDateFormatted == null) {
+            dueDateFormatted = dueDate.format(DISPLAY_FORMAT);
+        }
+        return dueDateFormatted;
     }
     
     /**
@@ -186,7 +250,15 @@ public class DueDate implements Comparable<DueDate> {
      * @param dueDate New due date
      */
     public void setDueDate(LocalDate dueDate) {
+        if (manager != null) {
+            manager.unindex(this);
+        }
         this.dueDate = dueDate;
+        this.status = null;
+        this.dueDateFormatted = null;
+        if (manager != null) {
+            manager.index(this);
+        }
     }
     
     /**
@@ -204,7 +276,14 @@ public class DueDate implements Comparable<DueDate> {
      * @param completed New completed status
      */
     public void setCompleted(boolean completed) {
+        if (manager != null) {
+            manager.unindex(this);
+        }
         this.completed = completed;
+        this.status = null;
+        if (manager != null) {
+            manager.index(this);
+        }
     }
     
     /**
@@ -222,59 +301,113 @@ public class DueDate implements Comparable<DueDate> {
      * @param priority New priority level
      */
     public void setPriority(String priority) {
+        if (manager != null) {
+            manager.unindex(this);
+        }
         this.priority = priority;
+        if (manager != null) {
+            manager.index(this);
+        }
+    }
+    
+    /**
+     * Sets the manager that indexes this due date. Changes to the fields it
+     * indexes are passed on to it so its indexes stay current.
+     * 
+     * @param manager The manager, or null when the due date is not managed
+     */
+    void setManager(DueDateManager manager) {
+        this.manager = manager;
+    }
+    
+    /**
+     * Sets the {@link IdTable} keys of the course and module IDs.
+     * Called by DueDateManager when it indexes this due date.
+     * 
+     * @param courseKey Course key
+     * @param moduleKey Module key
+     */
+    void setKeys(int courseKey, int moduleKey) {
+        this.courseKey = courseKey;
+        this.moduleKey = moduleKey;
+    }
+    
+    /**
+     * Gets the {@link IdTable} key of the course ID, which DueDateManager indexes by.
+     * 
+     * @return Course key
+     */
+    int getCourseKey() {
+        return courseKey;
+    }
+    
+    /**
+     * Gets the {@link IdTable} key of the module ID, which DueDateManager indexes by.
+     * 
+     * @return Module key
+     */
+    int getModuleKey() {
+        return moduleKey;
+    }
+    
+    /**
+     * Checks that a date read from a file is a plausible due date, so a typo
+     * such as year 0001 or 9999 is reported instead of stored.
+     * 
+     * @param date The date
+     * @return The date
+     * @throws IllegalArgumentException If the date is before {@link #EARLIEST_DATE} or after {@link #LATEST_DATE}
+     */
+    public static LocalDate checkDate(LocalDate date) {
+        if (date.isBefore(EARLIEST_DATE) || date.isAfter(LATEST_DATE)) {
+            throw new IllegalArgumentException("Date " + date + " is not between " + EARLIEST_DATE + " and " + LATEST_DATE);
+        }
+        return date;
     }
     
     /**
-     * Calculates the days remaining until the due date.
+     * Calculates the days remaining until the due date from a given day.
      * 
+     * @param today The day to count from
      * @return Number of days remaining (negative if past due)
      */
-    public long getDaysRemaining() {
-        return LocalDate.now().until(dueDate).getDays();
+    public long getDaysRemaining(LocalDate today) {
+        return ChronoUnit.DAYS.between(today, dueDate);
+    }
+    
+    /**
+     * Gets the status of the due date on a given day. The status is cached and
+     * only worked out again after the date, the completion or the day changes.
+     * 
+     * @param today The day to work the status out for
+     * @return The status on that day
+     */
+    public synchronized DueDateStatus getDueDateStatus(LocalDate today) {
+        if (status == null || !today.equals(statusDay)) {
+            status = DueDateStatus.of(dueDate, completed, today);
+            statusDay = today;
+        }
+        return status;
     }
     
     /**
      * Determines the status of the due date (Upcoming, Due Soon, Overdue, Completed).
      * 
+     * @param today The day to work the status out for
      * @return Status string
      */
-    public String getStatus() {
-        if (completed) {
-            return "Completed";
-        }
-        
-        long daysRemaining = getDaysRemaining();
-        
-        if (daysRemaining < 0) {
-            return "Overdue";
-        } else if (daysRemaining <= 3) {
-            return "Due Soon";
-        } else {
-            return "Upcoming";
-        }
+    public String getStatus(LocalDate today) {
+        return getDueDateStatus(today).getLabel();
     }
     
     /**
      * Gets the appropriate color for the due date based on its status.
      * 
+     * @param today The day to work the status out for
      * @return CSS color string
      */
-    public String getStatusColor() {
-        String status = getStatus();
-        
-        switch (status) {
-            case "Completed":
-                return "#28a745"; // Green
-            case "Overdue":
-                return "#dc3545"; // Red
-            case "Due Soon":
-                return "#ffc107"; // Yellow
-            case "Upcoming":
-                return "#17a2b8"; // Blue
-            default:
-                return "#6c757d"; // Gray
-        }
+    public String getStatusColor(LocalDate today) {
+        return getDueDateStatus(today).getColor();
     }
     
     @Override
@@ -286,6 +419,6 @@ public class DueDate implements Comparable<DueDate> {
     @Override
     public String toString() {
         String moduleInfo = moduleName != null && !moduleName.isEmpty() ? " [" + moduleName + "]" : "";
-        return getStatus() + ": " + assignmentName + moduleInfo + " (" + courseName + ") - " + getDueDateFormatted();
+        return assignmentName + moduleInfo + " (" + courseName + ") - " + getDueDateFormatted();
     }
 }
\ No newline at end of file
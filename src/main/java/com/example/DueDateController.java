@@ -1,7 +1,10 @@
 package com.example;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.css.PseudoClass;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -10,28 +13,49 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import javafx.util.Callback;
+import javafx.stage.FileChooser;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller for the due dates view.
  */
 public class DueDateController {
-    private DueDateManager dueDateManager;
-    private CourseManager courseManager;
-    private GradeManager gradeManager;
-    private ModuleManager moduleManager; // Added module manager
+    private static final String REFRESH_KEY = "dueDates";
+    private static final String CALENDAR_KEY = "calendar";
+    private static final String CALENDAR_PREFETCH_KEY = "calendarPrefetch";
+    private static final String WORKLOAD_KEY = "workload";
+    private static final int CACHED_MONTHS = 12;
+    private static final int WORKLOAD_WEEKS = 12;
+    private static final int WORKLOAD_LEVELS = 4; // Shades above :level-0 for the busiest days
+    private static final DateTimeFormatter WEEK_FORMAT = DateTimeFormatter.ofPattern("MMM d");
+    private static final PseudoClass[] WORKLOAD_LEVEL_PSEUDO_CLASSES = workloadLevelPseudoClasses(); // :level-0 upwards
+    private static final DateTimeFormatter MONTH_TITLE_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy");
+    
+    private DueDateRepository dueDateManager;
+    private CourseRepository courseManager;
+    private GradeRepository gradeManager;
+    private ModuleRepository moduleManager; // Added module manager
     private CourseController courseController;
     private StudentSignupController studentSignupController;
     private GradeController gradeController; // NEW: Direct reference to grade controller
     private DueDateDialogHelper dialogHelper;
+    private ViewRefreshService refreshService;
+    private DueDateStatusEngine statusEngine; // Decides the current day, or null to use the system date
+    private boolean changedDuringRefresh; // A change arrived while a background refresh was running
     
     private BorderPane dueDatesPane;
     private TabPane viewTabPane;
@@ -40,9 +64,21 @@ public class DueDateController {
     private GridPane calendarGridPane;
     private ComboBox<String> filterComboBox;
     private ComboBox<Course> courseFilterComboBox;
+    private Set<String> filterCourseIds = new HashSet<>(); // IDs of the courses in the course filter
     
     private YearMonth currentYearMonth;
     private Label calendarTitleLabel;
+    private final CalendarDayCell[] calendarCells = new CalendarDayCell[6 * 7]; // Six weeks covers any month
+    private final Map<YearMonth, Map<Integer, List<DueDate>>> calendarMonths = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<YearMonth, Map<Integer, List<DueDate>>> eldest) {
+            return size() > CACHED_MONTHS; // Keep the most recently shown months
+        }
+    };
+    private int calendarGeneration; // Bumped whenever the cached months go stale
+    private final Label[] workloadCells = new Label[WORKLOAD_WEEKS * 7];
+    private final Label[] workloadWeekLabels = new Label[WORKLOAD_WEEKS];
+    private Label workloadSummaryLabel;
     
     // Reference to the current student
     private Student currentStudent = null;
@@ -63,12 +99,13 @@ public class DueDateController {
      * @param courseManager The course manager
      * @param moduleManager The module manager
      */
-    public DueDateController(DueDateManager dueDateManager, CourseManager courseManager, ModuleManager moduleManager) {
+    public DueDateController(DueDateRepository dueDateManager, CourseRepository courseManager, ModuleRepository moduleManager) {
         this.dueDateManager = dueDateManager;
         this.courseManager = courseManager;
         this.moduleManager = moduleManager;
         this.dueDatesObservableList = FXCollections.observableArrayList();
         this.currentYearMonth = YearMonth.now();
+        this.refreshService = new ViewRefreshService();
         
         // Initialize dialog helper
         this.dialogHelper = new DueDateDialogHelper(dueDateManager, null, this);
@@ -81,10 +118,50 @@ public class DueDateController {
      * @param dueDateManager The due date manager
      * @param courseManager The course manager
      */
-    public DueDateController(DueDateManager dueDateManager, CourseManager courseManager) {
+    public DueDateController(DueDateRepository dueDateManager, CourseRepository courseManager) {
         this(dueDateManager, courseManager, new ModuleManager());
     }
     
+    /**
+     * Sets the service that recalculates the view in the background.
+     * 
+     * @param refreshService The refresh service
+     */
+    public void setRefreshService(ViewRefreshService refreshService) {
+        this.refreshService = refreshService;
+    }
+    
+    /**
+     * Sets the engine whose current day statuses, the calendar's today and
+     * the workload heatmap are worked out for.
+     * 
+     * @param statusEngine The status engine
+     */
+    public void setStatusEngine(DueDateStatusEngine statusEngine) {
+        this.statusEngine = statusEngine;
+        this.currentYearMonth = YearMonth.from(statusEngine.getToday());
+    }
+    
+    /**
+     * Gets the day statuses are shown for: the status engine's current day,
+     * or the system date if no engine has been set.
+     * 
+     * @return The current day
+     */
+    LocalDate getToday() {
+        return statusEngine != null ? statusEngine.getToday() : LocalDate.now();
+    }
+    
+    /**
+     * Subscribes this controller to repository changes, so edited due dates
+     * are updated in place instead of reloading the whole list.
+     * 
+     * @param eventBus The bus the repositories publish their changes to
+     */
+    public void setEventBus(ChangeEventBus eventBus) {
+        eventBus.subscribe(this::handleChange);
+    }
+    
     /**
      * Sets the reference to the course controller.
      * 
@@ -122,7 +199,7 @@ public class DueDateController {
      * 
      * @param gradeManager The grade manager
      */
-    public void setGradeManager(GradeManager gradeManager) {
+    public void setGradeManager(GradeRepository gradeManager) {
         this.gradeManager = gradeManager;
         
         // Update the dialog helper
@@ -142,7 +219,7 @@ public class DueDateController {
      * 
      * @return The module manager
      */
-    public ModuleManager getModuleManager() {
+    public ModuleRepository getModuleManager() {
         return moduleManager;
     }
     
@@ -207,6 +284,12 @@ public class DueDateController {
                     refreshAllModules();
                 });
                 
+                Button importButton = new Button("Import .ics");
+                importButton.setOnAction(e -> importCalendar(importButton));
+                
+                Button exportButton = new Button("Export .ics");
+                exportButton.setOnAction(e -> exportCalendar(exportButton));
+                
                 // Add "All Courses" option
                 Label allCoursesLabel = new Label("All Courses");
                 allCoursesLabel.setOnMouseClicked(e -> {
@@ -214,14 +297,13 @@ public class DueDateController {
                     refreshDueDatesView();
                 });
                 
-                // Update the course filter
-                updateCourseFilter();
-                
                 // Add controls to box
                 controlsBox.getChildren().clear();
                 controlsBox.getChildren().addAll(
                     addDueDateButton, 
                     refreshButton,
+                    importButton,
+                    exportButton,
                     filterLabel, 
                     filterComboBox,
                     courseFilterLabel,
@@ -256,6 +338,107 @@ public class DueDateController {
         }
     }
     
+    /**
+     * Imports due dates from an iCalendar file chosen by the user. The file is
+     * read on a background thread and each batch is added on the JavaFX thread;
+     * the reader waits for each batch to be added before reading the next.
+     * Events that name no known course go to the course selected in the filter.
+     * 
+     * @param importButton Button to disable while the import runs
+     */
+    private void importCalendar(Button importButton) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Due Dates");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("iCalendar files", "*.ics"));
+        File file = chooser.showOpenDialog(dueDatesPane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        
+        IcsImporter importer = new IcsImporter(courseManager, moduleManager, dueDateManager,
+            courseFilterComboBox != null ? courseFilterComboBox.getValue() : null);
+        Task<IcsImporter.ImportResult> importTask = new Task<>() {
+            @Override
+            protected IcsImporter.ImportResult call() throws Exception {
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    return importer.importCalendar(reader, Platform::runLater);
+                }
+            }
+        };
+        
+        // Runs after the last batch has been stored
+        importTask.setOnSucceeded(e -> {
+            importButton.setDisable(false);
+            IcsImporter.ImportResult result = importTask.getValue();
+            
+            StringBuilder message = new StringBuilder();
+            message.append("Imported ").append(result.getImported()).append(" due dates");
+            message.append(" and ").append(result.getSeriesImported()).append(" repeating due dates.");
+            if (result.getSkipped() > 0) {
+                message.append("\n").append(result.getSkipped()).append(" events were already present and skipped.");
+            }
+            if (result.getErrorCount() > 0) {
+                message.append("\n").append(result.getErrorCount()).append(" events could not be imported:");
+                for (String error : result.getErrors().subList(0, Math.min(10, result.getErrors().size()))) {
+                    message.append("\n").append(error);
+                }
+            }
+            UIHelper.showAlert("Import Complete", message.toString());
+        });
+        importTask.setOnFailed(e -> {
+            importButton.setDisable(false);
+            UIHelper.showAlert("Import Failed", "Could not read " + file.getName() + ": " + importTask.getException().getMessage());
+        });
+        
+        importButton.setDisable(true);
+        Thread importThread = new Thread(importTask, "ics-import");
+        importThread.setDaemon(true);
+        importThread.start();
+    }
+    
+    /**
+     * Exports the current student's due dates, or those of the course selected
+     * in the filter, to an iCalendar file chosen by the user. The file is
+     * written on a background thread; data is read on the JavaFX thread.
+     * 
+     * @param exportButton Button to disable while the export runs
+     */
+    private void exportCalendar(Button exportButton) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Due Dates");
+        chooser.setInitialFileName("due-dates.ics");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("iCalendar files", "*.ics"));
+        File file = chooser.showSaveDialog(dueDatesPane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        
+        Course selectedCourse = courseFilterComboBox != null ? courseFilterComboBox.getValue() : null;
+        String studentId = currentStudent != null ? String.valueOf(currentStudent.getStudentId()) : null;
+        String courseId = selectedCourse != null ? selectedCourse.getId() : null;
+        IcsExporter exporter = new IcsExporter(courseManager, dueDateManager, Platform::runLater);
+        Task<Integer> exportTask = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                return exporter.exportCalendar(file.toPath(), studentId, courseId);
+            }
+        };
+        
+        exportTask.setOnSucceeded(e -> {
+            exportButton.setDisable(false);
+            UIHelper.showAlert("Export Complete", "Wrote " + exportTask.getValue() + " events to " + file.getName() + ".");
+        });
+        exportTask.setOnFailed(e -> {
+            exportButton.setDisable(false);
+            UIHelper.showAlert("Export Failed", "Could not write " + file.getName() + ": " + exportTask.getException().getMessage());
+        });
+        
+        exportButton.setDisable(true);
+        Thread exportThread = new Thread(exportTask, "ics-export");
+        exportThread.setDaemon(true);
+        exportThread.start();
+    }
+    
     /**
      * Refreshes module data for all courses.
      */
@@ -309,20 +492,6 @@ public class DueDateController {
             setCurrentStudent(currentStudent);
         }
         
-        // Set up a periodic refresh task to update status colors
-        javafx.animation.Timeline timeline = new javafx.animation.Timeline(
-            new javafx.animation.KeyFrame(
-                javafx.util.Duration.seconds(30), // Refresh every 30 seconds
-                event -> {
-                    if (currentStudent != null) {
-                        refreshDueDatesView();
-                    }
-                }
-            )
-        );
-        timeline.setCycleCount(javafx.animation.Animation.INDEFINITE);
-        timeline.play();
-        
         return dueDatesPane;
     }
     
@@ -341,7 +510,7 @@ public class DueDateController {
         if (dueDatesListView == null) {
             dueDatesObservableList = FXCollections.observableArrayList();
             dueDatesListView = new ListView<>(dueDatesObservableList);
-            dueDatesListView.setCellFactory(createDueDateCellFactory());
+            dueDatesListView.setCellFactory(listView -> new DueDateListCell(this::setCompleted, this::getToday));
             
             // Context menu for list items
             ContextMenu contextMenu = new ContextMenu();
@@ -349,14 +518,7 @@ public class DueDateController {
             markCompleteItem.setOnAction(e -> {
                 DueDate selectedDueDate = dueDatesListView.getSelectionModel().getSelectedItem();
                 if (selectedDueDate != null) {
-                    selectedDueDate.setCompleted(!selectedDueDate.isCompleted());
-                    
-                    // If marking as complete, prompt for grade
-                    if (selectedDueDate.isCompleted()) {
-                        dialogHelper.promptForGradeEntry(selectedDueDate);
-                    }
-                    
-                    refreshDueDatesView();
+                    setCompleted(selectedDueDate, !selectedDueDate.isCompleted());
                 }
             });
             
@@ -373,11 +535,23 @@ public class DueDateController {
                 DueDate selectedDueDate = dueDatesListView.getSelectionModel().getSelectedItem();
                 if (selectedDueDate != null) {
                     dueDateManager.removeDueDate(selectedDueDate.getDueDateId());
-                    refreshDueDatesView();
                 }
             });
             
-            contextMenu.getItems().addAll(markCompleteItem, editItem, deleteItem);
+            // Removes every occurrence of a repeating due date
+            MenuItem deleteSeriesItem = new MenuItem("Delete All Occurrences");
+            deleteSeriesItem.setOnAction(e -> {
+                DueDate selectedDueDate = dueDatesListView.getSelectionModel().getSelectedItem();
+                if (selectedDueDate != null && selectedDueDate.getSeriesId() != null) {
+                    dueDateManager.removeSeries(selectedDueDate.getSeriesId());
+                }
+            });
+            contextMenu.setOnShowing(e -> {
+                DueDate selectedDueDate = dueDatesListView.getSelectionModel().getSelectedItem();
+                deleteSeriesItem.setVisible(selectedDueDate != null && selectedDueDate.getSeriesId() != null);
+            });
+            
+            contextMenu.getItems().addAll(markCompleteItem, editItem, deleteItem, deleteSeriesItem);
             dueDatesListView.setContextMenu(contextMenu);
             
             // Set double-click action
@@ -438,19 +612,65 @@ public class DueDateController {
             calendarGridPane.add(dayLabel, i, 0);
         }
         
+        // Day cells, created once and rebound to each month shown
+        for (int i = 0; i < calendarCells.length; i++) {
+            calendarCells[i] = new CalendarDayCell(dialogHelper::showDueDateDetails, dialogHelper::showDueDatesForDay);
+            calendarGridPane.add(calendarCells[i], i % 7, i / 7 + 1);
+        }
+        
         // Add calendar components to container
         calendarContainer.getChildren().addAll(calendarNavBox, calendarGridPane);
         
         // Set calendar in tab
         calendarViewTab.setContent(calendarContainer);
         
+        // Workload Tab: open due dates per day over the coming weeks
+        Tab workloadTab = new Tab("Workload");
+        workloadTab.setClosable(false);
+        
+        VBox workloadContainer = new VBox(10);
+        workloadContainer.setPadding(new Insets(10));
+        workloadContainer.setAlignment(Pos.TOP_CENTER);
+        
+        workloadSummaryLabel = new Label();
+        workloadSummaryLabel.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        
+        GridPane workloadGridPane = new GridPane();
+        workloadGridPane.setHgap(4);
+        workloadGridPane.setVgap(4);
+        workloadGridPane.setAlignment(Pos.CENTER);
+        for (int i = 0; i < 7; i++) {
+            Label dayLabel = new Label(daysOfWeek[i]);
+            dayLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
+            dayLabel.setPrefWidth(40);
+            dayLabel.setAlignment(Pos.CENTER);
+            workloadGridPane.add(dayLabel, i + 1, 0);
+        }
+        
+        // Week labels and day cells, created once and rebound on every refresh
+        for (int week = 0; week < WORKLOAD_WEEKS; week++) {
+            workloadWeekLabels[week] = new Label();
+            workloadGridPane.add(workloadWeekLabels[week], 0, week + 1);
+            for (int day = 0; day < 7; day++) {
+                Label cell = new Label();
+                cell.getStyleClass().add("workload-day");
+                workloadCells[week * 7 + day] = cell;
+                workloadGridPane.add(cell, day + 1, week + 1);
+            }
+        }
+        
+        workloadContainer.getChildren().addAll(workloadSummaryLabel, workloadGridPane);
+        workloadTab.setContent(workloadContainer);
+        
         // Add tabs to tab pane
-        tabPane.getTabs().addAll(listViewTab, calendarViewTab);
+        tabPane.getTabs().addAll(listViewTab, calendarViewTab, workloadTab);
         
         // Set up tab change listener to update views
         tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
             if (newTab == calendarViewTab) {
                 updateCalendarView();
+            } else if (newTab == workloadTab) {
+                updateWorkloadView();
             } else {
                 updateListView();
             }
@@ -461,137 +681,241 @@ public class DueDateController {
     
     /**
      * Updates the calendar view based on the current year-month.
+     * 
+     * A cached month is shown at once; otherwise it is loaded in the
+     * background. Either way the months before and after are then loaded
+     * ahead, so paging through the calendar rarely waits on the repository.
      */
     private void updateCalendarView() {
-        // Update calendar title
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM yyyy");
-        calendarTitleLabel.setText(currentYearMonth.format(formatter));
-        
-        // Clear calendar except headers
-        for (int i = calendarGridPane.getChildren().size() - 1; i >= 0; i--) {
-            Node child = calendarGridPane.getChildren().get(i);
-            Integer rowIndex = GridPane.getRowIndex(child);
-            if (rowIndex != null && rowIndex > 0) {
-                calendarGridPane.getChildren().remove(i);
-            }
+        YearMonth yearMonth = currentYearMonth;
+        Map<Integer, List<DueDate>> cached = calendarMonths.get(yearMonth);
+        if (cached != null) {
+            showCalendar(yearMonth, cached);
+            prefetchAdjacentMonths(yearMonth);
+            return;
         }
         
-        // Get date info for the month
-        int month = currentYearMonth.getMonthValue();
-        int year = currentYearMonth.getYear();
-        LocalDate firstOfMonth = LocalDate.of(year, month, 1);
-        int dayOfWeek = firstOfMonth.getDayOfWeek().getValue() % 7; // 0 = Sunday
-        int daysInMonth = currentYearMonth.lengthOfMonth();
-        
-        // Get all due dates for the month
-        LocalDate startDate = firstOfMonth;
-        LocalDate endDate = firstOfMonth.plusMonths(1).minusDays(1);
-        List<DueDate> monthDueDates = dueDateManager.getDueDatesInRange(startDate, endDate);
-        
-        // Map due dates by day of month
-        Map<Integer, List<DueDate>> dueDatesByDay = new HashMap<>();
-        for (DueDate dueDate : monthDueDates) {
-            int day = dueDate.getDueDate().getDayOfMonth();
-            if (!dueDatesByDay.containsKey(day)) {
-                dueDatesByDay.put(day, new ArrayList<>());
+        int generation = calendarGeneration;
+        refreshService.submit(CALENDAR_KEY, () -> loadMonth(yearMonth), dueDatesByDay -> {
+            if (generation == calendarGeneration) {
+                calendarMonths.put(yearMonth, dueDatesByDay);
+            }
+            showCalendar(yearMonth, dueDatesByDay);
+            prefetchAdjacentMonths(yearMonth);
+        });
+    }
+    
+    /**
+     * Loads the months on either side of a month into the calendar cache in
+     * the background, if they are not cached already.
+     * 
+     * @param yearMonth The month being shown
+     */
+    private void prefetchAdjacentMonths(YearMonth yearMonth) {
+        List<YearMonth> missing = new ArrayList<>();
+        for (YearMonth adjacent : new YearMonth[] {yearMonth.minusMonths(1), yearMonth.plusMonths(1)}) {
+            if (!calendarMonths.containsKey(adjacent)) {
+                missing.add(adjacent);
             }
-            dueDatesByDay.get(day).add(dueDate);
         }
-        
-        // Create calendar cells
-        int day = 1;
-        int row = 1;
-        
-        // Fill first row with empty cells until the first day of the month
-        for (int col = 0; col < dayOfWeek; col++) {
-            VBox emptyCell = createEmptyCalendarCell();
-            calendarGridPane.add(emptyCell, col, row);
+        if (missing.isEmpty()) {
+            return;
         }
         
-        // Fill the remaining cells with days
-        for (int col = dayOfWeek; col < 7; col++, day++) {
-            VBox dayCell = createCalendarDayCell(day, dueDatesByDay.getOrDefault(day, new ArrayList<>()));
-            calendarGridPane.add(dayCell, col, row);
+        int generation = calendarGeneration;
+        refreshService.submit(CALENDAR_PREFETCH_KEY, () -> {
+            Map<YearMonth, Map<Integer, List<DueDate>>> loaded = new HashMap<>();
+            for (YearMonth month : missing) {
+                loaded.put(month, loadMonth(month));
+            }
+            return loaded;
+        }, loaded -> {
+            // Drop months loaded before a change to the due dates
+            if (generation == calendarGeneration) {
+                calendarMonths.putAll(loaded);
+            }
+        });
+    }
+    
+    /**
+     * Drops every cached calendar month, and any month still loading, after
+     * the due dates change.
+     */
+    private void invalidateCalendarMonths() {
+        calendarMonths.clear();
+        calendarGeneration++;
+    }
+    
+    /**
+     * Reads the due dates of a month, grouped by day of the month.
+     * 
+     * @param yearMonth The month to read
+     * @return Map of day of the month to the due dates on that day
+     */
+    private Map<Integer, List<DueDate>> loadMonth(YearMonth yearMonth) {
+        DueDateQuery query = new DueDateQuery();
+        query.setDateRange(yearMonth.atDay(1), yearMonth.atEndOfMonth());
+        return groupByDayOfMonth(mergeByDate(dueDateManager.getDueDatesInRange(yearMonth.atDay(1), yearMonth.atEndOfMonth()),
+            dueDateManager.findOccurrences(query, courseManager)));
+    }
+    
+    /**
+     * Merges two lists sorted by date into one, keeping stored due dates
+     * ahead of occurrences on the same day.
+     * 
+     * @param dueDates Stored due dates, sorted by date
+     * @param occurrences Occurrences of series, sorted by date
+     * @return All of them, sorted by date
+     */
+    private static List<DueDate> mergeByDate(List<DueDate> dueDates, List<DueDate> occurrences) {
+        if (occurrences.isEmpty()) {
+            return dueDates;
         }
         
-        // Fill remaining rows
-        while (day <= daysInMonth) {
-            row++;
-            for (int col = 0; col < 7 && day <= daysInMonth; col++, day++) {
-                VBox dayCell = createCalendarDayCell(day, dueDatesByDay.getOrDefault(day, new ArrayList<>()));
-                calendarGridPane.add(dayCell, col, row);
+        List<DueDate> merged = new ArrayList<>(dueDates.size() + occurrences.size());
+        int i = 0;
+        int j = 0;
+        while (i < dueDates.size() || j < occurrences.size()) {
+            if (j == occurrences.size()
+                    || (i < dueDates.size() && !dueDates.get(i).getDueDate().isAfter(occurrences.get(j).getDueDate()))) {
+                merged.add(dueDates.get(i++));
+            } else {
+                merged.add(occurrences.get(j++));
             }
         }
+        return merged;
     }
     
     /**
-     * Creates an empty calendar cell.
+     * Groups due dates by their day of the month.
      * 
-     * @return VBox representing an empty calendar cell
+     * @param monthDueDates Due dates within one month
+     * @return Map of day of the month to the due dates on that day
      */
-    private VBox createEmptyCalendarCell() {
-        VBox cell = new VBox(5);
-        cell.setStyle("-fx-background-color: #f8f9fa; -fx-border-color: #dee2e6;");
-        cell.setPrefSize(100, 100);
-        cell.setPadding(new Insets(5));
-        return cell;
+    private static Map<Integer, List<DueDate>> groupByDayOfMonth(List<DueDate> monthDueDates) {
+        Map<Integer, List<DueDate>> dueDatesByDay = new HashMap<>();
+        for (DueDate dueDate : monthDueDates) {
+            dueDatesByDay.computeIfAbsent(dueDate.getDueDate().getDayOfMonth(), k -> new ArrayList<>()).add(dueDate);
+        }
+        return dueDatesByDay;
     }
     
     /**
-     * Creates a calendar cell for a specific day.
+     * Fills the calendar grid for a month by rebinding the day cells.
      * 
-     * @param day The day of the month
-     * @param dueDates List of due dates for that day
-     * @return VBox representing a calendar day cell
-     */
-    private VBox createCalendarDayCell(int day, List<DueDate> dueDates) {
-        VBox cell = new VBox(5);
-        cell.setStyle("-fx-background-color: white; -fx-border-color: #dee2e6;");
-        cell.setPrefSize(100, 100);
-        cell.setPadding(new Insets(5));
-        
-        // Day number
-        Label dayLabel = new Label(String.valueOf(day));
-        dayLabel.setFont(Font.font("Arial", FontWeight.BOLD, 14));
-        
-        // Add day label
-        cell.getChildren().add(dayLabel);
-        
-        // Highlight today
-        LocalDate cellDate = LocalDate.of(currentYearMonth.getYear(), currentYearMonth.getMonthValue(), day);
-        if (cellDate.equals(LocalDate.now())) {
-            cell.setStyle("-fx-background-color: #e8f4f8; -fx-border-color: #0099cc; -fx-border-width: 2;");
-            dayLabel.setStyle("-fx-text-fill: #0099cc;");
-        }
-        
-        // Add due dates
-        int maxToShow = 3; // Show max 3 due dates in each cell
-        for (int i = 0; i < Math.min(dueDates.size(), maxToShow); i++) {
-            DueDate dueDate = dueDates.get(i);
-            Label dueDateLabel = new Label(dueDate.getAssignmentName());
-            dueDateLabel.setStyle("-fx-text-fill: " + dueDate.getStatusColor() + ";");
-            dueDateLabel.setMaxWidth(90);
-            cell.getChildren().add(dueDateLabel);
+     * @param yearMonth The month to show
+     * @param dueDatesByDay Due dates of the month by day of the month
+     */
+    private void showCalendar(YearMonth yearMonth, Map<Integer, List<DueDate>> dueDatesByDay) {
+        // Update calendar title
+        calendarTitleLabel.setText(yearMonth.format(MONTH_TITLE_FORMAT));
+        
+        // Get date info for the month
+        LocalDate firstOfMonth = yearMonth.atDay(1);
+        int dayOfWeek = firstOfMonth.getDayOfWeek().getValue() % 7; // 0 = Sunday
+        int daysInMonth = yearMonth.lengthOfMonth();
+        int weeks = (dayOfWeek + daysInMonth + 6) / 7;
+        LocalDate today = getToday();
+        
+        for (int i = 0; i < calendarCells.length; i++) {
+            CalendarDayCell cell = calendarCells[i];
+            int day = i - dayOfWeek + 1;
             
-            // Add tooltip with full information
-            Tooltip tooltip = new Tooltip(dueDate.toString());
-            Tooltip.install(dueDateLabel, tooltip);
+            if (day < 1) {
+                // Blank cells until the first day of the month
+                cell.showOutside();
+            } else if (day <= daysInMonth) {
+                LocalDate date = firstOfMonth.plusDays(day - 1);
+                cell.showDay(date, dueDatesByDay.get(day), today);
+            }
             
-            // Add click handler to show details
-            dueDateLabel.setOnMouseClicked(e -> dialogHelper.showDueDateDetails(dueDate));
+            // Hide the rows after the last week of the month
+            boolean inMonthRows = i / 7 < weeks;
+            cell.setVisible(inMonthRows && day <= daysInMonth);
+            cell.setManaged(inMonthRows);
+        }
+    }
+    
+    /**
+     * Updates the workload heatmap for the current student and filters.
+     * Only the course filter and a priority filter apply; status filters are
+     * ignored, since the heatmap always shows open due dates.
+     */
+    private void updateWorkloadView() {
+        if (currentStudent == null || courseFilterComboBox == null || filterComboBox == null) {
+            return;
         }
         
-        // If there are more due dates than we can show, add a "more" indicator
-        if (dueDates.size() > maxToShow) {
-            Label moreLabel = new Label("+" + (dueDates.size() - maxToShow) + " more");
-            moreLabel.setStyle("-fx-text-fill: #6c757d;");
-            cell.getChildren().add(moreLabel);
-            
-            // Add click handler to show all due dates for this day
-            moreLabel.setOnMouseClicked(e -> dialogHelper.showDueDatesForDay(cellDate));
+        DueDateQuery query = new DueDateQuery();
+        Course selectedCourse = courseFilterComboBox.getValue();
+        if (selectedCourse != null) {
+            query.setCourseIds(Set.of(selectedCourse.getId()));
+        } else {
+            query.setStudentId(String.valueOf(currentStudent.getStudentId()));
+        }
+        query.setPriorities(DueDateQuery.forFilter(filterComboBox.getValue()).getPriorities());
+        
+        // Occurrences of series are not counted by the repository; add the ones the heatmap shows
+        LocalDate start = workloadStart();
+        DueDateQuery occurrenceQuery = DueDateQuery.forFilter(filterComboBox.getValue());
+        occurrenceQuery.setStudentId(query.getStudentId());
+        occurrenceQuery.setCourseIds(query.getCourseIds());
+        occurrenceQuery.setDateRange(start, start.plusDays(workloadCells.length - 1));
+        
+        refreshService.submit(WORKLOAD_KEY,
+            () -> dueDateManager.getWorkload(query, courseManager)
+                .plus(dueDateManager.findOccurrences(occurrenceQuery, courseManager)),
+            this::showWorkload);
+    }
+    
+    /**
+     * Gets the first day of the workload heatmap, the Sunday of this week.
+     */
+    private LocalDate workloadStart() {
+        LocalDate today = getToday();
+        return today.minusDays(today.getDayOfWeek().getValue() % 7);
+    }
+    
+    /**
+     * Fills the workload heatmap, starting from the Sunday of this week.
+     * Each day is shaded by its count relative to the busiest day shown.
+     * 
+     * @param workload Open due dates per day
+     */
+    private void showWorkload(Workload workload) {
+        LocalDate start = workloadStart();
+        LocalDate end = start.plusDays(workloadCells.length - 1);
+        int maxCount = workload.getMaxDailyCount(start, end);
+        
+        for (int week = 0; week < WORKLOAD_WEEKS; week++) {
+            workloadWeekLabels[week].setText(start.plusWeeks(week).format(WEEK_FORMAT));
+        }
+        for (int i = 0; i < workloadCells.length; i++) {
+            int count = workload.getCount(start.plusDays(i));
+            int level = count == 0 ? 0 : (count * WORKLOAD_LEVELS + maxCount - 1) / maxCount; // 1 to WORKLOAD_LEVELS
+            Label cell = workloadCells[i];
+            cell.setText(count == 0 ? null : String.valueOf(count));
+            for (int j = 0; j < WORKLOAD_LEVEL_PSEUDO_CLASSES.length; j++) {
+                cell.pseudoClassStateChanged(WORKLOAD_LEVEL_PSEUDO_CLASSES[j], j == level);
+            }
         }
         
-        return cell;
+        LocalDate busiestWeek = workload.getBusiestWeek(start, end);
+        if (busiestWeek == null) {
+            workloadSummaryLabel.setText("No open due dates in the next " + WORKLOAD_WEEKS + " weeks");
+        } else {
+            LocalDate weekEnd = busiestWeek.plusDays(6);
+            workloadSummaryLabel.setText("Busiest week: " + busiestWeek.format(WEEK_FORMAT) + " – "
+                + weekEnd.format(WEEK_FORMAT) + " (" + workload.getCount(busiestWeek, weekEnd) + " due)");
+        }
+    }
+    
+    private static PseudoClass[] workloadLevelPseudoClasses() {
+        PseudoClass[] pseudoClasses = new PseudoClass[WORKLOAD_LEVELS + 1];
+        for (int i = 0; i < pseudoClasses.length; i++) {
+            pseudoClasses[i] = PseudoClass.getPseudoClass("level-" + i);
+        }
+        return pseudoClasses;
     }
     
     /**
@@ -602,111 +926,41 @@ public class DueDateController {
     }
     
     /**
-     * Creates a cell factory for due date list items.
+     * Marks a due date complete or not, prompting for a grade when it is completed.
      * 
-     * @return Callback to create list cells for due dates
+     * @param dueDate The due date to change
+     * @param completed The new completion state
      */
-    private Callback<ListView<DueDate>, ListCell<DueDate>> createDueDateCellFactory() {
-        return listView -> new ListCell<DueDate>() {
-            @Override
-            protected void updateItem(DueDate dueDate, boolean empty) {
-                super.updateItem(dueDate, empty);
-                
-                if (empty || dueDate == null) {
-                    setText(null);
-                    setGraphic(null);
-                    setStyle("");
-                } else {
-                    // Create content for cell
-                    HBox container = new HBox(10);
-                    container.setAlignment(Pos.CENTER_LEFT);
-                    
-                    // Create colored indicator based on status
-                    Region statusIndicator = new Region();
-                    statusIndicator.setMinWidth(12);
-                    statusIndicator.setMinHeight(12);
-                    statusIndicator.setStyle("-fx-background-color: " + dueDate.getStatusColor() + "; -fx-background-radius: 6;");
-                    
-                    // Create labels for information
-                    Label assignmentLabel = new Label(dueDate.getAssignmentName());
-                    assignmentLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
-                    
-                    Label courseLabel = new Label(dueDate.getCourseName());
-                    
-                    Label dateLabel = new Label(dueDate.getDueDateFormatted());
-                    
-                    Label statusLabel = new Label(dueDate.getStatus());
-                    statusLabel.setStyle("-fx-text-fill: " + dueDate.getStatusColor() + ";");
-                    
-                    // Create checkbox for completed status
-                    CheckBox completedCheckBox = new CheckBox();
-                    completedCheckBox.setSelected(dueDate.isCompleted());
-                    completedCheckBox.setOnAction(e -> {
-                        // Update due date completion status
-                        boolean newCompletedState = completedCheckBox.isSelected();
-                        dueDate.setCompleted(newCompletedState);
-                        
-                        // If marking as complete, prompt for grade entry
-                        if (newCompletedState) {
-                            dialogHelper.promptForGradeEntry(dueDate);
-                        }
-                        
-                        refreshDueDatesView();
-                    });
-                    
-                    // First section with status indicator and assignment name
-                    VBox mainInfo = new VBox(5);
-                    HBox assignmentBox = new HBox(10);
-                    assignmentBox.getChildren().addAll(statusIndicator, assignmentLabel);
-                    mainInfo.getChildren().addAll(assignmentBox, courseLabel);
-                    
-                    // Middle section with date and status
-                    VBox dateInfo = new VBox(5);
-                    dateInfo.setAlignment(Pos.CENTER);
-                    dateInfo.getChildren().addAll(dateLabel, statusLabel);
-                    
-                    // Use HBox to arrange sections
-                    container.getChildren().addAll(mainInfo, dateInfo, completedCheckBox);
-                    HBox.setHgrow(mainInfo, Priority.ALWAYS);
-                    
-                    // Add some padding
-                    container.setPadding(new Insets(5));
-                    
-                    setGraphic(container);
-                    setText(null);
-                    
-                    // Set background color if completed
-                    if (dueDate.isCompleted()) {
-                        setStyle("-fx-background-color: #f8f9fa;");
-                    } else {
-                        setStyle("");
-                    }
-                }
-            }
-        };
+    private void setCompleted(DueDate dueDate, boolean completed) {
+        dueDate.setCompleted(completed);
+        dueDateManager.updateDueDate(dueDate.getDueDateId(), dueDate);
+        
+        // If marking as complete, prompt for grade entry
+        if (completed) {
+            dialogHelper.promptForGradeEntry(dueDate);
+        }
     }
     
     /**
      * Updates the course filter combobox with enrolled courses.
+     * 
+     * @param enrolledCourses Courses the current student is enrolled in
      */
-    private void updateCourseFilter() {
+    private void updateCourseFilter(List<Course> enrolledCourses) {
         if (currentStudent == null || courseFilterComboBox == null) return;
         
         // Save current selection
         Course currentSelection = courseFilterComboBox.getValue();
         
         // Create observable list with enrolled courses
-        ObservableList<Course> courseList = FXCollections.observableArrayList();
-        
-        // Add courses the student is enrolled in
-        for (Course course : courseManager.getAllCourses()) {
-            if (course.isStudentEnrolled(String.valueOf(currentStudent.getStudentId()))) {
-                courseList.add(course);
-            }
-        }
+        ObservableList<Course> courseList = FXCollections.observableArrayList(enrolledCourses);
         
         // Update the combobox items
         courseFilterComboBox.setItems(courseList);
+        filterCourseIds = new HashSet<>();
+        for (Course course : enrolledCourses) {
+            filterCourseIds.add(course.getId());
+        }
         
         // Restore selection if possible, otherwise set to null (All Courses)
         if (currentSelection != null && courseList.contains(currentSelection)) {
@@ -717,7 +971,9 @@ public class DueDateController {
     }
     
     /**
-     * Refreshes the due dates view with the current filter.
+     * Refreshes the due dates view with the current filter. The due dates are
+     * gathered and filtered in the background; a newer refresh replaces one
+     * that has not finished yet.
      */
     public void refreshDueDatesView() {
         if (dueDatesPane == null || currentStudent == null) return;
@@ -728,93 +984,197 @@ public class DueDateController {
             return;
         }
         
-        // Update enrolled courses in the course filter
-        updateCourseFilter();
-        
-        // Get the current filter
+        // Read the filters here, since the controls belong to the JavaFX thread
+        int studentId = currentStudent.getStudentId();
         String filter = filterComboBox.getValue();
         Course selectedCourse = courseFilterComboBox.getValue();
         
-        // Get filtered due dates
-        List<DueDate> filteredDueDates = new ArrayList<>();
-        
-        // First, filter by course if selected
-        List<DueDate> courseFilteredDueDates;
+        changedDuringRefresh = false;
+        // Course and status/priority filters are combined into one query
+        DueDateQuery query = DueDateQuery.forFilter(filter);
         if (selectedCourse != null) {
-            courseFilteredDueDates = dueDateManager.getDueDatesForCourse(selectedCourse.getId());
+            query.setCourseIds(Set.of(selectedCourse.getId()));
         } else {
-            courseFilteredDueDates = dueDateManager.getDueDatesForStudent(currentStudent.getStudentId(), courseManager);
+            query.setStudentId(String.valueOf(studentId));
         }
         
-        // Then, apply status/priority filter
-        switch (filter) {
-            case "Upcoming":
-                for (DueDate dueDate : courseFilteredDueDates) {
-                    if (dueDate.getStatus().equals("Upcoming")) {
-                        filteredDueDates.add(dueDate);
-                    }
-                }
-                break;
-            case "Due Soon":
-                for (DueDate dueDate : courseFilteredDueDates) {
-                    if (dueDate.getStatus().equals("Due Soon")) {
-                        filteredDueDates.add(dueDate);
-                    }
-                }
-                break;
-            case "Overdue":
-                for (DueDate dueDate : courseFilteredDueDates) {
-                    if (dueDate.getStatus().equals("Overdue")) {
-                        filteredDueDates.add(dueDate);
-                    }
-                }
-                break;
-            case "Completed":
-                for (DueDate dueDate : courseFilteredDueDates) {
-                    if (dueDate.isCompleted()) {
-                        filteredDueDates.add(dueDate);
-                    }
-                }
-                break;
-            case "High Priority":
-                for (DueDate dueDate : courseFilteredDueDates) {
-                    if (dueDate.getPriority().equals("High")) {
-                        filteredDueDates.add(dueDate);
-                    }
+        refreshService.submit(REFRESH_KEY, () -> {
+            DueDatesViewModel model = new DueDatesViewModel();
+            model.enrolledCourses = courseManager.getCoursesForStudent(String.valueOf(studentId));
+            model.dueDates = mergeByDate(dueDateManager.findDueDates(query, courseManager),
+                dueDateManager.findOccurrences(query, courseManager));
+            return model;
+        }, model -> {
+            // Update enrolled courses in the course filter
+            updateCourseFilter(model.enrolledCourses);
+            
+            // Update the observable list
+            dueDatesObservableList.setAll(model.dueDates);
+            
+            if (changedDuringRefresh) {
+                refreshDueDatesView();
+                return;
+            }
+            
+            // Update calendar or workload if it's the current tab
+            if (isCalendarShown()) {
+                updateCalendarView();
+            } else if (isWorkloadShown()) {
+                updateWorkloadView();
+            }
+        });
+    }
+    
+    /**
+     * Applies a repository change to the view. Runs on the JavaFX thread;
+     * changes made on other threads are passed over to it.
+     * 
+     * @param event The change to apply
+     */
+    private void handleChange(ChangeEvent event) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> handleChange(event));
+            return;
+        }
+        if (event.getType() == ChangeEvent.Type.DUE_DATE_CHANGED
+                || event.getType() == ChangeEvent.Type.DUE_DATES_ADDED
+                || event.getType() == ChangeEvent.Type.DUE_DATE_SERIES_CHANGED) {
+            invalidateCalendarMonths();
+        }
+        if (currentStudent == null || dueDatesPane == null || dueDatesObservableList == null
+                || filterComboBox == null || courseFilterComboBox == null) {
+            return;
+        }
+        
+        switch (event.getType()) {
+            case DUE_DATE_CHANGED:
+                if (refreshService.isPending(REFRESH_KEY)) {
+                    // The pending result may predate this change; recompute once it arrives
+                    changedDuringRefresh = true;
+                } else {
+                    applyDueDateChange(event);
                 }
                 break;
-            case "Medium Priority":
-                for (DueDate dueDate : courseFilteredDueDates) {
-                    if (dueDate.getPriority().equals("Medium")) {
-                        filteredDueDates.add(dueDate);
-                    }
-                }
+            case DUE_DATES_ADDED:
+            case DUE_DATE_SERIES_CHANGED:
+                // Any number of rows may have appeared or gone; reload once for all of them
+                refreshDueDatesView();
                 break;
-            case "Low Priority":
-                for (DueDate dueDate : courseFilteredDueDates) {
-                    if (dueDate.getPriority().equals("Low")) {
-                        filteredDueDates.add(dueDate);
-                    }
+            case ENROLLMENT_CHANGED:
+                if (event.getStudentId().equals(String.valueOf(currentStudent.getStudentId()))) {
+                    refreshDueDatesView();
                 }
                 break;
-            default: // "All"
-                filteredDueDates.addAll(courseFilteredDueDates);
+            default:
                 break;
         }
+    }
+    
+    /**
+     * Updates, inserts or removes the one row of the list affected by a due
+     * date change, keeping the list sorted by date.
+     * 
+     * @param event A DUE_DATE_CHANGED event
+     */
+    private void applyDueDateChange(ChangeEvent event) {
+        DueDate dueDate = event.getDueDate();
+        int index = indexOfDueDate(event.getPreviousId());
+        boolean shown = !event.isRemoved() && isShown(dueDate);
         
-        // Update the observable list
-        dueDatesObservableList.clear();
-        dueDatesObservableList.addAll(filteredDueDates);
+        if (index < 0 && !shown) {
+            return;
+        }
         
-        // Update calendar if it's the current tab
-        if (viewTabPane != null) {
-            Tab selectedTab = viewTabPane.getSelectionModel().getSelectedItem();
-            if (selectedTab != null && selectedTab.getText().equals("Calendar View")) {
-                updateCalendarView();
+        if (shown && index >= 0 && isInOrder(dueDate, index)) {
+            if (dueDatesObservableList.set(index, dueDate) == dueDate) {
+                // Edited in place, so the cell would not see a new item
+                dueDatesListView.refresh();
             }
+        } else {
+            if (index >= 0) {
+                dueDatesObservableList.remove(index);
+            }
+            if (shown) {
+                dueDatesObservableList.add(insertionPoint(dueDate), dueDate);
+            }
+        }
+        
+        if (isCalendarShown()) {
+            updateCalendarView();
+        } else if (isWorkloadShown()) {
+            updateWorkloadView();
         }
     }
     
+    /**
+     * Tells whether a due date passes the current course and status filters.
+     */
+    private boolean isShown(DueDate dueDate) {
+        Course selectedCourse = courseFilterComboBox.getValue();
+        if (selectedCourse != null) {
+            if (!selectedCourse.getId().equals(dueDate.getCourseId())) {
+                return false;
+            }
+        } else if (!filterCourseIds.contains(dueDate.getCourseId())) {
+            return false;
+        }
+        return DueDateQuery.forFilter(filterComboBox.getValue()).matches(dueDate, getToday());
+    }
+    
+    private int indexOfDueDate(String dueDateId) {
+        for (int i = 0; i < dueDatesObservableList.size(); i++) {
+            if (dueDatesObservableList.get(i).getDueDateId().equals(dueDateId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Tells whether a due date can replace the row at an index without
+     * breaking the date order of the list.
+     */
+    private boolean isInOrder(DueDate dueDate, int index) {
+        if (index > 0 && dueDatesObservableList.get(index - 1).compareTo(dueDate) > 0) {
+            return false;
+        }
+        return index + 1 >= dueDatesObservableList.size()
+            || dueDate.compareTo(dueDatesObservableList.get(index + 1)) <= 0;
+    }
+    
+    /**
+     * Finds the index after the last row due on or before a due date.
+     */
+    private int insertionPoint(DueDate dueDate) {
+        int low = 0;
+        int high = dueDatesObservableList.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dueDatesObservableList.get(middle).compareTo(dueDate) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    private boolean isCalendarShown() {
+        return isTabShown("Calendar View");
+    }
+    
+    private boolean isWorkloadShown() {
+        return isTabShown("Workload");
+    }
+    
+    private boolean isTabShown(String tabText) {
+        if (viewTabPane == null) {
+            return false;
+        }
+        Tab selectedTab = viewTabPane.getSelectionModel().getSelectedItem();
+        return selectedTab != null && selectedTab.getText().equals(tabText);
+    }
+    
     /**
      * Gets the current student.
      * 
@@ -829,7 +1189,7 @@ public class DueDateController {
      * 
      * @return The course manager
      */
-    public CourseManager getCourseManager() {
+    public CourseRepository getCourseManager() {
         return courseManager;
     }
 
@@ -842,4 +1202,13 @@ public class DueDateController {
         return dueDatesPane;
     }
 
-}
\ No newline at end of file
+
+    /**
+     * The due dates view for one student and filter, computed off the
+     * JavaFX thread.
+     */
+    private static class DueDatesViewModel {
+        List<Course> enrolledCourses;
+        List<DueDate> dueDates;
+    }
+}
@@ -1,24 +1,34 @@
 package com.example;
 
+import javafx.css.PseudoClass;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import javafx.collections.*;
 
 /**
  * Helper class for managing dialogs related to due dates.
  */
 public class DueDateDialogHelper {
-    private DueDateManager dueDateManager;
-    private GradeManager gradeManager;
-    private ModuleManager moduleManager;
+    private static final String DOES_NOT_REPEAT = "Does not repeat";
+    private static final String WEEKLY = "Weekly";
+    private static final String EVERY_TWO_WEEKS = "Every 2 weeks";
+    private static final int DEFAULT_REPEAT_COUNT = 12;
+    
+    private DueDateRepository dueDateManager;
+    private GradeRepository gradeManager;
+    private ModuleRepository moduleManager;
     private DueDateController parentController;
     private GradeController gradeController; // Direct reference to grade controller
     private Student currentStudent;
@@ -30,7 +40,7 @@ public class DueDateDialogHelper {
      * @param gradeManager The grade manager
      * @param parentController The parent controller
      */
-    public DueDateDialogHelper(DueDateManager dueDateManager, GradeManager gradeManager, DueDateController parentController) {
+    public DueDateDialogHelper(DueDateRepository dueDateManager, GradeRepository gradeManager, DueDateController parentController) {
         this.dueDateManager = dueDateManager;
         this.gradeManager = gradeManager;
         this.parentController = parentController;
@@ -42,7 +52,7 @@ public class DueDateDialogHelper {
      * 
      * @param gradeManager The grade manager
      */
-    public void setGradeManager(GradeManager gradeManager) {
+    public void setGradeManager(GradeRepository gradeManager) {
         this.gradeManager = gradeManager;
     }
     
@@ -51,7 +61,7 @@ public class DueDateDialogHelper {
      * 
      * @param moduleManager The module manager
      */
-    public void setModuleManager(ModuleManager moduleManager) {
+    public void setModuleManager(ModuleRepository moduleManager) {
         this.moduleManager = moduleManager;
     }
     
@@ -75,25 +85,20 @@ public class DueDateDialogHelper {
         newDueDate.setModuleId(""); // Initialize moduleId
         newDueDate.setModuleName(""); // Initialize moduleName
         
-        if (showDueDateDialog(newDueDate, "Add New Due Date")) {
+        List<RecurrenceRule> recurrence = new ArrayList<>();
+        if (showDueDateDialog(newDueDate, "Add New Due Date", recurrence)) {
+            if (!recurrence.isEmpty()) {
+                // A repeating due date is stored once; its occurrences share no single grade
+                dueDateManager.addSeries(new DueDateSeries(newDueDate, recurrence.get(0)));
+                return;
+            }
+            
             dueDateManager.addDueDate(newDueDate);
             
             // Create corresponding grade entry if grade manager exists
             if (gradeManager != null && currentStudent != null) {
-                // Check if a grade already exists for this assignment/module combination
-                boolean gradeExists = false;
-                for (Grades grade : gradeManager.getAllGrades()) {
-                    if (grade.getStudentId().equals(String.valueOf(currentStudent.getStudentId())) && 
-                        grade.getCourseId().equals(newDueDate.getCourseId()) &&
-                        grade.getModuleId().equals(newDueDate.getModuleId()) &&
-                        grade.getAssignmentName().equals(newDueDate.getAssignmentName())) {
-                        gradeExists = true;
-                        break;
-                    }
-                }
-                
-                // Create a new grade only if one doesn't exist
-                if (!gradeExists) {
+                // Create a new grade only if one doesn't exist for this assignment/module combination
+                if (findGrade(AssignmentKey.of(newDueDate)) == null) {
                     Grades newGrade = new Grades(
                         String.valueOf(currentStudent.getStudentId()),
                         newDueDate.getCourseId(),
@@ -107,16 +112,8 @@ public class DueDateDialogHelper {
                     );
                     
                     gradeManager.addGrade(newGrade);
-                    
-                    // Directly refresh the grades view if possible
-                    if (gradeController != null) {
-                        gradeController.refreshGradesView();
-                    }
                 }
             }
-            
-            // Refresh due dates view
-            parentController.refreshDueDatesView();
         }
     }
     
@@ -129,38 +126,24 @@ public class DueDateDialogHelper {
         // Ensure modules are refreshed before showing the dialog
         refreshModulesForAllCourses();
         
-        // Store the original assignment name and module ID for later comparison
-        String originalAssignmentName = dueDate.getAssignmentName();
-        String originalModuleId = dueDate.getModuleId();
+        // Store the original assignment key to find the grade once the dialog has changed it
+        AssignmentKey originalKey = AssignmentKey.of(dueDate);
         
-        if (showDueDateDialog(dueDate, "Edit Due Date")) {
-            // If the assignment name or module changed, update corresponding grade
-            if (!originalAssignmentName.equals(dueDate.getAssignmentName()) || 
-                !originalModuleId.equals(dueDate.getModuleId())) {
-                
-                // Find and update corresponding grade if it exists
-                if (gradeManager != null && currentStudent != null) {
-                    for (Grades grade : gradeManager.getAllGrades()) {
-                        if (grade.getStudentId().equals(String.valueOf(currentStudent.getStudentId())) && 
-                            grade.getCourseId().equals(dueDate.getCourseId()) &&
-                            grade.getAssignmentName().equals(originalAssignmentName)) {
-                            
-                            // Update the grade with new assignment name and module
-                            grade.setAssignmentName(dueDate.getAssignmentName());
-                            grade.setModuleId(dueDate.getModuleId());
-                            grade.setModuleName(dueDate.getModuleName());
-                            break;
-                        }
-                    }
-                    
-                    // Directly refresh the grades view if possible
-                    if (gradeController != null) {
-                        gradeController.refreshGradesView();
-                    }
+        if (showDueDateDialog(dueDate, "Edit Due Date", null)) {
+            dueDateManager.updateDueDate(dueDate.getDueDateId(), dueDate);
+            
+            // If the assignment name, module or course changed, update the corresponding grade
+            if (!originalKey.equals(AssignmentKey.of(dueDate))) {
+                Grades grade = findGrade(originalKey);
+                if (grade != null) {
+                    // Update the grade with new assignment name and module
+                    grade.setCourseId(dueDate.getCourseId());
+                    grade.setAssignmentName(dueDate.getAssignmentName());
+                    grade.setModuleId(dueDate.getModuleId());
+                    grade.setModuleName(dueDate.getModuleName());
+                    gradeManager.updateGrade(grade.getGradeId(), grade);
                 }
             }
-            
-            parentController.refreshDueDatesView();
         }
     }
     
@@ -181,9 +164,10 @@ public class DueDateDialogHelper {
      * 
      * @param dueDate The due date to edit
      * @param title The dialog title
+     * @param recurrenceOut Receives the chosen recurrence rule, if any; null to hide the repeat options
      * @return true if the dialog was confirmed, false otherwise
      */
-    private boolean showDueDateDialog(DueDate dueDate, String title) {
+    private boolean showDueDateDialog(DueDate dueDate, String title, List<RecurrenceRule> recurrenceOut) {
         // Create the dialog
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle(title);
@@ -202,22 +186,16 @@ public class DueDateDialogHelper {
         // Create form fields
         ComboBox<Course> courseCombo = new ComboBox<>();
         
-        // Populate with fresh course list
-        ObservableList<Course> courseList = FXCollections.observableArrayList(
-            parentController.getCourseManager().getAllCourses()
+        // Populate with a fresh course list, only showing enrolled courses when signed in
+        ObservableList<Course> courseList = FXCollections.observableArrayList(currentStudent != null
+            ? parentController.getCourseManager().getCoursesForStudent(String.valueOf(currentStudent.getStudentId()))
+            : parentController.getCourseManager().getAllCourses()
         );
         courseCombo.setItems(courseList);
         
         // Module ComboBox
         ComboBox<CourseModule> moduleCombo = new ComboBox<>();
         
-        // Filter to only show enrolled courses
-        if (currentStudent != null) {
-            courseCombo.getItems().removeIf(course -> 
-                !course.isStudentEnrolled(String.valueOf(currentStudent.getStudentId()))
-            );
-        }
-        
         // Set selected course if it exists
         if (!dueDate.getCourseId().isEmpty()) {
             for (Course course : courseCombo.getItems()) {
@@ -300,6 +278,52 @@ public class DueDateDialogHelper {
         
         grid.add(completedCheckBox, 1, 6);
         
+        // Repeat options, only offered when adding
+        ComboBox<String> repeatCombo = new ComboBox<>(
+            FXCollections.observableArrayList(DOES_NOT_REPEAT, WEEKLY, EVERY_TWO_WEEKS)
+        );
+        repeatCombo.setValue(DOES_NOT_REPEAT);
+        
+        List<CheckBox> dayCheckBoxes = new ArrayList<>();
+        HBox daysBox = new HBox(5);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            String name = day.name();
+            CheckBox dayCheckBox = new CheckBox(name.charAt(0) + name.substring(1, 3).toLowerCase());
+            dayCheckBox.setUserData(day);
+            dayCheckBox.setSelected(dueDate.getDueDate() != null && dueDate.getDueDate().getDayOfWeek() == day);
+            dayCheckBoxes.add(dayCheckBox);
+            daysBox.getChildren().add(dayCheckBox);
+        }
+        
+        ToggleGroup endGroup = new ToggleGroup();
+        RadioButton afterCountRadio = new RadioButton("After");
+        afterCountRadio.setToggleGroup(endGroup);
+        afterCountRadio.setSelected(true);
+        Spinner<Integer> countSpinner = new Spinner<>(1, 365, DEFAULT_REPEAT_COUNT);
+        countSpinner.setPrefWidth(70);
+        RadioButton untilRadio = new RadioButton("times, or until");
+        untilRadio.setToggleGroup(endGroup);
+        DatePicker untilPicker = new DatePicker();
+        HBox endBox = new HBox(5, afterCountRadio, countSpinner, untilRadio, untilPicker);
+        
+        if (recurrenceOut != null) {
+            grid.add(new Label("Repeat:"), 0, 7);
+            grid.add(repeatCombo, 1, 7);
+            grid.add(daysBox, 1, 8);
+            grid.add(endBox, 1, 9);
+            
+            Runnable updateRepeatControls = () -> {
+                boolean repeats = !DOES_NOT_REPEAT.equals(repeatCombo.getValue());
+                daysBox.setDisable(!repeats);
+                endBox.setDisable(!repeats);
+                countSpinner.setDisable(!afterCountRadio.isSelected());
+                untilPicker.setDisable(!untilRadio.isSelected());
+            };
+            repeatCombo.valueProperty().addListener((obs, oldVal, newVal) -> updateRepeatControls.run());
+            endGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> updateRepeatControls.run());
+            updateRepeatControls.run();
+        }
+        
         // Enable/disable save button based on input validation
         Node saveButton = dialog.getDialogPane().lookupButton(saveButtonType);
         saveButton.setDisable(true);
@@ -310,6 +334,15 @@ public class DueDateDialogHelper {
                              !assignmentField.getText().trim().isEmpty() && 
                              datePicker.getValue() != null;
             
+            // A repeating due date needs a day of the week and an end on or after its first date
+            if (recurrenceOut != null && !DOES_NOT_REPEAT.equals(repeatCombo.getValue())) {
+                isValid = isValid && selectedDays(dayCheckBoxes).size() > 0;
+                if (untilRadio.isSelected()) {
+                    isValid = isValid && untilPicker.getValue() != null && datePicker.getValue() != null &&
+                             !untilPicker.getValue().isBefore(datePicker.getValue());
+                }
+            }
+            
             // Module is optional - it can be null for general assignments
             saveButton.setDisable(!isValid);
         };
@@ -318,6 +351,12 @@ public class DueDateDialogHelper {
         courseCombo.valueProperty().addListener((obs, oldVal, newVal) -> validateFields.run());
         assignmentField.textProperty().addListener((obs, oldVal, newVal) -> validateFields.run());
         datePicker.valueProperty().addListener((obs, oldVal, newVal) -> validateFields.run());
+        repeatCombo.valueProperty().addListener((obs, oldVal, newVal) -> validateFields.run());
+        endGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> validateFields.run());
+        untilPicker.valueProperty().addListener((obs, oldVal, newVal) -> validateFields.run());
+        for (CheckBox dayCheckBox : dayCheckBoxes) {
+            dayCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> validateFields.run());
+        }
         
         // Run initial validation
         validateFields.run();
@@ -351,11 +390,36 @@ public class DueDateDialogHelper {
             dueDate.setPriority(priorityCombo.getValue());
             dueDate.setDescription(descriptionArea.getText().trim());
             dueDate.setCompleted(completedCheckBox.isSelected());
+            
+            if (recurrenceOut != null && !DOES_NOT_REPEAT.equals(repeatCombo.getValue())) {
+                int interval = EVERY_TWO_WEEKS.equals(repeatCombo.getValue()) ? 2 : 1;
+                if (untilRadio.isSelected()) {
+                    recurrenceOut.add(new RecurrenceRule(interval, selectedDays(dayCheckBoxes), untilPicker.getValue(), 0));
+                } else {
+                    recurrenceOut.add(new RecurrenceRule(interval, selectedDays(dayCheckBoxes), null, countSpinner.getValue()));
+                }
+            }
             return true;
         }
         return false;
     }
     
+    /**
+     * Gets the days of the week whose check boxes are selected.
+     * 
+     * @param dayCheckBoxes Check boxes holding their DayOfWeek as user data
+     * @return The selected days
+     */
+    private static Set<DayOfWeek> selectedDays(List<CheckBox> dayCheckBoxes) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (CheckBox dayCheckBox : dayCheckBoxes) {
+            if (dayCheckBox.isSelected()) {
+                days.add((DayOfWeek) dayCheckBox.getUserData());
+            }
+        }
+        return days;
+    }
+    
     /**
      * Shows details for a specific due date.
      * 
@@ -384,8 +448,9 @@ public class DueDateDialogHelper {
         grid.add(new Label(dueDate.getDueDateFormatted()), 1, 2);
         
         grid.add(new Label("Status:"), 0, 3);
-        Label statusLabel = new Label(dueDate.getStatus());
-        statusLabel.setStyle("-fx-text-fill: " + dueDate.getStatusColor() + ";");
+        LocalDate today = parentController.getToday();
+        Label statusLabel = new Label(dueDate.getStatus(today));
+        statusLabel.setStyle("-fx-text-fill: " + dueDate.getStatusColor(today) + ";");
         grid.add(statusLabel, 1, 3);
         
         grid.add(new Label("Priority:"), 0, 4);
@@ -397,10 +462,19 @@ public class DueDateDialogHelper {
         descArea.setPrefRowCount(3);
         grid.add(descArea, 1, 5);
         
+        // Show how the due date repeats if it is an occurrence of a series
+        int nextRow = 6;
+        DueDateSeries series = dueDate.getSeriesId() == null ? null : dueDateManager.getSeriesById(dueDate.getSeriesId());
+        if (series != null) {
+            grid.add(new Label("Repeats:"), 0, nextRow);
+            grid.add(new Label(series.getRule().getDescription()), 1, nextRow);
+            nextRow++;
+        }
+        
         // Add button to edit grade if assignment is completed
         if (dueDate.isCompleted() && gradeManager != null && currentStudent != null) {
             Button editGradeButton = new Button("Edit Grade");
-            grid.add(editGradeButton, 1, 6);
+            grid.add(editGradeButton, 1, nextRow);
             
             editGradeButton.setOnAction(e -> {
                 // Find the corresponding grade
@@ -443,18 +517,12 @@ public class DueDateDialogHelper {
             if (dialogButton == completeButton) {
                 boolean newCompletedState = !dueDate.isCompleted();
                 dueDate.setCompleted(newCompletedState);
+                dueDateManager.updateDueDate(dueDate.getDueDateId(), dueDate);
                 
                 // If marking as complete and grade manager exists, prompt to add grade
                 if (newCompletedState && gradeManager != null && currentStudent != null) {
                     promptForGradeEntry(dueDate);
                 }
-                
-                parentController.refreshDueDatesView();
-                
-                // Also refresh the grades view
-                if (gradeController != null) {
-                    gradeController.refreshGradesView();
-                }
             } else if (dialogButton == editButton) {
                 showEditDueDateDialog(dueDate);
             }
@@ -473,14 +541,24 @@ public class DueDateDialogHelper {
      * @return The matching grade, or null if not found
      */
     private Grades findMatchingGrade(DueDate dueDate) {
+        return findGrade(AssignmentKey.of(dueDate));
+    }
+    
+    /**
+     * Finds the current student's grade for an assignment. Only the grades of
+     * that one assignment are looked at, one per student at most.
+     *
+     * @param key The assignment
+     * @return The student's grade, or null if there is none
+     */
+    private Grades findGrade(AssignmentKey key) {
         if (gradeManager == null || currentStudent == null) {
             return null;
         }
         
-        for (Grades grade : gradeManager.getAllGrades()) {
-            if (grade.getStudentId().equals(String.valueOf(currentStudent.getStudentId())) &&
-                grade.getCourseId().equals(dueDate.getCourseId()) &&
-                grade.getAssignmentName().equals(dueDate.getAssignmentName())) {
+        String studentId = String.valueOf(currentStudent.getStudentId());
+        for (Grades grade : gradeManager.getGradesForAssignment(key)) {
+            if (grade.getStudentId().equals(studentId)) {
                 return grade;
             }
         }
@@ -532,41 +610,12 @@ public class DueDateDialogHelper {
         dialog.setHeaderText("All assignments due on this date:");
         
         // Get due dates for this day
-        List<DueDate> dueDatesForDay = new ArrayList<>();
-        for (DueDate dueDate : dueDateManager.getAllDueDates()) {
-            if (dueDate.getDueDate().equals(date)) {
-                dueDatesForDay.add(dueDate);
-            }
-        }
+        List<DueDate> dueDatesForDay = dueDateManager.getDueDatesInRange(date, date);
         
         // Create a list view to display due dates
         ListView<DueDate> dueDatesList = new ListView<>();
-        
-        // Create cell factory for list items
-        dueDatesList.setCellFactory(listView -> new ListCell<DueDate>() {
-            @Override
-            protected void updateItem(DueDate dueDate, boolean empty) {
-                super.updateItem(dueDate, empty);
-                
-                if (empty || dueDate == null) {
-                    setText(null);
-                    setGraphic(null);
-                    setStyle("");
-                } else {
-                    setText(dueDate.getAssignmentName() + " (" + dueDate.getModuleName() + ") - " + dueDate.getCourseName());
-                    
-                    // Set text color based on status
-                    setTextFill(javafx.scene.paint.Color.web(dueDate.getStatusColor()));
-                    
-                    // Set background color if completed
-                    if (dueDate.isCompleted()) {
-                        setStyle("-fx-background-color: #f8f9fa;");
-                    } else {
-                        setStyle("");
-                    }
-                }
-            }
-        });
+        dueDatesList.setCellFactory(listView -> new DueDateSummaryCell(parentController.getToday()));
+        dialog.getDialogPane().getStylesheets().add(UIHelper.STYLESHEET);
         
         dueDatesList.getItems().addAll(dueDatesForDay);
         
@@ -617,11 +666,9 @@ public class DueDateDialogHelper {
         courseField.setEditable(false);
         
         // Find course name
-        for (Course course : parentController.getCourseManager().getAllCourses()) {
-            if (course.getId().equals(grade.getCourseId())) {
-                courseField.setText(course.getName());
-                break;
-            }
+        Course course = parentController.getCourseManager().getCourseById(grade.getCourseId());
+        if (course != null) {
+            courseField.setText(course.getName());
         }
         
         Label moduleLabel = new Label("Module:");
@@ -696,18 +743,11 @@ public class DueDateDialogHelper {
                 grade.setMaxScore(maxScore);
                 grade.setWeight(weight);
                 grade.setComments(commentsArea.getText().trim());
+                gradeManager.updateGrade(grade.getGradeId(), grade);
                 
                 // Show success message
                 UIHelper.showAlert("Success", "Grade updated successfully!");
                 
-                // Refresh views
-                parentController.refreshDueDatesView();
-                
-                // Also refresh the grades view
-                if (gradeController != null) {
-                    gradeController.refreshGradesView();
-                }
-                
             } catch (NumberFormatException e) {
                 UIHelper.showAlert("Error", "Please enter valid numeric values.");
             }
@@ -722,4 +762,35 @@ public class DueDateDialogHelper {
     public void setCurrentStudent(Student student) {
         this.currentStudent = student;
     }
-}
\ No newline at end of file
+
+    /**
+     * A one-line due date row colored by status. The status is shown with
+     * a pseudo-class, so the cell never sets inline styles.
+     */
+    private static class DueDateSummaryCell extends ListCell<DueDate> {
+        private static final PseudoClass[] STATUS_PSEUDO_CLASSES = DueDateListCell.statusPseudoClasses();
+        
+        private final LocalDate today; // The day statuses are shown for
+        
+        DueDateSummaryCell(LocalDate today) {
+            this.today = today;
+            getStyleClass().add("due-date-summary-cell");
+        }
+        
+        @Override
+        protected void updateItem(DueDate dueDate, boolean empty) {
+            super.updateItem(dueDate, empty);
+            
+            if (empty || dueDate == null) {
+                setText(null);
+            } else {
+                setText(dueDate.getAssignmentName() + " (" + dueDate.getModuleName() + ") - " + dueDate.getCourseName());
+            }
+            
+            DueDateStatus status = empty || dueDate == null ? null : dueDate.getDueDateStatus(today);
+            for (int i = 0; i < STATUS_PSEUDO_CLASSES.length; i++) {
+                pseudoClassStateChanged(STATUS_PSEUDO_CLASSES[i], status != null && status.ordinal() == i);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example;
+
+import javafx.css.PseudoClass;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+
+import java.time.LocalDate;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A due date row with a status indicator, the assignment and course, the
+ * date and status, and a checkbox to mark it complete.
+ *
+ * The nodes are built once per cell and reused as the list scrolls; an
+ * update only changes label text, the checkbox and the status
+ * pseudo-class (:upcoming, :due-soon, :overdue or :completed), which the
+ * stylesheet uses for colors.
+ */
+public class DueDateListCell extends ListCell<DueDate> {
+    private static final PseudoClass[] STATUS_PSEUDO_CLASSES = statusPseudoClasses(); // By status ordinal
+
+    private final HBox row;
+    private final Label assignmentLabel;
+    private final Label courseLabel;
+    private final Label dateLabel;
+    private final Label statusLabel;
+    private final CheckBox completedCheckBox;
+    private final Supplier<LocalDate> today;
+
+    /**
+     * Creates a cell.
+     *
+     * @param onCompletedChanged Called with the due date and its new state when the checkbox is clicked
+     * @param today Gives the day statuses are shown for
+     */
+    public DueDateListCell(BiConsumer<DueDate, Boolean> onCompletedChanged, Supplier<LocalDate> today) {
+        this.today = today;
+        getStyleClass().add("due-date-cell");
+
+        Region statusIndicator = new Region();
+        statusIndicator.getStyleClass().add("status-indicator");
+        assignmentLabel = new Label();
+        assignmentLabel.getStyleClass().add("assignment-label");
+        courseLabel = new Label();
+        dateLabel = new Label();
+        statusLabel = new Label();
+        statusLabel.getStyleClass().add("status-label");
+
+        completedCheckBox = new CheckBox();
+        completedCheckBox.setOnAction(e -> {
+            DueDate dueDate = getItem();
+            if (dueDate != null) {
+                onCompletedChanged.accept(dueDate, completedCheckBox.isSelected());
+            }
+        });
+
+        // Status indicator and assignment name above the course
+        HBox titleBox = new HBox(statusIndicator, assignmentLabel);
+        titleBox.getStyleClass().add("due-date-title");
+        VBox mainInfo = new VBox(titleBox, courseLabel);
+        mainInfo.getStyleClass().add("due-date-main");
+
+        // Date above the status
+        VBox dateInfo = new VBox(dateLabel, statusLabel);
+        dateInfo.getStyleClass().add("due-date-timing");
+
+        row = new HBox(mainInfo, dateInfo, completedCheckBox);
+        row.getStyleClass().add("due-date-row");
+        HBox.setHgrow(mainInfo, Priority.ALWAYS);
+    }
+
+    @Override
+    protected void updateItem(DueDate dueDate, boolean empty) {
+        super.updateItem(dueDate, empty);
+        setText(null);
+
+        if (empty || dueDate == null) {
+            setGraphic(null);
+            showStatus(null);
+            return;
+        }
+
+        DueDateStatus status = dueDate.getDueDateStatus(today.get());
+        assignmentLabel.setText(dueDate.getAssignmentName());
+        courseLabel.setText(dueDate.getCourseName());
+        dateLabel.setText(dueDate.getDueDateFormatted());
+        statusLabel.setText(status.getLabel());
+        completedCheckBox.setSelected(dueDate.isCompleted());
+        showStatus(status);
+        setGraphic(row);
+    }
+
+    private void showStatus(DueDateStatus status) {
+        for (int i = 0; i < STATUS_PSEUDO_CLASSES.length; i++) {
+            pseudoClassStateChanged(STATUS_PSEUDO_CLASSES[i], status != null && status.ordinal() == i);
+        }
+    }
+
+    /**
+     * Gets the pseudo-class for each status, such as :due-soon for DUE_SOON.
+     *
+     * @return Pseudo-classes indexed by status ordinal
+     */
+    static PseudoClass[] statusPseudoClasses() {
+        DueDateStatus[] statuses = DueDateStatus.values();
+        PseudoClass[] pseudoClasses = new PseudoClass[statuses.length];
+        for (DueDateStatus status : statuses) {
+            pseudoClasses[status.ordinal()] = PseudoClass.getPseudoClass(status.name().toLowerCase().replace('_', '-'));
+        }
+        return pseudoClasses;
+    }
+}
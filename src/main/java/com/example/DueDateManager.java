@@ -1,24 +1,125 @@
 package com.example;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import javafx.collections.*;
 
 /**
  * Manages the collection of due dates in the application.
  * Provides methods to add, retrieve, update, and delete due dates.
+ * 
+ * Each due date is given a slot number, and every attribute that can be
+ * filtered on (course, module, priority and completion) has an index from
+ * its values to a BitSet of slots. Dates hold only a few due dates each, so
+ * they index small sorted sets of slots instead, whose size does not grow
+ * with the highest slot. Courses and modules are indexed by their
+ * {@link IdTable} keys, so those indexes are arrays. A query intersects
+ * the bit sets of its conditions and then reads the matching due dates in
+ * date order, so its cost follows the size of the result rather than the
+ * whole collection. Assignments are nearly unique, so due dates are indexed
+ * by assignment in small sets instead of bit sets as long as the collection.
+ * 
+ * Open due dates are also counted per day, overall, per course and per
+ * priority, so workload views can read totals for any range of days without
+ * visiting the due dates themselves.
+ * 
+ * Repeating due dates are kept as {@link DueDateSeries} records and only
+ * expanded into occurrences on request; an occurrence that is updated is
+ * stored as an ordinary due date under its occurrence ID.
  */
-public class DueDateManager {
+public class DueDateManager implements DueDateRepository {
+    // With fewer candidates than 1/SORT_RATIO of all due dates, sorting them beats walking the date index
+    private static final int SORT_RATIO = 8;
+    private static final Comparator<DueDate> BY_DATE = Comparator.comparing(DueDate::getDueDate);
     
-    private final List<DueDate> dueDates;
+    private final Map<String, Integer> slotsById; // Primary index, in insertion order
+    private final List<DueDate> dueDatesBySlot; // null in free slots
+    private final BitSet freeSlots;
+    private final NavigableMap<LocalDate, SortedIntSet> slotsByDate; // A few slots per day, so not bit sets
+    private final NavigableMap<LocalDate, SortedIntSet> incompleteSlotsByDate; // Only due dates not yet completed
+    private final DenseMap<BitSet> slotsByCourse; // By IdTable course key
+    private final DenseMap<BitSet> slotsByModule; // By IdTable module key
+    private final Map<AssignmentKey, Set<DueDate>> dueDatesByAssignment; // Joins due dates to the grades of the same assignment
+    private final Map<String, BitSet> slotsByPriority;
+    private final BitSet completedSlots;
+    private final DayHistogram openByDay; // Open due dates per day
+    private final DenseMap<DayHistogram> openByDayForCourse; // By IdTable course key
+    private final Map<String, DayHistogram> openByDayForPriority;
+    private final Map<String, DueDateSeries> seriesById; // In insertion order
+    private Journal journal; // Receives every change, or null when changes are not persisted
+    private ChangeEventBus eventBus; // Receives change events for the views, or null
+    private final IdTables ids; // Keys of the course and module IDs the indexes are keyed by
+    private final Clock clock; // Decides the current day for status queries
     
     /**
-     * Creates a new DueDateManager with an empty collection of due dates.
+     * Creates a new DueDateManager with an empty collection of due dates and ID keys of its own.
      */
     public DueDateManager() {
-        this.dueDates = new ArrayList<>();
+        this(new IdTables());
+    }
+    
+    /**
+     * Creates a new DueDateManager with an empty collection of due dates that
+     * works out statuses for the day on the system clock.
+     * 
+     * @param ids The ID keys shared by the managers this one is used with
+     */
+    public DueDateManager(IdTables ids) {
+        this(ids, Clock.systemDefaultZone());
+    }
+    
+    /**
+     * Creates a new DueDateManager with an empty collection of due dates.
+     * 
+     * @param ids The ID keys shared by the managers this one is used with
+     * @param clock The clock that decides the current day for status queries
+     */
+    public DueDateManager(IdTables ids, Clock clock) {
+        this.ids = ids;
+        this.clock = clock;
+        this.slotsById = new LinkedHashMap<>();
+        this.dueDatesBySlot = new ArrayList<>();
+        this.freeSlots = new BitSet();
+        this.slotsByDate = new TreeMap<>();
+        this.incompleteSlotsByDate = new TreeMap<>();
+        this.slotsByCourse = new DenseMap<>();
+        this.slotsByModule = new DenseMap<>();
+        this.dueDatesByAssignment = new HashMap<>();
+        this.slotsByPriority = new HashMap<>();
+        this.completedSlots = new BitSet();
+        this.openByDay = new DayHistogram();
+        this.openByDayForCourse = new DenseMap<>();
+        this.openByDayForPriority = new HashMap<>();
+        this.seriesById = new LinkedHashMap<>();
+    }
+    
+    /**
+     * Sets the bus that receives a change event for every change made through this manager.
+     * 
+     * @param eventBus The event bus, or null to stop publishing changes
+     */
+    public synchronized void setEventBus(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+    
+    /**
+     * Sets the journal that records changes made through this manager.
+     * 
+     * @param journal The journal, or null to stop recording changes
+     */
+    public synchronized void setJournal(Journal journal) {
+        this.journal = journal;
     }
     
     /**
@@ -26,8 +127,33 @@ public class DueDateManager {
      * 
      * @param dueDate Due date to add
      */
-    public void addDueDate(DueDate dueDate) {
-        dueDates.add(dueDate);
+    public synchronized void addDueDate(DueDate dueDate) {
+        attach(dueDate);
+        if (journal != null) {
+            journal.recordSaved(dueDate);
+        }
+        publish(ChangeEvent.dueDateChanged(dueDate.getDueDateId(), dueDate, false));
+    }
+    
+    /**
+     * Adds several due dates at once. They are indexed under one lock,
+     * journaled together and published as a single change, so views update
+     * once for the whole batch.
+     * 
+     * @param dueDates Due dates to add
+     */
+    public synchronized void addDueDates(List<DueDate> dueDates) {
+        if (dueDates.isEmpty()) {
+            return;
+        }
+        List<DueDate> added = new ArrayList<>(dueDates);
+        for (DueDate dueDate : added) {
+            attach(dueDate);
+        }
+        if (journal != null) {
+            journal.recordAllSaved(added);
+        }
+        publish(ChangeEvent.dueDatesAdded(added));
     }
     
     /**
@@ -36,13 +162,9 @@ public class DueDateManager {
      * @param dueDateId ID of the due date to retrieve
      * @return Due date with the specified ID, or null if not found
      */
-    public DueDate getDueDateById(String dueDateId) {
-        for (DueDate dueDate : dueDates) {
-            if (dueDate.getDueDateId().equals(dueDateId)) {
-                return dueDate;
-            }
-        }
-        return null;
+    public synchronized DueDate getDueDateById(String dueDateId) {
+        Integer slot = slotsById.get(dueDateId);
+        return slot != null ? dueDatesBySlot.get(slot) : null;
     }
     
     /**
@@ -50,43 +172,74 @@ public class DueDateManager {
      * 
      * @return List of all due dates
      */
-    public List<DueDate> getAllDueDates() {
-        List<DueDate> sortedDueDates = new ArrayList<>(dueDates);
-        Collections.sort(sortedDueDates);
-        return sortedDueDates;
+    public synchronized List<DueDate> getAllDueDates() {
+        return select(null, slotsByDate, null, null, null, null);
     }
     
     /**
-     * Updates an existing due date.
+     * Updates an existing due date. Updating an occurrence of a series for
+     * the first time stores it as an override of that occurrence.
      * 
      * @param dueDateId ID of the due date to update
      * @param updatedDueDate Updated due date data
      * @return true if the due date was updated, false if the due date was not found
      */
-    public boolean updateDueDate(String dueDateId, DueDate updatedDueDate) {
-        for (int i = 0; i < dueDates.size(); i++) {
-            if (dueDates.get(i).getDueDateId().equals(dueDateId)) {
-                dueDates.set(i, updatedDueDate);
-                return true;
+    public synchronized boolean updateDueDate(String dueDateId, DueDate updatedDueDate) {
+        DueDate existing = getDueDateById(dueDateId);
+        if (existing == null) {
+            if (seriesOf(dueDateId) == null || !dueDateId.equals(updatedDueDate.getDueDateId())) {
+                return false;
             }
+            addDueDate(updatedDueDate);
+            return true;
+        }
+        
+        // An edited due date updates the indexes itself as its fields change
+        if (existing != updatedDueDate) {
+            detach(existing);
+            attach(updatedDueDate);
+        }
+        
+        if (journal != null) {
+            journal.recordSaved(updatedDueDate);
         }
-        return false;
+        publish(ChangeEvent.dueDateChanged(dueDateId, updatedDueDate, false));
+        return true;
     }
     
     /**
-     * Removes a due date from the collection.
+     * Removes a due date from the collection. Removing an occurrence of a
+     * series also skips it in the series from then on.
      * 
      * @param dueDateId ID of the due date to remove
      * @return true if the due date was removed, false if the due date was not found
      */
-    public boolean removeDueDate(String dueDateId) {
-        for (int i = 0; i < dueDates.size(); i++) {
-            if (dueDates.get(i).getDueDateId().equals(dueDateId)) {
-                dueDates.remove(i);
-                return true;
+    public synchronized boolean removeDueDate(String dueDateId) {
+        DueDate removed = getDueDateById(dueDateId);
+        DueDateSeries series = seriesOf(dueDateId);
+        if (series != null) {
+            LocalDate occurrenceDate = DueDateSeries.occurrenceDateOf(dueDateId);
+            boolean skipped = series.addException(occurrenceDate);
+            if (skipped && journal != null) {
+                journal.recordSaved(series);
             }
+            if (removed == null) {
+                if (skipped) {
+                    publish(ChangeEvent.dueDateChanged(dueDateId, series.createOccurrence(occurrenceDate), true));
+                }
+                return skipped;
+            }
+        }
+        if (removed == null) {
+            return false;
         }
-        return false;
+        
+        detach(removed);
+        if (journal != null) {
+            journal.recordRemoved(removed);
+        }
+        publish(ChangeEvent.dueDateChanged(dueDateId, removed, true));
+        return true;
     }
     
     /**
@@ -94,8 +247,8 @@ public class DueDateManager {
      * 
      * @return The number of due dates
      */
-    public int getDueDateCount() {
-        return dueDates.size();
+    public synchronized int getDueDateCount() {
+        return slotsById.size();
     }
     
     /**
@@ -104,17 +257,8 @@ public class DueDateManager {
      * @param courseId ID of the course
      * @return List of due dates for the specified course
      */
-    public List<DueDate> getDueDatesForCourse(String courseId) {
-        List<DueDate> result = new ArrayList<>();
-        
-        for (DueDate dueDate : dueDates) {
-            if (dueDate.getCourseId().equals(courseId)) {
-                result.add(dueDate);
-            }
-        }
-        
-        Collections.sort(result);
-        return result;
+    public synchronized List<DueDate> getDueDatesForCourse(String courseId) {
+        return select(copyOf(slotsByCourse.get(ids.courses.find(courseId))), slotsByDate, null, null, null, null);
     }
     
     /**
@@ -123,16 +267,22 @@ public class DueDateManager {
      * @param moduleId ID of the module
      * @return List of due dates for the specified module
      */
-    public List<DueDate> getDueDatesForModule(String moduleId) {
-        List<DueDate> result = new ArrayList<>();
-        
-        for (DueDate dueDate : dueDates) {
-            if (dueDate.getModuleId().equals(moduleId)) {
-                result.add(dueDate);
-            }
-        }
-        
-        Collections.sort(result);
+    public synchronized List<DueDate> getDueDatesForModule(String moduleId) {
+        return select(copyOf(slotsByModule.get(ids.modules.find(moduleId))), slotsByDate, null, null, null, null);
+    }
+    
+    /**
+     * Gets the due dates for an assignment, which is how the due date
+     * belonging to a grade is found without scanning all due dates.
+     * Occurrences of repeating due dates are not included.
+     * 
+     * @param key Course, module and name of the assignment
+     * @return List of due dates for the assignment, ordered by date
+     */
+    public synchronized List<DueDate> getDueDatesForAssignment(AssignmentKey key) {
+        Set<DueDate> dueDates = dueDatesByAssignment.get(key);
+        List<DueDate> result = dueDates != null ? new ArrayList<>(dueDates) : new ArrayList<>();
+        result.sort(BY_DATE);
         return result;
     }
     
@@ -143,40 +293,19 @@ public class DueDateManager {
      * @param endDate End date of the range
      * @return List of due dates within the specified date range
      */
-    public List<DueDate> getDueDatesInRange(LocalDate startDate, LocalDate endDate) {
-        List<DueDate> result = new ArrayList<>();
-        
-        for (DueDate dueDate : dueDates) {
-            LocalDate date = dueDate.getDueDate();
-            if ((date.isEqual(startDate) || date.isAfter(startDate)) && 
-                (date.isEqual(endDate) || date.isBefore(endDate))) {
-                result.add(dueDate);
-            }
-        }
-        
-        Collections.sort(result);
-        return result;
+    public synchronized List<DueDate> getDueDatesInRange(LocalDate startDate, LocalDate endDate) {
+        return select(null, slotsByDate, startDate, endDate, null, null);
     }
     
     /**
      * Gets all due dates for a specific student across all courses.
      * 
      * @param studentId The ID of the student
-     * @param courseManager The course manager to check enrollment
+     * @param courseRepository Courses to check enrollment
      * @return List of due dates for the courses the student is enrolled in
      */
-    public List<DueDate> getDueDatesForStudent(int studentId, CourseManager courseManager) {
-        List<DueDate> result = new ArrayList<>();
-        String studentIdStr = String.valueOf(studentId);
-        
-        for (Course course : courseManager.getAllCourses()) {
-            if (course.isStudentEnrolled(studentIdStr)) {
-                result.addAll(getDueDatesForCourse(course.getId()));
-            }
-        }
-        
-        Collections.sort(result);
-        return result;
+    public synchronized List<DueDate> getDueDatesForStudent(int studentId, CourseRepository courseRepository) {
+        return select(studentSlots(String.valueOf(studentId), courseRepository), slotsByDate, null, null, null, null);
     }
     
     /**
@@ -184,117 +313,604 @@ public class DueDateManager {
      * 
      * @param studentId The ID of the student
      * @param moduleId The ID of the module
-     * @param courseManager The course manager to check enrollment
+     * @param courseRepository Courses to check enrollment
      * @return List of due dates for the specified module the student is enrolled in
      */
-    public List<DueDate> getDueDatesForStudentInModule(int studentId, String moduleId, CourseManager courseManager) {
-        List<DueDate> result = new ArrayList<>();
-        String studentIdStr = String.valueOf(studentId);
-        
-        // Get all due dates for the specified module
-        List<DueDate> moduleDueDates = getDueDatesForModule(moduleId);
+    public synchronized List<DueDate> getDueDatesForStudentInModule(int studentId, String moduleId, CourseRepository courseRepository) {
+        BitSet candidates = studentSlots(String.valueOf(studentId), courseRepository);
+        candidates.and(copyOf(slotsByModule.get(ids.modules.find(moduleId))));
+        return select(candidates, slotsByDate, null, null, null, null);
+    }
+    
+    /**
+     * Gets all due dates with a specific status.
+     * 
+     * @param status The status to filter by ("Upcoming", "Due Soon", "Overdue", "Completed")
+     * @return List of due dates with the specified status
+     */
+    public synchronized List<DueDate> getDueDatesByStatus(String status) {
+        DueDateQuery query = DueDateQuery.forFilter(status);
+        if (query.getStatuses() == null) {
+            return new ArrayList<>();
+        }
+        return findDueDates(query, null);
+    }
+    
+    /**
+     * Gets all due dates with a specific priority.
+     * 
+     * @param priority The priority to filter by ("High", "Medium", "Low")
+     * @return List of due dates with the specified priority
+     */
+    public synchronized List<DueDate> getDueDatesByPriority(String priority) {
+        return select(copyOf(slotsByPriority.get(priority)), slotsByDate, null, null, null, null);
+    }
+    
+    /**
+     * Gets all upcoming due dates (not completed and not overdue).
+     * 
+     * @return List of upcoming due dates
+     */
+    public synchronized List<DueDate> getUpcomingDueDates() {
+        return select(null, incompleteSlotsByDate, today(), null, null, null);
+    }
+    
+    /**
+     * Gets all overdue due dates (not completed and past due).
+     * 
+     * @return List of overdue due dates
+     */
+    public synchronized List<DueDate> getOverdueDueDates() {
+        return select(null, incompleteSlotsByDate, null, today().minusDays(1), null, null);
+    }
+    
+    /**
+     * Gets the next incomplete due dates from today on, soonest first.
+     * 
+     * @param count The maximum number of due dates to return
+     * @return Up to count upcoming due dates
+     */
+    public synchronized List<DueDate> getNextDueDates(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        }
         
-        // Filter for only courses the student is enrolled in
-        for (DueDate dueDate : moduleDueDates) {
-            Course course = courseManager.getCourseById(dueDate.getCourseId());
-            if (course != null && course.isStudentEnrolled(studentIdStr)) {
-                result.add(dueDate);
+        List<DueDate> result = new ArrayList<>(Math.min(count, 16));
+        for (SortedIntSet day : incompleteSlotsByDate.tailMap(today(), true).values()) {
+            for (int i = 0; i < day.size(); i++) {
+                if (result.size() == count) {
+                    return result;
+                }
+                result.add(dueDatesBySlot.get(day.get(i)));
             }
         }
         
-        Collections.sort(result);
         return result;
     }
     
     /**
-     * Gets all due dates with a specific status.
+     * Gets all completed due dates.
      * 
-     * @param status The status to filter by ("Upcoming", "Due Soon", "Overdue", "Completed")
-     * @return List of due dates with the specified status
+     * @return List of completed due dates
      */
-    public List<DueDate> getDueDatesByStatus(String status) {
-        List<DueDate> result = new ArrayList<>();
+    public synchronized List<DueDate> getCompletedDueDates() {
+        return select(copyOf(completedSlots), slotsByDate, null, null, null, null);
+    }
+    
+    /**
+     * Finds the due dates that pass every condition of a query, sorted by date.
+     * 
+     * @param query The conditions to apply
+     * @param courseRepository Courses to check enrollment; only used when the query names a student
+     * @return The matching due dates
+     */
+    public synchronized List<DueDate> findDueDates(DueDateQuery query, CourseRepository courseRepository) {
+        BitSet candidates = null; // null while no condition has narrowed the slots
+        if (query.getStudentId() != null) {
+            candidates = studentSlots(query.getStudentId(), courseRepository);
+        }
+        if (query.getCourseIds() != null) {
+            candidates = intersect(candidates, courseSlots(query.getCourseIds()));
+        }
+        if (query.getPriorities() != null) {
+            candidates = intersect(candidates, union(slotsByPriority, query.getPriorities()));
+        }
         
-        for (DueDate dueDate : dueDates) {
-            if (dueDate.getStatus().equals(status)) {
-                result.add(dueDate);
+        // Statuses other than Completed only apply to open due dates, within a range of dates
+        Boolean completed = query.getCompleted();
+        Set<DueDateStatus> statuses = query.getStatuses();
+        LocalDate today = today();
+        LocalDate fromDate = query.getFromDate();
+        LocalDate toDate = query.getToDate();
+        if (statuses != null) {
+            if (!statuses.contains(DueDateStatus.COMPLETED)) {
+                if (Boolean.TRUE.equals(completed)) {
+                    return new ArrayList<>();
+                }
+                completed = Boolean.FALSE;
+                
+                LocalDate dueSoonEnd = today.plusDays(DueDateStatus.DUE_SOON_DAYS);
+                if (!statuses.contains(DueDateStatus.OVERDUE)) {
+                    fromDate = later(fromDate, statuses.contains(DueDateStatus.DUE_SOON) ? today : dueSoonEnd.plusDays(1));
+                }
+                if (!statuses.contains(DueDateStatus.UPCOMING)) {
+                    toDate = earlier(toDate, statuses.contains(DueDateStatus.DUE_SOON) ? dueSoonEnd : today.minusDays(1));
+                }
+            } else if (statuses.size() == 1) {
+                if (Boolean.FALSE.equals(completed)) {
+                    return new ArrayList<>();
+                }
+                completed = Boolean.TRUE;
             }
         }
         
-        Collections.sort(result);
-        return result;
+        if (Boolean.TRUE.equals(completed)) {
+            candidates = intersect(candidates, copyOf(completedSlots));
+        } else if (Boolean.FALSE.equals(completed) && candidates != null) {
+            candidates.andNot(completedSlots);
+        }
+        
+        NavigableMap<LocalDate, SortedIntSet> byDate = Boolean.FALSE.equals(completed) ? incompleteSlotsByDate : slotsByDate;
+        return select(candidates, byDate, fromDate, toDate, statuses, today);
     }
     
     /**
-     * Gets all due dates with a specific priority.
+     * Counts the open due dates on each day, for workload views. Only the
+     * student, course and priority conditions of the query are used; the
+     * counts cover every date and leave out completed due dates.
      * 
-     * @param priority The priority to filter by ("High", "Medium", "Low")
-     * @return List of due dates with the specified priority
+     * @param query The due dates to count
+     * @param courseRepository Courses to check enrollment; only used when the query names a student
+     * @return Open due dates per day
      */
-    public List<DueDate> getDueDatesByPriority(String priority) {
-        List<DueDate> result = new ArrayList<>();
+    public synchronized Workload getWorkload(DueDateQuery query, CourseRepository courseRepository) {
+        Set<String> courseIds = courseIdsOf(query, courseRepository);
+        Set<String> priorities = query.getPriorities();
         
-        for (DueDate dueDate : dueDates) {
-            if (dueDate.getPriority().equals(priority)) {
-                result.add(dueDate);
+        if (courseIds == null && priorities == null) {
+            return openByDay.snapshot();
+        }
+        if (priorities == null) {
+            List<DayHistogram> histograms = new ArrayList<>();
+            for (String courseId : courseIds) {
+                histograms.add(openByDayForCourse.get(ids.courses.find(courseId)));
             }
+            return DayHistogram.sum(histograms);
+        }
+        if (courseIds == null) {
+            return DayHistogram.sum(histograms(openByDayForPriority, priorities));
         }
         
-        Collections.sort(result);
+        // Courses and priorities together have no histogram; count the matching due dates
+        BitSet slots = courseSlots(courseIds);
+        slots.and(union(slotsByPriority, priorities));
+        slots.andNot(completedSlots);
+        Map<LocalDate, Integer> countsByDate = new HashMap<>();
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            countsByDate.merge(dueDatesBySlot.get(slot).getDueDate(), 1, Integer::sum);
+        }
+        return Workload.fromCounts(countsByDate);
+    }
+    
+    private static List<DayHistogram> histograms(Map<String, DayHistogram> index, Set<String> keys) {
+        List<DayHistogram> result = new ArrayList<>();
+        for (String key : keys) {
+            result.add(index.get(key));
+        }
         return result;
     }
     
     /**
-     * Gets all upcoming due dates (not completed and not overdue).
+     * Adds a repeating due date.
      * 
-     * @return List of upcoming due dates
+     * @param series Series to add
      */
-    public List<DueDate> getUpcomingDueDates() {
-        List<DueDate> result = new ArrayList<>();
+    public synchronized void addSeries(DueDateSeries series) {
+        seriesById.put(series.getSeriesId(), series);
+        if (journal != null) {
+            journal.recordSaved(series);
+        }
+        publish(ChangeEvent.dueDateSeriesChanged(series, false));
+    }
+    
+    /**
+     * Retrieves a series by its unique ID.
+     * 
+     * @param seriesId ID of the series to retrieve
+     * @return Series with the specified ID, or null if not found
+     */
+    public synchronized DueDateSeries getSeriesById(String seriesId) {
+        return seriesById.get(seriesId);
+    }
+    
+    /**
+     * Gets a list of all series.
+     * 
+     * @return List of all series
+     */
+    public synchronized List<DueDateSeries> getAllSeries() {
+        return new ArrayList<>(seriesById.values());
+    }
+    
+    /**
+     * Updates an existing series. Occurrences that were overridden keep their overrides.
+     * 
+     * @param seriesId ID of the series to update
+     * @param updatedSeries Updated series data
+     * @return true if the series was updated, false if the series was not found
+     */
+    public synchronized boolean updateSeries(String seriesId, DueDateSeries updatedSeries) {
+        if (!seriesById.containsKey(seriesId)) {
+            return false;
+        }
         
-        for (DueDate dueDate : dueDates) {
-            if (!dueDate.isCompleted() && dueDate.getDaysRemaining() >= 0) {
-                result.add(dueDate);
+        seriesById.remove(seriesId);
+        seriesById.put(updatedSeries.getSeriesId(), updatedSeries);
+        if (journal != null) {
+            journal.recordSaved(updatedSeries);
+        }
+        publish(ChangeEvent.dueDateSeriesChanged(updatedSeries, false));
+        return true;
+    }
+    
+    /**
+     * Removes a series together with the overrides of its occurrences.
+     * 
+     * @param seriesId ID of the series to remove
+     * @return true if the series was removed, false if the series was not found
+     */
+    public synchronized boolean removeSeries(String seriesId) {
+        DueDateSeries removed = seriesById.remove(seriesId);
+        if (removed == null) {
+            return false;
+        }
+        
+        List<String> overrideIds = new ArrayList<>();
+        for (String dueDateId : slotsById.keySet()) {
+            if (seriesId.equals(DueDateSeries.seriesIdOf(dueDateId))) {
+                overrideIds.add(dueDateId);
             }
         }
+        for (String overrideId : overrideIds) {
+            removeDueDate(overrideId);
+        }
         
-        Collections.sort(result);
-        return result;
+        if (journal != null) {
+            journal.recordRemoved(removed);
+        }
+        publish(ChangeEvent.dueDateSeriesChanged(removed, true));
+        return true;
     }
     
     /**
-     * Gets all overdue due dates (not completed and past due).
+     * Creates the occurrences of every series that pass a query, sorted by
+     * date. Only the query's date window is expanded; without one, each series
+     * is expanded from its start to its end. Occurrences that are overridden
+     * or skipped are left out, since overrides are stored due dates that
+     * {@link #findDueDates(DueDateQuery, CourseRepository)} already returns.
      * 
-     * @return List of overdue due dates
+     * @param query The conditions to apply
+     * @param courseRepository Courses to check enrollment; only used when the query names a student
+     * @return New due dates for the matching occurrences
      */
-    public List<DueDate> getOverdueDueDates() {
+    public synchronized List<DueDate> findOccurrences(DueDateQuery query, CourseRepository courseRepository) {
         List<DueDate> result = new ArrayList<>();
+        if (seriesById.isEmpty()) {
+            return result;
+        }
         
-        for (DueDate dueDate : dueDates) {
-            if (!dueDate.isCompleted() && dueDate.getDaysRemaining() < 0) {
-                result.add(dueDate);
+        Set<String> courseIds = courseIdsOf(query, courseRepository);
+        LocalDate today = today();
+        for (DueDateSeries series : seriesById.values()) {
+            if (courseIds != null && !courseIds.contains(series.getCourseId())) {
+                continue;
+            }
+            LocalDate from = query.getFromDate() != null ? query.getFromDate() : series.getStartDate();
+            LocalDate to = query.getToDate() != null ? query.getToDate() : series.getEndDate();
+            if (to == null) {
+                continue;
+            }
+            for (DueDate occurrence : series.getOccurrences(from, to)) {
+                if (!slotsById.containsKey(occurrence.getDueDateId()) && query.matches(occurrence, today)) {
+                    result.add(occurrence);
+                }
             }
         }
         
-        Collections.sort(result);
+        result.sort(BY_DATE);
         return result;
     }
     
     /**
-     * Gets all completed due dates.
+     * Gets the series an occurrence ID belongs to, if the series exists.
+     */
+    private DueDateSeries seriesOf(String dueDateId) {
+        String seriesId = DueDateSeries.seriesIdOf(dueDateId);
+        return seriesId != null ? seriesById.get(seriesId) : null;
+    }
+    
+    /**
+     * Gets the courses a query is limited to by its student and course
+     * conditions, or null if it covers every course.
+     */
+    private static Set<String> courseIdsOf(DueDateQuery query, CourseRepository courseRepository) {
+        Set<String> courseIds = query.getCourseIds();
+        if (query.getStudentId() != null) {
+            Set<String> enrolledCourseIds = courseRepository.getCourseIdsForStudent(query.getStudentId());
+            if (courseIds != null) {
+                enrolledCourseIds.retainAll(courseIds);
+            }
+            courseIds = enrolledCourseIds;
+        }
+        return courseIds;
+    }
+    
+    /**
+     * Gets the current day on this manager's clock.
+     */
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+    
+    /**
+     * Lists due dates in date order, and within a day in slot order.
      * 
-     * @return List of completed due dates
+     * @param candidates Slots to choose from, or null for every slot in the date index
+     * @param byDate Date index to read when walking the dates
+     * @param fromDate First date to include, or null
+     * @param toDate Last date to include, or null
+     * @param statuses Statuses to include, or null for all
+     * @param today Day the statuses are worked out for, or null if statuses is null
+     * @return The matching due dates
      */
-    public List<DueDate> getCompletedDueDates() {
+    private List<DueDate> select(BitSet candidates, NavigableMap<LocalDate, SortedIntSet> byDate,
+                                 LocalDate fromDate, LocalDate toDate, Set<DueDateStatus> statuses, LocalDate today) {
         List<DueDate> result = new ArrayList<>();
+        if (fromDate != null && toDate != null && toDate.isBefore(fromDate)) {
+            return result;
+        }
         
-        for (DueDate dueDate : dueDates) {
-            if (dueDate.isCompleted()) {
-                result.add(dueDate);
+        if (candidates != null && candidates.cardinality() * SORT_RATIO < slotsById.size()) {
+            // Few candidates: take them directly and sort; the sort is stable, so slot order holds within a day
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                DueDate dueDate = dueDatesBySlot.get(slot);
+                LocalDate date = dueDate.getDueDate();
+                if ((fromDate == null || !date.isBefore(fromDate)) && (toDate == null || !date.isAfter(toDate))
+                        && (statuses == null || statuses.contains(dueDate.getDueDateStatus(today)))) {
+                    result.add(dueDate);
+                }
             }
+            result.sort(BY_DATE);
+            return result;
+        }
+        
+        NavigableMap<LocalDate, SortedIntSet> window = byDate;
+        if (fromDate != null && toDate != null) {
+            window = byDate.subMap(fromDate, true, toDate, true);
+        } else if (fromDate != null) {
+            window = byDate.tailMap(fromDate, true);
+        } else if (toDate != null) {
+            window = byDate.headMap(toDate, true);
         }
         
-        Collections.sort(result);
+        for (SortedIntSet day : window.values()) {
+            for (int i = 0; i < day.size(); i++) {
+                int slot = day.get(i);
+                if (candidates == null || candidates.get(slot)) {
+                    DueDate dueDate = dueDatesBySlot.get(slot);
+                    if (statuses == null || statuses.contains(dueDate.getDueDateStatus(today))) {
+                        result.add(dueDate);
+                    }
+                }
+            }
+        }
         return result;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Gets the slots of the due dates in the courses a student is enrolled in.
+     */
+    private BitSet studentSlots(String studentId, CourseRepository courseRepository) {
+        return courseSlots(courseRepository.getCourseIdsForStudent(studentId));
+    }
+    
+    /**
+     * Gets the slots of the due dates in any of the given courses.
+     */
+    private BitSet courseSlots(Set<String> courseIds) {
+        BitSet result = new BitSet();
+        for (String courseId : courseIds) {
+            BitSet slots = slotsByCourse.get(ids.courses.find(courseId));
+            if (slots != null) {
+                result.or(slots);
+            }
+        }
+        return result;
+    }
+    
+    private static BitSet union(Map<String, BitSet> index, Set<String> keys) {
+        BitSet result = new BitSet();
+        for (String key : keys) {
+            BitSet slots = index.get(key);
+            if (slots != null) {
+                result.or(slots);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Intersects two slot sets, treating null as every slot. May modify the first set.
+     */
+    private static BitSet intersect(BitSet candidates, BitSet slots) {
+        if (candidates == null) {
+            return slots;
+        }
+        candidates.and(slots);
+        return candidates;
+    }
+    
+    private static BitSet copyOf(BitSet slots) {
+        return slots != null ? (BitSet) slots.clone() : new BitSet();
+    }
+    
+    private static LocalDate later(LocalDate date, LocalDate other) {
+        return date == null || other.isAfter(date) ? other : date;
+    }
+    
+    private static LocalDate earlier(LocalDate date, LocalDate other) {
+        return date == null || other.isBefore(date) ? other : date;
+    }
+    
+    /**
+     * Gives a due date a slot and adds it to the indexes, replacing any due date with the same ID.
+     */
+    private void attach(DueDate dueDate) {
+        Integer slot = slotsById.get(dueDate.getDueDateId());
+        if (slot != null) {
+            DueDate previous = dueDatesBySlot.get(slot);
+            unindex(previous);
+            previous.setManager(null);
+        } else {
+            slot = freeSlots.nextSetBit(0);
+            if (slot >= 0) {
+                freeSlots.clear(slot);
+            } else {
+                slot = dueDatesBySlot.size();
+                dueDatesBySlot.add(null);
+            }
+            slotsById.put(dueDate.getDueDateId(), slot);
+        }
+        
+        dueDatesBySlot.set(slot, dueDate);
+        index(dueDate);
+        dueDate.setManager(this);
+    }
+    
+    /**
+     * Removes a due date from the indexes and frees its slot.
+     */
+    private void detach(DueDate dueDate) {
+        unindex(dueDate);
+        dueDate.setManager(null);
+        int slot = slotsById.remove(dueDate.getDueDateId());
+        dueDatesBySlot.set(slot, null);
+        freeSlots.set(slot);
+    }
+    
+    /**
+     * Adds a due date's slot to every attribute index using its current fields.
+     * Called on add and by DueDate after one of its indexed fields has changed.
+     * 
+     * @param dueDate Due date to index
+     */
+    synchronized void index(DueDate dueDate) {
+        int slot = slotsById.get(dueDate.getDueDateId());
+        dueDate.setKeys(ids.courses.acquire(dueDate.getCourseId()), ids.modules.acquire(dueDate.getModuleId()));
+        daySlots(slotsByDate, dueDate.getDueDate()).add(slot);
+        slotsByCourse.computeIfAbsent(dueDate.getCourseKey(), k -> new BitSet()).set(slot);
+        slotsByModule.computeIfAbsent(dueDate.getModuleKey(), k -> new BitSet()).set(slot);
+        dueDatesByAssignment.computeIfAbsent(AssignmentKey.of(dueDate), k -> new LinkedHashSet<>()).add(dueDate);
+        slots(slotsByPriority, dueDate.getPriority()).set(slot);
+        if (dueDate.isCompleted()) {
+            completedSlots.set(slot);
+        } else {
+            daySlots(incompleteSlotsByDate, dueDate.getDueDate()).add(slot);
+            count(dueDate, 1);
+        }
+    }
+    
+    /**
+     * Removes a due date's slot from every attribute index using its current fields.
+     * Called on removal and by DueDate before one of its indexed fields changes.
+     * 
+     * @param dueDate Due date to unindex
+     */
+    synchronized void unindex(DueDate dueDate) {
+        int slot = slotsById.get(dueDate.getDueDateId());
+        clearDay(slotsByDate, dueDate.getDueDate(), slot);
+        clear(slotsByCourse, dueDate.getCourseKey(), slot);
+        clear(slotsByModule, dueDate.getModuleKey(), slot);
+        AssignmentKey key = AssignmentKey.of(dueDate);
+        Set<DueDate> sameAssignment = dueDatesByAssignment.get(key);
+        if (sameAssignment != null && sameAssignment.remove(dueDate) && sameAssignment.isEmpty()) {
+            dueDatesByAssignment.remove(key);
+        }
+        clear(slotsByPriority, dueDate.getPriority(), slot);
+        if (dueDate.isCompleted()) {
+            completedSlots.clear(slot);
+        } else {
+            clearDay(incompleteSlotsByDate, dueDate.getDueDate(), slot);
+            count(dueDate, -1);
+        }
+        ids.courses.release(dueDate.getCourseKey());
+        ids.modules.release(dueDate.getModuleKey());
+    }
+    
+    /**
+     * Adds an open due date to the day counts, or takes it away.
+     */
+    private void count(DueDate dueDate, int delta) {
+        LocalDate date = dueDate.getDueDate();
+        openByDay.add(date, delta);
+        count(openByDayForCourse, dueDate.getCourseKey(), date, delta);
+        count(openByDayForPriority, dueDate.getPriority(), date, delta);
+    }
+    
+    private static void count(Map<String, DayHistogram> index, String key, LocalDate date, int delta) {
+        DayHistogram histogram = index.computeIfAbsent(key, k -> new DayHistogram());
+        histogram.add(date, delta);
+        if (histogram.isEmpty()) {
+            index.remove(key);
+        }
+    }
+    
+    private static void count(DenseMap<DayHistogram> index, int key, LocalDate date, int delta) {
+        DayHistogram histogram = index.computeIfAbsent(key, k -> new DayHistogram());
+        histogram.add(date, delta);
+        if (histogram.isEmpty()) {
+            index.remove(key);
+        }
+    }
+    
+    private static <K> BitSet slots(Map<K, BitSet> index, K key) {
+        return index.computeIfAbsent(key, k -> new BitSet());
+    }
+    
+    private static <K> void clear(Map<K, BitSet> index, K key, int slot) {
+        BitSet slots = index.get(key);
+        if (slots != null) {
+            slots.clear(slot);
+            if (slots.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+    
+    private static SortedIntSet daySlots(Map<LocalDate, SortedIntSet> index, LocalDate date) {
+        return index.computeIfAbsent(date, k -> new SortedIntSet());
+    }
+    
+    private static void clearDay(Map<LocalDate, SortedIntSet> index, LocalDate date, int slot) {
+        SortedIntSet slots = index.get(date);
+        if (slots != null && slots.remove(slot) && slots.isEmpty()) {
+            index.remove(date);
+        }
+    }
+    
+    private static void clear(DenseMap<BitSet> index, int key, int slot) {
+        BitSet slots = index.get(key);
+        if (slots != null) {
+            slots.clear(slot);
+            if (slots.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+    
+    private void publish(ChangeEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A combination of conditions on due dates, passed to
+ * {@link DueDateRepository#findDueDates(DueDateQuery, CourseRepository)}.
+ *
+ * Every condition starts out unset, meaning it matches any due date; a due
+ * date must pass all of the conditions that are set. Within one condition,
+ * such as a set of priorities, a due date only has to match one value.
+ */
+public class DueDateQuery {
+    private String studentId; // Only courses this student is enrolled in, or null
+    private Set<String> courseIds; // null for any course
+    private Set<DueDateStatus> statuses; // null for any status
+    private Set<String> priorities; // null for any priority
+    private LocalDate fromDate; // Inclusive, or null for no lower bound
+    private LocalDate toDate; // Inclusive, or null for no upper bound
+    private Boolean completed; // null for both completed and open due dates
+
+    /**
+     * Creates a query that matches every due date.
+     */
+    public DueDateQuery() {
+    }
+
+    /**
+     * Creates a query for the status or priority filter offered in the due
+     * dates view, such as "Overdue" or "High Priority".
+     *
+     * @param filter The filter name; "All" or any unknown name matches everything
+     * @return A query with the matching status or priority condition
+     */
+    public static DueDateQuery forFilter(String filter) {
+        DueDateQuery query = new DueDateQuery();
+        if (filter == null) {
+            return query;
+        }
+
+        for (DueDateStatus status : DueDateStatus.values()) {
+            if (status.getLabel().equals(filter)) {
+                query.setStatuses(EnumSet.of(status));
+                return query;
+            }
+        }
+        if (filter.endsWith(" Priority")) {
+            query.setPriorities(Set.of(filter.substring(0, filter.length() - " Priority".length())));
+        }
+        return query;
+    }
+
+    /**
+     * Tells whether a due date passes every condition except the student
+     * condition, which needs the student's enrollments to check, with
+     * statuses worked out for a given day.
+     *
+     * @param dueDate The due date to check
+     * @param today The day the status conditions refer to
+     * @return true if the due date passes the query on that day
+     */
+    public boolean matches(DueDate dueDate, LocalDate today) {
+        LocalDate date = dueDate.getDueDate();
+        return (courseIds == null || courseIds.contains(dueDate.getCourseId()))
+            && (statuses == null || statuses.contains(dueDate.getDueDateStatus(today)))
+            && (priorities == null || priorities.contains(dueDate.getPriority()))
+            && (fromDate == null || !date.isBefore(fromDate))
+            && (toDate == null || !date.isAfter(toDate))
+            && (completed == null || completed == dueDate.isCompleted());
+    }
+
+    /**
+     * Gets the student whose courses the due dates must belong to.
+     *
+     * @return Student ID, or null for any student
+     */
+    public String getStudentId() {
+        return studentId;
+    }
+
+    /**
+     * Limits the query to courses a student is enrolled in.
+     *
+     * @param studentId Student ID, or null for any student
+     */
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    /**
+     * Gets the courses the due dates must belong to.
+     *
+     * @return Course IDs, or null for any course
+     */
+    public Set<String> getCourseIds() {
+        return courseIds;
+    }
+
+    /**
+     * Limits the query to some courses.
+     *
+     * @param courseIds Course IDs, or null for any course
+     */
+    public void setCourseIds(Set<String> courseIds) {
+        this.courseIds = courseIds == null ? null : new HashSet<>(courseIds);
+    }
+
+    /**
+     * Gets the statuses the due dates must have.
+     *
+     * @return Statuses, or null for any status
+     */
+    public Set<DueDateStatus> getStatuses() {
+        return statuses;
+    }
+
+    /**
+     * Limits the query to some statuses.
+     *
+     * @param statuses Statuses, or null for any status
+     */
+    public void setStatuses(Set<DueDateStatus> statuses) {
+        this.statuses = statuses == null ? null
+            : statuses.isEmpty() ? EnumSet.noneOf(DueDateStatus.class) : EnumSet.copyOf(statuses);
+    }
+
+    /**
+     * Gets the priorities the due dates must have.
+     *
+     * @return Priorities, or null for any priority
+     */
+    public Set<String> getPriorities() {
+        return priorities;
+    }
+
+    /**
+     * Limits the query to some priorities ("High", "Medium", "Low").
+     *
+     * @param priorities Priorities, or null for any priority
+     */
+    public void setPriorities(Set<String> priorities) {
+        this.priorities = priorities == null ? null : new HashSet<>(priorities);
+    }
+
+    /**
+     * Gets the earliest due date to include.
+     *
+     * @return First date, or null for no lower bound
+     */
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    /**
+     * Gets the latest due date to include.
+     *
+     * @return Last date, or null for no upper bound
+     */
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    /**
+     * Limits the query to due dates in a window, both ends included.
+     *
+     * @param fromDate First date, or null for no lower bound
+     * @param toDate Last date, or null for no upper bound
+     */
+    public void setDateRange(LocalDate fromDate, LocalDate toDate) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+    /**
+     * Gets the completion the due dates must have.
+     *
+     * @return true or false, or null for either
+     */
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Limits the query to completed or open due dates.
+     *
+     * @param completed true or false, or null for either
+     */
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+}
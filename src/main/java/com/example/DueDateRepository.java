@@ -0,0 +1,245 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Storage for due dates. {@link DueDateManager} keeps due dates in memory;
+ * {@link JdbcDueDateRepository} keeps them in an embedded database.
+ * Every list is sorted by date.
+ */
+public interface DueDateRepository {
+
+    /**
+     * Sets the bus that receives a change event for every change made through this repository.
+     * 
+     * @param eventBus The event bus, or null to stop publishing changes
+     */
+    void setEventBus(ChangeEventBus eventBus);
+
+    /**
+     * Adds a new due date.
+     * 
+     * @param dueDate Due date to add
+     */
+    void addDueDate(DueDate dueDate);
+
+    /**
+     * Adds several due dates at once.
+     * 
+     * @param dueDates Due dates to add
+     */
+    void addDueDates(List<DueDate> dueDates);
+
+    /**
+     * Retrieves a due date by its unique ID.
+     * 
+     * @param dueDateId ID of the due date to retrieve
+     * @return Due date with the specified ID, or null if not found
+     */
+    DueDate getDueDateById(String dueDateId);
+
+    /**
+     * Gets a list of all due dates, sorted by date.
+     * 
+     * @return List of all due dates
+     */
+    List<DueDate> getAllDueDates();
+
+    /**
+     * Updates an existing due date. Updating an occurrence of a series for
+     * the first time stores it as an override of that occurrence.
+     * 
+     * @param dueDateId ID of the due date to update
+     * @param updatedDueDate Updated due date data
+     * @return true if the due date was updated, false if the due date was not found
+     */
+    boolean updateDueDate(String dueDateId, DueDate updatedDueDate);
+
+    /**
+     * Removes a due date. Removing an occurrence of a series also skips it in
+     * the series from then on.
+     * 
+     * @param dueDateId ID of the due date to remove
+     * @return true if the due date was removed, false if the due date was not found
+     */
+    boolean removeDueDate(String dueDateId);
+
+    /**
+     * Gets the number of due dates.
+     * 
+     * @return The number of due dates
+     */
+    int getDueDateCount();
+
+    /**
+     * Gets all due dates for a specific course.
+     * 
+     * @param courseId ID of the course
+     * @return List of due dates for the specified course
+     */
+    List<DueDate> getDueDatesForCourse(String courseId);
+
+    /**
+     * Gets all due dates for a specific module.
+     * 
+     * @param moduleId ID of the module
+     * @return List of due dates for the specified module
+     */
+    List<DueDate> getDueDatesForModule(String moduleId);
+
+    /**
+     * Gets the due dates for an assignment, which is how the due date
+     * belonging to a grade is found without scanning all due dates.
+     * Occurrences of repeating due dates are not included.
+     * 
+     * @param key Course, module and name of the assignment
+     * @return List of due dates for the assignment, ordered by date
+     */
+    List<DueDate> getDueDatesForAssignment(AssignmentKey key);
+
+    /**
+     * Gets all due dates for a specific date range, inclusive.
+     * 
+     * @param startDate Start date of the range
+     * @param endDate End date of the range
+     * @return List of due dates within the specified date range
+     */
+    List<DueDate> getDueDatesInRange(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Gets all due dates for a specific student across all courses.
+     * 
+     * @param studentId The ID of the student
+     * @param courseRepository Courses to check enrollment
+     * @return List of due dates for the courses the student is enrolled in
+     */
+    List<DueDate> getDueDatesForStudent(int studentId, CourseRepository courseRepository);
+
+    /**
+     * Gets all due dates for a specific student in a specific module.
+     * 
+     * @param studentId The ID of the student
+     * @param moduleId The ID of the module
+     * @param courseRepository Courses to check enrollment
+     * @return List of due dates for the specified module the student is enrolled in
+     */
+    List<DueDate> getDueDatesForStudentInModule(int studentId, String moduleId, CourseRepository courseRepository);
+
+    /**
+     * Gets all due dates with a specific status.
+     * 
+     * @param status The status to filter by ("Upcoming", "Due Soon", "Overdue", "Completed")
+     * @return List of due dates with the specified status
+     */
+    List<DueDate> getDueDatesByStatus(String status);
+
+    /**
+     * Gets all due dates with a specific priority.
+     * 
+     * @param priority The priority to filter by ("High", "Medium", "Low")
+     * @return List of due dates with the specified priority
+     */
+    List<DueDate> getDueDatesByPriority(String priority);
+
+    /**
+     * Gets all upcoming due dates (not completed and not overdue).
+     * 
+     * @return List of upcoming due dates
+     */
+    List<DueDate> getUpcomingDueDates();
+
+    /**
+     * Gets all overdue due dates (not completed and past due).
+     * 
+     * @return List of overdue due dates
+     */
+    List<DueDate> getOverdueDueDates();
+
+    /**
+     * Gets the next incomplete due dates from today on, soonest first.
+     * 
+     * @param count The maximum number of due dates to return
+     * @return Up to count upcoming due dates
+     */
+    List<DueDate> getNextDueDates(int count);
+
+    /**
+     * Gets all completed due dates.
+     * 
+     * @return List of completed due dates
+     */
+    List<DueDate> getCompletedDueDates();
+
+    /**
+     * Finds the due dates that pass every condition of a query, sorted by date.
+     * 
+     * @param query The conditions to apply
+     * @param courseRepository Courses to check enrollment; only used when the query names a student
+     * @return The matching due dates
+     */
+    List<DueDate> findDueDates(DueDateQuery query, CourseRepository courseRepository);
+
+    /**
+     * Counts the open due dates on each day, for workload views. Only the
+     * student, course and priority conditions of the query are used; the
+     * counts cover every date and leave out completed due dates.
+     * 
+     * @param query The due dates to count
+     * @param courseRepository Courses to check enrollment; only used when the query names a student
+     * @return Open due dates per day
+     */
+    Workload getWorkload(DueDateQuery query, CourseRepository courseRepository);
+
+    /**
+     * Adds a repeating due date.
+     * 
+     * @param series Series to add
+     */
+    void addSeries(DueDateSeries series);
+
+    /**
+     * Retrieves a series by its unique ID.
+     * 
+     * @param seriesId ID of the series to retrieve
+     * @return Series with the specified ID, or null if not found
+     */
+    DueDateSeries getSeriesById(String seriesId);
+
+    /**
+     * Gets a list of all series.
+     * 
+     * @return List of all series
+     */
+    List<DueDateSeries> getAllSeries();
+
+    /**
+     * Updates an existing series. Occurrences that were overridden keep their overrides.
+     * 
+     * @param seriesId ID of the series to update
+     * @param updatedSeries Updated series data
+     * @return true if the series was updated, false if the series was not found
+     */
+    boolean updateSeries(String seriesId, DueDateSeries updatedSeries);
+
+    /**
+     * Removes a series together with the overrides of its occurrences.
+     * 
+     * @param seriesId ID of the series to remove
+     * @return true if the series was removed, false if the series was not found
+     */
+    boolean removeSeries(String seriesId);
+
+    /**
+     * Creates the occurrences of every series that pass a query, sorted by
+     * date. Only the query's date window is expanded; without one, each series
+     * is expanded from its start to its end. Occurrences that are overridden
+     * or skipped are left out, since overrides are stored due dates that
+     * {@link #findDueDates(DueDateQuery, CourseRepository)} already returns.
+     * 
+     * @param query The conditions to apply
+     * @param courseRepository Courses to check enrollment; only used when the query names a student
+     * @return New due dates for the matching occurrences
+     */
+    List<DueDate> findOccurrences(DueDateQuery query, CourseRepository courseRepository);
+}
@@ -0,0 +1,360 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * A repeating due date, such as a weekly quiz, stored as one record: the
+ * fields every occurrence shares, the date of the first occurrence and a
+ * {@link RecurrenceRule}.
+ *
+ * Occurrences are created on demand for the dates being viewed. Each has the
+ * ID "seriesId@date", where the date is the one the rule gives it. Storing a
+ * due date under that ID overrides the occurrence, for example to complete it
+ * or move it to another day; an exception date stops the occurrence from
+ * being created at all, which is how a single occurrence is deleted.
+ */
+public class DueDateSeries {
+    private static final char OCCURRENCE_SEPARATOR = '@';
+
+    private final String seriesId;
+    private String courseId;
+    private String courseName;
+    private String moduleId;
+    private String moduleName;
+    private String assignmentName;
+    private String description;
+    private String priority;
+    private LocalDate startDate; // Date of the first occurrence
+    private RecurrenceRule rule;
+    private final SortedSet<LocalDate> exceptions; // Occurrence dates that are skipped
+
+    /**
+     * Creates a series whose occurrences copy a due date's fields.
+     *
+     * @param template The first occurrence; its date starts the series
+     * @param rule How the series repeats
+     */
+    public DueDateSeries(DueDate template, RecurrenceRule rule) {
+        this(UUID.randomUUID().toString(), template.getCourseId(), template.getCourseName(), template.getModuleId(),
+            template.getModuleName(), template.getAssignmentName(), template.getDescription(), template.getPriority(),
+            template.getDueDate(), rule);
+    }
+
+    /**
+     * Creates a series with an existing ID, e.g. when loading saved data.
+     *
+     * @param seriesId The unique ID of the series
+     * @param courseId The ID of the associated course
+     * @param courseName The name of the associated course
+     * @param moduleId The ID of the associated module
+     * @param moduleName The name of the associated module
+     * @param assignmentName The name of the assignment
+     * @param description A description of the assignment
+     * @param priority The priority level of the assignment
+     * @param startDate The date of the first occurrence
+     * @param rule How the series repeats
+     */
+    public DueDateSeries(String seriesId, String courseId, String courseName, String moduleId, String moduleName,
+                         String assignmentName, String description, String priority, LocalDate startDate,
+                         RecurrenceRule rule) {
+        if (seriesId.indexOf(OCCURRENCE_SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Series ID must not contain '" + OCCURRENCE_SEPARATOR + "': " + seriesId);
+        }
+        this.seriesId = seriesId;
+        this.courseId = courseId;
+        this.courseName = courseName;
+        this.moduleId = moduleId;
+        this.moduleName = moduleName;
+        this.assignmentName = assignmentName;
+        this.description = description;
+        this.priority = priority;
+        this.startDate = startDate;
+        this.rule = rule;
+        this.exceptions = new TreeSet<>();
+    }
+
+    /**
+     * Creates the occurrences that fall within a window of dates, leaving out
+     * exception dates. Overrides are not applied here; the repository does that.
+     *
+     * @param from First date of the window
+     * @param to Last date of the window
+     * @return New due dates for the occurrences, in date order
+     */
+    public List<DueDate> getOccurrences(LocalDate from, LocalDate to) {
+        List<DueDate> occurrences = new ArrayList<>();
+        for (LocalDate date : rule.getOccurrences(startDate, from, to)) {
+            if (!exceptions.contains(date)) {
+                occurrences.add(createOccurrence(date));
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Creates the occurrence for one date, with the series' fields.
+     *
+     * @param date The date the rule gives the occurrence
+     * @return A new due date with the occurrence's ID
+     */
+    public DueDate createOccurrence(LocalDate date) {
+        DueDate occurrence = new DueDate(occurrenceId(seriesId, date), courseId, courseName, assignmentName,
+            description, date, priority);
+        occurrence.setModuleId(moduleId);
+        occurrence.setModuleName(moduleName);
+        return occurrence;
+    }
+
+    /**
+     * Gets the date of the last occurrence.
+     *
+     * @return The last date, or null if the series has no occurrences
+     */
+    public LocalDate getEndDate() {
+        return rule.getLastOccurrence(startDate);
+    }
+
+    /**
+     * Builds the ID of an occurrence.
+     *
+     * @param seriesId The series ID
+     * @param date The date the rule gives the occurrence
+     * @return The occurrence ID
+     */
+    public static String occurrenceId(String seriesId, LocalDate date) {
+        return seriesId + OCCURRENCE_SEPARATOR + date;
+    }
+
+    /**
+     * Gets the series an occurrence ID belongs to.
+     *
+     * @param dueDateId A due date ID
+     * @return The series ID, or null if the ID is not an occurrence's
+     */
+    public static String seriesIdOf(String dueDateId) {
+        if (occurrenceDateOf(dueDateId) == null) {
+            return null;
+        }
+        return dueDateId.substring(0, dueDateId.lastIndexOf(OCCURRENCE_SEPARATOR));
+    }
+
+    /**
+     * Gets the date the rule gives an occurrence, even if it has been moved.
+     *
+     * @param dueDateId An occurrence ID
+     * @return The occurrence date, or null if the ID is not an occurrence's
+     */
+    public static LocalDate occurrenceDateOf(String dueDateId) {
+        int separator = dueDateId.lastIndexOf(OCCURRENCE_SEPARATOR);
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(dueDateId.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the unique ID of this series.
+     *
+     * @return Series ID
+     */
+    public String getSeriesId() {
+        return seriesId;
+    }
+
+    /**
+     * Gets the ID of the associated course.
+     *
+     * @return Course ID
+     */
+    public String getCourseId() {
+        return courseId;
+    }
+
+    /**
+     * Sets the ID of the associated course.
+     *
+     * @param courseId New course ID
+     */
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    /**
+     * Gets the name of the associated course.
+     *
+     * @return Course name
+     */
+    public String getCourseName() {
+        return courseName;
+    }
+
+    /**
+     * Sets the name of the associated course.
+     *
+     * @param courseName New course name
+     */
+    public void setCourseName(String courseName) {
+        this.courseName = courseName;
+    }
+
+    /**
+     * Gets the ID of the associated module.
+     *
+     * @return Module ID
+     */
+    public String getModuleId() {
+        return moduleId;
+    }
+
+    /**
+     * Sets the ID of the associated module.
+     *
+     * @param moduleId New module ID
+     */
+    public void setModuleId(String moduleId) {
+        this.moduleId = moduleId;
+    }
+
+    /**
+     * Gets the name of the associated module.
+     *
+     * @return Module name
+     */
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    /**
+     * Sets the name of the associated module.
+     *
+     * @param moduleName New module name
+     */
+    public void setModuleName(String moduleName) {
+        this.moduleName = moduleName;
+    }
+
+    /**
+     * Gets the name of the assignment.
+     *
+     * @return Assignment name
+     */
+    public String getAssignmentName() {
+        return assignmentName;
+    }
+
+    /**
+     * Sets the name of the assignment.
+     *
+     * @param assignmentName New assignment name
+     */
+    public void setAssignmentName(String assignmentName) {
+        this.assignmentName = assignmentName;
+    }
+
+    /**
+     * Gets the description of the assignment.
+     *
+     * @return Assignment description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Sets the description of the assignment.
+     *
+     * @param description New assignment description
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Gets the priority level of the assignment.
+     *
+     * @return Priority level
+     */
+    public String getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority level of the assignment.
+     *
+     * @param priority New priority level
+     */
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Gets the date of the first occurrence.
+     *
+     * @return Start date
+     */
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Sets the date of the first occurrence.
+     *
+     * @param startDate New start date
+     */
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    /**
+     * Gets how the series repeats.
+     *
+     * @return The recurrence rule
+     */
+    public RecurrenceRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Sets how the series repeats.
+     *
+     * @param rule New recurrence rule
+     */
+    public void setRule(RecurrenceRule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * Gets the occurrence dates that are skipped.
+     *
+     * @return Exception dates, in order
+     */
+    public SortedSet<LocalDate> getExceptions() {
+        return Collections.unmodifiableSortedSet(exceptions);
+    }
+
+    /**
+     * Skips the occurrence on a date.
+     *
+     * @param date The date the rule gives the occurrence
+     * @return true if the date was not already skipped
+     */
+    public boolean addException(LocalDate date) {
+        return exceptions.add(date);
+    }
+
+    @Override
+    public String toString() {
+        return assignmentName + " (" + courseName + ") - " + rule.getDescription();
+    }
+}
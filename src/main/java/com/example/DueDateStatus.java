@@ -0,0 +1,73 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The status of a due date, with the label and color used to show it.
+ */
+public enum DueDateStatus {
+    UPCOMING("Upcoming", "#17a2b8"), // Blue
+    DUE_SOON("Due Soon", "#ffc107"), // Yellow
+    OVERDUE("Overdue", "#dc3545"), // Red
+    COMPLETED("Completed", "#28a745"); // Green
+
+    /**
+     * An incomplete due date this many days away or fewer is due soon.
+     */
+    public static final int DUE_SOON_DAYS = 3;
+
+    private final String label;
+    private final String color;
+
+    DueDateStatus(String label, String color) {
+        this.label = label;
+        this.color = color;
+    }
+
+    /**
+     * Works out the status of a due date on a given day.
+     *
+     * @param dueDate The date the assignment is due
+     * @param completed Whether the assignment is completed
+     * @param today The day to work the status out for
+     * @return The status on that day
+     */
+    public static DueDateStatus of(LocalDate dueDate, boolean completed, LocalDate today) {
+        if (completed) {
+            return COMPLETED;
+        }
+
+        long daysRemaining = ChronoUnit.DAYS.between(today, dueDate);
+        if (daysRemaining < 0) {
+            return OVERDUE;
+        } else if (daysRemaining <= DUE_SOON_DAYS) {
+            return DUE_SOON;
+        } else {
+            return UPCOMING;
+        }
+    }
+
+    /**
+     * Gets the label shown for this status, such as "Due Soon".
+     *
+     * @return Status label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Gets the color used for this status.
+     *
+     * @return CSS color string
+     */
+    public String getColor() {
+        return color;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
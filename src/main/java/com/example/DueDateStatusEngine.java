@@ -0,0 +1,140 @@
+package com.example;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps due date statuses in step with the calendar.
+ *
+ * Each due date caches its status for the day it was last asked about. The
+ * engine keeps its own current day, read from a clock, and advances it once
+ * the date has rolled over, checked by a timer that fires just after every
+ * midnight. The due dates whose status changed at that point (becoming due
+ * soon or overdue) are looked up by date range and published as change
+ * events, so views only update those rows. Events are published on the
+ * engine's timer thread.
+ *
+ * The clock can be replaced to test transitions without waiting for midnight.
+ */
+public class DueDateStatusEngine {
+    private static final long MIDNIGHT_MARGIN_MILLIS = 1000; // Fire a little late rather than a little early
+
+    private final Clock clock;
+    private final DueDateRepository dueDateRepository;
+    private final ScheduledExecutorService scheduler;
+    private ChangeEventBus eventBus; // Receives a change event per due date whose status changed, or null
+    private volatile LocalDate today; // The day statuses were last checked for, read without the lock by views
+
+    /**
+     * Creates an engine and sets the current day from the clock.
+     *
+     * @param clock The clock that decides the current day
+     * @param dueDateRepository The due dates to check when the day changes
+     */
+    public DueDateStatusEngine(Clock clock, DueDateRepository dueDateRepository) {
+        this.clock = clock;
+        this.dueDateRepository = dueDateRepository;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "due-date-status");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.today = LocalDate.now(clock);
+    }
+
+    /**
+     * Sets the bus that receives a change event for every status transition.
+     *
+     * @param eventBus The event bus, or null to stop publishing transitions
+     */
+    public synchronized void setEventBus(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Gets the day the engine last checked statuses for. Views work statuses
+     * out for this day, so they agree with the transitions the engine
+     * publishes. This does not wait for a check in progress.
+     *
+     * @return The current day
+     */
+    public LocalDate getToday() {
+        return today;
+    }
+
+    /**
+     * Starts checking for the date rolling over, just after each midnight.
+     */
+    public void start() {
+        scheduleNextCheck();
+    }
+
+    /**
+     * Stops the timer.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Advances the current day if the clock has moved on to another date and
+     * publishes the due dates whose status changed as a result.
+     *
+     * @return The due dates whose status changed, empty if the date has not changed
+     */
+    public synchronized List<DueDate> checkDate() {
+        LocalDate previousDay = today;
+        LocalDate day = LocalDate.now(clock);
+        List<DueDate> changed = new ArrayList<>();
+        if (day.equals(previousDay)) {
+            return changed;
+        }
+
+        // Only due dates from the earlier day to the due soon horizon of the later one can change
+        LocalDate from = day.isBefore(previousDay) ? day : previousDay;
+        LocalDate to = (day.isBefore(previousDay) ? previousDay : day).plusDays(DueDateStatus.DUE_SOON_DAYS + 1);
+        for (DueDate dueDate : dueDateRepository.getDueDatesInRange(from, to)) {
+            if (!dueDate.isCompleted()
+                    && DueDateStatus.of(dueDate.getDueDate(), false, previousDay)
+                        != DueDateStatus.of(dueDate.getDueDate(), false, day)) {
+                changed.add(dueDate);
+            }
+        }
+
+        today = day;
+
+        if (eventBus != null) {
+            for (DueDate dueDate : changed) {
+                eventBus.publish(ChangeEvent.dueDateChanged(dueDate.getDueDateId(), dueDate, false));
+            }
+        }
+        return changed;
+    }
+
+    private void scheduleNextCheck() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime nextMidnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+        long delay = Duration.between(now, nextMidnight).toMillis() + MIDNIGHT_MARGIN_MILLIS;
+
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    checkDate();
+                } catch (RuntimeException e) {
+                    System.out.println("Error updating due date statuses: " + e.getMessage());
+                }
+                scheduleNextCheck();
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The engine has been shut down
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example;
+
+import java.util.BitSet;
+
+/**
+ * Enrollments held in both directions, used by {@link CourseManager} to find
+ * the courses of a student and the students of a course without scanning
+ * every course.
+ *
+ * Courses and students are identified by their {@link IdTable} keys. Each
+ * enrollment is a bit in two bit sets, one under its course and one under its
+ * student, and every change updates both, so the two directions always agree.
+ * Empty sets are dropped, so the store only holds courses and students with
+ * enrollments.
+ *
+ * The store is not thread safe; CourseManager only uses it while holding its
+ * own lock.
+ */
+class EnrollmentStore {
+    private final DenseMap<BitSet> studentsByCourse;
+    private final DenseMap<BitSet> coursesByStudent;
+
+    /**
+     * Creates an empty store.
+     */
+    EnrollmentStore() {
+        this.studentsByCourse = new DenseMap<>();
+        this.coursesByStudent = new DenseMap<>();
+    }
+
+    /**
+     * Enrolls a student in a course.
+     *
+     * @param courseKey The key of the course
+     * @param studentKey The key of the student
+     * @return true if the student was enrolled, false if already enrolled
+     */
+    boolean add(int courseKey, int studentKey) {
+        BitSet studentKeys = studentsByCourse.computeIfAbsent(courseKey, k -> new BitSet());
+        if (studentKeys.get(studentKey)) {
+            return false;
+        }
+        studentKeys.set(studentKey);
+        coursesByStudent.computeIfAbsent(studentKey, k -> new BitSet()).set(courseKey);
+        return true;
+    }
+
+    /**
+     * Removes a student from a course.
+     *
+     * @param courseKey The key of the course
+     * @param studentKey The key of the student
+     * @return true if the student was removed, false if not enrolled
+     */
+    boolean remove(int courseKey, int studentKey) {
+        if (!clear(studentsByCourse, courseKey, studentKey)) {
+            return false;
+        }
+        clear(coursesByStudent, studentKey, courseKey);
+        return true;
+    }
+
+    /**
+     * Removes every enrollment in a course.
+     *
+     * @param courseKey The key of the course
+     * @return The keys of the students who were enrolled in it
+     */
+    BitSet removeCourse(int courseKey) {
+        BitSet studentKeys = studentsByCourse.get(courseKey);
+        if (studentKeys == null) {
+            return new BitSet();
+        }
+        studentsByCourse.remove(courseKey);
+        for (int studentKey = studentKeys.nextSetBit(0); studentKey >= 0; studentKey = studentKeys.nextSetBit(studentKey + 1)) {
+            clear(coursesByStudent, studentKey, courseKey);
+        }
+        return studentKeys;
+    }
+
+    /**
+     * Tells whether a student is enrolled in a course.
+     *
+     * @param courseKey The key of the course
+     * @param studentKey The key of the student; negative for a student never seen
+     * @return true if the student is enrolled
+     */
+    boolean contains(int courseKey, int studentKey) {
+        BitSet studentKeys = studentKey >= 0 ? studentsByCourse.get(courseKey) : null;
+        return studentKeys != null && studentKeys.get(studentKey);
+    }
+
+    /**
+     * Gets the students enrolled in a course.
+     *
+     * @param courseKey The key of the course
+     * @return A new set of the student keys, empty if there are none
+     */
+    BitSet getStudentKeys(int courseKey) {
+        BitSet studentKeys = studentsByCourse.get(courseKey);
+        return studentKeys != null ? (BitSet) studentKeys.clone() : new BitSet();
+    }
+
+    /**
+     * Gets the courses a student is enrolled in.
+     *
+     * @param studentKey The key of the student; negative for a student never seen
+     * @return A new set of the course keys, empty if there are none
+     */
+    BitSet getCourseKeys(int studentKey) {
+        BitSet courseKeys = coursesByStudent.get(studentKey);
+        return courseKeys != null ? (BitSet) courseKeys.clone() : new BitSet();
+    }
+
+    private static boolean clear(DenseMap<BitSet> index, int key, int bit) {
+        BitSet bits = index.get(key);
+        if (bits == null || !bits.get(bit)) {
+            return false;
+        }
+        bits.clear(bit);
+        if (bits.isEmpty()) {
+            index.remove(key);
+        }
+        return true;
+    }
+}
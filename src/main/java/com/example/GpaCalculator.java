@@ -0,0 +1,185 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calculates a student's program average and GPA across their enrolled courses.
+ * Each course counts in proportion to its credit hours from the CourseRepository.
+ * Results are cached per student and recalculated only after that student's
+ * grades or enrollments change, or any course changes, since credits weight
+ * the result.
+ */
+public class GpaCalculator {
+    private final GradeRepository gradeManager;
+    private final CourseRepository courseManager;
+    private final Map<String, Standing> standings; // Cached results by student ID
+
+    /**
+     * Constructs a new GpaCalculator.
+     *
+     * @param gradeManager The grade manager
+     * @param courseManager The course manager
+     */
+    public GpaCalculator(GradeRepository gradeManager, CourseRepository courseManager) {
+        this.gradeManager = gradeManager;
+        this.courseManager = courseManager;
+        this.standings = new HashMap<>();
+    }
+
+    /**
+     * Gets the program average and GPA for a student, recalculating only if
+     * the student's grades or enrollments, or the courses, have changed since
+     * the last call.
+     *
+     * @param studentId ID of the student
+     * @return The student's current standing
+     */
+    public synchronized Standing getStanding(String studentId) {
+        long gradeVersion = gradeManager.getStudentVersion(studentId);
+        long enrollmentVersion = courseManager.getEnrollmentVersion(studentId);
+        long catalogVersion = courseManager.getCatalogVersion();
+
+        Standing cached = standings.get(studentId);
+        if (cached != null && cached.gradeVersion == gradeVersion && cached.enrollmentVersion == enrollmentVersion
+                && cached.catalogVersion == catalogVersion) {
+            return cached;
+        }
+
+        Standing standing = calculate(studentId, gradeVersion, enrollmentVersion, catalogVersion);
+        standings.put(studentId, standing);
+        return standing;
+    }
+
+    /**
+     * Tells whether this calculator reads courses from a repository.
+     *
+     * @param courseRepository The course repository
+     * @return true if this calculator uses it
+     */
+    public boolean uses(CourseRepository courseRepository) {
+        return courseManager == courseRepository;
+    }
+
+    /**
+     * Discards the cached result for a student.
+     *
+     * @param studentId ID of the student
+     */
+    public synchronized void invalidate(String studentId) {
+        standings.remove(studentId);
+    }
+
+    private Standing calculate(String studentId, long gradeVersion, long enrollmentVersion, long catalogVersion) {
+        double totalWeightedScore = 0;
+        double totalGradePoints = 0;
+        int totalCredits = 0;
+
+        for (Map.Entry<String, Double> entry : gradeManager.getCourseAveragesForStudent(studentId).entrySet()) {
+            double courseAverage = entry.getValue();
+            if (!(courseAverage >= 0)) {
+                continue; // No weighted grades in this course yet
+            }
+
+            Course course = courseManager.getCourseById(entry.getKey());
+            if (course == null || !course.isStudentEnrolled(studentId)) {
+                continue;
+            }
+
+            int credits = course.getCredits();
+            totalWeightedScore += courseAverage * credits;
+            totalGradePoints += toGradePoints(courseAverage) * credits;
+            totalCredits += credits;
+        }
+
+        if (totalCredits == 0) {
+            return new Standing(-1, -1, 0, gradeVersion, enrollmentVersion, catalogVersion);
+        }
+
+        return new Standing(
+            totalWeightedScore / totalCredits,
+            totalGradePoints / totalCredits,
+            totalCredits,
+            gradeVersion,
+            enrollmentVersion,
+            catalogVersion
+        );
+    }
+
+    /**
+     * Converts a percentage to grade points on a 4.0 scale.
+     *
+     * @param percentage Percentage grade
+     * @return Grade points
+     */
+    public static double toGradePoints(double percentage) {
+        if (percentage >= 90) {
+            return 4.0;
+        } else if (percentage >= 80) {
+            return 3.0;
+        } else if (percentage >= 70) {
+            return 2.0;
+        } else if (percentage >= 60) {
+            return 1.0;
+        }
+        return 0.0;
+    }
+
+    /**
+     * A student's program average and GPA at a point in time.
+     */
+    public static class Standing {
+        private final double average;
+        private final double gpa;
+        private final int credits;
+        private final long gradeVersion;
+        private final long enrollmentVersion;
+        private final long catalogVersion;
+
+        private Standing(double average, double gpa, int credits, long gradeVersion, long enrollmentVersion,
+                long catalogVersion) {
+            this.average = average;
+            this.gpa = gpa;
+            this.credits = credits;
+            this.gradeVersion = gradeVersion;
+            this.enrollmentVersion = enrollmentVersion;
+            this.catalogVersion = catalogVersion;
+        }
+
+        /**
+         * Returns the credit-weighted program average.
+         *
+         * @return Program average as a percentage, or -1 if there are no graded courses
+         */
+        public double getAverage() {
+            return average;
+        }
+
+        /**
+         * Returns the credit-weighted GPA.
+         *
+         * @return GPA on a 4.0 scale, or -1 if there are no graded courses
+         */
+        public double getGpa() {
+            return gpa;
+        }
+
+        /**
+         * Returns the number of credit hours that contributed to this standing.
+         *
+         * @return Credit hours
+         */
+        public int getCredits() {
+            return credits;
+        }
+
+        /**
+         * Checks whether any graded courses contributed to this standing.
+         *
+         * @return true if the average and GPA are available
+         */
+        public boolean hasGrades() {
+            return credits > 0;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -13,6 +15,12 @@ import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
+import java.io.BufferedReader;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,13 +31,19 @@ import javafx.geometry.Orientation;
  * Controller for the grades management view.
  */
 public class GradeController {
-    private GradeManager gradeManager;
-    private CourseManager courseManager;
-    private ModuleManager moduleManager;
-    private DueDateManager dueDateManager;
+    private static final String REFRESH_KEY = "grades"; // Key of this view's background refreshes
+    
+    private GradeRepository gradeManager;
+    private CourseRepository courseManager;
+    private ModuleRepository moduleManager;
+    private DueDateRepository dueDateManager;
+    private StudentRepository studentManager;
     private CourseController courseController;
     private BorderPane gradesPane;
     private GradeViewHelper viewHelper;
+    private GpaCalculator gpaCalculator;
+    private ViewRefreshService refreshService;
+    private boolean changedDuringRefresh; // A change arrived while a background refresh was running
     
     // UI elements
     private VBox notLoggedInBox;
@@ -38,6 +52,8 @@ public class GradeController {
     private ComboBox<Course> courseComboBox;
     private Map<String, ListView<Grades>> moduleListViews;
     private Map<String, Label> moduleAverageLabels;
+    private Map<String, Label> moduleTitleLabels;
+    private Map<String, Node> moduleSections; // Module ID -> section shown in moduleContentBox
     private VBox moduleContentBox;
     private ProgressBar courseAverageProgressBar;
     private Label courseAverageLabel;
@@ -58,13 +74,17 @@ public class GradeController {
      * @param gradeManager The grade manager
      * @param courseManager The course manager
      */
-    public GradeController(GradeManager gradeManager, CourseManager courseManager) {
+    public GradeController(GradeRepository gradeManager, CourseRepository courseManager) {
         this.gradeManager = gradeManager;
         this.courseManager = courseManager;
         this.moduleManager = new ModuleManager();
         this.moduleListViews = new HashMap<>();
         this.moduleAverageLabels = new HashMap<>();
+        this.moduleTitleLabels = new HashMap<>();
+        this.moduleSections = new HashMap<>();
         this.viewHelper = new GradeViewHelper(this);
+        this.gpaCalculator = new GpaCalculator(gradeManager, courseManager);
+        this.refreshService = new ViewRefreshService();
     }
     
     /**
@@ -90,35 +110,62 @@ public class GradeController {
      * 
      * @param dueDateManager The due date manager
      */
-    public void setDueDateManager(DueDateManager dueDateManager) {
+    public void setDueDateManager(DueDateRepository dueDateManager) {
         this.dueDateManager = dueDateManager;
     }
     
+    /**
+     * Sets the student manager, used to check student IDs when importing grades.
+     * 
+     * @param studentManager The student manager
+     */
+    public void setStudentManager(StudentRepository studentManager) {
+        this.studentManager = studentManager;
+    }
+    
+    /**
+     * Subscribes to change events so that edits update only the rows they affect.
+     * 
+     * @param eventBus The event bus the repositories publish to
+     */
+    public void setEventBus(ChangeEventBus eventBus) {
+        eventBus.subscribe(this::handleChange);
+    }
+    
+    /**
+     * Sets the service that recalculates the view in the background.
+     * 
+     * @param refreshService The refresh service
+     */
+    public void setRefreshService(ViewRefreshService refreshService) {
+        this.refreshService = refreshService;
+    }
+    
     /**
      * Gets the module manager.
      */
-    public ModuleManager getModuleManager() {
+    public ModuleRepository getModuleManager() {
         return moduleManager;
     }
     
     /**
      * Gets the grade manager.
      */
-    public GradeManager getGradeManager() {
+    public GradeRepository getGradeManager() {
         return gradeManager;
     }
     
     /**
      * Gets the course manager.
      */
-    public CourseManager getCourseManager() {
+    public CourseRepository getCourseManager() {
         return courseManager;
     }
     
     /**
      * Gets the due date manager.
      */
-    public DueDateManager getDueDateManager() {
+    public DueDateRepository getDueDateManager() {
         return dueDateManager;
     }
     
@@ -184,7 +231,7 @@ public BorderPane createGradesView() {
     
     showModulesCheckBox = new CheckBox("Show Modules");
     showModulesCheckBox.setSelected(true);
-    showModulesCheckBox.setOnAction(e -> refreshModuleViews(courseComboBox.getValue()));
+    showModulesCheckBox.setOnAction(e -> refreshCourseView(courseComboBox.getValue()));
     
     Button addModuleButton = new Button("Add Module");
     addModuleButton.setOnAction(e -> {
@@ -196,7 +243,13 @@ public BorderPane createGradesView() {
         }
     });
     
-    optionsBox.getChildren().addAll(showModulesCheckBox, addModuleButton, refreshButton);
+    Button importButton = new Button("Import CSV");
+    importButton.setOnAction(e -> importGradesFromCsv(importButton));
+    
+    Button exportButton = new Button("Export");
+    exportButton.setOnAction(e -> showExportDialog(exportButton));
+    
+    optionsBox.getChildren().addAll(showModulesCheckBox, addModuleButton, importButton, exportButton, refreshButton);
     
     // Create user-friendly grade dashboard with pie chart
     VBox dashboardBox = createGradeDashboard();
@@ -221,14 +274,174 @@ public BorderPane createGradesView() {
     } else {
         gradesPane.setCenter(mainScrollPane);
         // If student is already set, update the visuals immediately
-        updateOverallAverageDisplay();
-        updateProgramAverageVisual();
+        GpaCalculator.Standing standing = getCurrentStanding();
+        updateOverallAverageDisplay(standing);
+        updateProgramAverageVisual(standing);
+        programAverageDisplay.update(standing);
     }
     
     gradesPane.setTop(titleLabel);
     
     return gradesPane;
 }
+
+/**
+ * Imports grades from a CSV file chosen by the user. The file is read on a
+ * background thread and each batch is added on the JavaFX thread; the reader
+ * waits for each batch to be added before reading the next.
+ * 
+ * @param importButton Button to disable while the import runs
+ */
+private void importGradesFromCsv(Button importButton) {
+    FileChooser chooser = new FileChooser();
+    chooser.setTitle("Import Grades");
+    chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+    File file = chooser.showOpenDialog(gradesPane.getScene().getWindow());
+    if (file == null) {
+        return;
+    }
+    
+    GradeImporter importer = new GradeImporter(studentManager, courseManager, moduleManager, gradeManager, dueDateManager);
+    Task<GradeImporter.ImportResult> importTask = new Task<>() {
+        @Override
+        protected GradeImporter.ImportResult call() throws Exception {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                return importer.importCsv(reader, Platform::runLater);
+            }
+        }
+    };
+    
+    // Runs after the last batch has been stored
+    importTask.setOnSucceeded(e -> {
+        importButton.setDisable(false);
+        GradeImporter.ImportResult result = importTask.getValue();
+        
+        StringBuilder message = new StringBuilder();
+        message.append("Imported ").append(result.getImported()).append(" grades");
+        message.append(" and created ").append(result.getDueDatesCreated()).append(" due dates.");
+        if (result.getErrorCount() > 0) {
+            message.append("\n").append(result.getErrorCount()).append(" rows were skipped:");
+            for (String error : result.getErrors().subList(0, Math.min(10, result.getErrors().size()))) {
+                message.append("\n").append(error);
+            }
+        }
+        UIHelper.showAlert("Import Complete", message.toString());
+        refreshGradesView();
+    });
+    importTask.setOnFailed(e -> {
+        importButton.setDisable(false);
+        UIHelper.showAlert("Import Failed", "Could not read " + file.getName() + ": " + importTask.getException().getMessage());
+        refreshGradesView();
+    });
+    
+    importButton.setDisable(true);
+    Thread importThread = new Thread(importTask, "grade-import");
+    importThread.setDaemon(true);
+    importThread.start();
+}
+    
+/**
+ * Asks what to export and for whom, then writes the chosen file on a
+ * background thread. Data is read on the JavaFX thread one course at a time.
+ * 
+ * @param exportButton Button to disable while the export runs
+ */
+private void showExportDialog(Button exportButton) {
+    Dialog<ButtonType> dialog = new Dialog<>();
+    dialog.setTitle("Export");
+    dialog.setHeaderText("Export grades, course averages or due dates to CSV or JSON");
+    
+    ComboBox<String> dataComboBox = new ComboBox<>(FXCollections.observableArrayList(
+        "Grades", "Course Averages", "Due Dates"));
+    dataComboBox.setValue("Grades");
+    
+    Course selectedCourse = courseComboBox != null ? courseComboBox.getValue() : null;
+    ObservableList<String> scopes = FXCollections.observableArrayList();
+    if (currentStudent != null) {
+        scopes.add("Current Student");
+    }
+    if (currentStudent != null && selectedCourse != null) {
+        scopes.add("Current Student in Selected Course");
+    }
+    if (selectedCourse != null) {
+        scopes.add("Selected Course");
+    }
+    scopes.add("All Data");
+    ComboBox<String> scopeComboBox = new ComboBox<>(scopes);
+    scopeComboBox.setValue(scopes.get(0));
+    
+    GridPane grid = new GridPane();
+    grid.setHgap(10);
+    grid.setVgap(10);
+    grid.setPadding(new Insets(20, 20, 10, 10));
+    grid.add(new Label("Export:"), 0, 0);
+    grid.add(dataComboBox, 1, 0);
+    grid.add(new Label("For:"), 0, 1);
+    grid.add(scopeComboBox, 1, 1);
+    dialog.getDialogPane().setContent(grid);
+    dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+    
+    if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+        return;
+    }
+    
+    String scope = scopeComboBox.getValue();
+    String studentId = scope.startsWith("Current Student") ? String.valueOf(currentStudent.getStudentId()) : null;
+    String courseId = scope.endsWith("Selected Course") ? selectedCourse.getId() : null;
+    exportToFile(exportButton, dataComboBox.getValue(), studentId, courseId);
+}
+
+/**
+ * Writes an export to a file chosen by the user. The format follows the
+ * file extension.
+ * 
+ * @param exportButton Button to disable while the export runs
+ * @param data What to export: "Grades", "Course Averages" or "Due Dates"
+ * @param studentId Student to limit the export to, or null for every student
+ * @param courseId Course to limit the export to, or null for every course
+ */
+private void exportToFile(Button exportButton, String data, String studentId, String courseId) {
+    FileChooser chooser = new FileChooser();
+    chooser.setTitle("Export " + data);
+    chooser.setInitialFileName(data.toLowerCase().replace(' ', '-') + ".csv");
+    chooser.getExtensionFilters().addAll(
+        new FileChooser.ExtensionFilter("CSV files", "*.csv"),
+        new FileChooser.ExtensionFilter("JSON files", "*.json"));
+    File file = chooser.showSaveDialog(gradesPane.getScene().getWindow());
+    if (file == null) {
+        return;
+    }
+    
+    GradeExporter exporter = new GradeExporter(courseManager, gradeManager, dueDateManager, Platform::runLater);
+    GradeExporter.Format format = GradeExporter.Format.forFile(file.toPath());
+    Task<Integer> exportTask = new Task<>() {
+        @Override
+        protected Integer call() throws Exception {
+            switch (data) {
+                case "Course Averages":
+                    return exporter.exportCourseAverages(file.toPath(), format, studentId, courseId);
+                case "Due Dates":
+                    return exporter.exportDueDates(file.toPath(), format, studentId, courseId);
+                default:
+                    return exporter.exportGrades(file.toPath(), format, studentId, courseId);
+            }
+        }
+    };
+    
+    exportTask.setOnSucceeded(e -> {
+        exportButton.setDisable(false);
+        UIHelper.showAlert("Export Complete", "Wrote " + exportTask.getValue() + " rows to " + file.getName() + ".");
+    });
+    exportTask.setOnFailed(e -> {
+        exportButton.setDisable(false);
+        UIHelper.showAlert("Export Failed", "Could not write " + file.getName() + ": " + exportTask.getException().getMessage());
+    });
+    
+    exportButton.setDisable(true);
+    Thread exportThread = new Thread(exportTask, "grade-export");
+    exportThread.setDaemon(true);
+    exportThread.start();
+}
     
 /**
  * Creates a user-friendly grade dashboard with a pie chart.
@@ -276,46 +489,18 @@ private VBox createGradeDashboard() {
 }
     
 /**
- * Updates the pie chart with grade distribution for the selected course.
+ * Updates the pie chart with the grade distribution of the selected course.
  * 
- * @param course The selected course
+ * @param letterCounts Counts of A, B, C, D and F grades
  */
-public void updateGradeDistributionChart(Course course) {
-    if (course == null || currentStudent == null || gradesPieChart == null) return;
+private void updateGradeDistributionChart(int[] letterCounts) {
+    if (gradesPieChart == null) return;
     
-    // Get grades for this student in this course
-    List<Grades> courseGrades = gradeManager.getGradesForStudentInCourse(
-        currentStudent.getStudentId(), 
-        course.getId()
-    );
-    
-    // Count grades by letter grade
-    int countA = 0;
-    int countB = 0;
-    int countC = 0;
-    int countD = 0;
-    int countF = 0;
-    
-    for (Grades grade : courseGrades) {
-        String letterGrade = grade.getLetterGrade();
-        switch (letterGrade) {
-            case "A":
-                countA++;
-                break;
-            case "B":
-                countB++;
-                break;
-            case "C":
-                countC++;
-                break;
-            case "D":
-                countD++;
-                break;
-            case "F":
-                countF++;
-                break;
-        }
-    }
+    int countA = letterCounts[0];
+    int countB = letterCounts[1];
+    int countC = letterCounts[2];
+    int countD = letterCounts[3];
+    int countF = letterCounts[4];
     
     // Create data for the pie chart
     ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
@@ -411,9 +596,7 @@ private HBox createCourseSelectionUI() {
     courseComboBox.setOnAction(e -> {
         Course selectedCourse = courseComboBox.getValue();
         if (selectedCourse != null && currentStudent != null) {
-            refreshModuleViews(selectedCourse);
-            updateCourseAverageDisplay(selectedCourse);
-            updateGradeDistributionChart(selectedCourse);
+            refreshCourseView(selectedCourse);
         }
     });
     
@@ -483,20 +666,15 @@ private VBox createProgramAverageVisual() {
 
 /**
  * Updates the program average visual with the current data.
+ * 
+ * @param standing The current student's standing
  */
-private void updateProgramAverageVisual() {
-    if (currentStudent == null || programAverageCircle == null || programAverageText == null) {
-        System.out.println("Program Average Update: Missing student or UI elements");
+private void updateProgramAverageVisual(GpaCalculator.Standing standing) {
+    if (programAverageCircle == null || programAverageText == null) {
         return;
     }
     
-    System.out.println("Updating program average for student: " + currentStudent.getStudentId());
-    
-    // Use all grades for the student
-    List<Grades> allGrades = gradeManager.getGradesForStudent(String.valueOf(currentStudent.getStudentId()));
-    System.out.println("Found " + allGrades.size() + " grades for student");
-    
-    if (allGrades.isEmpty()) {
+    if (standing == null || !standing.hasGrades()) {
         programAverageText.setText("N/A");
         programAverageGpaLabel.setText("GPA: N/A");
         programAverageCircle.setRadius(10); // Minimum size
@@ -504,74 +682,37 @@ private void updateProgramAverageVisual() {
         return;
     }
     
-    double totalScore = 0;
-    double totalWeight = 0;
-    double totalGradePoints = 0;
-    
-    for (Grades grade : allGrades) {
-        // For weighted percentage calculation
-        double proportion = grade.getScore() / grade.getMaxScore();
-        totalScore += proportion * grade.getWeight();
-        totalWeight += grade.getWeight();
-        
-        // For GPA calculation
-        double gradePercent = proportion * 100;
-        double gradePoints = 0;
-        if (gradePercent >= 90) gradePoints = 4.0;
-        else if (gradePercent >= 80) gradePoints = 3.0;
-        else if (gradePercent >= 70) gradePoints = 2.0;
-        else if (gradePercent >= 60) gradePoints = 1.0;
-        
-        totalGradePoints += gradePoints * grade.getWeight();
-        
-        System.out.println("Grade: " + grade.getAssignmentName() + 
-                          " - Score: " + grade.getScore() + "/" + grade.getMaxScore() + 
-                          " (Weight: " + grade.getWeight() + ")");
-    }
-    
-    if (totalWeight > 0) {
-        // Calculate program average
-        double programAverage = (totalScore / totalWeight) * 100;
-        double gpa = totalGradePoints / totalWeight;
-        
-        System.out.println("Calculated Program Average: " + programAverage + "%, GPA: " + gpa);
-        
-        // Update the text
-        programAverageText.setText(String.format("%.1f%%", programAverage));
-        programAverageGpaLabel.setText(String.format("GPA: %.2f", gpa));
-        
-        // Update the color of the gauge based on grade
-        Color gaugeColor;
-        if (programAverage >= 90) {
-            gaugeColor = Color.web("#28a745"); // Green - A
-        } else if (programAverage >= 80) {
-            gaugeColor = Color.web("#17a2b8"); // Blue - B
-        } else if (programAverage >= 70) {
-            gaugeColor = Color.web("#ffc107"); // Yellow - C
-        } else if (programAverage >= 60) {
-            gaugeColor = Color.web("#fd7e14"); // Orange - D
-        } else {
-            gaugeColor = Color.web("#dc3545"); // Red - F
-        }
-        
-        programAverageCircle.setFill(gaugeColor);
-        
-        // Calculate the size of the inner circle based on the percentage
-        double minRadius = 10; // Minimum visible radius
-        double maxRadius = 35; // Maximum radius (same as initialized)
-        double range = maxRadius - minRadius;
-        double scaleFactor = programAverage / 100.0;
-        double newRadius = minRadius + (range * scaleFactor);
-        
-        // Apply the new radius
-        programAverageCircle.setRadius(newRadius);
+    double programAverage = standing.getAverage();
+    
+    // Update the text
+    programAverageText.setText(String.format("%.1f%%", programAverage));
+    programAverageGpaLabel.setText(String.format("GPA: %.2f", standing.getGpa()));
+    
+    // Update the color of the gauge based on grade
+    Color gaugeColor;
+    if (programAverage >= 90) {
+        gaugeColor = Color.web("#28a745"); // Green - A
+    } else if (programAverage >= 80) {
+        gaugeColor = Color.web("#17a2b8"); // Blue - B
+    } else if (programAverage >= 70) {
+        gaugeColor = Color.web("#ffc107"); // Yellow - C
+    } else if (programAverage >= 60) {
+        gaugeColor = Color.web("#fd7e14"); // Orange - D
     } else {
-        // No grades with weights
-        programAverageText.setText("N/A");
-        programAverageGpaLabel.setText("GPA: N/A");
-        programAverageCircle.setRadius(10); // Minimum size
-        programAverageCircle.setFill(Color.GRAY);
+        gaugeColor = Color.web("#dc3545"); // Red - F
     }
+    
+    programAverageCircle.setFill(gaugeColor);
+    
+    // Calculate the size of the inner circle based on the percentage
+    double minRadius = 10; // Minimum visible radius
+    double maxRadius = 35; // Maximum radius (same as initialized)
+    double range = maxRadius - minRadius;
+    double scaleFactor = programAverage / 100.0;
+    double newRadius = minRadius + (range * scaleFactor);
+    
+    // Apply the new radius
+    programAverageCircle.setRadius(newRadius);
 }
     
 /**
@@ -614,50 +755,37 @@ private HBox createCourseAverageDisplay() {
     return box;
 }
 
+/**
+ * Gets the program average and GPA for the current student.
+ * 
+ * @return The current student's standing, or null if no student is signed in
+ */
+public GpaCalculator.Standing getCurrentStanding() {
+    if (currentStudent == null) return null;
+    
+    return gpaCalculator.getStanding(String.valueOf(currentStudent.getStudentId()));
+}
+
 /**
  * Updates the overall average display.
  */
 public void updateOverallAverageDisplay() {
-    if (currentStudent == null) return;
-    
-    // Calculate overall average across all courses
-    double totalWeightedScore = 0;
-    double totalWeight = 0;
-    int totalCourses = 0;
-    double totalGradePoints = 0;
-    
-    for (Course course : courseManager.getAllCourses()) {
-        if (course.isStudentEnrolled(String.valueOf(currentStudent.getStudentId()))) {
-            double courseAverage = gradeManager.calculateCourseAverage(
-                String.valueOf(currentStudent.getStudentId()),
-                course.getId()
-            );
-            
-            if (courseAverage >= 0) {
-                // For overall percentage average
-                int credits = course.getCredits();
-                totalWeightedScore += courseAverage * credits;
-                totalWeight += credits;
-                
-                // For GPA calculation
-                double courseGradePoints = 0;
-                if (courseAverage >= 90) courseGradePoints = 4.0;
-                else if (courseAverage >= 80) courseGradePoints = 3.0;
-                else if (courseAverage >= 70) courseGradePoints = 2.0;
-                else if (courseAverage >= 60) courseGradePoints = 1.0;
-                
-                totalGradePoints += courseGradePoints * credits;
-                totalCourses++;
-            }
-        }
-    }
+    updateOverallAverageDisplay(getCurrentStanding());
+}
+
+/**
+ * Updates the overall average display with an already calculated standing.
+ * 
+ * @param standing The current student's standing
+ */
+private void updateOverallAverageDisplay(GpaCalculator.Standing standing) {
+    if (standing == null) return;
     
-    if (totalWeight > 0) {
-        double overallAverage = totalWeightedScore / totalWeight;
-        double gpa = totalGradePoints / totalWeight;
+    if (standing.hasGrades()) {
+        double overallAverage = standing.getAverage();
         
         courseAverageLabel.setText(String.format("Overall Average: %.1f%%", overallAverage));
-        ((Label)((VBox)courseAverageLabel.getParent()).getChildren().get(1)).setText(String.format("GPA: %.2f", gpa));
+        ((Label)((VBox)courseAverageLabel.getParent()).getChildren().get(1)).setText(String.format("GPA: %.2f", standing.getGpa()));
         courseAverageProgressBar.setProgress(overallAverage / 100.0);
         
         // Set color based on grade
@@ -685,16 +813,9 @@ public void updateOverallAverageDisplay() {
     /**
      * Updates the course average display.
      * 
-     * @param course The selected course
+     * @param courseAverage The selected course's average, or a negative value if there is none
      */
-    public void updateCourseAverageDisplay(Course course) {
-        if (course == null || currentStudent == null) return;
-        
-        double courseAverage = gradeManager.calculateCourseAverage(
-            String.valueOf(currentStudent.getStudentId()),
-            course.getId()
-        );
-        
+    private void updateCourseAverageDisplay(double courseAverage) {
         if (courseAverage >= 0) {
             courseAverageLabel.setText(String.format("Course Average: %.1f%%", courseAverage));
             courseAverageProgressBar.setProgress(courseAverage / 100.0);
@@ -721,43 +842,308 @@ public void updateOverallAverageDisplay() {
     }
     
     /**
-     * Refreshes the module views with the grades for the selected course.
+     * Rebuilds the module views from a computed view model.
      * 
-     * @param selectedCourse The selected course
+     * @param model The view model for the selected course
      */
-    public void refreshModuleViews(Course selectedCourse) {
-        if (currentStudent == null || selectedCourse == null) return;
-        
+    private void updateModuleViews(GradesViewModel model) {
         // Clear the module views
         moduleListViews.clear();
         moduleAverageLabels.clear();
+        moduleTitleLabels.clear();
+        moduleSections.clear();
         moduleContentBox.getChildren().clear();
         
         if (!showModulesCheckBox.isSelected()) {
             // If not showing modules, display all grades in a single list
-            moduleContentBox.getChildren().add(viewHelper.createAllGradesView(selectedCourse));
+            moduleContentBox.getChildren().add(viewHelper.createAllGradesView(model.course, model.courseGrades));
             return;
         }
         
-        // Get all modules for this course
-        moduleManager.initializeModulesForCourse(selectedCourse.getId());
-        List<CourseModule> modules = moduleManager.getModulesForCourse(selectedCourse.getId());
-        
-        // Get all grades for this student in this course
-        List<Grades> courseGrades = gradeManager.getGradesForStudentInCourse(
-            currentStudent.getStudentId(), 
-            selectedCourse.getId()
-        );
-        
         // Create a section for each module
-        for (CourseModule module : modules) {
-            VBox moduleSection = viewHelper.createModuleSection(module, courseGrades, selectedCourse, moduleListViews, moduleAverageLabels);
+        for (CourseModule module : model.modules) {
+            VBox moduleSection = viewHelper.createModuleSection(module,
+                model.gradesByModule.getOrDefault(module.getModuleId(), new ArrayList<>()),
+                model.moduleAverages.getOrDefault(module.getModuleId(), -1.0),
+                model.course, moduleListViews, moduleAverageLabels, moduleTitleLabels);
+            moduleSections.put(module.getModuleId(), moduleSection);
             moduleContentBox.getChildren().add(moduleSection);
         }
     }
     
+    /**
+     * Recalculates the averages, grade distribution and module views for a
+     * course in the background and shows them when done. A newer refresh
+     * replaces one that has not finished yet.
+     * 
+     * @param selectedCourse The selected course, or null to refresh only the program average
+     */
+    public void refreshCourseView(Course selectedCourse) {
+        if (currentStudent == null) return;
+        
+        // Adding the default module changes data, so it stays on this thread
+        if (selectedCourse != null) {
+            moduleManager.initializeModulesForCourse(selectedCourse.getId());
+        }
+        
+        String studentId = String.valueOf(currentStudent.getStudentId());
+        changedDuringRefresh = false;
+        refreshService.submit(REFRESH_KEY,
+            () -> computeViewModel(studentId, selectedCourse),
+            this::showViewModel);
+    }
+    
+    /**
+     * Gathers everything the grades view shows for a student. Runs on a
+     * background thread, so it only reads from the repositories.
+     * 
+     * @param studentId ID of the student
+     * @param course The selected course, or null
+     * @return The computed view model
+     */
+    private GradesViewModel computeViewModel(String studentId, Course course) {
+        GradesViewModel model = new GradesViewModel();
+        model.studentId = studentId;
+        model.standing = gpaCalculator.getStanding(studentId);
+        if (course == null) {
+            return model;
+        }
+        
+        model.course = course;
+        model.courseAverage = gradeManager.calculateCourseAverage(studentId, course.getId());
+        model.courseGrades = gradeManager.getGradesForStudentInCourse(studentId, course.getId());
+        model.modules = moduleManager.getModulesForCourse(course.getId());
+        
+        for (Grades grade : model.courseGrades) {
+            model.gradesByModule.computeIfAbsent(grade.getModuleId(), k -> new ArrayList<>()).add(grade);
+            int letterIndex = "ABCDF".indexOf(grade.getLetterGrade());
+            if (letterIndex >= 0) {
+                model.letterCounts[letterIndex]++;
+            }
+        }
+        for (CourseModule module : model.modules) {
+            model.moduleAverages.put(module.getModuleId(),
+                gradeManager.calculateModuleAverage(studentId, module.getModuleId()));
+        }
+        return model;
+    }
+    
+    /**
+     * Shows a computed view model. Runs on the JavaFX thread.
+     * 
+     * @param model The view model to show
+     */
+    private void showViewModel(GradesViewModel model) {
+        // The student may have signed out while the view model was computed
+        if (currentStudent == null || !model.studentId.equals(String.valueOf(currentStudent.getStudentId()))) {
+            return;
+        }
+        
+        showStanding(model.standing);
+        
+        if (model.course != null) {
+            updateModuleViews(model);
+            updateCourseAverageDisplay(model.courseAverage);
+            updateGradeDistributionChart(model.letterCounts);
+        }
+        
+        if (changedDuringRefresh) {
+            refreshCourseView(courseComboBox.getValue());
+        }
+    }
+    
+    /**
+     * Shows a student's program average and GPA in every place they appear.
+     * 
+     * @param standing The student's standing
+     */
+    private void showStanding(GpaCalculator.Standing standing) {
+        updateOverallAverageDisplay(standing);
+        updateProgramAverageVisual(standing);
+        if (programAverageDisplay != null) {
+            programAverageDisplay.update(standing);
+        }
+    }
+    
+    /**
+     * Updates the view for one change published by a repository. Grade
+     * changes touch only the affected rows and averages; changes to the set
+     * of modules rebuild the selected course's view.
+     * 
+     * @param event The change
+     */
+    private void handleChange(ChangeEvent event) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> handleChange(event));
+            return;
+        }
+        if (currentStudent == null || moduleContentBox == null) return;
+        
+        Course selectedCourse = courseComboBox.getValue();
+        String studentId = String.valueOf(currentStudent.getStudentId());
+        if (refreshService.isPending(REFRESH_KEY)) {
+            // The pending result may predate this change; recompute once it arrives
+            changedDuringRefresh = true;
+            return;
+        }
+        
+        switch (event.getType()) {
+            case GRADE_ADDED:
+            case GRADE_UPDATED:
+            case GRADE_REMOVED:
+                applyGradeChange(event, studentId, selectedCourse);
+                break;
+            case MODULE_ADDED:
+            case MODULE_REMOVED:
+                if (selectedCourse != null && selectedCourse.getId().equals(event.getModule().getCourseId())) {
+                    refreshCourseView(selectedCourse);
+                }
+                break;
+            case MODULE_RENAMED:
+                applyModuleRename(event.getModule(), selectedCourse);
+                break;
+            case ENROLLMENT_CHANGED:
+                if (studentId.equals(event.getStudentId())) {
+                    updateAverageDisplays(studentId, selectedCourse);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Moves, replaces or removes the one row showing a changed grade, then
+     * updates the averages and chart it affects.
+     */
+    private void applyGradeChange(ChangeEvent event, String studentId, Course selectedCourse) {
+        Grades grade = event.getGrade();
+        boolean shown = !event.isRemoved() && selectedCourse != null
+            && studentId.equals(grade.getStudentId()) && selectedCourse.getId().equals(grade.getCourseId());
+        
+        // Find the row showing the grade before the change; a new grade has none
+        String oldModuleId = null;
+        int oldIndex = -1;
+        if (event.getType() != ChangeEvent.Type.GRADE_ADDED) {
+            for (Map.Entry<String, ListView<Grades>> entry : moduleListViews.entrySet()) {
+                oldIndex = indexOfGrade(entry.getValue().getItems(), event.getPreviousId());
+                if (oldIndex >= 0) {
+                    oldModuleId = entry.getKey();
+                    break;
+                }
+            }
+        }
+        
+        if (oldModuleId == null && !shown) {
+            // Not on screen, but the student's program average may have changed
+            if (studentId.equals(grade.getStudentId())) {
+                updateAverageDisplays(studentId, selectedCourse);
+            }
+            return;
+        }
+        
+        ListView<Grades> newList = shown ? moduleListViews.get(grade.getModuleId()) : null;
+        if (!showModulesCheckBox.isSelected() || (shown && newList == null)) {
+            // The single list view or an unknown module; rebuild the course view instead
+            refreshCourseView(selectedCourse);
+            return;
+        }
+        
+        ListView<Grades> oldList = oldModuleId != null ? moduleListViews.get(oldModuleId) : null;
+        if (oldList != null && oldList == newList) {
+            if (oldList.getItems().set(oldIndex, grade) == grade) {
+                // Edited in place, so the cell would not see a new item
+                oldList.refresh();
+            }
+        } else {
+            if (oldList != null) {
+                oldList.getItems().remove(oldIndex);
+                viewHelper.sizeModuleList(oldList);
+                updateModuleAverage(studentId, oldModuleId);
+            }
+            if (newList != null) {
+                newList.getItems().add(grade);
+                viewHelper.sizeModuleList(newList);
+            }
+        }
+        if (shown) {
+            updateModuleAverage(studentId, grade.getModuleId());
+        }
+        
+        updateAverageDisplays(studentId, selectedCourse);
+        updateGradeDistributionChart(countLetterGrades());
+    }
+    
+    /**
+     * Updates a module's title in place and moves its section if its number changed.
+     */
+    private void applyModuleRename(CourseModule module, Course selectedCourse) {
+        Label titleLabel = moduleTitleLabels.get(module.getModuleId());
+        if (titleLabel == null || selectedCourse == null) return;
+        
+        titleLabel.setText(module.toString());
+        
+        // Keep the sections in module number order
+        List<Node> ordered = new ArrayList<>();
+        for (CourseModule courseModule : moduleManager.getModulesForCourse(selectedCourse.getId())) {
+            Node section = moduleSections.get(courseModule.getModuleId());
+            if (section != null) {
+                ordered.add(section);
+            }
+        }
+        if (ordered.size() == moduleContentBox.getChildren().size() && !ordered.equals(moduleContentBox.getChildren())) {
+            moduleContentBox.getChildren().setAll(ordered);
+        }
+    }
+    
+    private void updateModuleAverage(String studentId, String moduleId) {
+        Label averageLabel = moduleAverageLabels.get(moduleId);
+        if (averageLabel != null) {
+            viewHelper.showModuleAverage(averageLabel, gradeManager.calculateModuleAverage(studentId, moduleId));
+        }
+    }
+    
+    /**
+     * Shows the student's current standing and, if a course is selected, its
+     * average. Both read running totals, so this does not scan any grades.
+     */
+    private void updateAverageDisplays(String studentId, Course selectedCourse) {
+        showStanding(gpaCalculator.getStanding(studentId));
+        if (selectedCourse != null) {
+            updateCourseAverageDisplay(gradeManager.calculateCourseAverage(studentId, selectedCourse.getId()));
+        }
+    }
+    
+    /**
+     * Counts the letter grades of the rows currently shown.
+     * 
+     * @return Counts of A, B, C, D and F
+     */
+    private int[] countLetterGrades() {
+        int[] letterCounts = new int[5];
+        for (ListView<Grades> listView : moduleListViews.values()) {
+            for (Grades grade : listView.getItems()) {
+                int letterIndex = "ABCDF".indexOf(grade.getLetterGrade());
+                if (letterIndex >= 0) {
+                    letterCounts[letterIndex]++;
+                }
+            }
+        }
+        return letterCounts;
+    }
+    
+    private static int indexOfGrade(List<Grades> grades, String gradeId) {
+        for (int i = 0; i < grades.size(); i++) {
+            if (grades.get(i).getGradeId().equals(gradeId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
 /**
- * Refreshes the grades view after a student signs in.
+ * Refreshes the grades view after a student signs in or the data changes.
+ * The averages and module views are recalculated in the background.
  */
 public void refreshGradesView() {
     if (gradesPane == null) return;
@@ -772,21 +1158,7 @@ public void refreshGradesView() {
         gradesPane.setCenter(notLoggedInBox);
     } else {
         gradesPane.setCenter(mainScrollPane);
-        
-        // Calculate and update the overall average
-        updateOverallAverageDisplay();
-        
-        // Update the program average display
-        if (programAverageDisplay != null) {
-            programAverageDisplay.update(gradeManager, String.valueOf(currentStudent.getStudentId()));
-        }
-        
-        // If a course is selected, refresh the module views
-        if (courseComboBox.getValue() != null) {
-            refreshModuleViews(courseComboBox.getValue());
-            updateCourseAverageDisplay(courseComboBox.getValue());
-            updateGradeDistributionChart(courseComboBox.getValue());
-        }
+        refreshCourseView(courseComboBox.getValue());
     }
 }
     
@@ -809,7 +1181,23 @@ public void refreshGradesView() {
      * 
      * @param moduleManager The module manager
      */
-        public void setModuleManager(ModuleManager moduleManager) {
+        public void setModuleManager(ModuleRepository moduleManager) {
         this.moduleManager = moduleManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * Everything the grades view shows for one student and course,
+     * computed off the JavaFX thread.
+     */
+    private static class GradesViewModel {
+        String studentId;
+        GpaCalculator.Standing standing;
+        Course course; // Null when no course is selected
+        double courseAverage = -1;
+        List<Grades> courseGrades;
+        List<CourseModule> modules;
+        Map<String, List<Grades>> gradesByModule = new HashMap<>(); // Module ID -> grades
+        Map<String, Double> moduleAverages = new HashMap<>(); // Module ID -> average
+        int[] letterCounts = new int[5]; // Counts of A, B, C, D and F
+    }
+}
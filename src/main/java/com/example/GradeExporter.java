@@ -0,0 +1,545 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Exports grades, course averages and due dates to CSV or JSON.
+ *
+ * Every export can be limited to one student, one course, both, or neither
+ * (the whole dataset). Rows are written straight to a buffered writer as they
+ * are produced, and the whole dataset is read one course at a time, so the
+ * memory used does not grow with the size of the export.
+ *
+ * The repositories are only read through the executor given to the
+ * constructor. When exporting on a background thread from the UI, pass
+ * Platform::runLater so that each read happens on the JavaFX thread while the
+ * file is written on the background thread.
+ */
+public class GradeExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int INTERRUPT_CHECK_INTERVAL = 1000; // Rows between cancellation checks
+
+    private static final String[] GRADE_COLUMNS = {
+        "gradeId", "studentId", "courseId", "courseCode", "moduleId", "moduleName", "assignmentName",
+        "score", "maxScore", "percentage", "letterGrade", "weight", "dateSubmitted", "comments"
+    };
+    private static final String[] AVERAGE_COLUMNS = {
+        "studentId", "courseId", "courseCode", "courseName", "credits", "average", "gradePoints"
+    };
+    private static final String[] DUE_DATE_COLUMNS = {
+        "dueDateId", "courseId", "courseName", "moduleId", "moduleName", "assignmentName", "description",
+        "dueDate", "priority", "completed", "status"
+    };
+
+    /**
+     * File formats supported by the exporter.
+     */
+    public enum Format {
+        CSV, JSON;
+
+        /**
+         * Picks the format from a file name, defaulting to CSV.
+         *
+         * @param file The file being written
+         * @return JSON for files ending in .json, otherwise CSV
+         */
+        public static Format forFile(Path file) {
+            return file.getFileName().toString().toLowerCase().endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    private final CourseRepository courseRepository;
+    private final GradeRepository gradeRepository;
+    private final DueDateRepository dueDateRepository;
+    private final Executor readExecutor;
+
+    /**
+     * Creates an exporter that reads the repositories on the calling thread.
+     *
+     * @param courseRepository Courses, used for codes, names and credits
+     * @param gradeRepository Grades and averages to export
+     * @param dueDateRepository Due dates to export
+     */
+    public GradeExporter(CourseRepository courseRepository, GradeRepository gradeRepository,
+                         DueDateRepository dueDateRepository) {
+        this(courseRepository, gradeRepository, dueDateRepository, Runnable::run);
+    }
+
+    /**
+     * Creates an exporter that reads the repositories through an executor.
+     *
+     * @param courseRepository Courses, used for codes, names and credits
+     * @param gradeRepository Grades and averages to export
+     * @param dueDateRepository Due dates to export
+     * @param readExecutor Runs every repository read, e.g. on the thread that owns the repositories
+     */
+    public GradeExporter(CourseRepository courseRepository, GradeRepository gradeRepository,
+                         DueDateRepository dueDateRepository, Executor readExecutor) {
+        this.courseRepository = courseRepository;
+        this.gradeRepository = gradeRepository;
+        this.dueDateRepository = dueDateRepository;
+        this.readExecutor = readExecutor;
+    }
+
+    /**
+     * Exports grades to a file. The file is removed again if the export fails.
+     *
+     * @param file The file to write
+     * @param format The output format
+     * @param studentId Only export this student's grades, or null for every student
+     * @param courseId Only export grades in this course, or null for every course
+     * @return The number of grades written
+     * @throws IOException if the file cannot be written or the export is cancelled
+     */
+    public int exportGrades(Path file, Format format, String studentId, String courseId) throws IOException {
+        try (Writer out = openFile(file)) {
+            return exportGrades(out, format, studentId, courseId);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Exports grades to a writer.
+     *
+     * @param out Destination of the output
+     * @param format The output format
+     * @param studentId Only export this student's grades, or null for every student
+     * @param courseId Only export grades in this course, or null for every course
+     * @return The number of grades written
+     * @throws IOException if writing fails or the export is cancelled
+     */
+    public int exportGrades(Writer out, Format format, String studentId, String courseId) throws IOException {
+        TableWriter table = TableWriter.create(out, format, GRADE_COLUMNS);
+        for (String chunkCourseId : chunks(studentId, courseId)) {
+            writeRows(table, read(() -> {
+                List<Grades> grades;
+                if (studentId != null && chunkCourseId != null) {
+                    grades = gradeRepository.getGradesForStudentInCourse(studentId, chunkCourseId);
+                } else if (studentId != null) {
+                    grades = gradeRepository.getGradesForStudent(studentId);
+                } else {
+                    grades = gradeRepository.getGradesForCourse(chunkCourseId);
+                }
+
+                Map<String, String> courseCodes = new HashMap<>();
+                List<Object[]> rows = new ArrayList<>(grades.size());
+                for (Grades grade : grades) {
+                    String courseCode = courseCodes.computeIfAbsent(grade.getCourseId(), id -> {
+                        Course course = courseRepository.getCourseById(id);
+                        return course != null ? course.getCode() : "";
+                    });
+                    rows.add(new Object[] {
+                        grade.getGradeId(),
+                        grade.getStudentId(),
+                        grade.getCourseId(),
+                        courseCode.isEmpty() ? null : courseCode,
+                        grade.getModuleId(),
+                        grade.getModuleName(),
+                        grade.getAssignmentName(),
+                        grade.getScore(),
+                        grade.getMaxScore(),
+                        grade.getPercentage(),
+                        grade.getLetterGrade(),
+                        grade.getWeight(),
+                        grade.getDateSubmitted(),
+                        grade.getComments()
+                    });
+                }
+                return rows;
+            }));
+        }
+        return table.finish();
+    }
+
+    /**
+     * Exports weighted course averages to a file. The file is removed again if the export fails.
+     *
+     * @param file The file to write
+     * @param format The output format
+     * @param studentId Only export this student's averages, or null for every student
+     * @param courseId Only export averages in this course, or null for every course
+     * @return The number of averages written
+     * @throws IOException if the file cannot be written or the export is cancelled
+     */
+    public int exportCourseAverages(Path file, Format format, String studentId, String courseId) throws IOException {
+        try (Writer out = openFile(file)) {
+            return exportCourseAverages(out, format, studentId, courseId);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Exports weighted course averages to a writer, one row per student and
+     * course with grades. Averages that cannot be calculated are left empty.
+     *
+     * @param out Destination of the output
+     * @param format The output format
+     * @param studentId Only export this student's averages, or null for every student
+     * @param courseId Only export averages in this course, or null for every course
+     * @return The number of averages written
+     * @throws IOException if writing fails or the export is cancelled
+     */
+    public int exportCourseAverages(Writer out, Format format, String studentId, String courseId) throws IOException {
+        TableWriter table = TableWriter.create(out, format, AVERAGE_COLUMNS);
+        for (String chunkCourseId : chunks(studentId, courseId)) {
+            writeRows(table, read(() -> {
+                List<Object[]> rows = new ArrayList<>();
+                if (studentId != null) {
+                    Map<String, Double> averages = gradeRepository.getCourseAveragesForStudent(studentId);
+                    for (Map.Entry<String, Double> entry : averages.entrySet()) {
+                        if (chunkCourseId == null || chunkCourseId.equals(entry.getKey())) {
+                            rows.add(averageRow(studentId, entry.getKey(), entry.getValue()));
+                        }
+                    }
+                } else {
+                    // Every student with a grade in the course, in the order their grades were added
+                    Set<String> studentIds = new LinkedHashSet<>();
+                    for (Grades grade : gradeRepository.getGradesForCourse(chunkCourseId)) {
+                        studentIds.add(grade.getStudentId());
+                    }
+                    for (String gradedStudentId : studentIds) {
+                        rows.add(averageRow(gradedStudentId, chunkCourseId,
+                            gradeRepository.calculateCourseAverage(gradedStudentId, chunkCourseId)));
+                    }
+                }
+                return rows;
+            }));
+        }
+        return table.finish();
+    }
+
+    /**
+     * Exports due dates to a file. The file is removed again if the export fails.
+     *
+     * @param file The file to write
+     * @param format The output format
+     * @param studentId Only export due dates of courses this student is enrolled in, or null for all
+     * @param courseId Only export due dates in this course, or null for every course
+     * @return The number of due dates written
+     * @throws IOException if the file cannot be written or the export is cancelled
+     */
+    public int exportDueDates(Path file, Format format, String studentId, String courseId) throws IOException {
+        try (Writer out = openFile(file)) {
+            return exportDueDates(out, format, studentId, courseId);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Exports due dates to a writer, in due date order within each course.
+     *
+     * @param out Destination of the output
+     * @param format The output format
+     * @param studentId Only export due dates of courses this student is enrolled in, or null for all
+     * @param courseId Only export due dates in this course, or null for every course
+     * @return The number of due dates written
+     * @throws IOException if writing fails or the export is cancelled
+     */
+    public int exportDueDates(Writer out, Format format, String studentId, String courseId) throws IOException {
+        TableWriter table = TableWriter.create(out, format, DUE_DATE_COLUMNS);
+        LocalDate today = LocalDate.now(); // One day for every row, even if the export runs past midnight
+        for (String chunkCourseId : chunks(studentId, courseId)) {
+            writeRows(table, read(() -> {
+                List<DueDate> dueDates;
+                if (studentId != null) {
+                    dueDates = dueDateRepository.getDueDatesForStudent(Integer.parseInt(studentId), courseRepository);
+                } else {
+                    dueDates = dueDateRepository.getDueDatesForCourse(chunkCourseId);
+                }
+
+                List<Object[]> rows = new ArrayList<>();
+                for (DueDate dueDate : dueDates) {
+                    if (chunkCourseId != null && !chunkCourseId.equals(dueDate.getCourseId())) {
+                        continue;
+                    }
+                    rows.add(new Object[] {
+                        dueDate.getDueDateId(),
+                        dueDate.getCourseId(),
+                        dueDate.getCourseName(),
+                        dueDate.getModuleId(),
+                        dueDate.getModuleName(),
+                        dueDate.getAssignmentName(),
+                        dueDate.getDescription(),
+                        dueDate.getDueDate() != null ? dueDate.getDueDate().toString() : null,
+                        dueDate.getPriority(),
+                        dueDate.isCompleted(),
+                        dueDate.getStatus(today)
+                    });
+                }
+                return rows;
+            }));
+        }
+        return table.finish();
+    }
+
+    private Object[] averageRow(String studentId, String courseId, Double average) {
+        Course course = courseRepository.getCourseById(courseId);
+        boolean valid = average != null && average >= 0;
+        return new Object[] {
+            studentId,
+            courseId,
+            course != null ? course.getCode() : null,
+            course != null ? course.getName() : null,
+            course != null ? course.getCredits() : null,
+            valid ? average : null,
+            valid ? GpaCalculator.toGradePoints(average) : null
+        };
+    }
+
+    /**
+     * Lists the courses an export is read in. A single null entry means the
+     * rows are read in one go, which is used for a single student's data.
+     * Exports across every student are read one course at a time.
+     */
+    private List<String> chunks(String studentId, String courseId) throws IOException {
+        if (courseId != null) {
+            return List.of(courseId);
+        }
+        if (studentId != null) {
+            return Collections.singletonList(null);
+        }
+        return read(() -> {
+            List<String> courseIds = new ArrayList<>();
+            for (Course course : courseRepository.getAllCourses()) {
+                courseIds.add(course.getId());
+            }
+            return courseIds;
+        });
+    }
+
+    private static void writeRows(TableWriter table, List<Object[]> rows) throws IOException {
+        for (int i = 0; i < rows.size(); i++) {
+            table.row(rows.get(i));
+            if (i % INTERRUPT_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Export cancelled");
+            }
+        }
+    }
+
+    private <T> T read(Callable<T> query) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Export cancelled");
+        }
+
+        FutureTask<T> task = new FutureTask<>(query);
+        readExecutor.execute(task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Could not read data for export", cause);
+        }
+    }
+
+    private static Writer openFile(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE), BUFFER_SIZE);
+    }
+
+    /**
+     * Writes rows of a table as they are produced. Values may be strings,
+     * numbers, booleans or null.
+     */
+    private abstract static class TableWriter {
+        protected final Writer out;
+        protected final String[] columns;
+        protected int rowCount;
+
+        TableWriter(Writer out, String[] columns) {
+            this.out = out;
+            this.columns = columns;
+        }
+
+        static TableWriter create(Writer out, Format format, String[] columns) throws IOException {
+            TableWriter table = format == Format.JSON ? new JsonTableWriter(out, columns) : new CsvTableWriter(out, columns);
+            table.begin();
+            return table;
+        }
+
+        abstract void begin() throws IOException;
+
+        abstract void row(Object... values) throws IOException;
+
+        /**
+         * Ends the table and flushes it.
+         *
+         * @return The number of rows written
+         */
+        int finish() throws IOException {
+            end();
+            out.flush();
+            return rowCount;
+        }
+
+        abstract void end() throws IOException;
+    }
+
+    /**
+     * CSV with a header line. Fields containing commas, quotes or line breaks
+     * are quoted, and null values are left empty.
+     */
+    private static class CsvTableWriter extends TableWriter {
+        CsvTableWriter(Writer out, String[] columns) {
+            super(out, columns);
+        }
+
+        @Override
+        void begin() throws IOException {
+            row((Object[]) columns);
+            rowCount = 0;
+        }
+
+        @Override
+        void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                if (values[i] != null) {
+                    writeField(String.valueOf(values[i]));
+                }
+            }
+            out.write('\n');
+            rowCount++;
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean needsQuotes = false;
+            for (int i = 0; i < value.length() && !needsQuotes; i++) {
+                char c = value.charAt(i);
+                needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!needsQuotes) {
+                out.write(value);
+                return;
+            }
+
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.write('"');
+                }
+                out.write(c);
+            }
+            out.write('"');
+        }
+
+        @Override
+        void end() {
+        }
+    }
+
+    /**
+     * A JSON array with one object per row, keyed by column name.
+     */
+    private static class JsonTableWriter extends TableWriter {
+        JsonTableWriter(Writer out, String[] columns) {
+            super(out, columns);
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write('[');
+        }
+
+        @Override
+        void row(Object... values) throws IOException {
+            out.write(rowCount == 0 ? "\n  {" : ",\n  {");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(", ");
+                }
+                writeString(columns[i]);
+                out.write(": ");
+                writeValue(values[i]);
+            }
+            out.write('}');
+            rowCount++;
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.write("null");
+            } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+                out.write(value.toString());
+            } else if (value instanceof Double) {
+                double number = (Double) value;
+                out.write(Double.isFinite(number) ? Double.toString(number) : "null");
+            } else {
+                writeString(value.toString());
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        out.write("\\\"");
+                        break;
+                    case '\\':
+                        out.write("\\\\");
+                        break;
+                    case '\n':
+                        out.write("\\n");
+                        break;
+                    case '\r':
+                        out.write("\\r");
+                        break;
+                    case '\t':
+                        out.write("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                }
+            }
+            out.write('"');
+        }
+
+        @Override
+        void end() throws IOException {
+            out.write(rowCount == 0 ? "]\n" : "\n]\n");
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.regex.Pattern;
+
+/**
+ * Imports grades from a CSV file with the columns
+ * studentId, course code, module, assignment, score, max score, weight, date.
+ *
+ * The file is read one line at a time and grades are handed over in batches,
+ * so the whole file is never held in memory. Courses, modules, students and
+ * existing due dates are looked up in hash tables built once when the
+ * importer is created, which must happen on the thread that owns the
+ * repositories. After that, {@link #importCsv(BufferedReader, BatchHandler)}
+ * only touches those tables and can run on a background thread.
+ */
+public class GradeImporter {
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100; // Further errors are only counted
+    private static final int COLUMN_COUNT = 8;
+    private static final Pattern STUDENT_ID = Pattern.compile("[0-9]{7}");
+
+    private final GradeRepository gradeRepository;
+    private final DueDateRepository dueDateRepository;
+    private final Map<String, Course> coursesByCode; // Lowercase course code -> course
+    private final Map<String, Map<String, CourseModule>> modulesByCourse; // Course ID -> lowercase module name or ID -> module
+    private final Set<String> studentIds; // Null when students are not checked
+    private final Set<String> dueDateKeys; // Course ID, module ID and assignment of every due date
+    private final Map<String, LocalDate> parsedDates; // Date text -> date, since imports repeat the same few dates
+
+    /**
+     * Creates an importer and reads the lookup tables from the repositories.
+     *
+     * @param studentRepository Students to check IDs against, or null to accept any 7-digit ID
+     * @param courseRepository Courses to resolve course codes
+     * @param moduleRepository Modules to resolve module names
+     * @param gradeRepository Repository that receives the grades
+     * @param dueDateRepository Repository that receives any missing due dates, or null to skip them
+     */
+    public GradeImporter(StudentRepository studentRepository, CourseRepository courseRepository,
+                         ModuleRepository moduleRepository, GradeRepository gradeRepository,
+                         DueDateRepository dueDateRepository) {
+        this.gradeRepository = gradeRepository;
+        this.dueDateRepository = dueDateRepository;
+
+        this.coursesByCode = new HashMap<>();
+        for (Course course : courseRepository.getAllCourses()) {
+            coursesByCode.putIfAbsent(course.getCode().toLowerCase(), course);
+        }
+
+        this.modulesByCourse = new HashMap<>();
+        for (CourseModule module : moduleRepository.getAllModules()) {
+            Map<String, CourseModule> modules = modulesByCourse.computeIfAbsent(module.getCourseId(), k -> new HashMap<>());
+            modules.putIfAbsent(module.getModuleName().toLowerCase(), module);
+            modules.putIfAbsent(module.getModuleId().toLowerCase(), module);
+        }
+
+        if (studentRepository != null) {
+            this.studentIds = new HashSet<>();
+            for (Student student : studentRepository.getAllStudents()) {
+                studentIds.add(String.valueOf(student.getStudentId()));
+            }
+        } else {
+            this.studentIds = null;
+        }
+
+        this.parsedDates = new HashMap<>();
+        this.dueDateKeys = new HashSet<>();
+        if (dueDateRepository != null) {
+            for (DueDate dueDate : dueDateRepository.getAllDueDates()) {
+                dueDateKeys.add(dueDateKey(dueDate.getCourseId(), dueDate.getModuleId(), dueDate.getAssignmentName()));
+            }
+        }
+    }
+
+    /**
+     * Imports a CSV file on the calling thread, adding each batch to the
+     * repositories as soon as it is read.
+     *
+     * @param file The CSV file
+     * @return A summary of the import
+     * @throws IOException if the file cannot be read
+     */
+    public ImportResult importCsv(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importCsv(reader, this::store);
+        }
+    }
+
+    /**
+     * Reads grades from CSV text and stores each batch through an executor,
+     * waiting until it has been stored before reading on. A slow store holds
+     * the reader back, so batches never pile up waiting to be stored. When
+     * importing on a background thread from the UI, pass Platform::runLater
+     * so that the repositories are only changed on the JavaFX thread.
+     *
+     * @param reader Source of the CSV text
+     * @param storeExecutor Runs each store
+     * @return A summary of the import
+     * @throws IOException if the reader fails
+     */
+    public ImportResult importCsv(BufferedReader reader, Executor storeExecutor) throws IOException {
+        return importCsv(reader, (grades, dueDates) -> storeAndWait(storeExecutor, () -> store(grades, dueDates)));
+    }
+
+    /**
+     * Runs a store through an executor and waits for it to finish. If the
+     * calling thread is interrupted first, the store is cancelled unless it
+     * has started, and the thread is left interrupted so the import stops.
+     *
+     * @param storeExecutor Runs the store
+     * @param store Adds a batch to the repositories
+     */
+    static void storeAndWait(Executor storeExecutor, Runnable store) {
+        FutureTask<Void> task = new FutureTask<>(store, null);
+        storeExecutor.execute(task);
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Could not store imported batch", cause);
+        }
+    }
+
+    /**
+     * Reads grades from CSV text and passes them to a handler in batches.
+     * A first line starting with "studentId" is treated as a header.
+     *
+     * @param reader Source of the CSV text
+     * @param handler Receives each batch of grades and the due dates they need
+     * @return A summary of the import
+     * @throws IOException if the reader fails
+     */
+    public ImportResult importCsv(BufferedReader reader, BatchHandler handler) throws IOException {
+        ImportResult result = new ImportResult();
+        List<Grades> grades = new ArrayList<>(BATCH_SIZE);
+        List<DueDate> dueDates = new ArrayList<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            try {
+                List<String> fields = parseLine(line);
+                if (lineNumber == 1 && fields.get(0).trim().equalsIgnoreCase("studentId")) {
+                    continue;
+                }
+
+                Grades grade = toGrade(fields, dueDates);
+                grades.add(grade);
+                result.imported++;
+            } catch (IllegalArgumentException e) {
+                result.addError(lineNumber, e.getMessage());
+            }
+
+            if (grades.size() >= BATCH_SIZE) {
+                flush(handler, grades, dueDates, result);
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                result.cancelled = true;
+                break;
+            }
+        }
+
+        flush(handler, grades, dueDates, result);
+        return result;
+    }
+
+    private void flush(BatchHandler handler, List<Grades> grades, List<DueDate> dueDates, ImportResult result) {
+        if (grades.isEmpty() && dueDates.isEmpty()) {
+            return;
+        }
+
+        result.dueDatesCreated += dueDates.size();
+        handler.accept(new ArrayList<>(grades), new ArrayList<>(dueDates));
+        grades.clear();
+        dueDates.clear();
+    }
+
+    /**
+     * Adds a batch to the repositories. Must run on the thread that owns them.
+     *
+     * @param grades Grades to add
+     * @param dueDates Due dates to add
+     */
+    public void store(List<Grades> grades, List<DueDate> dueDates) {
+        gradeRepository.addGrades(grades);
+        if (dueDateRepository != null && !dueDates.isEmpty()) {
+            dueDateRepository.addDueDates(dueDates);
+        }
+    }
+
+    private Grades toGrade(List<String> fields, List<DueDate> dueDates) {
+        if (fields.size() != COLUMN_COUNT) {
+            throw new IllegalArgumentException("Expected " + COLUMN_COUNT + " columns but found " + fields.size());
+        }
+
+        String studentId = fields.get(0).trim();
+        if (!STUDENT_ID.matcher(studentId).matches()) {
+            throw new IllegalArgumentException("Invalid student ID: " + studentId);
+        }
+        if (studentIds != null && !studentIds.contains(studentId)) {
+            throw new IllegalArgumentException("Unknown student: " + studentId);
+        }
+
+        String courseCode = fields.get(1).trim();
+        Course course = coursesByCode.get(courseCode.toLowerCase());
+        if (course == null) {
+            throw new IllegalArgumentException("Unknown course code: " + courseCode);
+        }
+
+        String moduleName = fields.get(2).trim();
+        Map<String, CourseModule> modules = modulesByCourse.get(course.getId());
+        CourseModule module = modules != null ? modules.get(moduleName.toLowerCase()) : null;
+        if (module == null) {
+            throw new IllegalArgumentException("Unknown module for " + course.getCode() + ": " + moduleName);
+        }
+
+        String assignmentName = fields.get(3).trim();
+        if (assignmentName.isEmpty()) {
+            throw new IllegalArgumentException("Missing assignment name");
+        }
+
+        double score = parseNumber(fields.get(4), "score");
+        double maxScore = parseNumber(fields.get(5), "max score");
+        double weight = parseNumber(fields.get(6), "weight");
+        if (maxScore <= 0) {
+            throw new IllegalArgumentException("Max score must be greater than zero");
+        }
+
+        String date = fields.get(7).trim();
+        LocalDate submitted = parsedDates.get(date);
+        if (submitted == null) {
+            try {
+                submitted = DueDate.checkDate(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date (expected YYYY-MM-DD): " + date);
+            }
+            parsedDates.put(date, submitted);
+        }
+
+        // One due date per assignment, created the first time it is seen
+        if (dueDateRepository != null
+                && dueDateKeys.add(dueDateKey(course.getId(), module.getModuleId(), assignmentName))) {
+            DueDate dueDate = new DueDate(course.getId(), course.getName(), assignmentName,
+                "Created from grade import", submitted, "Medium");
+            dueDate.setModuleId(module.getModuleId());
+            dueDate.setModuleName(module.getModuleName());
+            dueDate.setCompleted(true); // Mark as completed since grade exists
+            dueDates.add(dueDate);
+        }
+
+        return new Grades(studentId, course.getId(), assignmentName, module.getModuleId(), module.getModuleName(),
+            score, maxScore, weight, date);
+    }
+
+    private static double parseNumber(String value, String column) {
+        try {
+            double number = Double.parseDouble(value.trim());
+            if (!Double.isFinite(number)) {
+                throw new NumberFormatException();
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value.trim());
+        }
+    }
+
+    private static String dueDateKey(String courseId, String moduleId, String assignmentName) {
+        return courseId + '\u0000' + moduleId + '\u0000' + assignmentName;
+    }
+
+    /**
+     * Splits one CSV line into fields. Fields may be quoted with double
+     * quotes, and a doubled quote inside a quoted field stands for one quote.
+     */
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>(COLUMN_COUNT);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Receives each batch of imported grades along with the due dates
+     * created for assignments that did not have one.
+     */
+    public interface BatchHandler {
+        void accept(List<Grades> grades, List<DueDate> dueDates);
+    }
+
+    /**
+     * Summary of an import: how many rows were imported and why others were not.
+     */
+    public static class ImportResult {
+        private int imported;
+        private int dueDatesCreated;
+        private int errorCount;
+        private boolean cancelled;
+        private final List<String> errors = new ArrayList<>();
+
+        private void addError(int lineNumber, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + lineNumber + ": " + message);
+            }
+        }
+
+        /**
+         * @return The number of grades imported
+         */
+        public int getImported() {
+            return imported;
+        }
+
+        /**
+         * @return The number of due dates created for new assignments
+         */
+        public int getDueDatesCreated() {
+            return dueDatesCreated;
+        }
+
+        /**
+         * @return The number of rows that could not be imported
+         */
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        /**
+         * @return Messages for the first rows that could not be imported
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return true if the import stopped before the end of the file
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
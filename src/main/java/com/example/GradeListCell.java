@@ -0,0 +1,76 @@
+package com.example;
+
+import javafx.css.PseudoClass;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+
+/**
+ * A grade row showing the assignment, its module, the score and the letter grade.
+ *
+ * The nodes are built once per cell and reused as the list scrolls; an
+ * update only changes label text and the letter grade pseudo-class
+ * (:grade-a to :grade-f), which the stylesheet uses for colors.
+ */
+public class GradeListCell extends ListCell<Grades> {
+    private static final String LETTERS = "ABCDF";
+    private static final PseudoClass[] LETTER_PSEUDO_CLASSES = {
+        PseudoClass.getPseudoClass("grade-a"),
+        PseudoClass.getPseudoClass("grade-b"),
+        PseudoClass.getPseudoClass("grade-c"),
+        PseudoClass.getPseudoClass("grade-d"),
+        PseudoClass.getPseudoClass("grade-f")
+    };
+
+    private final HBox row;
+    private final Label assignmentLabel;
+    private final Label moduleLabel;
+    private final Label scoreLabel;
+    private final Label letterLabel;
+
+    /**
+     * Creates a cell.
+     */
+    public GradeListCell() {
+        getStyleClass().add("grade-cell");
+
+        assignmentLabel = new Label();
+        moduleLabel = new Label();
+        moduleLabel.getStyleClass().add("module-label");
+        scoreLabel = new Label();
+        letterLabel = new Label();
+        letterLabel.getStyleClass().add("letter-label");
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        row = new HBox(assignmentLabel, moduleLabel, spacer, scoreLabel, letterLabel);
+        row.getStyleClass().add("grade-row");
+    }
+
+    @Override
+    protected void updateItem(Grades grade, boolean empty) {
+        super.updateItem(grade, empty);
+        setText(null);
+
+        if (empty || grade == null) {
+            setGraphic(null);
+            showLetter(-1);
+            return;
+        }
+
+        assignmentLabel.setText(grade.getAssignmentName());
+        moduleLabel.setText(grade.getModuleName());
+        scoreLabel.setText(grade.getScoreText());
+        letterLabel.setText(grade.getLetterGrade());
+        showLetter(LETTERS.indexOf(grade.getLetterGrade()));
+        setGraphic(row);
+    }
+
+    private void showLetter(int letterIndex) {
+        for (int i = 0; i < LETTER_PSEUDO_CLASSES.length; i++) {
+            pseudoClassStateChanged(LETTER_PSEUDO_CLASSES[i], i == letterIndex);
+        }
+    }
+}
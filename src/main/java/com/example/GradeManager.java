@@ -2,22 +2,81 @@ package com.example;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Manages the collection of grades in the application.
  * Provides methods to add, retrieve, update, and delete grades.
+ * Grades are stored in a map keyed by grade ID, with secondary indexes by
+ * student, course, student and course, student and module, and
+ * {@link AssignmentKey} so that lookups only touch the grades they return. Weighted course and module
+ * averages are kept as running sums, so reading one is constant time.
+ * The secondary indexes are keyed by the {@link IdTable} keys of the student,
+ * course and module IDs, so they are arrays and int maps rather than maps of strings.
  */
-public class GradeManager {
+public class GradeManager implements GradeRepository {
     
-    private final List<Grades> allGrades;
+    private final Map<String, Grades> gradesById; // Primary index, in insertion order
+    private final DenseMap<Set<Grades>> gradesByStudent;
+    private final DenseMap<Set<Grades>> gradesByCourse;
+    private final DenseMap<Set<Grades>> gradesByModule;
+    private final DenseMap<IntObjectHashMap<Set<Grades>>> gradesByStudentAndCourse;
+    private final DenseMap<IntObjectHashMap<Set<Grades>>> gradesByStudentAndModule;
+    private final Map<AssignmentKey, Set<Grades>> gradesByAssignment; // Joins grades to the due dates of the same assignment
+    private final DenseMap<IntObjectHashMap<WeightedAverage>> courseAverages; // Running averages by student, then course
+    private final DenseMap<IntObjectHashMap<WeightedAverage>> moduleAverages; // Running averages by student, then module
+    private final Map<String, Long> studentVersions; // Bumped on every change to a student's grades; outlives the student's key
+    private volatile GpaCalculator gpaCalculator; // Caches the results of calculateGPA, or null until first used
+    private final IdTables ids; // Keys of the student, course and module IDs the indexes are keyed by
+    private Journal journal; // Receives every change, or null when changes are not persisted
+    private ChangeEventBus eventBus; // Receives change events for the views, or null
     
     /**
-     * Creates a new GradeManager with an empty collection of grades.
+     * Creates a new GradeManager with an empty collection of grades and ID keys of its own.
      */
     public GradeManager() {
-        this.allGrades = new ArrayList<>();
+        this(new IdTables());
+    }
+    
+    /**
+     * Creates a new GradeManager with an empty collection of grades.
+     * 
+     * @param ids The ID keys shared by the managers this one is used with
+     */
+    public GradeManager(IdTables ids) {
+        this.ids = ids;
+        this.gradesById = new LinkedHashMap<>();
+        this.gradesByStudent = new DenseMap<>();
+        this.gradesByCourse = new DenseMap<>();
+        this.gradesByModule = new DenseMap<>();
+        this.gradesByStudentAndCourse = new DenseMap<>();
+        this.gradesByStudentAndModule = new DenseMap<>();
+        this.gradesByAssignment = new HashMap<>();
+        this.courseAverages = new DenseMap<>();
+        this.moduleAverages = new DenseMap<>();
+        this.studentVersions = new HashMap<>();
+    }
+    
+    /**
+     * Sets the bus that receives a change event for every change made through this manager.
+     * 
+     * @param eventBus The event bus, or null to stop publishing changes
+     */
+    public synchronized void setEventBus(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+    
+    /**
+     * Sets the journal that records changes made through this manager.
+     * 
+     * @param journal The journal, or null to stop recording changes
+     */
+    public synchronized void setJournal(Journal journal) {
+        this.journal = journal;
     }
     
     /**
@@ -25,8 +84,30 @@ public class GradeManager {
      * 
      * @param grade Grade to add
      */
-    public void addGrade(Grades grade) {
-        allGrades.add(grade);
+    public synchronized void addGrade(Grades grade) {
+        Grades previous = gradesById.put(grade.getGradeId(), grade);
+        if (previous != null) {
+            unindex(previous);
+            previous.setManager(null);
+        }
+        index(grade);
+        grade.setManager(this);
+        
+        if (journal != null) {
+            journal.recordSaved(grade);
+        }
+        publish(previous != null ? ChangeEvent.gradeUpdated(previous.getGradeId(), grade) : ChangeEvent.gradeAdded(grade));
+    }
+    
+    /**
+     * Adds several grades at once.
+     * 
+     * @param grades Grades to add
+     */
+    public synchronized void addGrades(List<Grades> grades) {
+        for (Grades grade : grades) {
+            addGrade(grade);
+        }
     }
     
     /**
@@ -35,13 +116,8 @@ public class GradeManager {
      * @param gradeId ID of the grade to retrieve
      * @return Grade with the specified ID, or null if not found
      */
-    public Grades getGradeById(String gradeId) {
-        for (Grades grade : allGrades) {
-            if (grade.getGradeId().equals(gradeId)) {
-                return grade;
-            }
-        }
-        return null;
+    public synchronized Grades getGradeById(String gradeId) {
+        return gradesById.get(gradeId);
     }
     
     /**
@@ -51,14 +127,30 @@ public class GradeManager {
      * @param updatedGrade Updated grade data
      * @return true if the grade was updated, false if the grade was not found
      */
-    public boolean updateGrade(String gradeId, Grades updatedGrade) {
-        for (int i = 0; i < allGrades.size(); i++) {
-            if (allGrades.get(i).getGradeId().equals(gradeId)) {
-                allGrades.set(i, updatedGrade);
-                return true;
+    public synchronized boolean updateGrade(String gradeId, Grades updatedGrade) {
+        Grades existing = gradesById.get(gradeId);
+        if (existing == null) {
+            return false;
+        }
+        
+        unindex(existing);
+        existing.setManager(null);
+        
+        if (!gradeId.equals(updatedGrade.getGradeId())) {
+            gradesById.remove(gradeId);
+            if (journal != null) {
+                journal.recordRemoved(existing);
             }
         }
-        return false;
+        gradesById.put(updatedGrade.getGradeId(), updatedGrade);
+        index(updatedGrade);
+        updatedGrade.setManager(this);
+        
+        if (journal != null) {
+            journal.recordSaved(updatedGrade);
+        }
+        publish(ChangeEvent.gradeUpdated(gradeId, updatedGrade));
+        return true;
     }
     
     /**
@@ -67,14 +159,20 @@ public class GradeManager {
      * @param gradeId ID of the grade to remove
      * @return true if the grade was removed, false if the grade was not found
      */
-    public boolean removeGrade(String gradeId) {
-        for (int i = 0; i < allGrades.size(); i++) {
-            if (allGrades.get(i).getGradeId().equals(gradeId)) {
-                allGrades.remove(i);
-                return true;
-            }
+    public synchronized boolean removeGrade(String gradeId) {
+        Grades removed = gradesById.remove(gradeId);
+        if (removed == null) {
+            return false;
+        }
+        
+        unindex(removed);
+        removed.setManager(null);
+        
+        if (journal != null) {
+            journal.recordRemoved(removed);
         }
-        return false;
+        publish(ChangeEvent.gradeRemoved(removed));
+        return true;
     }
     
     /**
@@ -83,16 +181,8 @@ public class GradeManager {
      * @param studentId ID of the student
      * @return List of grades for the specified student
      */
-    public List<Grades> getGradesForStudent(String studentId) {
-        List<Grades> result = new ArrayList<>();
-        
-        for (Grades grade : allGrades) {
-            if (grade.getStudentId().equals(studentId)) {
-                result.add(grade);
-            }
-        }
-        
-        return result;
+    public synchronized List<Grades> getGradesForStudent(String studentId) {
+        return copyOf(gradesByStudent.get(ids.students.find(studentId)));
     }
     
     /**
@@ -101,36 +191,19 @@ public class GradeManager {
      * @param courseId ID of the course
      * @return List of grades for the specified course
      */
-    public List<Grades> getGradesForCourse(String courseId) {
-        List<Grades> result = new ArrayList<>();
-        
-        for (Grades grade : allGrades) {
-            if (grade.getCourseId().equals(courseId)) {
-                result.add(grade);
-            }
-        }
-        
-        return result;
+    public synchronized List<Grades> getGradesForCourse(String courseId) {
+        return copyOf(gradesByCourse.get(ids.courses.find(courseId)));
     }
     
     /**
      * Gets all grades for a specific student in a specific course.
      * 
-     * @param studentId ID of the student (can be int or String)
+     * @param studentId ID of the student
      * @param courseId ID of the course
      * @return List of grades for the specified student in the specified course
      */
-    public List<Grades> getGradesForStudentInCourse(Object studentId, String courseId) {
-        String studentIdStr = String.valueOf(studentId);
-        List<Grades> result = new ArrayList<>();
-        
-        for (Grades grade : allGrades) {
-            if (grade.getStudentId().equals(studentIdStr) && grade.getCourseId().equals(courseId)) {
-                result.add(grade);
-            }
-        }
-        
-        return result;
+    public synchronized List<Grades> getGradesForStudentInCourse(String studentId, String courseId) {
+        return copyOf(lookup(gradesByStudentAndCourse, ids.students.find(studentId), ids.courses.find(courseId)));
     }
     
     /**
@@ -140,16 +213,29 @@ public class GradeManager {
      * @param moduleId ID of the module
      * @return List of grades for the specified student in the specified module
      */
-    public List<Grades> getGradesForStudentInModule(String studentId, String moduleId) {
-        List<Grades> result = new ArrayList<>();
-        
-        for (Grades grade : allGrades) {
-            if (grade.getStudentId().equals(studentId) && grade.getModuleId().equals(moduleId)) {
-                result.add(grade);
-            }
-        }
-        
-        return result;
+    public synchronized List<Grades> getGradesForStudentInModule(String studentId, String moduleId) {
+        return copyOf(lookup(gradesByStudentAndModule, ids.students.find(studentId), ids.modules.find(moduleId)));
+    }
+    
+    /**
+     * Gets every student's grade for an assignment, which is how the grade
+     * belonging to a due date is found without scanning all grades.
+     * 
+     * @param key Course, module and name of the assignment
+     * @return List of grades for the assignment
+     */
+    public synchronized List<Grades> getGradesForAssignment(AssignmentKey key) {
+        return copyOf(gradesByAssignment.get(key));
+    }
+    
+    /**
+     * Checks whether any student has a grade in a module.
+     * 
+     * @param moduleId ID of the module
+     * @return true if at least one grade belongs to the module
+     */
+    public synchronized boolean hasGradesForModule(String moduleId) {
+        return gradesByModule.get(ids.modules.find(moduleId)) != null;
     }
     
     /**
@@ -159,27 +245,9 @@ public class GradeManager {
      * @param courseId ID of the course
      * @return Weighted average grade as a percentage, or -1 if no grades are found
      */
-    public double calculateCourseAverage(String studentId, String courseId) {
-        List<Grades> courseGrades = getGradesForStudentInCourse(studentId, courseId);
-        
-        if (courseGrades.isEmpty()) {
-            return -1;
-        }
-        
-        double totalWeightedScore = 0;
-        double totalWeight = 0;
-        
-        for (Grades grade : courseGrades) {
-            double weightedScore = (grade.getScore() / grade.getMaxScore()) * grade.getWeight();
-            totalWeightedScore += weightedScore;
-            totalWeight += grade.getWeight();
-        }
-        
-        if (totalWeight == 0) {
-            return -1;
-        }
-        
-        return (totalWeightedScore / totalWeight) * 100;
+    public synchronized double calculateCourseAverage(String studentId, String courseId) {
+        WeightedAverage average = lookup(courseAverages, ids.students.find(studentId), ids.courses.find(courseId));
+        return average != null ? average.getAverage() : -1;
     }
     
     /**
@@ -189,113 +257,240 @@ public class GradeManager {
      * @param moduleId ID of the module
      * @return Weighted average grade as a percentage, or -1 if no grades are found
      */
-    public double calculateModuleAverage(String studentId, String moduleId) {
-        List<Grades> moduleGrades = getGradesForStudentInModule(studentId, moduleId);
-        
-        if (moduleGrades.isEmpty()) {
-            return -1;
-        }
-        
-        double totalWeightedScore = 0;
-        double totalWeight = 0;
-        
-        for (Grades grade : moduleGrades) {
-            double weightedScore = (grade.getScore() / grade.getMaxScore()) * grade.getWeight();
-            totalWeightedScore += weightedScore;
-            totalWeight += grade.getWeight();
-        }
-        
-        if (totalWeight == 0) {
-            return -1;
-        }
-        
-        return (totalWeightedScore / totalWeight) * 100;
+    public synchronized double calculateModuleAverage(String studentId, String moduleId) {
+        WeightedAverage average = lookup(moduleAverages, ids.students.find(studentId), ids.modules.find(moduleId));
+        return average != null ? average.getAverage() : -1;
     }
     
     /**
-     * Gets module averages for a student in a course.
+     * Gets the weighted average of every course a student has grades in.
+     * Reads the running course averages, so the cost is the number of courses.
      * 
      * @param studentId ID of the student
-     * @param courseId ID of the course
-     * @param moduleManager Module manager to get module information
-     * @return Map of module IDs to average grades
+     * @return Map of course IDs to average grades (-1 for courses without weighted grades)
      */
-    public Map<String, Double> getModuleAveragesForStudentInCourse(String studentId, String courseId, ModuleManager moduleManager) {
-        Map<String, Double> moduleAverages = new HashMap<>();
+    public synchronized Map<String, Double> getCourseAveragesForStudent(String studentId) {
+        Map<String, Double> result = new HashMap<>();
         
-        List<CourseModule> modules = moduleManager.getModulesForCourse(courseId);
-        for (CourseModule module : modules) {
-            double average = calculateModuleAverage(studentId, module.getModuleId());
-            moduleAverages.put(module.getModuleId(), average);
+        IntObjectHashMap<WeightedAverage> averages = courseAverages.get(ids.students.find(studentId));
+        if (averages != null) {
+            for (int courseKey : averages.keys()) {
+                result.put(ids.courses.idOf(courseKey), averages.get(courseKey).getAverage());
+            }
         }
         
-        return moduleAverages;
+        return result;
     }
     
     /**
-     * Gets the current GPA for a student across all courses.
+     * Returns a counter that changes whenever any of a student's grades is
+     * added, removed or modified. Used to tell when cached results are stale.
      * 
      * @param studentId ID of the student
+     * @return Modification count for the student's grades
+     */
+    public synchronized long getStudentVersion(String studentId) {
+        return studentVersions.getOrDefault(studentId, 0L);
+    }
+    
+    /**
+     * Gets the current GPA for a student across all enrolled courses,
+     * weighted by each course's credit hours. Results are cached until the
+     * student's grades or enrollments, or the courses, change. The
+     * calculation runs without this manager's lock, since it also reads the
+     * course repository.
+     * 
+     * @param studentId ID of the student
+     * @param courseRepository Courses to get credits and enrollment from
      * @return Current GPA on a 4.0 scale, or -1 if no grades are found
      */
-    public double calculateGPA(String studentId) {
-        List<Grades> studentGrades = getGradesForStudent(studentId);
-        
-        if (studentGrades.isEmpty()) {
-            return -1;
+    public double calculateGPA(String studentId, CourseRepository courseRepository) {
+        GpaCalculator calculator = gpaCalculator;
+        if (calculator == null || !calculator.uses(courseRepository)) {
+            calculator = new GpaCalculator(this, courseRepository);
+            gpaCalculator = calculator;
         }
-        
-        // Group grades by course
-        Map<String, List<Grades>> courseGrades = new HashMap<>();
-        
-        for (Grades grade : studentGrades) {
-            String courseId = grade.getCourseId();
-            if (!courseGrades.containsKey(courseId)) {
-                courseGrades.put(courseId, new ArrayList<>());
-            }
-            courseGrades.get(courseId).add(grade);
+        return calculator.getStanding(studentId).getGpa();
+    }
+    
+    /**
+     * Gets all grades, in the order they were added.
+     * 
+     * @return List of all grades
+     */
+    public synchronized List<Grades> getAllGrades() {
+        return new ArrayList<>(gradesById.values());
+    }
+    
+    /**
+     * Changes key fields of an indexed grade under this manager's lock, so that
+     * other threads never see the grade missing from its indexes or filed under
+     * stale keys. Called by the Grades setters for the student, course, module
+     * and assignment.
+     * 
+     * @param grade Grade being changed
+     * @param change Sets the new field values
+     */
+    synchronized void reindex(Grades grade, Runnable change) {
+        unindex(grade);
+        change.run();
+        index(grade);
+    }
+    
+    /**
+     * Changes the score fields of an indexed grade under this manager's lock,
+     * so that other threads never see running averages without the grade.
+     * Called by the Grades setters for the score, max score and weight.
+     * 
+     * @param grade Grade being changed
+     * @param change Sets the new field values
+     */
+    synchronized void rescore(Grades grade, Runnable change) {
+        removeFromAverages(grade);
+        change.run();
+        addToAverages(grade);
+    }
+    
+    /**
+     * Adds a grade to every secondary index using its current key fields.
+     * Called on add and by {@link #reindex} after the key fields have changed.
+     * 
+     * @param grade Grade to index
+     */
+    synchronized void index(Grades grade) {
+        grade.setKeys(ids.students.acquire(grade.getStudentId()), ids.courses.acquire(grade.getCourseId()),
+            ids.modules.acquire(grade.getModuleId()));
+        bucket(gradesByStudent, grade.getStudentKey()).add(grade);
+        bucket(gradesByCourse, grade.getCourseKey()).add(grade);
+        bucket(gradesByModule, grade.getModuleKey()).add(grade);
+        bucket(gradesByStudentAndCourse, grade.getStudentKey(), grade.getCourseKey()).add(grade);
+        bucket(gradesByStudentAndModule, grade.getStudentKey(), grade.getModuleKey()).add(grade);
+        gradesByAssignment.computeIfAbsent(AssignmentKey.of(grade), k -> new LinkedHashSet<>()).add(grade);
+        addToAverages(grade);
+    }
+    
+    /**
+     * Removes a grade from every secondary index using its current key fields.
+     * Called on removal and by {@link #reindex} before the key fields change.
+     * 
+     * @param grade Grade to unindex
+     */
+    synchronized void unindex(Grades grade) {
+        removeFrom(gradesByStudent, grade.getStudentKey(), grade);
+        removeFrom(gradesByCourse, grade.getCourseKey(), grade);
+        removeFrom(gradesByModule, grade.getModuleKey(), grade);
+        removeFrom(gradesByStudentAndCourse, grade.getStudentKey(), grade.getCourseKey(), grade);
+        removeFrom(gradesByStudentAndModule, grade.getStudentKey(), grade.getModuleKey(), grade);
+        AssignmentKey key = AssignmentKey.of(grade);
+        Set<Grades> sameAssignment = gradesByAssignment.get(key);
+        if (sameAssignment != null && sameAssignment.remove(grade) && sameAssignment.isEmpty()) {
+            gradesByAssignment.remove(key);
+        }
+        removeFromAverages(grade);
+        ids.students.release(grade.getStudentKey());
+        ids.courses.release(grade.getCourseKey());
+        ids.modules.release(grade.getModuleKey());
+    }
+    
+    /**
+     * Adds a grade's score to the running course and module averages.
+     * Called on index and by {@link #rescore} after the score fields have changed.
+     * 
+     * @param grade Grade to add
+     */
+    synchronized void addToAverages(Grades grade) {
+        average(courseAverages, grade.getStudentKey(), grade.getCourseKey()).add(grade);
+        average(moduleAverages, grade.getStudentKey(), grade.getModuleKey()).add(grade);
+        studentVersions.merge(grade.getStudentId(), 1L, Long::sum);
+    }
+    
+    /**
+     * Removes a grade's score from the running course and module averages.
+     * Called on unindex and by {@link #rescore} before the score fields change.
+     * 
+     * @param grade Grade to remove
+     */
+    synchronized void removeFromAverages(Grades grade) {
+        removeFromAverage(courseAverages, grade.getStudentKey(), grade.getCourseKey(), grade);
+        removeFromAverage(moduleAverages, grade.getStudentKey(), grade.getModuleKey(), grade);
+        studentVersions.merge(grade.getStudentId(), 1L, Long::sum);
+    }
+    
+    private static WeightedAverage average(DenseMap<IntObjectHashMap<WeightedAverage>> averages, int outerKey, int innerKey) {
+        IntObjectHashMap<WeightedAverage> inner = averages.computeIfAbsent(outerKey, k -> new IntObjectHashMap<>());
+        WeightedAverage average = inner.get(innerKey);
+        if (average == null) {
+            average = new WeightedAverage();
+            inner.put(innerKey, average);
+        }
+        return average;
+    }
+    
+    private static void removeFromAverage(DenseMap<IntObjectHashMap<WeightedAverage>> averages, int outerKey, int innerKey, Grades grade) {
+        IntObjectHashMap<WeightedAverage> inner = averages.get(outerKey);
+        if (inner == null) {
+            return;
         }
         
-        double totalGradePoints = 0;
-        int totalCredits = 0;
-        
-        for (Map.Entry<String, List<Grades>> entry : courseGrades.entrySet()) {
-            String courseId = entry.getKey();
-            
-            // Calculate course average
-            double courseAverage = calculateCourseAverage(studentId, courseId);
-            
-            // Find the course to get the credits
-            Course course = null; // This needs to be retrieved from a CourseManager
-            
-            // For now, assume a fixed credit value
-            int credits = 3;
-            
-            // Convert percentage to GPA scale
-            double gradePoints = 0;
-            
-            if (courseAverage >= 90) {
-                gradePoints = 4.0;
-            } else if (courseAverage >= 80) {
-                gradePoints = 3.0;
-            } else if (courseAverage >= 70) {
-                gradePoints = 2.0;
-            } else if (courseAverage >= 60) {
-                gradePoints = 1.0;
+        WeightedAverage average = inner.get(innerKey);
+        if (average != null) {
+            average.remove(grade);
+            if (average.isEmpty()) {
+                inner.remove(innerKey);
+                if (inner.size() == 0) {
+                    averages.remove(outerKey);
+                }
             }
-            
-            totalGradePoints += gradePoints * credits;
-            totalCredits += credits;
         }
-        
-        if (totalCredits == 0) {
-            return -1;
+    }
+    
+    private static Set<Grades> bucket(DenseMap<Set<Grades>> index, int key) {
+        return index.computeIfAbsent(key, k -> new LinkedHashSet<>());
+    }
+    
+    private static Set<Grades> bucket(DenseMap<IntObjectHashMap<Set<Grades>>> index, int outerKey, int innerKey) {
+        IntObjectHashMap<Set<Grades>> inner = index.computeIfAbsent(outerKey, k -> new IntObjectHashMap<>());
+        Set<Grades> grades = inner.get(innerKey);
+        if (grades == null) {
+            grades = new LinkedHashSet<>();
+            inner.put(innerKey, grades);
         }
-        
-        return totalGradePoints / totalCredits;
+        return grades;
     }
-
-    public List<Grades> getAllGrades() {
-        return new ArrayList<>(allGrades);
+    
+    private static void removeFrom(DenseMap<Set<Grades>> index, int key, Grades grade) {
+        Set<Grades> grades = index.get(key);
+        if (grades != null && grades.remove(grade) && grades.isEmpty()) {
+            index.remove(key);
+        }
+    }
+    
+    private static void removeFrom(DenseMap<IntObjectHashMap<Set<Grades>>> index, int outerKey, int innerKey, Grades grade) {
+        IntObjectHashMap<Set<Grades>> inner = index.get(outerKey);
+        if (inner == null) {
+            return;
+        }
+        Set<Grades> grades = inner.get(innerKey);
+        if (grades != null && grades.remove(grade) && grades.isEmpty()) {
+            inner.remove(innerKey);
+            if (inner.size() == 0) {
+                index.remove(outerKey);
+            }
+        }
+    }
+    
+    private static <T> T lookup(DenseMap<IntObjectHashMap<T>> index, int outerKey, int innerKey) {
+        IntObjectHashMap<T> inner = index.get(outerKey);
+        return inner != null ? inner.get(innerKey) : null;
+    }
+    
+    private static List<Grades> copyOf(Set<Grades> grades) {
+        return grades != null ? new ArrayList<>(grades) : new ArrayList<>();
+    }
+    
+    private void publish(ChangeEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage for grades. {@link GradeManager} keeps grades in memory;
+ * {@link JdbcGradeRepository} keeps them in an embedded database.
+ */
+public interface GradeRepository {
+
+    /**
+     * Sets the bus that receives a change event for every change made through this repository.
+     * 
+     * @param eventBus The event bus, or null to stop publishing changes
+     */
+    void setEventBus(ChangeEventBus eventBus);
+
+    /**
+     * Adds a new grade.
+     * 
+     * @param grade Grade to add
+     */
+    void addGrade(Grades grade);
+
+    /**
+     * Adds several grades at once.
+     * 
+     * @param grades Grades to add
+     */
+    void addGrades(List<Grades> grades);
+
+    /**
+     * Retrieves a grade by its unique ID.
+     * 
+     * @param gradeId ID of the grade to retrieve
+     * @return Grade with the specified ID, or null if not found
+     */
+    Grades getGradeById(String gradeId);
+
+    /**
+     * Gets all grades, in the order they were added.
+     * 
+     * @return List of all grades
+     */
+    List<Grades> getAllGrades();
+
+    /**
+     * Updates an existing grade.
+     * 
+     * @param gradeId ID of the grade to update
+     * @param updatedGrade Updated grade data
+     * @return true if the grade was updated, false if the grade was not found
+     */
+    boolean updateGrade(String gradeId, Grades updatedGrade);
+
+    /**
+     * Removes a grade.
+     * 
+     * @param gradeId ID of the grade to remove
+     * @return true if the grade was removed, false if the grade was not found
+     */
+    boolean removeGrade(String gradeId);
+
+    /**
+     * Gets all grades for a specific student.
+     * 
+     * @param studentId ID of the student
+     * @return List of grades for the specified student
+     */
+    List<Grades> getGradesForStudent(String studentId);
+
+    /**
+     * Gets all grades for a specific course.
+     * 
+     * @param courseId ID of the course
+     * @return List of grades for the specified course
+     */
+    List<Grades> getGradesForCourse(String courseId);
+
+    /**
+     * Gets all grades for a specific student in a specific course.
+     * 
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return List of grades for the specified student in the specified course
+     */
+    List<Grades> getGradesForStudentInCourse(String studentId, String courseId);
+
+    /**
+     * Gets all grades for a specific student in a specific module.
+     * 
+     * @param studentId ID of the student
+     * @param moduleId ID of the module
+     * @return List of grades for the specified student in the specified module
+     */
+    List<Grades> getGradesForStudentInModule(String studentId, String moduleId);
+
+    /**
+     * Gets every student's grade for an assignment, which is how the grade
+     * belonging to a due date is found without scanning all grades.
+     * 
+     * @param key Course, module and name of the assignment
+     * @return List of grades for the assignment
+     */
+    List<Grades> getGradesForAssignment(AssignmentKey key);
+
+    /**
+     * Checks whether any student has a grade in a module.
+     * 
+     * @param moduleId ID of the module
+     * @return true if at least one grade belongs to the module
+     */
+    boolean hasGradesForModule(String moduleId);
+
+    /**
+     * Calculates the weighted average grade for a student in a course.
+     * 
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return Weighted average grade as a percentage, or -1 if no grades are found
+     */
+    double calculateCourseAverage(String studentId, String courseId);
+
+    /**
+     * Calculates the weighted average grade for a student in a module.
+     * 
+     * @param studentId ID of the student
+     * @param moduleId ID of the module
+     * @return Weighted average grade as a percentage, or -1 if no grades are found
+     */
+    double calculateModuleAverage(String studentId, String moduleId);
+
+    /**
+     * Gets the weighted average of every course a student has grades in.
+     * 
+     * @param studentId ID of the student
+     * @return Map of course IDs to average grades (-1 for courses without weighted grades)
+     */
+    Map<String, Double> getCourseAveragesForStudent(String studentId);
+
+    /**
+     * Returns a counter that changes whenever any of a student's grades is
+     * added, removed or modified. Used to tell when cached results are stale.
+     * 
+     * @param studentId ID of the student
+     * @return Modification count for the student's grades
+     */
+    long getStudentVersion(String studentId);
+
+    /**
+     * Gets module averages for a student in a course.
+     * 
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @param moduleRepository Modules of the course
+     * @return Map of module IDs to average grades
+     */
+    default Map<String, Double> getModuleAveragesForStudentInCourse(String studentId, String courseId, ModuleRepository moduleRepository) {
+        Map<String, Double> moduleAverages = new HashMap<>();
+        
+        List<CourseModule> modules = moduleRepository.getModulesForCourse(courseId);
+        for (CourseModule module : modules) {
+            double average = calculateModuleAverage(studentId, module.getModuleId());
+            moduleAverages.put(module.getModuleId(), average);
+        }
+        
+        return moduleAverages;
+    }
+
+    /**
+     * Gets the current GPA for a student across all enrolled courses,
+     * weighted by each course's credit hours. Implementations keep a
+     * {@link GpaCalculator} between calls, so a GPA is only recalculated after
+     * something it depends on has changed.
+     * 
+     * @param studentId ID of the student
+     * @param courseRepository Courses to get credits and enrollment from
+     * @return Current GPA on a 4.0 scale, or -1 if no grades are found
+     */
+    double calculateGPA(String studentId, CourseRepository courseRepository);
+}
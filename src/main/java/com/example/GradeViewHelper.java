@@ -150,15 +150,8 @@ public class GradeViewHelper {
                 
                 // Create corresponding due date if it doesn't exist
                 if (parentController.getDueDateManager() != null) {
-                    boolean dueDateExists = false;
-                    for (DueDate dueDate : parentController.getDueDateManager().getAllDueDates()) {
-                        if (dueDate.getCourseId().equals(selectedCourse.getId()) && 
-                            dueDate.getModuleId().equals(selectedModule.getModuleId()) &&
-                            dueDate.getAssignmentName().equals(assignmentName)) {
-                            dueDateExists = true;
-                            break;
-                        }
-                    }
+                    boolean dueDateExists = !parentController.getDueDateManager()
+                        .getDueDatesForAssignment(AssignmentKey.of(newGrade)).isEmpty();
                     
                     if (!dueDateExists) {
                         // Parse date string to LocalDate (simple implementation)
@@ -197,11 +190,6 @@ public class GradeViewHelper {
                 weightField.clear();
                 dateField.clear();
                 
-                // Refresh the module views
-                parentController.refreshModuleViews(selectedCourse);
-                parentController.updateCourseAverageDisplay(selectedCourse);
-                parentController.updateGradeDistributionChart(selectedCourse);
-                
             } catch (NumberFormatException ex) {
                 UIHelper.showAlert("Invalid Input", "Please enter valid numbers for score, max score, and weight.");
             }
@@ -220,9 +208,10 @@ public class GradeViewHelper {
      * Creates a view showing all grades for a course without module separation.
      * 
      * @param course The selected course
+     * @param courseGrades The current student's grades in the course
      * @return VBox containing the grades view
      */
-    public VBox createAllGradesView(Course course) {
+    public VBox createAllGradesView(Course course, List<Grades> courseGrades) {
         VBox container = new VBox(10);
         container.setStyle("-fx-border-color: #ddd; -fx-border-width: 1; -fx-border-radius: 5; -fx-padding: 10;");
         
@@ -230,14 +219,9 @@ public class GradeViewHelper {
         title.setFont(Font.font("Arial", FontWeight.BOLD, 16));
         
         ListView<Grades> gradesListView = new ListView<>();
+        gradesListView.setCellFactory(listView -> new GradeListCell());
         ObservableList<Grades> gradesObservable = FXCollections.observableArrayList();
         
-        // Get all grades for this student in this course
-        List<Grades> courseGrades = parentController.getGradeManager().getGradesForStudentInCourse(
-            parentController.getCurrentStudent().getStudentId(), 
-            course.getId()
-        );
-        
         gradesObservable.addAll(courseGrades);
         gradesListView.setItems(gradesObservable);
         gradesListView.setPrefHeight(Math.min(gradesObservable.size() * 30 + 30, 300));
@@ -249,9 +233,6 @@ public class GradeViewHelper {
             Grades selectedGrade = gradesListView.getSelectionModel().getSelectedItem();
             if (selectedGrade != null) {
                 showEditGradeDialog(selectedGrade);
-                parentController.refreshModuleViews(parentController.getCourseComboBox().getValue());
-                parentController.updateCourseAverageDisplay(course);
-                parentController.updateGradeDistributionChart(course);
             }
         });
         
@@ -260,9 +241,6 @@ public class GradeViewHelper {
             Grades selectedGrade = gradesListView.getSelectionModel().getSelectedItem();
             if (selectedGrade != null) {
                 parentController.getGradeManager().removeGrade(selectedGrade.getGradeId());
-                parentController.refreshModuleViews(parentController.getCourseComboBox().getValue());
-                parentController.updateCourseAverageDisplay(course);
-                parentController.updateGradeDistributionChart(course);
             }
         });
         
@@ -275,9 +253,6 @@ public class GradeViewHelper {
                 Grades selectedGrade = gradesListView.getSelectionModel().getSelectedItem();
                 if (selectedGrade != null) {
                     showEditGradeDialog(selectedGrade);
-                    parentController.refreshModuleViews(parentController.getCourseComboBox().getValue());
-                    parentController.updateCourseAverageDisplay(course);
-                    parentController.updateGradeDistributionChart(course);
                 }
             }
         });
@@ -290,15 +265,18 @@ public class GradeViewHelper {
      * Creates a section for a module with its grades.
      * 
      * @param module The module
-     * @param courseGrades All grades for the course
+     * @param moduleGrades The current student's grades in the module
+     * @param moduleAverage The student's module average, or a negative value if there is none
      * @param course The current course
      * @param moduleListViews Map to store module listviews
      * @param moduleAverageLabels Map to store module average labels
+     * @param moduleTitleLabels Map to store module title labels
      * @return VBox containing the module section
      */
-    public VBox createModuleSection(CourseModule module, List<Grades> courseGrades, Course course, 
+    public VBox createModuleSection(CourseModule module, List<Grades> moduleGrades, double moduleAverage, Course course, 
                                     Map<String, ListView<Grades>> moduleListViews, 
-                                    Map<String, Label> moduleAverageLabels) {
+                                    Map<String, Label> moduleAverageLabels,
+                                    Map<String, Label> moduleTitleLabels) {
         VBox moduleSection = new VBox(5);
         moduleSection.setStyle("-fx-border-color: #ddd; -fx-border-width: 1; -fx-border-radius: 5; -fx-padding: 10;");
         
@@ -311,6 +289,7 @@ public class GradeViewHelper {
         
         Label moduleTitle = new Label(module.toString());
         moduleTitle.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        moduleTitleLabels.put(module.getModuleId(), moduleTitle);
         
         Label averageLabel = new Label("Module Average: N/A");
         averageLabel.setFont(Font.font("Arial", 12));
@@ -346,7 +325,6 @@ public class GradeViewHelper {
             
             if (confirmAlert.showAndWait().get() == ButtonType.OK) {
                 parentController.getModuleManager().removeModule(module.getModuleId());
-                parentController.refreshModuleViews(course);
             }
         });
         
@@ -358,17 +336,11 @@ public class GradeViewHelper {
         
         // Create a ListView for this module's grades
         ListView<Grades> gradesListView = new ListView<>();
-        ObservableList<Grades> moduleGradesObservable = FXCollections.observableArrayList();
-        
-        // Filter grades for this module
-        for (Grades grade : courseGrades) {
-            if (grade.getModuleId().equals(module.getModuleId())) {
-                moduleGradesObservable.add(grade);
-            }
-        }
+        gradesListView.setCellFactory(listView -> new GradeListCell());
+        ObservableList<Grades> moduleGradesObservable = FXCollections.observableArrayList(moduleGrades);
         
         gradesListView.setItems(moduleGradesObservable);
-        gradesListView.setPrefHeight(Math.min(moduleGradesObservable.size() * 30 + 10, 150));
+        sizeModuleList(gradesListView);
         moduleListViews.put(module.getModuleId(), gradesListView);
         
         // Create context menu for editing grades
@@ -378,9 +350,6 @@ public class GradeViewHelper {
             Grades selectedGrade = gradesListView.getSelectionModel().getSelectedItem();
             if (selectedGrade != null) {
                 showEditGradeDialog(selectedGrade);
-                parentController.refreshModuleViews(course);
-                parentController.updateCourseAverageDisplay(course);
-                parentController.updateGradeDistributionChart(course);
             }
         });
         
@@ -389,9 +358,6 @@ public class GradeViewHelper {
             Grades selectedGrade = gradesListView.getSelectionModel().getSelectedItem();
             if (selectedGrade != null) {
                 parentController.getGradeManager().removeGrade(selectedGrade.getGradeId());
-                parentController.refreshModuleViews(course);
-                parentController.updateCourseAverageDisplay(course);
-                parentController.updateGradeDistributionChart(course);
             }
         });
         
@@ -404,9 +370,6 @@ public class GradeViewHelper {
                 Grades selectedGrade = gradesListView.getSelectionModel().getSelectedItem();
                 if (selectedGrade != null) {
                     showEditGradeDialog(selectedGrade);
-                    parentController.refreshModuleViews(course);
-                    parentController.updateCourseAverageDisplay(course);
-                    parentController.updateGradeDistributionChart(course);
                 }
             }
         });
@@ -414,12 +377,18 @@ public class GradeViewHelper {
         // Add components to the module section
         moduleSection.getChildren().addAll(headerBox, gradesListView);
         
-        // Calculate module average
-        double moduleAverage = parentController.getGradeManager().calculateModuleAverage(
-            String.valueOf(parentController.getCurrentStudent().getStudentId()),
-            module.getModuleId()
-        );
+        showModuleAverage(averageLabel, moduleAverage);
         
+        return moduleSection;
+    }
+    
+    /**
+     * Shows a module average on its label, colored by letter grade.
+     * 
+     * @param averageLabel The module's average label
+     * @param moduleAverage The module average, or a negative value if there is none
+     */
+    public void showModuleAverage(Label averageLabel, double moduleAverage) {
         if (moduleAverage >= 0) {
             averageLabel.setText(String.format("Module Average: %.1f%%", moduleAverage));
             
@@ -435,9 +404,19 @@ public class GradeViewHelper {
             } else {
                 averageLabel.setTextFill(Color.web("#dc3545")); // Red
             }
+        } else {
+            averageLabel.setText("Module Average: N/A");
+            averageLabel.setTextFill(Color.BLACK);
         }
-        
-        return moduleSection;
+    }
+    
+    /**
+     * Sizes a module's grade list to its number of rows, up to a limit.
+     * 
+     * @param gradesListView The module's grade list
+     */
+    public void sizeModuleList(ListView<Grades> gradesListView) {
+        gradesListView.setPrefHeight(Math.min(gradesListView.getItems().size() * 30 + 10, 150));
     }
     
     /**
@@ -496,11 +475,8 @@ public class GradeViewHelper {
                 moduleName = "New Module";
             }
             
-            // Create the new module
+            // Create the new module; the grades view adds its section when notified
             parentController.getModuleManager().createModuleForCourse(course.getId(), moduleName, description);
-            
-            // Refresh the views
-            parentController.refreshModuleViews(course);
         }
     }
     
@@ -581,9 +557,7 @@ public class GradeViewHelper {
                 module.setModuleNumber(moduleNumber);
                 module.setModuleName(moduleName);
                 module.setDescription(description);
-                
-                // Refresh the views
-                parentController.refreshModuleViews(course);
+                parentController.getModuleManager().updateModule(module.getModuleId(), module);
                 
                 // Update any grades or due dates that reference this module
                 updateAssociatedData(module);
@@ -604,15 +578,15 @@ public class GradeViewHelper {
         for (Grades grade : parentController.getGradeManager().getAllGrades()) {
             if (grade.getModuleId().equals(module.getModuleId())) {
                 grade.setModuleName(module.getModuleName());
+                parentController.getGradeManager().updateGrade(grade.getGradeId(), grade);
             }
         }
         
         // Update module name in due dates if due date manager exists
         if (parentController.getDueDateManager() != null) {
-            for (DueDate dueDate : parentController.getDueDateManager().getAllDueDates()) {
-                if (dueDate.getModuleId().equals(module.getModuleId())) {
-                    dueDate.setModuleName(module.getModuleName());
-                }
+            for (DueDate dueDate : parentController.getDueDateManager().getDueDatesForModule(module.getModuleId())) {
+                dueDate.setModuleName(module.getModuleName());
+                parentController.getDueDateManager().updateDueDate(dueDate.getDueDateId(), dueDate);
             }
         }
     }
@@ -643,13 +617,7 @@ public class GradeViewHelper {
         courseField.setEditable(false);
         
         // Find the course name
-        Course course = null;
-        for (Course c : parentController.getCourseManager().getAllCourses()) {
-            if (c.getId().equals(grade.getCourseId())) {
-                course = c;
-                break;
-            }
-        }
+        Course course = parentController.getCourseManager().getCourseById(grade.getCourseId());
         courseField.setText(course != null ? course.getName() : "Unknown Course");
         
         Label moduleLabel = new Label("Module:");
@@ -760,6 +728,7 @@ public class GradeViewHelper {
                 String date = dateField.getText().trim();
                 String comments = commentsArea.getText();
                 CourseModule selectedModule = moduleComboBox.getValue();
+                AssignmentKey originalKey = AssignmentKey.of(grade); // Finds the due date before the key changes
                 
                 // Update the grade
                 grade.setAssignmentName(assignmentName);
@@ -773,30 +742,24 @@ public class GradeViewHelper {
                 if (selectedModule != null && !selectedModule.getModuleId().equals(grade.getModuleId())) {
                     grade.setModuleId(selectedModule.getModuleId());
                     grade.setModuleName(selectedModule.getModuleName());
-                    
-                    // Update corresponding due date if it exists
-                    if (parentController.getDueDateManager() != null) {
-                        for (DueDate dueDate : parentController.getDueDateManager().getAllDueDates()) {
-                            if (dueDate.getCourseId().equals(grade.getCourseId()) && 
-                                dueDate.getAssignmentName().equals(assignmentName)) {
-                                dueDate.setModuleId(selectedModule.getModuleId());
-                                dueDate.setModuleName(selectedModule.getModuleName());
-                                break;
-                            }
-                        }
+                }
+                
+                // Move or rename the corresponding due date so it stays linked to the grade
+                if (parentController.getDueDateManager() != null && !originalKey.equals(AssignmentKey.of(grade))) {
+                    for (DueDate dueDate : parentController.getDueDateManager().getDueDatesForAssignment(originalKey)) {
+                        dueDate.setAssignmentName(grade.getAssignmentName());
+                        dueDate.setModuleId(grade.getModuleId());
+                        dueDate.setModuleName(grade.getModuleName());
+                        parentController.getDueDateManager().updateDueDate(dueDate.getDueDateId(), dueDate);
                     }
                 }
                 
+                // Save the changes
+                parentController.getGradeManager().updateGrade(grade.getGradeId(), grade);
+                
                 // Show success message
                 UIHelper.showAlert("Success", "Grade updated successfully!");
                 
-                // Refresh the views
-                Course selectedCourse = parentController.getCourseComboBox().getValue();
-                if (selectedCourse != null) {
-                    parentController.refreshModuleViews(selectedCourse);
-                    parentController.updateCourseAverageDisplay(selectedCourse);
-                    parentController.updateGradeDistributionChart(selectedCourse);
-                }
                 
             } catch (NumberFormatException e) {
                 UIHelper.showAlert("Error", "Please enter valid numeric values.");
@@ -20,6 +20,11 @@ public class Grades {
     private String letterGrade;
     private String comments;
     private String dateSubmitted;
+    private GradeManager manager; // Manager that indexes this grade, if any
+    private int studentKey; // IdTable keys of the IDs above, set by the manager while it indexes this grade
+    private int courseKey;
+    private int moduleKey;
+    private String scoreText; // Cached display text, cleared when the score changes
 
     /**
      * Constructs a new Grade entry with the given details.
@@ -36,7 +41,27 @@ public class Grades {
      */
     public Grades(String studentId, String courseId, String assignmentName, String moduleId, String moduleName,
                  double score, double maxScore, double weight, String dateSubmitted) {
-        this.gradeId = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), studentId, courseId, assignmentName, moduleId, moduleName,
+             score, maxScore, weight, dateSubmitted);
+    }
+
+    /**
+     * Constructs a Grade entry with an existing ID, e.g. when loading saved data.
+     * 
+     * @param gradeId Unique ID of this grade entry
+     * @param studentId ID of the student who received this grade
+     * @param courseId ID of the course this grade belongs to
+     * @param assignmentName Name of the assignment
+     * @param moduleId ID of the module this assignment belongs to
+     * @param moduleName Name of the module this assignment belongs to
+     * @param score Numeric score received
+     * @param maxScore Maximum possible score
+     * @param weight Weight of this assignment in the overall course grade
+     * @param dateSubmitted Date when the assignment was submitted
+     */
+    public Grades(String gradeId, String studentId, String courseId, String assignmentName, String moduleId,
+                 String moduleName, double score, double maxScore, double weight, String dateSubmitted) {
+        this.gradeId = gradeId;
         this.studentId = studentId;
         this.courseId = courseId;
         this.assignmentName = assignmentName;
@@ -71,6 +96,7 @@ public class Grades {
      */
     private void calculateLetterGrade() {
         double percentage = (score / maxScore) * 100;
+        scoreText = null;
         
         if (percentage >= 90) {
             this.letterGrade = "A";
@@ -111,7 +137,11 @@ public class Grades {
      * @param studentId New student ID
      */
     public void setStudentId(String studentId) {
-        this.studentId = studentId;
+        if (manager != null) {
+            manager.reindex(this, () -> this.studentId = studentId);
+        } else {
+            this.studentId = studentId;
+        }
     }
 
     /**
@@ -129,7 +159,11 @@ public class Grades {
      * @param courseId New course ID
      */
     public void setCourseId(String courseId) {
-        this.courseId = courseId;
+        if (manager != null) {
+            manager.reindex(this, () -> this.courseId = courseId);
+        } else {
+            this.courseId = courseId;
+        }
     }
 
     /**
@@ -147,7 +181,11 @@ public class Grades {
      * @param assignmentName New assignment name
      */
     public void setAssignmentName(String assignmentName) {
-        this.assignmentName = assignmentName;
+        if (manager != null) {
+            manager.reindex(this, () -> this.assignmentName = assignmentName);
+        } else {
+            this.assignmentName = assignmentName;
+        }
     }
 
     /**
@@ -165,7 +203,11 @@ public class Grades {
      * @param moduleId New module ID
      */
     public void setModuleId(String moduleId) {
-        this.moduleId = moduleId;
+        if (manager != null) {
+            manager.reindex(this, () -> this.moduleId = moduleId);
+        } else {
+            this.moduleId = moduleId;
+        }
     }
 
     /**
@@ -201,8 +243,15 @@ public class Grades {
      * @param score New score
      */
     public void setScore(double score) {
-        this.score = score;
-        calculateLetterGrade();
+        if (manager != null) {
+            manager.rescore(this, () -> {
+                this.score = score;
+                calculateLetterGrade();
+            });
+        } else {
+            this.score = score;
+            calculateLetterGrade();
+        }
     }
 
     /**
@@ -220,8 +269,15 @@ public class Grades {
      * @param maxScore New maximum score
      */
     public void setMaxScore(double maxScore) {
-        this.maxScore = maxScore;
-        calculateLetterGrade();
+        if (manager != null) {
+            manager.rescore(this, () -> {
+                this.maxScore = maxScore;
+                calculateLetterGrade();
+            });
+        } else {
+            this.maxScore = maxScore;
+            calculateLetterGrade();
+        }
     }
 
     /**
@@ -239,7 +295,11 @@ public class Grades {
      * @param weight New weight
      */
     public void setWeight(double weight) {
-        this.weight = weight;
+        if (manager != null) {
+            manager.rescore(this, () -> this.weight = weight);
+        } else {
+            this.weight = weight;
+        }
     }
 
     /**
@@ -287,6 +347,58 @@ public class Grades {
         this.dateSubmitted = dateSubmitted;
     }
 
+    /**
+     * Sets the manager that indexes this grade. Called by GradeManager when the
+     * grade is added or removed so key and score changes can keep its indexes
+     * and running averages current.
+     * 
+     * @param manager Owning grade manager, or null when detached
+     */
+    void setManager(GradeManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Sets the {@link IdTable} keys of the student, course and module IDs.
+     * Called by GradeManager when it indexes this grade.
+     * 
+     * @param studentKey Student key
+     * @param courseKey Course key
+     * @param moduleKey Module key
+     */
+    void setKeys(int studentKey, int courseKey, int moduleKey) {
+        this.studentKey = studentKey;
+        this.courseKey = courseKey;
+        this.moduleKey = moduleKey;
+    }
+
+    /**
+     * Gets the {@link IdTable} key of the student ID, which GradeManager indexes by.
+     * 
+     * @return Student key
+     */
+    int getStudentKey() {
+        return studentKey;
+    }
+
+    /**
+     * Gets the {@link IdTable} key of the course ID, which GradeManager indexes by.
+     * 
+     * @return Course key
+     */
+    int getCourseKey() {
+        return courseKey;
+    }
+
+    /**
+     * Gets the {@link IdTable} key of the module ID, which GradeManager indexes by.
+     * 
+     * @return Module key
+     */
+    int getModuleKey() {
+        return moduleKey;
+    }
+
     /**
      * Returns the percentage score.
      * 
@@ -300,4 +412,17 @@ public class Grades {
     public String toString() {
         return assignmentName + " (" + moduleName + "): " + score + "/" + maxScore + " (" + letterGrade + ", " + String.format("%.1f", getPercentage()) + "%)";
     }
+
+    /**
+     * Returns the score for display, such as "45.0/50.0 (90.0%)". The text is
+     * built once and reused until the score or maximum score changes.
+     * 
+     * @return Score text
+     */
+    public String getScoreText() {
+        if (scoreText == null) {
+            scoreText = score + "/" + maxScore + " (" + String.format("%.1f", getPercentage()) + "%)";
+        }
+        return scoreText;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,333 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Exports due dates to an iCalendar (.ics) file that calendar applications
+ * can subscribe to or import.
+ *
+ * Each due date becomes an all-day event. The course, module and priority are
+ * written as X-GRADETRACKER properties so that {@link IcsImporter} can read
+ * them back, and also as the standard CATEGORIES and PRIORITY properties for
+ * other applications. A repeating due date is written once with an RRULE and
+ * EXDATE, and its overridden occurrences follow it with a RECURRENCE-ID.
+ *
+ * Like {@link GradeExporter}, events are written to a buffered writer as they
+ * are produced and due dates are read one course at a time through the
+ * executor given to the constructor, so the document is never held in memory.
+ */
+public class IcsExporter {
+    static final String PRODUCT_ID = "-//GradeTracker//Due Dates//EN";
+    static final String UID_SUFFIX = "@gradetracker"; // Appended to IDs to make UIDs globally unique
+    static final String COURSE_ID = "X-GRADETRACKER-COURSE-ID";
+    static final String COURSE_NAME = "X-GRADETRACKER-COURSE-NAME";
+    static final String MODULE_ID = "X-GRADETRACKER-MODULE-ID";
+    static final String MODULE_NAME = "X-GRADETRACKER-MODULE-NAME";
+    static final String PRIORITY = "X-GRADETRACKER-PRIORITY";
+    static final String ASSIGNMENT = "X-GRADETRACKER-ASSIGNMENT"; // SUMMARY also carries the course name
+    static final String COMPLETED = "X-GRADETRACKER-COMPLETED";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LINE_OCTETS = 75; // Longer lines are folded
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final CourseRepository courseRepository;
+    private final DueDateRepository dueDateRepository;
+    private final Executor readExecutor;
+
+    /**
+     * Creates an exporter that reads the repositories on the calling thread.
+     *
+     * @param courseRepository Courses, used to find a student's courses
+     * @param dueDateRepository Due dates to export
+     */
+    public IcsExporter(CourseRepository courseRepository, DueDateRepository dueDateRepository) {
+        this(courseRepository, dueDateRepository, Runnable::run);
+    }
+
+    /**
+     * Creates an exporter that reads the repositories through an executor.
+     *
+     * @param courseRepository Courses, used to find a student's courses
+     * @param dueDateRepository Due dates to export
+     * @param readExecutor Runs every repository read, e.g. on the thread that owns the repositories
+     */
+    public IcsExporter(CourseRepository courseRepository, DueDateRepository dueDateRepository, Executor readExecutor) {
+        this.courseRepository = courseRepository;
+        this.dueDateRepository = dueDateRepository;
+        this.readExecutor = readExecutor;
+    }
+
+    /**
+     * Exports due dates to a file. The file is removed again if the export fails.
+     *
+     * @param file The file to write
+     * @param studentId Only export due dates of courses this student is enrolled in, or null for all
+     * @param courseId Only export due dates in this course, or null for every course
+     * @return The number of events written
+     * @throws IOException if the file cannot be written or the export is cancelled
+     */
+    public int exportCalendar(Path file, String studentId, String courseId) throws IOException {
+        try (Writer out = openFile(file)) {
+            return exportCalendar(out, studentId, courseId);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Exports due dates to a writer. Repeating due dates come first, so each
+     * overridden occurrence follows the event it overrides.
+     *
+     * @param out Destination of the calendar
+     * @param studentId Only export due dates of courses this student is enrolled in, or null for all
+     * @param courseId Only export due dates in this course, or null for every course
+     * @return The number of events written
+     * @throws IOException if writing fails or the export is cancelled
+     */
+    public int exportCalendar(Writer out, String studentId, String courseId) throws IOException {
+        List<String> courseIds = read(() -> {
+            List<String> ids = new ArrayList<>();
+            if (courseId != null) {
+                ids.add(courseId);
+            } else {
+                List<Course> courses = studentId != null
+                    ? courseRepository.getCoursesForStudent(studentId)
+                    : courseRepository.getAllCourses();
+                for (Course course : courses) {
+                    ids.add(course.getId());
+                }
+            }
+            return ids;
+        });
+        Set<String> included = new HashSet<>(courseIds);
+        String stamp = ZonedDateTime.now(ZoneOffset.UTC).format(DATE_TIME_FORMAT);
+
+        EventWriter events = new EventWriter(out);
+        events.line("BEGIN", "VCALENDAR");
+        events.line("VERSION", "2.0");
+        events.line("PRODID", PRODUCT_ID);
+        events.line("CALSCALE", "GREGORIAN");
+        events.line("X-WR-CALNAME", "Due Dates");
+
+        int written = 0;
+        for (DueDateSeries series : read(() -> dueDateRepository.getAllSeries())) {
+            if (included.contains(series.getCourseId())) {
+                writeSeries(events, series, stamp);
+                written++;
+            }
+        }
+
+        for (String chunkCourseId : courseIds) {
+            for (DueDate dueDate : read(() -> dueDateRepository.getDueDatesForCourse(chunkCourseId))) {
+                writeDueDate(events, dueDate, stamp);
+                written++;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Export cancelled");
+            }
+        }
+
+        events.line("END", "VCALENDAR");
+        out.flush();
+        return written;
+    }
+
+    private static void writeSeries(EventWriter events, DueDateSeries series, String stamp) throws IOException {
+        events.line("BEGIN", "VEVENT");
+        events.line("UID", series.getSeriesId() + UID_SUFFIX);
+        events.line("DTSTAMP", stamp);
+        writeDates(events, series.getStartDate());
+        events.line("RRULE", series.getRule().toString());
+        if (!series.getExceptions().isEmpty()) {
+            List<String> dates = new ArrayList<>();
+            for (LocalDate date : series.getExceptions()) {
+                dates.add(date.format(DateTimeFormatter.BASIC_ISO_DATE));
+            }
+            events.line("EXDATE;VALUE=DATE", String.join(",", dates));
+        }
+        writeFields(events, series.getAssignmentName(), series.getDescription(), series.getCourseId(),
+            series.getCourseName(), series.getModuleId(), series.getModuleName(), series.getPriority());
+        events.line("END", "VEVENT");
+    }
+
+    private static void writeDueDate(EventWriter events, DueDate dueDate, String stamp) throws IOException {
+        events.line("BEGIN", "VEVENT");
+        String seriesId = dueDate.getSeriesId();
+        if (seriesId != null) {
+            // An overridden occurrence shares the UID of its series
+            events.line("UID", seriesId + UID_SUFFIX);
+            events.line("RECURRENCE-ID;VALUE=DATE",
+                DueDateSeries.occurrenceDateOf(dueDate.getDueDateId()).format(DateTimeFormatter.BASIC_ISO_DATE));
+        } else {
+            events.line("UID", dueDate.getDueDateId() + UID_SUFFIX);
+        }
+        events.line("DTSTAMP", stamp);
+        writeDates(events, dueDate.getDueDate());
+        writeFields(events, dueDate.getAssignmentName(), dueDate.getDescription(), dueDate.getCourseId(),
+            dueDate.getCourseName(), dueDate.getModuleId(), dueDate.getModuleName(), dueDate.getPriority());
+        if (dueDate.isCompleted()) {
+            events.line(COMPLETED, "TRUE");
+        }
+        events.line("END", "VEVENT");
+    }
+
+    private static void writeDates(EventWriter events, LocalDate date) throws IOException {
+        events.line("DTSTART;VALUE=DATE", date.format(DateTimeFormatter.BASIC_ISO_DATE));
+        events.line("DTEND;VALUE=DATE", date.plusDays(1).format(DateTimeFormatter.BASIC_ISO_DATE));
+        events.line("TRANSP", "TRANSPARENT"); // A deadline does not make the day busy
+    }
+
+    private static void writeFields(EventWriter events, String assignmentName, String description, String courseId,
+                                    String courseName, String moduleId, String moduleName, String priority)
+            throws IOException {
+        events.text("SUMMARY", courseName != null && !courseName.isEmpty()
+            ? assignmentName + " (" + courseName + ")"
+            : assignmentName);
+        if (description != null && !description.isEmpty()) {
+            events.text("DESCRIPTION", description);
+        }
+        if (courseName != null && !courseName.isEmpty()) {
+            events.text("CATEGORIES", courseName);
+        }
+        events.line("PRIORITY", String.valueOf(toIcsPriority(priority)));
+        events.text(COURSE_ID, courseId);
+        events.text(COURSE_NAME, courseName);
+        if (moduleId != null && !moduleId.isEmpty()) {
+            events.text(MODULE_ID, moduleId);
+            events.text(MODULE_NAME, moduleName);
+        }
+        events.text(PRIORITY, priority);
+        events.text(ASSIGNMENT, assignmentName);
+    }
+
+    /**
+     * Converts a priority level to the iCalendar scale, where 1 is the highest.
+     *
+     * @param priority "High", "Medium" or "Low"
+     * @return 1, 5 or 9, or 0 for an unknown level
+     */
+    static int toIcsPriority(String priority) {
+        if ("High".equals(priority)) {
+            return 1;
+        } else if ("Medium".equals(priority)) {
+            return 5;
+        } else if ("Low".equals(priority)) {
+            return 9;
+        }
+        return 0;
+    }
+
+    private <T> T read(Callable<T> query) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Export cancelled");
+        }
+
+        FutureTask<T> task = new FutureTask<>(query);
+        readExecutor.execute(task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Could not read data for export", cause);
+        }
+    }
+
+    private static Writer openFile(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE), BUFFER_SIZE);
+    }
+
+    /**
+     * Writes content lines, ending each with CRLF and folding any line longer
+     * than 75 octets onto continuation lines that start with a space.
+     */
+    private static class EventWriter {
+        private final Writer out;
+
+        EventWriter(Writer out) {
+            this.out = out;
+        }
+
+        /**
+         * Writes a property whose value is text, escaping the characters
+         * iCalendar gives a meaning to.
+         */
+        void text(String name, String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            StringBuilder escaped = new StringBuilder(value.length() + 8);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\':
+                    case ';':
+                    case ',':
+                        escaped.append('\\').append(c);
+                        break;
+                    case '\n':
+                        escaped.append("\\n");
+                        break;
+                    case '\r':
+                        break;
+                    default:
+                        escaped.append(c);
+                }
+            }
+            line(name, escaped.toString());
+        }
+
+        /**
+         * Writes a property with a value that is already in iCalendar form.
+         */
+        void line(String name, String value) throws IOException {
+            String line = name + ':' + value;
+            int octets = 0;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                int size = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : 3;
+                if (octets + size > MAX_LINE_OCTETS) {
+                    out.write("\r\n ");
+                    octets = 1;
+                }
+                out.write(c);
+                if (size == 4 && i + 1 < line.length()) {
+                    out.write(line.charAt(++i)); // Keep surrogate pairs together
+                }
+                octets += size;
+            }
+            out.write("\r\n");
+        }
+    }
+}
@@ -0,0 +1,673 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Imports due dates from an iCalendar (.ics) file, such as one exported by
+ * {@link IcsExporter} or handed out by an instructor.
+ *
+ * Every VEVENT or VTODO becomes a due date on the day it starts (or, for a
+ * VTODO, the day it is due). Events with a weekly RRULE become a
+ * {@link DueDateSeries}, and events with a RECURRENCE-ID that follow their
+ * series become overrides of its occurrences. The course is taken from the
+ * X-GRADETRACKER properties when present, otherwise from a category or the
+ * course name matching a course code or name, otherwise from the default
+ * course given to the importer.
+ *
+ * An event is skipped as a duplicate when a due date or series already has the
+ * same course, module and assignment name. Like {@link GradeImporter}, the
+ * file is read one line at a time, lookups use hash tables built when the
+ * importer is created, and due dates are handed over in batches.
+ */
+public class IcsImporter {
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100; // Further errors are only counted
+    private static final String GENERAL_MODULE_NAME = "General";
+
+    private final DueDateRepository dueDateRepository;
+    private final Course defaultCourse;
+    private final Map<String, Course> coursesById;
+    private final Map<String, Course> coursesByName; // Lowercase course code or name -> course
+    private final Map<String, Map<String, CourseModule>> modulesByCourse; // Course ID -> lowercase module name or ID -> module
+    private final Set<String> dueDateKeys; // Course ID, module ID and assignment of every due date and series
+    private final Map<String, LocalDate> parsedDates; // Date text -> date, since calendars repeat the same few dates
+
+    /**
+     * Creates an importer and reads the lookup tables from the repositories.
+     *
+     * @param courseRepository Courses to resolve course IDs, codes and names
+     * @param moduleRepository Modules to resolve module IDs and names
+     * @param dueDateRepository Repository that receives the due dates
+     * @param defaultCourse Course for events that name no known course, or null to report them as errors
+     */
+    public IcsImporter(CourseRepository courseRepository, ModuleRepository moduleRepository,
+                       DueDateRepository dueDateRepository, Course defaultCourse) {
+        this.dueDateRepository = dueDateRepository;
+        this.defaultCourse = defaultCourse;
+
+        this.coursesById = new HashMap<>();
+        this.coursesByName = new HashMap<>();
+        for (Course course : courseRepository.getAllCourses()) {
+            coursesById.put(course.getId(), course);
+            coursesByName.putIfAbsent(course.getCode().toLowerCase(), course);
+            coursesByName.putIfAbsent(course.getName().toLowerCase(), course);
+        }
+
+        this.modulesByCourse = new HashMap<>();
+        for (CourseModule module : moduleRepository.getAllModules()) {
+            Map<String, CourseModule> modules = modulesByCourse.computeIfAbsent(module.getCourseId(), k -> new HashMap<>());
+            modules.putIfAbsent(module.getModuleId().toLowerCase(), module);
+            modules.putIfAbsent(module.getModuleName().toLowerCase(), module);
+        }
+
+        this.parsedDates = new HashMap<>();
+        this.dueDateKeys = new HashSet<>();
+        for (DueDate dueDate : dueDateRepository.getAllDueDates()) {
+            dueDateKeys.add(dueDateKey(dueDate.getCourseId(), dueDate.getModuleId(), dueDate.getAssignmentName()));
+        }
+        for (DueDateSeries series : dueDateRepository.getAllSeries()) {
+            dueDateKeys.add(dueDateKey(series.getCourseId(), series.getModuleId(), series.getAssignmentName()));
+        }
+    }
+
+    /**
+     * Imports a calendar file on the calling thread, adding each batch to the
+     * repository as soon as it is read.
+     *
+     * @param file The .ics file
+     * @return A summary of the import
+     * @throws IOException if the file cannot be read
+     */
+    public ImportResult importCalendar(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importCalendar(reader, this::store);
+        }
+    }
+
+    /**
+     * Reads events from iCalendar text and stores each batch through an
+     * executor, waiting until it has been stored before reading on, as
+     * {@link GradeImporter#importCsv(BufferedReader, Executor)} does.
+     *
+     * @param reader Source of the iCalendar text
+     * @param storeExecutor Runs each store, such as Platform::runLater
+     * @return A summary of the import
+     * @throws IOException if the reader fails
+     */
+    public ImportResult importCalendar(BufferedReader reader, Executor storeExecutor) throws IOException {
+        return importCalendar(reader,
+            (dueDates, series) -> GradeImporter.storeAndWait(storeExecutor, () -> store(dueDates, series)));
+    }
+
+    /**
+     * Reads events from iCalendar text and passes them to a handler in batches.
+     *
+     * @param reader Source of the iCalendar text
+     * @param handler Receives each batch of due dates and series
+     * @return A summary of the import
+     * @throws IOException if the reader fails
+     */
+    public ImportResult importCalendar(BufferedReader reader, BatchHandler handler) throws IOException {
+        ImportResult result = new ImportResult();
+        List<DueDate> dueDates = new ArrayList<>(BATCH_SIZE);
+        List<DueDateSeries> series = new ArrayList<>();
+        Map<String, DueDateSeries> seriesByUid = new HashMap<>(); // Series imported from this file
+        Set<String> skippedUids = new HashSet<>(); // Series skipped as duplicates, with their overrides
+
+        Event event = null;
+        int nestedComponents = 0; // Depth of components such as VALARM inside the event
+        int eventLineNumber = 0;
+        int nextLineNumber = 1;
+        String line = reader.readLine();
+        while (line != null) {
+            int lineNumber = nextLineNumber;
+
+            // Unfold continuation lines, which start with a space or tab
+            StringBuilder unfolded = null;
+            String next;
+            while ((next = reader.readLine()) != null) {
+                nextLineNumber++;
+                if (next.isEmpty() || (next.charAt(0) != ' ' && next.charAt(0) != '\t')) {
+                    break;
+                }
+                if (unfolded == null) {
+                    unfolded = new StringBuilder(line);
+                }
+                unfolded.append(next, 1, next.length());
+            }
+            String contentLine = unfolded != null ? unfolded.toString() : line;
+            line = next;
+
+            if (contentLine.isEmpty()) {
+                continue;
+            }
+            Property property = Property.parse(contentLine);
+            if (property == null) {
+                if (event != null && nestedComponents == 0) {
+                    event.error = "Malformed line: " + contentLine;
+                }
+                continue;
+            }
+
+            if (property.name.equals("BEGIN")) {
+                if (event != null) {
+                    nestedComponents++;
+                } else if (property.value.equalsIgnoreCase("VEVENT") || property.value.equalsIgnoreCase("VTODO")) {
+                    event = new Event(property.value.equalsIgnoreCase("VTODO"));
+                    eventLineNumber = lineNumber;
+                }
+            } else if (property.name.equals("END")) {
+                if (event != null && nestedComponents > 0) {
+                    nestedComponents--;
+                } else if (event != null) {
+                    try {
+                        importEvent(event, dueDates, series, seriesByUid, skippedUids, result);
+                    } catch (IllegalArgumentException e) {
+                        result.addError(eventLineNumber, e.getMessage());
+                    }
+                    event = null;
+
+                    if (dueDates.size() >= BATCH_SIZE) {
+                        flush(handler, dueDates, series);
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        result.cancelled = true;
+                        break;
+                    }
+                }
+            } else if (event != null && nestedComponents == 0) {
+                event.add(property);
+            }
+        }
+
+        flush(handler, dueDates, series);
+        return result;
+    }
+
+    private void flush(BatchHandler handler, List<DueDate> dueDates, List<DueDateSeries> series) {
+        if (dueDates.isEmpty() && series.isEmpty()) {
+            return;
+        }
+
+        handler.accept(new ArrayList<>(dueDates), new ArrayList<>(series));
+        dueDates.clear();
+        series.clear();
+    }
+
+    /**
+     * Adds a batch to the repository. Must run on the thread that owns it.
+     * Series are added first, since some of the due dates may override their occurrences.
+     *
+     * @param dueDates Due dates to add
+     * @param series Series to add
+     */
+    public void store(List<DueDate> dueDates, List<DueDateSeries> series) {
+        for (DueDateSeries newSeries : series) {
+            dueDateRepository.addSeries(newSeries);
+        }
+        if (!dueDates.isEmpty()) {
+            dueDateRepository.addDueDates(dueDates);
+        }
+    }
+
+    private void importEvent(Event event, List<DueDate> dueDates, List<DueDateSeries> series,
+                             Map<String, DueDateSeries> seriesByUid, Set<String> skippedUids,
+                             ImportResult result) {
+        if (event.error != null) {
+            throw new IllegalArgumentException(event.error);
+        }
+        if ("CANCELLED".equalsIgnoreCase(event.get("STATUS"))) {
+            result.skipped++;
+            return;
+        }
+
+        String uid = event.get("UID");
+        String recurrenceId = event.get("RECURRENCE-ID");
+        if (recurrenceId != null && uid != null) {
+            if (skippedUids.contains(uid)) {
+                result.skipped++;
+                return;
+            }
+            DueDateSeries parent = seriesByUid.get(uid);
+            if (parent != null) {
+                // An occurrence moved, completed or edited in the calendar it came from
+                DueDate override = parent.createOccurrence(parseDate(event.getProperty("RECURRENCE-ID")));
+                fillFrom(event, override);
+                dueDates.add(override);
+                result.imported++;
+                return;
+            }
+        }
+
+        String assignmentName = event.getText(IcsExporter.ASSIGNMENT);
+        if (assignmentName == null) {
+            assignmentName = event.getText("SUMMARY");
+        }
+        if (assignmentName == null || assignmentName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Event has no summary");
+        }
+        assignmentName = assignmentName.trim();
+
+        Course course = resolveCourse(event);
+        CourseModule module = resolveModule(event, course);
+        String moduleId = module != null ? module.getModuleId() : "";
+        String moduleName = module != null ? module.getModuleName() : GENERAL_MODULE_NAME;
+
+        Property start = event.getProperty(event.todo && event.getProperty("DUE") != null ? "DUE" : "DTSTART");
+        if (start == null) {
+            throw new IllegalArgumentException("Event has no date: " + assignmentName);
+        }
+        LocalDate date = parseDate(start);
+
+        if (!dueDateKeys.add(dueDateKey(course.getId(), moduleId, assignmentName))) {
+            if (uid != null && event.get("RRULE") != null) {
+                skippedUids.add(uid);
+            }
+            result.skipped++;
+            return;
+        }
+
+        String description = event.getText("DESCRIPTION");
+        String priority = resolvePriority(event);
+
+        String rrule = event.get("RRULE");
+        if (rrule != null) {
+            if (rrule.toUpperCase().contains("FREQ=WEEKLY") && !rrule.toUpperCase().contains("BYDAY=")) {
+                // A weekly rule without days repeats on the day it starts
+                rrule += ";BYDAY=" + dayCode(date.getDayOfWeek());
+            }
+            DueDateSeries newSeries = new DueDateSeries(UUID.randomUUID().toString(), course.getId(), course.getName(),
+                moduleId, moduleName, assignmentName, description != null ? description : "", priority, date,
+                RecurrenceRule.parse(rrule));
+            for (Property exdate : event.getAll("EXDATE")) {
+                for (String value : exdate.value.split(",")) {
+                    newSeries.addException(parseDate(exdate, value));
+                }
+            }
+            series.add(newSeries);
+            if (uid != null) {
+                seriesByUid.put(uid, newSeries);
+            }
+            result.seriesImported++;
+            return;
+        }
+
+        DueDate dueDate = new DueDate(course.getId(), course.getName(), assignmentName,
+            description != null ? description : "", date, priority);
+        dueDate.setModuleId(moduleId);
+        dueDate.setModuleName(moduleName);
+        dueDate.setCompleted(isCompleted(event));
+        dueDates.add(dueDate);
+        result.imported++;
+    }
+
+    /**
+     * Copies the fields an override may change from its event; fields the
+     * event leaves out keep the values of the series.
+     */
+    private void fillFrom(Event event, DueDate override) {
+        Property start = event.getProperty(event.todo && event.getProperty("DUE") != null ? "DUE" : "DTSTART");
+        if (start != null) {
+            override.setDueDate(parseDate(start));
+        }
+        String assignmentName = event.getText(IcsExporter.ASSIGNMENT);
+        if (assignmentName != null && !assignmentName.trim().isEmpty()) {
+            override.setAssignmentName(assignmentName.trim());
+        }
+        String description = event.getText("DESCRIPTION");
+        if (description != null) {
+            override.setDescription(description);
+        }
+        if (event.get(IcsExporter.PRIORITY) != null || event.get("PRIORITY") != null) {
+            override.setPriority(resolvePriority(event));
+        }
+        override.setCompleted(isCompleted(event));
+    }
+
+    private Course resolveCourse(Event event) {
+        String courseId = event.getText(IcsExporter.COURSE_ID);
+        if (courseId != null && coursesById.containsKey(courseId)) {
+            return coursesById.get(courseId);
+        }
+
+        String courseName = event.getText(IcsExporter.COURSE_NAME);
+        if (courseName != null && coursesByName.containsKey(courseName.trim().toLowerCase())) {
+            return coursesByName.get(courseName.trim().toLowerCase());
+        }
+
+        for (Property categories : event.getAll("CATEGORIES")) {
+            for (String category : splitList(categories.value)) {
+                Course course = coursesByName.get(category.trim().toLowerCase());
+                if (course != null) {
+                    return course;
+                }
+            }
+        }
+
+        if (defaultCourse != null) {
+            return defaultCourse;
+        }
+        throw new IllegalArgumentException("Unknown course"
+            + (courseName != null ? ": " + courseName : courseId != null ? ": " + courseId : ""));
+    }
+
+    private CourseModule resolveModule(Event event, Course course) {
+        Map<String, CourseModule> modules = modulesByCourse.get(course.getId());
+        if (modules == null) {
+            return null;
+        }
+        String moduleId = event.getText(IcsExporter.MODULE_ID);
+        if (moduleId != null && modules.containsKey(moduleId.toLowerCase())) {
+            return modules.get(moduleId.toLowerCase());
+        }
+        String moduleName = event.getText(IcsExporter.MODULE_NAME);
+        if (moduleName != null) {
+            return modules.get(moduleName.trim().toLowerCase());
+        }
+        return null;
+    }
+
+    /**
+     * Reads the priority level, from our own property if present, otherwise
+     * from the iCalendar PRIORITY, where 1 to 4 is high and 6 to 9 is low.
+     */
+    private static String resolvePriority(Event event) {
+        String priority = event.getText(IcsExporter.PRIORITY);
+        if ("High".equalsIgnoreCase(priority)) {
+            return "High";
+        } else if ("Low".equalsIgnoreCase(priority)) {
+            return "Low";
+        } else if ("Medium".equalsIgnoreCase(priority)) {
+            return "Medium";
+        }
+
+        String level = event.get("PRIORITY");
+        if (level != null) {
+            try {
+                int value = Integer.parseInt(level.trim());
+                if (value >= 1 && value <= 4) {
+                    return "High";
+                } else if (value >= 6 && value <= 9) {
+                    return "Low";
+                }
+            } catch (NumberFormatException e) {
+                // An unreadable priority counts as undefined
+            }
+        }
+        return "Medium";
+    }
+
+    private static boolean isCompleted(Event event) {
+        return "TRUE".equalsIgnoreCase(event.get(IcsExporter.COMPLETED))
+            || "COMPLETED".equalsIgnoreCase(event.get("STATUS"));
+    }
+
+    private LocalDate parseDate(Property property) {
+        return parseDate(property, property.value);
+    }
+
+    /**
+     * Reads the day of a DATE or DATE-TIME value. A UTC time is moved to the
+     * local time zone first and a time with a TZID to that zone, since a
+     * deadline at 23:59 in one zone may fall on the next day in another.
+     */
+    private LocalDate parseDate(Property property, String value) {
+        value = value.trim();
+        String key = property.parameters == null ? value : value + ';' + property.parameters;
+        LocalDate date = parsedDates.get(key);
+        if (date != null) {
+            return date;
+        }
+
+        try {
+            if (value.length() <= 8) {
+                date = LocalDate.parse(value, DateTimeFormatter.BASIC_ISO_DATE);
+            } else {
+                LocalDateTime dateTime = LocalDateTime.parse(value.substring(0, 15),
+                    DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss"));
+                String zone = property.getParameter("TZID");
+                if (value.endsWith("Z")) {
+                    date = dateTime.atOffset(ZoneOffset.UTC).atZoneSameInstant(ZoneId.systemDefault()).toLocalDate();
+                } else if (zone != null) {
+                    date = dateTime.atZone(ZoneId.of(zone)).withZoneSameInstant(ZoneId.systemDefault()).toLocalDate();
+                } else {
+                    date = dateTime.toLocalDate();
+                }
+            }
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        } catch (DateTimeException e) {
+            // Unknown time zone; the day as written is the best guess
+            date = LocalDate.parse(value.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+        }
+        DueDate.checkDate(date);
+        parsedDates.put(key, date);
+        return date;
+    }
+
+    private static String dayCode(DayOfWeek day) {
+        return day.name().substring(0, 2);
+    }
+
+    private static String dueDateKey(String courseId, String moduleId, String assignmentName) {
+        return courseId + '\u0000' + moduleId + '\u0000' + assignmentName;
+    }
+
+    /**
+     * Splits a list value on commas that are not escaped.
+     */
+    private static List<String> splitList(String value) {
+        List<String> items = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '\\') {
+                i++;
+            } else if (value.charAt(i) == ',') {
+                items.add(unescape(value.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        items.add(unescape(value.substring(start)));
+        return items;
+    }
+
+    /**
+     * Undoes the escaping of a text value: \n for a line break and a
+     * backslash before a backslash, semicolon or comma.
+     */
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * One content line: a name, optional parameters and a value.
+     */
+    private static class Property {
+        private final String name;
+        private final String parameters; // Text between the name and the colon, or null
+        private final String value;
+
+        private Property(String name, String parameters, String value) {
+            this.name = name;
+            this.parameters = parameters;
+            this.value = value;
+        }
+
+        /**
+         * Splits a content line, allowing colons inside quoted parameter values.
+         *
+         * @return The property, or null if the line has no colon
+         */
+        static Property parse(String line) {
+            boolean quoted = false;
+            int semicolon = -1;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && c == ';' && semicolon < 0) {
+                    semicolon = i;
+                } else if (!quoted && c == ':') {
+                    String name = line.substring(0, semicolon >= 0 ? semicolon : i).trim().toUpperCase();
+                    String parameters = semicolon >= 0 ? line.substring(semicolon + 1, i) : null;
+                    return new Property(name, parameters, line.substring(i + 1));
+                }
+            }
+            return null;
+        }
+
+        String getParameter(String parameterName) {
+            if (parameters == null) {
+                return null;
+            }
+            for (String parameter : parameters.split(";")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0 && parameter.substring(0, equals).trim().equalsIgnoreCase(parameterName)) {
+                    String value = parameter.substring(equals + 1).trim();
+                    return value.startsWith("\"") && value.endsWith("\"") && value.length() > 1
+                        ? value.substring(1, value.length() - 1)
+                        : value;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The properties of one VEVENT or VTODO, kept until its END line.
+     */
+    private static class Event {
+        private final boolean todo;
+        private final Map<String, List<Property>> properties = new HashMap<>();
+        private String error; // First problem found while reading the event
+
+        Event(boolean todo) {
+            this.todo = todo;
+        }
+
+        void add(Property property) {
+            properties.computeIfAbsent(property.name, k -> new ArrayList<>(1)).add(property);
+        }
+
+        Property getProperty(String name) {
+            List<Property> values = properties.get(name);
+            return values != null ? values.get(0) : null;
+        }
+
+        List<Property> getAll(String name) {
+            List<Property> values = properties.get(name);
+            return values != null ? values : new ArrayList<>();
+        }
+
+        String get(String name) {
+            Property property = getProperty(name);
+            return property != null ? property.value : null;
+        }
+
+        String getText(String name) {
+            String value = get(name);
+            return value != null ? unescape(value) : null;
+        }
+    }
+
+    /**
+     * Receives each batch of imported due dates and series.
+     */
+    public interface BatchHandler {
+        void accept(List<DueDate> dueDates, List<DueDateSeries> series);
+    }
+
+    /**
+     * Summary of an import: how many events were imported and why others were not.
+     */
+    public static class ImportResult {
+        private int imported;
+        private int seriesImported;
+        private int skipped;
+        private int errorCount;
+        private boolean cancelled;
+        private final List<String> errors = new ArrayList<>();
+
+        private void addError(int lineNumber, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + lineNumber + ": " + message);
+            }
+        }
+
+        /**
+         * @return The number of due dates imported, including changed occurrences of series
+         */
+        public int getImported() {
+            return imported;
+        }
+
+        /**
+         * @return The number of repeating due dates imported
+         */
+        public int getSeriesImported() {
+            return seriesImported;
+        }
+
+        /**
+         * @return The number of events skipped as duplicates or cancelled
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return The number of events that could not be imported
+         */
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        /**
+         * @return Messages for the first events that could not be imported
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return true if the import stopped before the end of the file
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gives entity IDs small int keys, so the managers can index and join
+ * entities by comparing ints and keep their indexes in arrays instead of
+ * hash maps.
+ *
+ * The string IDs stay the identity of an entity everywhere outside the
+ * managers: they are what is saved, exported and passed to the repositories.
+ * A key is only meaningful within the {@link IdTables} it came from.
+ *
+ * Keys are reference counted. A manager acquires a key for every ID it
+ * indexes something under and releases it when it unindexes that thing; once
+ * nothing holds a key, its ID is forgotten and the key is reused for the next
+ * new ID. Keys therefore stay dense and bounded by the IDs in use, and
+ * removed entities do not keep growing the arrays indexed by key.
+ *
+ * The table is thread safe, so the managers of one set can share it.
+ */
+final class IdTable {
+    private static final int MIN_CAPACITY = 16;
+
+    private final Map<String, Integer> keysById;
+    private String[] idsByKey;
+    private int[] references; // Holders of each key, 0 for a free key
+    private int[] freeKeys; // Released keys, reused last in, first out
+    private int freeCount;
+    private int nextKey; // Keys below this have been handed out at least once
+
+    /**
+     * Creates an empty table.
+     */
+    IdTable() {
+        this.keysById = new HashMap<>();
+        this.idsByKey = new String[MIN_CAPACITY];
+        this.references = new int[MIN_CAPACITY];
+        this.freeKeys = new int[MIN_CAPACITY];
+    }
+
+    /**
+     * Gets the key of an ID and holds it until it is released, assigning a
+     * free key if the ID has none.
+     *
+     * @param id The ID; null is given a key like any other value
+     * @return The key, at least 0
+     */
+    synchronized int acquire(String id) {
+        Integer existing = keysById.get(id);
+        int key;
+        if (existing != null) {
+            key = existing;
+        } else {
+            if (freeCount > 0) {
+                key = freeKeys[--freeCount];
+            } else {
+                key = nextKey++;
+                if (key == idsByKey.length) {
+                    idsByKey = Arrays.copyOf(idsByKey, key * 2);
+                    references = Arrays.copyOf(references, key * 2);
+                }
+            }
+            keysById.put(id, key);
+            idsByKey[key] = id;
+        }
+        references[key]++;
+        return key;
+    }
+
+    /**
+     * Gives up one hold on a key. When the last hold is released the key's ID
+     * is forgotten and the key becomes free for reuse.
+     *
+     * @param key A key returned by acquire and not yet released by this holder
+     * @throws IllegalArgumentException If the key is not held
+     */
+    synchronized void release(int key) {
+        if (key < 0 || key >= nextKey || references[key] == 0) {
+            throw new IllegalArgumentException("Key " + key + " is not in use");
+        }
+        if (--references[key] == 0) {
+            keysById.remove(idsByKey[key]);
+            idsByKey[key] = null;
+            if (freeCount == freeKeys.length) {
+                freeKeys = Arrays.copyOf(freeKeys, freeCount * 2);
+            }
+            freeKeys[freeCount++] = key;
+        }
+    }
+
+    /**
+     * Gets the key of an ID without acquiring it, for lookups of IDs that may
+     * not be in use.
+     *
+     * @param id The ID
+     * @return The key, or -1 if nothing holds a key for the ID, in which case nothing is indexed under it
+     */
+    synchronized int find(String id) {
+        Integer key = keysById.get(id);
+        return key != null ? key : -1;
+    }
+
+    /**
+     * Gets the ID a held key stands for.
+     *
+     * @param key The key
+     * @return The ID
+     */
+    synchronized String idOf(int key) {
+        return idsByKey[key];
+    }
+
+    /**
+     * Gets the number of IDs that currently have a key.
+     *
+     * @return The number of keys in use
+     */
+    synchronized int size() {
+        return keysById.size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example;
+
+/**
+ * The {@link IdTable}s of one set of managers: one for each kind of entity
+ * that others refer to by ID.
+ *
+ * The application creates one instance and passes it to the managers it
+ * creates, so their keys come from the same tables. Managers created on their
+ * own get tables of their own, so separate sets of managers never share keys.
+ */
+public final class IdTables {
+    final IdTable students;
+    final IdTable courses;
+    final IdTable modules;
+
+    /**
+     * Creates empty tables.
+     */
+    public IdTables() {
+        this.students = new IdTable();
+        this.courses = new IdTable();
+        this.modules = new IdTable();
+    }
+}
@@ -0,0 +1,239 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A map from int keys to values that keeps the keys unboxed, used by
+ * {@link StudentManager} to find students by ID in constant time.
+ *
+ * Entries are kept in insertion order in two parallel arrays, and an open
+ * addressing table with linear probing maps each key to its entry. Removing
+ * an entry leaves a hole in the entry arrays, which is closed up the next time
+ * they fill; the table itself is repaired by shifting back the entries that
+ * follow the removed one, so lookups never have to step over deleted slots.
+ *
+ * Null values are not allowed, since a null entry marks a hole. The map is
+ * not thread safe.
+ *
+ * @param <V> The type of the values
+ */
+class IntObjectHashMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] table; // Entry index + 1 for each slot, 0 when empty; length is a power of two
+    private int[] keys; // In insertion order
+    private Object[] values; // null where an entry was removed
+    private int end; // Entries in use, counting holes
+    private int size;
+
+    /**
+     * Creates an empty map.
+     */
+    IntObjectHashMap() {
+        table = new int[MIN_CAPACITY * 2];
+        keys = new int[MIN_CAPACITY];
+        values = new Object[MIN_CAPACITY];
+    }
+
+    /**
+     * Gets the value for a key.
+     *
+     * @param key The key
+     * @return The value, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int slot = find(key);
+        return slot >= 0 ? (V) values[table[slot] - 1] : null;
+    }
+
+    /**
+     * Tells whether a key is in the map.
+     *
+     * @param key The key
+     * @return true if the map has a value for the key
+     */
+    boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Sets the value for a key. A new key goes to the end of the iteration
+     * order; replacing the value of an existing key keeps its place.
+     *
+     * @param key The key
+     * @param value The value, not null
+     * @return The previous value, or null if the key was not in the map
+     * @throws IllegalArgumentException If the value is null
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+
+        int slot = find(key);
+        if (slot >= 0) {
+            int index = table[slot] - 1;
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        if (end == keys.length) {
+            makeRoom();
+            slot = find(key); // The table was rebuilt
+        }
+        keys[end] = key;
+        values[end] = value;
+        end++;
+        size++;
+        table[-slot - 1] = end;
+        return null;
+    }
+
+    /**
+     * Removes a key and its value.
+     *
+     * @param key The key
+     * @return The removed value, or null if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        int index = table[slot] - 1;
+        V removed = (V) values[index];
+        values[index] = null;
+        size--;
+        if (index == end - 1) {
+            end--;
+        }
+
+        // Shift back later entries of the probe run that may no longer be reachable
+        int mask = table.length - 1;
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (table[next] != 0) {
+            int home = hash(keys[table[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = 0;
+        return removed;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return The number of keys in the map
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the keys in insertion order.
+     *
+     * @return A new array of the keys
+     */
+    int[] keys() {
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                result[count++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the values in insertion order.
+     *
+     * @return A new list of the values
+     */
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                result.add((V) values[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the table slot of a key.
+     *
+     * @return The slot holding the key, or -(empty slot + 1) where it would go
+     */
+    private int find(int key) {
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        while (table[slot] != 0) {
+            if (keys[table[slot] - 1] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    /**
+     * Makes room for one more entry at the end of the entry arrays, either by
+     * closing up the holes left by removals or by growing the arrays. The table
+     * is rebuilt either way, so its load stays at most one half.
+     */
+    private void makeRoom() {
+        if (size <= end / 2) {
+            int live = 0;
+            for (int i = 0; i < end; i++) {
+                if (values[i] != null) {
+                    keys[live] = keys[i];
+                    values[live] = values[i];
+                    live++;
+                }
+            }
+            Arrays.fill(values, live, end, null);
+            end = live;
+        } else {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            table = new int[capacity * 2];
+        }
+        rebuildTable();
+    }
+
+    private void rebuildTable() {
+        Arrays.fill(table, 0);
+        int mask = table.length - 1;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                int slot = hash(keys[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a key, since student IDs are often sequential.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,233 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Course storage backed by the embedded database. Enrollments are kept in
+ * their own table, indexed by both course and student.
+ */
+public class JdbcCourseRepository implements CourseRepository {
+    private static final String SELECT = "SELECT c.course_id, c.name, c.code, c.credits, c.instructor, c.semester, "
+        + "e.student_id FROM courses c LEFT JOIN enrollments e ON e.course_id = c.course_id ";
+
+    private final JdbcDatabase database;
+    private final Map<String, Long> enrollmentVersions; // Bumped when a student's enrollments change
+    private final AtomicLong catalogVersion; // Bumped when a course is added, updated or removed
+    private ChangeEventBus eventBus; // Receives change events for the views, or null
+
+    /**
+     * Constructs a new JdbcCourseRepository.
+     *
+     * @param database The database to store courses in
+     */
+    public JdbcCourseRepository(JdbcDatabase database) {
+        this.database = database;
+        this.enrollmentVersions = new ConcurrentHashMap<>();
+        this.catalogVersion = new AtomicLong();
+    }
+
+    @Override
+    public void setEventBus(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public void addCourse(Course course) {
+        checkCode(course.getId(), course.getCode());
+        database.update("INSERT INTO courses (course_id, name, code, credits, instructor, semester) VALUES (?, ?, ?, ?, ?, ?)",
+            course.getId(), course.getName(), course.getCode(), course.getCredits(), course.getInstructor(),
+            course.getSemester());
+        saveEnrollments(course);
+        catalogVersion.incrementAndGet();
+    }
+
+    @Override
+    public Course getCourseById(String courseId) {
+        List<Course> result = select("WHERE c.course_id = ? ORDER BY e.seq", courseId);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    @Override
+    public Course getCourseByCode(String code) {
+        List<Course> result = select("WHERE c.code_key = LOWER(?) ORDER BY c.seq, e.seq", code);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        return select("ORDER BY c.seq, e.seq");
+    }
+
+    @Override
+    public boolean updateCourse(String courseId, Course updatedCourse) {
+        checkCode(courseId, updatedCourse.getCode());
+        int changed = database.update("UPDATE courses SET course_id = ?, name = ?, code = ?, credits = ?, "
+            + "instructor = ?, semester = ? WHERE course_id = ?",
+            updatedCourse.getId(), updatedCourse.getName(), updatedCourse.getCode(), updatedCourse.getCredits(),
+            updatedCourse.getInstructor(), updatedCourse.getSemester(), courseId);
+        if (changed == 0) {
+            return false;
+        }
+
+        database.update("DELETE FROM enrollments WHERE course_id = ?", courseId);
+        saveEnrollments(updatedCourse);
+        catalogVersion.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean removeCourse(String courseId) {
+        database.update("DELETE FROM enrollments WHERE course_id = ?", courseId);
+        if (database.update("DELETE FROM courses WHERE course_id = ?", courseId) == 0) {
+            return false;
+        }
+        catalogVersion.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public int getCourseCount() {
+        return database.queryOne("SELECT COUNT(*) FROM courses", row -> row.getInt(1));
+    }
+
+    @Override
+    public List<Course> findCourses(String searchTerm) {
+        String term = searchTerm.toLowerCase();
+        return select("WHERE LOCATE(?, LOWER(c.name)) > 0 OR LOCATE(?, LOWER(c.code)) > 0 "
+            + "ORDER BY CASE WHEN LOCATE(?, LOWER(c.name)) = 1 OR LOCATE(?, LOWER(c.code)) = 1 THEN 0 ELSE 1 END, "
+            + "c.seq, e.seq", term, term, term, term);
+    }
+
+    @Override
+    public List<Course> searchCourses(String query, int limit) {
+        // Substring matches only; the database has no trigram index to find typos with
+        String term = query.trim().toLowerCase();
+        if (term.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Course> result = select("WHERE LOCATE(?, LOWER(c.name)) > 0 OR LOCATE(?, LOWER(c.code)) > 0 "
+            + "OR LOCATE(?, LOWER(c.instructor)) > 0 "
+            + "ORDER BY CASE WHEN LOCATE(?, LOWER(c.name)) = 1 OR LOCATE(?, LOWER(c.code)) = 1 THEN 0 "
+            + "WHEN LOCATE(?, LOWER(c.instructor)) = 0 THEN 1 ELSE 2 END, c.seq, e.seq",
+            term, term, term, term, term, term);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    @Override
+    public List<Course> getCoursesBySemester(String semester) {
+        return select("WHERE c.semester_key = LOWER(?) ORDER BY c.seq, e.seq", semester);
+    }
+
+    @Override
+    public List<Course> getCoursesByInstructor(String instructor) {
+        return select("WHERE c.instructor_key = LOWER(?) ORDER BY c.seq, e.seq", instructor);
+    }
+
+    @Override
+    public List<Course> getCoursesForStudent(String studentId) {
+        return select("WHERE c.course_id IN (SELECT course_id FROM enrollments WHERE student_id = ?) "
+            + "ORDER BY c.seq, e.seq", studentId);
+    }
+
+    @Override
+    public Set<String> getCourseIdsForStudent(String studentId) {
+        return new LinkedHashSet<>(database.query("SELECT course_id FROM enrollments WHERE student_id = ? ORDER BY seq",
+            row -> row.getString(1), studentId));
+    }
+
+    @Override
+    public boolean enrollStudent(Course course, Student student) {
+        String studentId = String.valueOf(student.getStudentId());
+
+        if (!course.enrollStudent(studentId)) {
+            return false;
+        }
+
+        database.update("MERGE INTO enrollments (course_id, student_id) KEY (course_id, student_id) VALUES (?, ?)",
+            course.getId(), studentId);
+        enrollmentVersions.merge(studentId, 1L, Long::sum);
+        publish(ChangeEvent.enrollmentChanged(course, studentId));
+        return true;
+    }
+
+    @Override
+    public boolean unenrollStudent(Course course, Student student) {
+        String studentId = String.valueOf(student.getStudentId());
+
+        if (!course.removeStudent(studentId)) {
+            return false;
+        }
+
+        database.update("DELETE FROM enrollments WHERE course_id = ? AND student_id = ?", course.getId(), studentId);
+        enrollmentVersions.merge(studentId, 1L, Long::sum);
+        publish(ChangeEvent.enrollmentChanged(course, studentId));
+        return true;
+    }
+
+    @Override
+    public long getEnrollmentVersion(String studentId) {
+        return enrollmentVersions.getOrDefault(studentId, 0L);
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    private void saveEnrollments(Course course) {
+        List<Object[]> rows = new ArrayList<>();
+        for (String studentId : course.getEnrolledStudentIds()) {
+            rows.add(new Object[] { course.getId(), studentId });
+            enrollmentVersions.merge(studentId, 1L, Long::sum);
+        }
+        database.batch("MERGE INTO enrollments (course_id, student_id) KEY (course_id, student_id) VALUES (?, ?)", rows);
+    }
+
+    /**
+     * Selects courses with their enrolled student IDs, one row per enrollment.
+     */
+    private void checkCode(String courseId, String code) {
+        if (code == null || code.trim().isEmpty()) {
+            return; // Courses without a code do not clash
+        }
+        String owner = database.queryOne("SELECT name FROM courses WHERE code_key = LOWER(?) AND course_id <> ? "
+            + "FETCH FIRST ROW ONLY", row -> row.getString(1), code, courseId);
+        if (owner != null) {
+            throw new IllegalArgumentException("Course code " + code + " is already used by " + owner);
+        }
+    }
+
+    private List<Course> select(String clause, Object... parameters) {
+        Map<String, Course> courses = new LinkedHashMap<>();
+        database.forEachRow(SELECT + clause, row -> {
+            String courseId = row.getString(1);
+            Course course = courses.get(courseId);
+            if (course == null) {
+                course = new Course(courseId, row.getString(2), row.getString(3), row.getInt(4), row.getString(5),
+                    row.getString(6));
+                courses.put(courseId, course);
+            }
+
+            String studentId = row.getString(7);
+            if (studentId != null) {
+                course.enrollStudent(studentId);
+            }
+        }, parameters);
+        return new ArrayList<>(courses.values());
+    }
+
+    private void publish(ChangeEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connection to the embedded database used by the Jdbc repositories.
+ *
+ * Creates the schema on first use and keeps one prepared statement per SQL
+ * string, so repeated queries are parsed once. Database errors are reported
+ * as IllegalStateException, since the repositories' callers cannot recover
+ * from them any better than from a bug.
+ */
+public class JdbcDatabase implements AutoCloseable {
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS students ("
+            + "student_id INT PRIMARY KEY, courses_completed INT NOT NULL, first_name VARCHAR, last_name VARCHAR, "
+            + "email VARCHAR, year_level INT NOT NULL, seq BIGINT GENERATED BY DEFAULT AS IDENTITY)",
+        "CREATE TABLE IF NOT EXISTS courses ("
+            + "course_id VARCHAR PRIMARY KEY, name VARCHAR, code VARCHAR, credits INT NOT NULL, "
+            + "instructor VARCHAR, semester VARCHAR, seq BIGINT GENERATED BY DEFAULT AS IDENTITY)",
+        // Lower case copies of the fields courses are looked up by, ignoring case
+        "ALTER TABLE courses ADD COLUMN IF NOT EXISTS code_key VARCHAR GENERATED ALWAYS AS (LOWER(code))",
+        "ALTER TABLE courses ADD COLUMN IF NOT EXISTS semester_key VARCHAR GENERATED ALWAYS AS (LOWER(semester))",
+        "ALTER TABLE courses ADD COLUMN IF NOT EXISTS instructor_key VARCHAR GENERATED ALWAYS AS (LOWER(instructor))",
+        "CREATE INDEX IF NOT EXISTS courses_code ON courses (code_key)",
+        "CREATE INDEX IF NOT EXISTS courses_semester ON courses (semester_key)",
+        "CREATE INDEX IF NOT EXISTS courses_instructor ON courses (instructor_key)",
+        "CREATE TABLE IF NOT EXISTS enrollments ("
+            + "course_id VARCHAR NOT NULL, student_id VARCHAR NOT NULL, seq BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+            + "PRIMARY KEY (course_id, student_id))",
+        "CREATE INDEX IF NOT EXISTS enrollments_student ON enrollments (student_id)",
+        "CREATE TABLE IF NOT EXISTS modules ("
+            + "module_id VARCHAR PRIMARY KEY, course_id VARCHAR, module_name VARCHAR, module_number INT NOT NULL, "
+            + "description VARCHAR, seq BIGINT GENERATED BY DEFAULT AS IDENTITY)",
+        "CREATE INDEX IF NOT EXISTS modules_course ON modules (course_id, module_number)",
+        "CREATE TABLE IF NOT EXISTS grades ("
+            + "grade_id VARCHAR PRIMARY KEY, student_id VARCHAR, course_id VARCHAR, assignment_name VARCHAR, "
+            + "module_id VARCHAR, module_name VARCHAR, score DOUBLE PRECISION NOT NULL, max_score DOUBLE PRECISION NOT NULL, "
+            + "weight DOUBLE PRECISION NOT NULL, comments VARCHAR, date_submitted VARCHAR, "
+            + "seq BIGINT GENERATED BY DEFAULT AS IDENTITY)",
+        "CREATE INDEX IF NOT EXISTS grades_student_course ON grades (student_id, course_id)",
+        "CREATE INDEX IF NOT EXISTS grades_student_module ON grades (student_id, module_id)",
+        "CREATE INDEX IF NOT EXISTS grades_course ON grades (course_id)",
+        "CREATE INDEX IF NOT EXISTS grades_module ON grades (module_id)",
+        "CREATE INDEX IF NOT EXISTS grades_assignment ON grades (course_id, module_id, assignment_name)",
+        "CREATE TABLE IF NOT EXISTS due_dates ("
+            + "due_date_id VARCHAR PRIMARY KEY, course_id VARCHAR, course_name VARCHAR, module_id VARCHAR, "
+            + "module_name VARCHAR, assignment_name VARCHAR, description VARCHAR, due_date DATE, "
+            + "completed BOOLEAN NOT NULL, priority VARCHAR, seq BIGINT GENERATED BY DEFAULT AS IDENTITY)",
+        "CREATE INDEX IF NOT EXISTS due_dates_date ON due_dates (due_date)",
+        "CREATE INDEX IF NOT EXISTS due_dates_course ON due_dates (course_id, due_date)",
+        "CREATE INDEX IF NOT EXISTS due_dates_module ON due_dates (module_id, due_date)",
+        "CREATE INDEX IF NOT EXISTS due_dates_priority ON due_dates (priority, due_date)",
+        "CREATE INDEX IF NOT EXISTS due_dates_open ON due_dates (completed, due_date)",
+        "CREATE INDEX IF NOT EXISTS due_dates_assignment ON due_dates (course_id, module_id, assignment_name)",
+        "CREATE TABLE IF NOT EXISTS due_date_series ("
+            + "series_id VARCHAR PRIMARY KEY, course_id VARCHAR, course_name VARCHAR, module_id VARCHAR, "
+            + "module_name VARCHAR, assignment_name VARCHAR, description VARCHAR, priority VARCHAR, "
+            + "start_date DATE, rule VARCHAR NOT NULL, exceptions VARCHAR, seq BIGINT GENERATED BY DEFAULT AS IDENTITY)",
+        "CREATE INDEX IF NOT EXISTS due_date_series_course ON due_date_series (course_id)"
+    };
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements; // Prepared statements by SQL
+
+    /**
+     * Connects to a database and creates any missing tables and indexes.
+     *
+     * @param url JDBC URL of the database
+     * @throws SQLException if the connection or schema creation fails
+     */
+    public JdbcDatabase(String url) throws SQLException {
+        this.connection = DriverManager.getConnection(url);
+        this.statements = new HashMap<>();
+
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        }
+    }
+
+    /**
+     * Opens (or creates) the database file in a directory.
+     *
+     * @param directory Directory holding the database file
+     * @return The opened database
+     * @throws SQLException if the database cannot be opened
+     */
+    public static JdbcDatabase openFile(Path directory) throws SQLException {
+        return new JdbcDatabase("jdbc:h2:" + directory.resolve("gradetracker").toAbsolutePath());
+    }
+
+    /**
+     * Runs an INSERT, UPDATE, MERGE or DELETE statement.
+     *
+     * @param sql The statement, with ? placeholders
+     * @param parameters Values for the placeholders
+     * @return The number of rows changed
+     */
+    public synchronized int update(String sql, Object... parameters) {
+        try {
+            PreparedStatement statement = prepare(sql, parameters);
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw failure(sql, e);
+        }
+    }
+
+    /**
+     * Runs a statement once per row in a single transaction using JDBC batching.
+     *
+     * @param sql The statement, with ? placeholders
+     * @param rows Values for the placeholders, one array per execution
+     */
+    public synchronized void batch(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement statement = statement(sql);
+                for (Object[] row : rows) {
+                    bind(statement, row);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw failure(sql, e);
+        }
+    }
+
+    /**
+     * Runs a query and maps every row.
+     *
+     * @param sql The query, with ? placeholders
+     * @param mapper Converts the current row of the result set
+     * @param parameters Values for the placeholders
+     * @return The mapped rows, in result order
+     */
+    public synchronized <T> List<T> query(String sql, RowMapper<T> mapper, Object... parameters) {
+        try {
+            PreparedStatement statement = prepare(sql, parameters);
+            List<T> result = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    result.add(mapper.map(rows));
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            throw failure(sql, e);
+        }
+    }
+
+    /**
+     * Runs a query that returns at most one row.
+     *
+     * @param sql The query, with ? placeholders
+     * @param mapper Converts the row
+     * @param parameters Values for the placeholders
+     * @return The mapped row, or null if there was none
+     */
+    public synchronized <T> T queryOne(String sql, RowMapper<T> mapper, Object... parameters) {
+        List<T> result = query(sql, mapper, parameters);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Runs a query over several rows, handing each row to a callback.
+     * Used when rows have to be grouped rather than mapped one to one.
+     *
+     * @param sql The query, with ? placeholders
+     * @param handler Called once per row
+     * @param parameters Values for the placeholders
+     */
+    public synchronized void forEachRow(String sql, RowHandler handler, Object... parameters) {
+        try {
+            PreparedStatement statement = prepare(sql, parameters);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    handler.handle(rows);
+                }
+            }
+        } catch (SQLException e) {
+            throw failure(sql, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+        connection.close();
+    }
+
+    private PreparedStatement prepare(String sql, Object[] parameters) throws SQLException {
+        PreparedStatement statement = statement(sql);
+        bind(statement, parameters);
+        return statement;
+    }
+
+    private PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private static void bind(PreparedStatement statement, Object[] parameters) throws SQLException {
+        statement.clearParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+    }
+
+    private static IllegalStateException failure(String sql, SQLException e) {
+        System.out.println("Database error: " + e.getMessage());
+        return new IllegalStateException("Database error running: " + sql, e);
+    }
+
+    /**
+     * Converts the current row of a result set.
+     */
+    public interface RowMapper<T> {
+        T map(ResultSet row) throws SQLException;
+    }
+
+    /**
+     * Receives the current row of a result set.
+     */
+    public interface RowHandler {
+        void handle(ResultSet row) throws SQLException;
+    }
+}
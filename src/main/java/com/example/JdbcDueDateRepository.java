@@ -0,0 +1,499 @@
+package com.example;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Due date storage backed by the embedded database. Every query is ordered
+ * by date through the due date indexes.
+ */
+public class JdbcDueDateRepository implements DueDateRepository {
+    private static final String SELECT = "SELECT due_date_id, course_id, course_name, module_id, module_name, "
+        + "assignment_name, description, due_date, completed, priority FROM due_dates ";
+    private static final String MERGE = "MERGE INTO due_dates (due_date_id, course_id, course_name, module_id, "
+        + "module_name, assignment_name, description, due_date, completed, priority) KEY (due_date_id) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String BY_DATE = " ORDER BY due_date, seq";
+    private static final String SELECT_SERIES = "SELECT series_id, course_id, course_name, module_id, module_name, "
+        + "assignment_name, description, priority, start_date, rule, exceptions FROM due_date_series ";
+    private static final String MERGE_SERIES = "MERGE INTO due_date_series (series_id, course_id, course_name, "
+        + "module_id, module_name, assignment_name, description, priority, start_date, rule, exceptions) "
+        + "KEY (series_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcDatabase database;
+    private final Clock clock; // Decides the current day for status queries
+    private ChangeEventBus eventBus; // Receives change events for the views, or null
+
+    /**
+     * Constructs a new JdbcDueDateRepository that works out statuses for the
+     * day on the system clock.
+     *
+     * @param database The database to store due dates in
+     */
+    public JdbcDueDateRepository(JdbcDatabase database) {
+        this(database, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs a new JdbcDueDateRepository.
+     *
+     * @param database The database to store due dates in
+     * @param clock The clock that decides the current day for status queries
+     */
+    public JdbcDueDateRepository(JdbcDatabase database, Clock clock) {
+        this.database = database;
+        this.clock = clock;
+    }
+
+    @Override
+    public void setEventBus(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public void addDueDate(DueDate dueDate) {
+        database.update(MERGE, toRow(dueDate));
+        publish(ChangeEvent.dueDateChanged(dueDate.getDueDateId(), dueDate, false));
+    }
+
+    @Override
+    public void addDueDates(List<DueDate> dueDates) {
+        List<Object[]> rows = new ArrayList<>(dueDates.size());
+        for (DueDate dueDate : dueDates) {
+            rows.add(toRow(dueDate));
+        }
+        database.batch(MERGE, rows);
+        publish(ChangeEvent.dueDatesAdded(new ArrayList<>(dueDates)));
+    }
+
+    @Override
+    public DueDate getDueDateById(String dueDateId) {
+        return database.queryOne(SELECT + "WHERE due_date_id = ?", JdbcDueDateRepository::toDueDate, dueDateId);
+    }
+
+    @Override
+    public List<DueDate> getAllDueDates() {
+        return database.query(SELECT + BY_DATE, JdbcDueDateRepository::toDueDate);
+    }
+
+    @Override
+    public boolean updateDueDate(String dueDateId, DueDate updatedDueDate) {
+        boolean updated = database.update("UPDATE due_dates SET due_date_id = ?, course_id = ?, course_name = ?, module_id = ?, "
+            + "module_name = ?, assignment_name = ?, description = ?, due_date = ?, completed = ?, priority = ? "
+            + "WHERE due_date_id = ?",
+            updatedDueDate.getDueDateId(), updatedDueDate.getCourseId(), updatedDueDate.getCourseName(),
+            updatedDueDate.getModuleId(), updatedDueDate.getModuleName(), updatedDueDate.getAssignmentName(),
+            updatedDueDate.getDescription(), updatedDueDate.getDueDate(), updatedDueDate.isCompleted(),
+            updatedDueDate.getPriority(), dueDateId) > 0;
+        if (updated) {
+            publish(ChangeEvent.dueDateChanged(dueDateId, updatedDueDate, false));
+        } else if (dueDateId.equals(updatedDueDate.getDueDateId()) && seriesOf(dueDateId) != null) {
+            // First change to an occurrence of a series: store it as an override
+            addDueDate(updatedDueDate);
+            updated = true;
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeDueDate(String dueDateId) {
+        DueDate removed = getDueDateById(dueDateId);
+        DueDateSeries series = seriesOf(dueDateId);
+        if (series != null) {
+            LocalDate occurrenceDate = DueDateSeries.occurrenceDateOf(dueDateId);
+            boolean skipped = series.addException(occurrenceDate);
+            if (skipped) {
+                database.update("UPDATE due_date_series SET exceptions = ? WHERE series_id = ?",
+                    joinDates(series), series.getSeriesId());
+            }
+            if (removed == null) {
+                if (skipped) {
+                    publish(ChangeEvent.dueDateChanged(dueDateId, series.createOccurrence(occurrenceDate), true));
+                }
+                return skipped;
+            }
+        }
+        if (removed == null) {
+            return false;
+        }
+
+        database.update("DELETE FROM due_dates WHERE due_date_id = ?", dueDateId);
+        publish(ChangeEvent.dueDateChanged(dueDateId, removed, true));
+        return true;
+    }
+
+    @Override
+    public int getDueDateCount() {
+        return database.queryOne("SELECT COUNT(*) FROM due_dates", row -> row.getInt(1));
+    }
+
+    @Override
+    public List<DueDate> getDueDatesForCourse(String courseId) {
+        return database.query(SELECT + "WHERE course_id = ?" + BY_DATE, JdbcDueDateRepository::toDueDate, courseId);
+    }
+
+    @Override
+    public List<DueDate> getDueDatesForModule(String moduleId) {
+        return database.query(SELECT + "WHERE module_id = ?" + BY_DATE, JdbcDueDateRepository::toDueDate, moduleId);
+    }
+
+    @Override
+    public List<DueDate> getDueDatesForAssignment(AssignmentKey key) {
+        if (key.getModuleId().isEmpty()) {
+            return database.query(SELECT + "WHERE course_id = ? AND (module_id IS NULL OR module_id = '') "
+                + "AND assignment_name = ?" + BY_DATE, JdbcDueDateRepository::toDueDate,
+                key.getCourseId(), key.getAssignmentName());
+        }
+        return database.query(SELECT + "WHERE course_id = ? AND module_id = ? AND assignment_name = ?" + BY_DATE,
+            JdbcDueDateRepository::toDueDate, key.getCourseId(), key.getModuleId(), key.getAssignmentName());
+    }
+
+    @Override
+    public List<DueDate> getDueDatesInRange(LocalDate startDate, LocalDate endDate) {
+        return database.query(SELECT + "WHERE due_date BETWEEN ? AND ?" + BY_DATE, JdbcDueDateRepository::toDueDate,
+            startDate, endDate);
+    }
+
+    @Override
+    public List<DueDate> getDueDatesForStudent(int studentId, CourseRepository courseRepository) {
+        // Enrollments live in the same database, so the join is done there
+        return database.query(SELECT + "WHERE course_id IN (SELECT course_id FROM enrollments WHERE student_id = ?)"
+            + BY_DATE, JdbcDueDateRepository::toDueDate, String.valueOf(studentId));
+    }
+
+    @Override
+    public List<DueDate> getDueDatesForStudentInModule(int studentId, String moduleId, CourseRepository courseRepository) {
+        return database.query(SELECT + "WHERE module_id = ? AND course_id IN "
+            + "(SELECT course_id FROM enrollments WHERE student_id = ?)" + BY_DATE,
+            JdbcDueDateRepository::toDueDate, moduleId, String.valueOf(studentId));
+    }
+
+    @Override
+    public List<DueDate> getDueDatesByStatus(String status) {
+        if ("Completed".equals(status)) {
+            return getCompletedDueDates();
+        }
+
+        // The remaining statuses cover open items in consecutive date ranges
+        LocalDate today = today();
+        LocalDate dueSoonEnd = today.plusDays(DueDateStatus.DUE_SOON_DAYS);
+        switch (status) {
+            case "Overdue":
+                return database.query(SELECT + "WHERE completed = FALSE AND due_date < ?" + BY_DATE,
+                    JdbcDueDateRepository::toDueDate, today);
+            case "Due Soon":
+                return database.query(SELECT + "WHERE completed = FALSE AND due_date BETWEEN ? AND ?" + BY_DATE,
+                    JdbcDueDateRepository::toDueDate, today, dueSoonEnd);
+            case "Upcoming":
+                return database.query(SELECT + "WHERE completed = FALSE AND due_date > ?" + BY_DATE,
+                    JdbcDueDateRepository::toDueDate, dueSoonEnd);
+            default:
+                return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public List<DueDate> getDueDatesByPriority(String priority) {
+        return database.query(SELECT + "WHERE priority = ?" + BY_DATE, JdbcDueDateRepository::toDueDate, priority);
+    }
+
+    @Override
+    public List<DueDate> getUpcomingDueDates() {
+        return database.query(SELECT + "WHERE completed = FALSE AND due_date >= ?" + BY_DATE,
+            JdbcDueDateRepository::toDueDate, today());
+    }
+
+    @Override
+    public List<DueDate> getOverdueDueDates() {
+        return database.query(SELECT + "WHERE completed = FALSE AND due_date < ?" + BY_DATE,
+            JdbcDueDateRepository::toDueDate, today());
+    }
+
+    @Override
+    public List<DueDate> getNextDueDates(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        }
+        return database.query(SELECT + "WHERE completed = FALSE AND due_date >= ?" + BY_DATE + " FETCH FIRST ? ROWS ONLY",
+            JdbcDueDateRepository::toDueDate, today(), count);
+    }
+
+    @Override
+    public List<DueDate> getCompletedDueDates() {
+        return database.query(SELECT + "WHERE completed = TRUE" + BY_DATE, JdbcDueDateRepository::toDueDate);
+    }
+
+    @Override
+    public List<DueDate> findDueDates(DueDateQuery query, CourseRepository courseRepository) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+
+        if (query.getStudentId() != null) {
+            conditions.add("course_id IN (SELECT course_id FROM enrollments WHERE student_id = ?)");
+            parameters.add(query.getStudentId());
+        }
+        if (query.getCourseIds() != null) {
+            conditions.add(in("course_id", query.getCourseIds(), parameters));
+        }
+        if (query.getPriorities() != null) {
+            conditions.add(in("priority", query.getPriorities(), parameters));
+        }
+        if (query.getFromDate() != null) {
+            conditions.add("due_date >= ?");
+            parameters.add(query.getFromDate());
+        }
+        if (query.getToDate() != null) {
+            conditions.add("due_date <= ?");
+            parameters.add(query.getToDate());
+        }
+        if (query.getCompleted() != null) {
+            conditions.add("completed = ?");
+            parameters.add(query.getCompleted());
+        }
+        if (query.getStatuses() != null) {
+            conditions.add(statusCondition(query.getStatuses(), parameters));
+        }
+
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+        return database.query(SELECT + where + BY_DATE, JdbcDueDateRepository::toDueDate, parameters.toArray());
+    }
+
+    @Override
+    public Workload getWorkload(DueDateQuery query, CourseRepository courseRepository) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        conditions.add("completed = FALSE");
+
+        if (query.getStudentId() != null) {
+            conditions.add("course_id IN (SELECT course_id FROM enrollments WHERE student_id = ?)");
+            parameters.add(query.getStudentId());
+        }
+        if (query.getCourseIds() != null) {
+            conditions.add(in("course_id", query.getCourseIds(), parameters));
+        }
+        if (query.getPriorities() != null) {
+            conditions.add(in("priority", query.getPriorities(), parameters));
+        }
+
+        Map<LocalDate, Integer> countsByDate = new HashMap<>();
+        database.forEachRow("SELECT due_date, COUNT(*) FROM due_dates WHERE " + String.join(" AND ", conditions)
+                + " GROUP BY due_date",
+            row -> countsByDate.put(row.getObject(1, LocalDate.class), row.getInt(2)),
+            parameters.toArray());
+        return Workload.fromCounts(countsByDate);
+    }
+
+    @Override
+    public void addSeries(DueDateSeries series) {
+        database.update(MERGE_SERIES, toRow(series));
+        publish(ChangeEvent.dueDateSeriesChanged(series, false));
+    }
+
+    @Override
+    public DueDateSeries getSeriesById(String seriesId) {
+        return database.queryOne(SELECT_SERIES + "WHERE series_id = ?", JdbcDueDateRepository::toSeries, seriesId);
+    }
+
+    @Override
+    public List<DueDateSeries> getAllSeries() {
+        return database.query(SELECT_SERIES + "ORDER BY seq", JdbcDueDateRepository::toSeries);
+    }
+
+    @Override
+    public boolean updateSeries(String seriesId, DueDateSeries updatedSeries) {
+        Object[] row = toRow(updatedSeries);
+        boolean updated = database.update("UPDATE due_date_series SET series_id = ?, course_id = ?, course_name = ?, "
+            + "module_id = ?, module_name = ?, assignment_name = ?, description = ?, priority = ?, start_date = ?, "
+            + "rule = ?, exceptions = ? WHERE series_id = ?",
+            row[0], row[1], row[2], row[3], row[4], row[5], row[6], row[7], row[8], row[9], row[10], seriesId) > 0;
+        if (updated) {
+            publish(ChangeEvent.dueDateSeriesChanged(updatedSeries, false));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeSeries(String seriesId) {
+        DueDateSeries removed = getSeriesById(seriesId);
+        if (removed == null) {
+            return false;
+        }
+
+        for (String overrideId : overrideIds(seriesId)) {
+            removeDueDate(overrideId);
+        }
+        database.update("DELETE FROM due_date_series WHERE series_id = ?", seriesId);
+        publish(ChangeEvent.dueDateSeriesChanged(removed, true));
+        return true;
+    }
+
+    @Override
+    public List<DueDate> findOccurrences(DueDateQuery query, CourseRepository courseRepository) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (query.getStudentId() != null) {
+            conditions.add("course_id IN (SELECT course_id FROM enrollments WHERE student_id = ?)");
+            parameters.add(query.getStudentId());
+        }
+        if (query.getCourseIds() != null) {
+            conditions.add(in("course_id", query.getCourseIds(), parameters));
+        }
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+
+        List<DueDate> result = new ArrayList<>();
+        LocalDate today = today();
+        for (DueDateSeries series : database.query(SELECT_SERIES + where, JdbcDueDateRepository::toSeries,
+                parameters.toArray())) {
+            LocalDate from = query.getFromDate() != null ? query.getFromDate() : series.getStartDate();
+            LocalDate to = query.getToDate() != null ? query.getToDate() : series.getEndDate();
+            if (to == null) {
+                continue;
+            }
+            Set<String> overrideIds = null; // Read once the series has occurrences in the window
+            for (DueDate occurrence : series.getOccurrences(from, to)) {
+                if (overrideIds == null) {
+                    overrideIds = new HashSet<>(overrideIds(series.getSeriesId()));
+                }
+                if (!overrideIds.contains(occurrence.getDueDateId()) && query.matches(occurrence, today)) {
+                    result.add(occurrence);
+                }
+            }
+        }
+
+        result.sort(Comparator.comparing(DueDate::getDueDate));
+        return result;
+    }
+
+    /**
+     * Gets the series an occurrence ID belongs to, if the series exists.
+     */
+    private DueDateSeries seriesOf(String dueDateId) {
+        String seriesId = DueDateSeries.seriesIdOf(dueDateId);
+        return seriesId != null ? getSeriesById(seriesId) : null;
+    }
+
+    /**
+     * Gets the IDs of the stored overrides of a series' occurrences.
+     */
+    private List<String> overrideIds(String seriesId) {
+        List<String> ids = new ArrayList<>();
+        for (String dueDateId : database.query("SELECT due_date_id FROM due_dates WHERE due_date_id LIKE ? ESCAPE '\\'",
+                row -> row.getString(1), likePrefix(seriesId + "@"))) {
+            if (seriesId.equals(DueDateSeries.seriesIdOf(dueDateId))) {
+                ids.add(dueDateId);
+            }
+        }
+        return ids;
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static String in(String column, Set<String> values, List<Object> parameters) {
+        if (values.isEmpty()) {
+            return "FALSE";
+        }
+        parameters.addAll(values);
+        return column + " IN (" + String.join(", ", Collections.nCopies(values.size(), "?")) + ")";
+    }
+
+    /**
+     * Gets the current day on this repository's clock.
+     */
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * Turns a set of statuses into the completion and date ranges they cover.
+     */
+    private String statusCondition(Set<DueDateStatus> statuses, List<Object> parameters) {
+        LocalDate today = today();
+        LocalDate dueSoonEnd = today.plusDays(DueDateStatus.DUE_SOON_DAYS);
+        List<String> alternatives = new ArrayList<>();
+        for (DueDateStatus status : statuses) {
+            switch (status) {
+                case COMPLETED:
+                    alternatives.add("completed = TRUE");
+                    break;
+                case OVERDUE:
+                    alternatives.add("(completed = FALSE AND due_date < ?)");
+                    parameters.add(today);
+                    break;
+                case DUE_SOON:
+                    alternatives.add("(completed = FALSE AND due_date BETWEEN ? AND ?)");
+                    parameters.add(today);
+                    parameters.add(dueSoonEnd);
+                    break;
+                case UPCOMING:
+                    alternatives.add("(completed = FALSE AND due_date > ?)");
+                    parameters.add(dueSoonEnd);
+                    break;
+            }
+        }
+        return alternatives.isEmpty() ? "FALSE" : "(" + String.join(" OR ", alternatives) + ")";
+    }
+
+    private static Object[] toRow(DueDateSeries series) {
+        return new Object[] {
+            series.getSeriesId(), series.getCourseId(), series.getCourseName(), series.getModuleId(),
+            series.getModuleName(), series.getAssignmentName(), series.getDescription(), series.getPriority(),
+            series.getStartDate(), series.getRule().toString(), joinDates(series)
+        };
+    }
+
+    private static String joinDates(DueDateSeries series) {
+        List<String> dates = new ArrayList<>();
+        for (LocalDate date : series.getExceptions()) {
+            dates.add(date.toString());
+        }
+        return String.join(",", dates);
+    }
+
+    private static DueDateSeries toSeries(ResultSet row) throws SQLException {
+        DueDateSeries series = new DueDateSeries(row.getString(1), row.getString(2), row.getString(3),
+            row.getString(4), row.getString(5), row.getString(6), row.getString(7), row.getString(8),
+            row.getObject(9, LocalDate.class), RecurrenceRule.parse(row.getString(10)));
+        String exceptions = row.getString(11);
+        if (exceptions != null && !exceptions.isEmpty()) {
+            for (String date : exceptions.split(",")) {
+                series.addException(LocalDate.parse(date));
+            }
+        }
+        return series;
+    }
+
+    private static Object[] toRow(DueDate dueDate) {
+        return new Object[] {
+            dueDate.getDueDateId(), dueDate.getCourseId(), dueDate.getCourseName(), dueDate.getModuleId(),
+            dueDate.getModuleName(), dueDate.getAssignmentName(), dueDate.getDescription(), dueDate.getDueDate(),
+            dueDate.isCompleted(), dueDate.getPriority()
+        };
+    }
+
+    private static DueDate toDueDate(ResultSet row) throws SQLException {
+        DueDate dueDate = new DueDate(row.getString(1), row.getString(2), row.getString(3), row.getString(6),
+            row.getString(7), row.getObject(8, LocalDate.class), row.getString(10));
+        dueDate.setModuleId(row.getString(4));
+        dueDate.setModuleName(row.getString(5));
+        dueDate.setCompleted(row.getBoolean(9));
+        return dueDate;
+    }
+
+    private void publish(ChangeEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+}
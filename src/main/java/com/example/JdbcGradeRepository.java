@@ -0,0 +1,214 @@
+package com.example;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grade storage backed by the embedded database. Averages are computed by
+ * the database from indexed rows rather than by loading the grades.
+ */
+public class JdbcGradeRepository implements GradeRepository {
+    private static final String SELECT = "SELECT grade_id, student_id, course_id, assignment_name, module_id, "
+        + "module_name, score, max_score, weight, comments, date_submitted FROM grades ";
+    private static final String MERGE = "MERGE INTO grades (grade_id, student_id, course_id, assignment_name, module_id, "
+        + "module_name, score, max_score, weight, comments, date_submitted) KEY (grade_id) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Sums matching WeightedAverage: grades with a max score of 0 are counted as invalid
+    private static final String AVERAGE_COLUMNS = "SUM(CASE WHEN max_score <> 0 THEN score / max_score * weight ELSE 0 END), "
+        + "SUM(CASE WHEN max_score <> 0 THEN weight ELSE 0 END), COUNT(*), "
+        + "SUM(CASE WHEN max_score = 0 THEN 1 ELSE 0 END) ";
+
+    private final JdbcDatabase database;
+    private final Map<String, Long> studentVersions; // Bumped on every change to a student's grades
+    private volatile GpaCalculator gpaCalculator; // Caches the results of calculateGPA, or null until first used
+    private ChangeEventBus eventBus; // Receives change events for the views, or null
+
+    /**
+     * Constructs a new JdbcGradeRepository.
+     *
+     * @param database The database to store grades in
+     */
+    public JdbcGradeRepository(JdbcDatabase database) {
+        this.database = database;
+        this.studentVersions = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void setEventBus(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public void addGrade(Grades grade) {
+        database.update(MERGE, toRow(grade));
+        touch(grade.getStudentId());
+        publish(ChangeEvent.gradeAdded(grade));
+    }
+
+    @Override
+    public void addGrades(List<Grades> grades) {
+        List<Object[]> rows = new ArrayList<>(grades.size());
+        for (Grades grade : grades) {
+            rows.add(toRow(grade));
+        }
+        database.batch(MERGE, rows);
+
+        for (Grades grade : grades) {
+            touch(grade.getStudentId());
+            publish(ChangeEvent.gradeAdded(grade));
+        }
+    }
+
+    @Override
+    public Grades getGradeById(String gradeId) {
+        return database.queryOne(SELECT + "WHERE grade_id = ?", JdbcGradeRepository::toGrade, gradeId);
+    }
+
+    @Override
+    public List<Grades> getAllGrades() {
+        return database.query(SELECT + "ORDER BY seq", JdbcGradeRepository::toGrade);
+    }
+
+    @Override
+    public boolean updateGrade(String gradeId, Grades updatedGrade) {
+        String previousStudentId = database.queryOne("SELECT student_id FROM grades WHERE grade_id = ?",
+            row -> row.getString(1), gradeId);
+        if (previousStudentId == null) {
+            return false;
+        }
+
+        database.update("UPDATE grades SET grade_id = ?, student_id = ?, course_id = ?, assignment_name = ?, "
+            + "module_id = ?, module_name = ?, score = ?, max_score = ?, weight = ?, comments = ?, date_submitted = ? "
+            + "WHERE grade_id = ?",
+            updatedGrade.getGradeId(), updatedGrade.getStudentId(), updatedGrade.getCourseId(),
+            updatedGrade.getAssignmentName(), updatedGrade.getModuleId(), updatedGrade.getModuleName(),
+            updatedGrade.getScore(), updatedGrade.getMaxScore(), updatedGrade.getWeight(), updatedGrade.getComments(),
+            updatedGrade.getDateSubmitted(), gradeId);
+        touch(previousStudentId);
+        touch(updatedGrade.getStudentId());
+        publish(ChangeEvent.gradeUpdated(gradeId, updatedGrade));
+        return true;
+    }
+
+    @Override
+    public boolean removeGrade(String gradeId) {
+        Grades removed = getGradeById(gradeId);
+        if (removed == null) {
+            return false;
+        }
+
+        database.update("DELETE FROM grades WHERE grade_id = ?", gradeId);
+        touch(removed.getStudentId());
+        publish(ChangeEvent.gradeRemoved(removed));
+        return true;
+    }
+
+    @Override
+    public List<Grades> getGradesForStudent(String studentId) {
+        return database.query(SELECT + "WHERE student_id = ? ORDER BY seq", JdbcGradeRepository::toGrade, studentId);
+    }
+
+    @Override
+    public List<Grades> getGradesForCourse(String courseId) {
+        return database.query(SELECT + "WHERE course_id = ? ORDER BY seq", JdbcGradeRepository::toGrade, courseId);
+    }
+
+    @Override
+    public List<Grades> getGradesForStudentInCourse(String studentId, String courseId) {
+        return database.query(SELECT + "WHERE student_id = ? AND course_id = ? ORDER BY seq",
+            JdbcGradeRepository::toGrade, studentId, courseId);
+    }
+
+    @Override
+    public List<Grades> getGradesForStudentInModule(String studentId, String moduleId) {
+        return database.query(SELECT + "WHERE student_id = ? AND module_id = ? ORDER BY seq",
+            JdbcGradeRepository::toGrade, studentId, moduleId);
+    }
+
+    @Override
+    public List<Grades> getGradesForAssignment(AssignmentKey key) {
+        if (key.getModuleId().isEmpty()) {
+            return database.query(SELECT + "WHERE course_id = ? AND (module_id IS NULL OR module_id = '') "
+                + "AND assignment_name = ? ORDER BY seq", JdbcGradeRepository::toGrade,
+                key.getCourseId(), key.getAssignmentName());
+        }
+        return database.query(SELECT + "WHERE course_id = ? AND module_id = ? AND assignment_name = ? ORDER BY seq",
+            JdbcGradeRepository::toGrade, key.getCourseId(), key.getModuleId(), key.getAssignmentName());
+    }
+
+    @Override
+    public boolean hasGradesForModule(String moduleId) {
+        return database.queryOne("SELECT 1 FROM grades WHERE module_id = ? FETCH FIRST ROW ONLY",
+            row -> Boolean.TRUE, moduleId) != null;
+    }
+
+    @Override
+    public double calculateCourseAverage(String studentId, String courseId) {
+        return database.queryOne("SELECT " + AVERAGE_COLUMNS + "FROM grades WHERE student_id = ? AND course_id = ?",
+            row -> toAverage(row, 1), studentId, courseId);
+    }
+
+    @Override
+    public double calculateModuleAverage(String studentId, String moduleId) {
+        return database.queryOne("SELECT " + AVERAGE_COLUMNS + "FROM grades WHERE student_id = ? AND module_id = ?",
+            row -> toAverage(row, 1), studentId, moduleId);
+    }
+
+    @Override
+    public Map<String, Double> getCourseAveragesForStudent(String studentId) {
+        Map<String, Double> result = new HashMap<>();
+        database.forEachRow("SELECT course_id, " + AVERAGE_COLUMNS + "FROM grades WHERE student_id = ? GROUP BY course_id",
+            row -> result.put(row.getString(1), toAverage(row, 2)), studentId);
+        return result;
+    }
+
+    @Override
+    public long getStudentVersion(String studentId) {
+        return studentVersions.getOrDefault(studentId, 0L);
+    }
+
+    @Override
+    public double calculateGPA(String studentId, CourseRepository courseRepository) {
+        GpaCalculator calculator = gpaCalculator;
+        if (calculator == null || !calculator.uses(courseRepository)) {
+            calculator = new GpaCalculator(this, courseRepository);
+            gpaCalculator = calculator;
+        }
+        return calculator.getStanding(studentId).getGpa();
+    }
+
+    private void touch(String studentId) {
+        studentVersions.merge(studentId, 1L, Long::sum);
+    }
+
+    private static double toAverage(ResultSet row, int firstColumn) throws SQLException {
+        return WeightedAverage.averageOf(row.getDouble(firstColumn), row.getDouble(firstColumn + 1),
+            row.getInt(firstColumn + 2), row.getInt(firstColumn + 3));
+    }
+
+    private static Object[] toRow(Grades grade) {
+        return new Object[] {
+            grade.getGradeId(), grade.getStudentId(), grade.getCourseId(), grade.getAssignmentName(),
+            grade.getModuleId(), grade.getModuleName(), grade.getScore(), grade.getMaxScore(), grade.getWeight(),
+            grade.getComments(), grade.getDateSubmitted()
+        };
+    }
+
+    private static Grades toGrade(ResultSet row) throws SQLException {
+        Grades grade = new Grades(row.getString(1), row.getString(2), row.getString(3), row.getString(4),
+            row.getString(5), row.getString(6), row.getDouble(7), row.getDouble(8), row.getDouble(9), row.getString(11));
+        grade.setComments(row.getString(10));
+        return grade;
+    }
+
+    private void publish(ChangeEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Course module storage backed by the embedded database.
+ */
+public class JdbcModuleRepository implements ModuleRepository {
+    private static final String SELECT = "SELECT module_id, course_id, module_name, module_number, description FROM modules ";
+
+    private final JdbcDatabase database;
+    private ChangeEventBus eventBus; // Receives change events for the views, or null
+
+    /**
+     * Constructs a new JdbcModuleRepository.
+     *
+     * @param database The database to store modules in
+     */
+    public JdbcModuleRepository(JdbcDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public void setEventBus(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public CourseModule addModule(CourseModule module) {
+        database.update("INSERT INTO modules (module_id, course_id, module_name, module_number, description) "
+            + "VALUES (?, ?, ?, ?, ?)",
+            module.getModuleId(), module.getCourseId(), module.getModuleName(), module.getModuleNumber(),
+            module.getDescription());
+        publish(ChangeEvent.moduleAdded(module));
+        return module;
+    }
+
+    @Override
+    public CourseModule getModuleById(String moduleId) {
+        return database.queryOne(SELECT + "WHERE module_id = ?", JdbcModuleRepository::toModule, moduleId);
+    }
+
+    @Override
+    public List<CourseModule> getAllModules() {
+        return database.query(SELECT + "ORDER BY seq", JdbcModuleRepository::toModule);
+    }
+
+    @Override
+    public List<CourseModule> getModulesForCourse(String courseId) {
+        return database.query(SELECT + "WHERE course_id = ? ORDER BY module_number, seq",
+            JdbcModuleRepository::toModule, courseId);
+    }
+
+    @Override
+    public boolean updateModule(String moduleId, CourseModule updatedModule) {
+        boolean updated = database.update("UPDATE modules SET module_id = ?, course_id = ?, module_name = ?, module_number = ?, "
+            + "description = ? WHERE module_id = ?",
+            updatedModule.getModuleId(), updatedModule.getCourseId(), updatedModule.getModuleName(),
+            updatedModule.getModuleNumber(), updatedModule.getDescription(), moduleId) > 0;
+        if (updated) {
+            publish(ChangeEvent.moduleRenamed(updatedModule));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeModule(String moduleId) {
+        CourseModule removed = getModuleById(moduleId);
+        if (removed == null) {
+            return false;
+        }
+
+        database.update("DELETE FROM modules WHERE module_id = ?", moduleId);
+        publish(ChangeEvent.moduleRemoved(removed));
+        return true;
+    }
+
+    private static CourseModule toModule(ResultSet row) throws SQLException {
+        return new CourseModule(row.getString(1), row.getString(2), row.getString(3), row.getInt(4), row.getString(5));
+    }
+
+    private void publish(ChangeEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+}
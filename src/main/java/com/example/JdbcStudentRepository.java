@@ -0,0 +1,113 @@
+package com.example;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Student storage backed by the embedded database. Enrollments are kept by
+ * {@link JdbcCourseRepository}; removing a student or changing their ID
+ * updates their enrollments to match.
+ */
+public class JdbcStudentRepository implements StudentRepository {
+    private static final String SELECT = "SELECT s.student_id, s.courses_completed, s.first_name, s.last_name, "
+        + "s.email, s.year_level FROM students s ";
+
+    private final JdbcDatabase database;
+
+    /**
+     * Constructs a new JdbcStudentRepository.
+     *
+     * @param database The database to store students in
+     */
+    public JdbcStudentRepository(JdbcDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public boolean addStudent(Student student) {
+        if (getStudentById(student.getStudentId()) != null) {
+            return false;
+        }
+
+        database.update("INSERT INTO students (student_id, courses_completed, first_name, last_name, email, year_level) "
+            + "VALUES (?, ?, ?, ?, ?, ?)",
+            student.getStudentId(), student.getCoursesCompleted(), student.getFirstName(), student.getLastName(),
+            student.getEmail(), student.getYearLevel());
+        return true;
+    }
+
+    @Override
+    public Student getStudentById(int studentId) {
+        List<Student> result = select("WHERE s.student_id = ?", studentId);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    @Override
+    public List<Student> getAllStudents() {
+        return select("ORDER BY s.seq");
+    }
+
+    @Override
+    public boolean updateStudent(int studentId, Student updatedStudent) {
+        int changed = database.update("UPDATE students SET student_id = ?, courses_completed = ?, first_name = ?, "
+            + "last_name = ?, email = ?, year_level = ? WHERE student_id = ?",
+            updatedStudent.getStudentId(), updatedStudent.getCoursesCompleted(), updatedStudent.getFirstName(),
+            updatedStudent.getLastName(), updatedStudent.getEmail(), updatedStudent.getYearLevel(), studentId);
+        if (changed == 0) {
+            return false;
+        }
+
+        database.update("UPDATE enrollments SET student_id = ? WHERE student_id = ?",
+            String.valueOf(updatedStudent.getStudentId()), String.valueOf(studentId));
+        return true;
+    }
+
+    @Override
+    public boolean removeStudent(int studentId) {
+        database.update("DELETE FROM enrollments WHERE student_id = ?", String.valueOf(studentId));
+        return database.update("DELETE FROM students WHERE student_id = ?", studentId) > 0;
+    }
+
+    @Override
+    public int getStudentCount() {
+        return database.queryOne("SELECT COUNT(*) FROM students", row -> row.getInt(1));
+    }
+
+    @Override
+    public List<Student> findStudentsByName(String searchName) {
+        String term = searchName.toLowerCase();
+        return select("WHERE LOCATE(?, LOWER(s.first_name)) > 0 OR LOCATE(?, LOWER(s.last_name)) > 0 "
+            + "OR LOCATE(?, LOWER(s.first_name || ' ' || s.last_name)) > 0 "
+            + "ORDER BY CASE WHEN LOCATE(?, LOWER(s.first_name || ' ' || s.last_name)) = 1 THEN 0 ELSE 1 END, "
+            + "s.seq", term, term, term, term);
+    }
+
+    @Override
+    public List<Student> searchStudents(String query, int limit) {
+        // Substring matches only; the database has no trigram index to find typos with
+        String term = query.trim().toLowerCase();
+        if (term.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Student> result = select("WHERE LOCATE(?, LOWER(s.first_name || ' ' || s.last_name)) > 0 "
+            + "OR LOCATE(?, LOWER(s.email)) > 0 "
+            + "ORDER BY CASE WHEN LOCATE(?, LOWER(s.first_name || ' ' || s.last_name)) = 1 THEN 0 "
+            + "WHEN LOCATE(?, LOWER(s.first_name || ' ' || s.last_name)) > 0 THEN 1 ELSE 2 END, s.seq",
+            term, term, term, term);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private List<Student> select(String clause, Object... parameters) {
+        return database.query(SELECT + clause, JdbcStudentRepository::toStudent, parameters);
+    }
+
+    private static Student toStudent(ResultSet row) throws SQLException {
+        Student student = new Student(row.getInt(1), row.getInt(2), row.getString(3), row.getString(4));
+        student.setEmail(row.getString(5));
+        student.setYearLevel(row.getInt(6));
+        return student;
+    }
+}
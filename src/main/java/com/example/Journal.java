@@ -0,0 +1,35 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * Receives every change made through the managers so it can be made durable.
+ * Entities are Student, Course, CourseModule, Grades, DueDate or DueDateSeries objects.
+ */
+public interface Journal {
+
+    /**
+     * Records that an entity was added or updated.
+     * 
+     * @param entity The entity in its current state
+     */
+    void recordSaved(Object entity);
+
+    /**
+     * Records that several entities were added or updated together.
+     * 
+     * @param entities The entities in their current state
+     */
+    default void recordAllSaved(List<?> entities) {
+        for (Object entity : entities) {
+            recordSaved(entity);
+        }
+    }
+
+    /**
+     * Records that an entity was removed.
+     * 
+     * @param entity The removed entity
+     */
+    void recordRemoved(Object entity);
+}
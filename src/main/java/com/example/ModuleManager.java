@@ -7,8 +7,10 @@ import java.util.List;
 /**
  * Manages the collection of course modules in the application.
  */
-public class ModuleManager {
+public class ModuleManager implements ModuleRepository {
     private final List<CourseModule> modules;
+    private Journal journal; // Receives every change, or null when changes are not persisted
+    private ChangeEventBus eventBus; // Receives change events for the views, or null
     
     /**
      * Creates a new ModuleManager with an empty collection of modules.
@@ -18,44 +20,36 @@ public class ModuleManager {
     }
     
     /**
-     * Adds a new module to the collection.
+     * Sets the bus that receives a change event for every change made through this manager.
      * 
-     * @param module Module to add
-     * @return The added module
+     * @param eventBus The event bus, or null to stop publishing changes
      */
-    public CourseModule addModule(CourseModule module) {
-        modules.add(module);
-        return module;
+    public synchronized void setEventBus(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
     }
     
     /**
-     * Creates a new module for a course with the next available module number.
+     * Sets the journal that records changes made through this manager.
      * 
-     * @param courseId ID of the course
-     * @param moduleName Name of the module
-     * @param description Description of the module
-     * @return The newly created module
+     * @param journal The journal, or null to stop recording changes
      */
-    public CourseModule createModuleForCourse(String courseId, String moduleName, String description) {
-        // Find the highest module number for this course
-        int highestModuleNumber = 0;
-        for (CourseModule module : getModulesForCourse(courseId)) {
-            if (module.getModuleNumber() > highestModuleNumber) {
-                highestModuleNumber = module.getModuleNumber();
-            }
+    public synchronized void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+    
+    /**
+     * Adds a new module to the collection.
+     * 
+     * @param module Module to add
+     * @return The added module
+     */
+    public synchronized CourseModule addModule(CourseModule module) {
+        modules.add(module);
+        if (journal != null) {
+            journal.recordSaved(module);
         }
-        
-        // Create new module with next number
-        int nextModuleNumber = highestModuleNumber + 1;
-        CourseModule newModule = new CourseModule(
-            courseId, 
-            moduleName != null && !moduleName.isEmpty() ? moduleName : "Module " + nextModuleNumber,
-            nextModuleNumber,
-            description != null ? description : "Content for module " + nextModuleNumber
-        );
-        
-        addModule(newModule);
-        return newModule;
+        publish(ChangeEvent.moduleAdded(module));
+        return module;
     }
     
     /**
@@ -64,7 +58,7 @@ public class ModuleManager {
      * @param moduleId ID of the module to retrieve
      * @return Module with the specified ID, or null if not found
      */
-    public CourseModule getModuleById(String moduleId) {
+    public synchronized CourseModule getModuleById(String moduleId) {
         for (CourseModule module : modules) {
             if (module.getModuleId().equals(moduleId)) {
                 return module;
@@ -78,7 +72,7 @@ public class ModuleManager {
      * 
      * @return List of all modules
      */
-    public List<CourseModule> getAllModules() {
+    public synchronized List<CourseModule> getAllModules() {
         return new ArrayList<>(modules);
     }
     
@@ -88,7 +82,7 @@ public class ModuleManager {
      * @param courseId ID of the course
      * @return List of modules for the specified course
      */
-    public List<CourseModule> getModulesForCourse(String courseId) {
+    public synchronized List<CourseModule> getModulesForCourse(String courseId) {
         List<CourseModule> result = new ArrayList<>();
         
         for (CourseModule module : modules) {
@@ -103,28 +97,6 @@ public class ModuleManager {
         return result;
     }
     
-    /**
-     * Initializes default modules for a course if none exist.
-     * Unlike the previous version, this does not create a fixed number of modules.
-     * It only creates a "General" module if no modules exist for the course.
-     * 
-     * @param courseId ID of the course
-     */
-    public void initializeModulesForCourse(String courseId) {
-        List<CourseModule> existingModules = getModulesForCourse(courseId);
-        
-        // If there are no modules, create a general module
-        if (existingModules.isEmpty()) {
-            CourseModule generalModule = new CourseModule(
-                courseId, 
-                "General", 
-                1, 
-                "General course content"
-            );
-            addModule(generalModule);
-        }
-    }
-    
     /**
      * Updates an existing module.
      * 
@@ -132,10 +104,14 @@ public class ModuleManager {
      * @param updatedModule Updated module data
      * @return true if the module was updated, false if the module was not found
      */
-    public boolean updateModule(String moduleId, CourseModule updatedModule) {
+    public synchronized boolean updateModule(String moduleId, CourseModule updatedModule) {
         for (int i = 0; i < modules.size(); i++) {
             if (modules.get(i).getModuleId().equals(moduleId)) {
                 modules.set(i, updatedModule);
+                if (journal != null) {
+                    journal.recordSaved(updatedModule);
+                }
+                publish(ChangeEvent.moduleRenamed(updatedModule));
                 return true;
             }
         }
@@ -148,39 +124,23 @@ public class ModuleManager {
      * @param moduleId ID of the module to remove
      * @return true if the module was removed, false if the module was not found
      */
-    public boolean removeModule(String moduleId) {
+    public synchronized boolean removeModule(String moduleId) {
         for (int i = 0; i < modules.size(); i++) {
             if (modules.get(i).getModuleId().equals(moduleId)) {
-                modules.remove(i);
+                CourseModule removed = modules.remove(i);
+                if (journal != null) {
+                    journal.recordRemoved(removed);
+                }
+                publish(ChangeEvent.moduleRemoved(removed));
                 return true;
             }
         }
         return false;
     }
     
-    /**
-     * Checks if a module has any grades or due dates associated with it.
-     * 
-     * @param moduleId ID of the module to check
-     * @param gradeManager Grade manager to check for grades
-     * @param dueDateManager Due date manager to check for due dates
-     * @return true if the module has associated data, false otherwise
-     */
-    public boolean moduleHasAssociatedData(String moduleId, GradeManager gradeManager, DueDateManager dueDateManager) {
-        // Check if there are any grades for this module
-        for (Grades grade : gradeManager.getAllGrades()) {
-            if (grade.getModuleId().equals(moduleId)) {
-                return true;
-            }
+    private void publish(ChangeEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
         }
-        
-        // Check if there are any due dates for this module
-        for (DueDate dueDate : dueDateManager.getAllDueDates()) {
-            if (dueDate.getModuleId().equals(moduleId)) {
-                return true;
-            }
-        }
-        
-        return false;
     }
-}
\ No newline at end of file
+}
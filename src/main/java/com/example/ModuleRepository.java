@@ -0,0 +1,120 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * Storage for course modules. {@link ModuleManager} keeps modules in memory;
+ * {@link JdbcModuleRepository} keeps them in an embedded database.
+ */
+public interface ModuleRepository {
+
+    /**
+     * Sets the bus that receives a change event for every change made through this repository.
+     * 
+     * @param eventBus The event bus, or null to stop publishing changes
+     */
+    void setEventBus(ChangeEventBus eventBus);
+
+    /**
+     * Adds a new module.
+     * 
+     * @param module Module to add
+     * @return The added module
+     */
+    CourseModule addModule(CourseModule module);
+
+    /**
+     * Retrieves a module by its unique ID.
+     * 
+     * @param moduleId ID of the module to retrieve
+     * @return Module with the specified ID, or null if not found
+     */
+    CourseModule getModuleById(String moduleId);
+
+    /**
+     * Gets a list of all modules.
+     * 
+     * @return List of all modules
+     */
+    List<CourseModule> getAllModules();
+
+    /**
+     * Gets all modules for a specific course, sorted by module number.
+     * 
+     * @param courseId ID of the course
+     * @return List of modules for the specified course
+     */
+    List<CourseModule> getModulesForCourse(String courseId);
+
+    /**
+     * Updates an existing module.
+     * 
+     * @param moduleId ID of the module to update
+     * @param updatedModule Updated module data
+     * @return true if the module was updated, false if the module was not found
+     */
+    boolean updateModule(String moduleId, CourseModule updatedModule);
+
+    /**
+     * Removes a module.
+     * 
+     * @param moduleId ID of the module to remove
+     * @return true if the module was removed, false if the module was not found
+     */
+    boolean removeModule(String moduleId);
+
+    /**
+     * Creates a new module for a course with the next available module number.
+     * 
+     * @param courseId ID of the course
+     * @param moduleName Name of the module
+     * @param description Description of the module
+     * @return The newly created module
+     */
+    default CourseModule createModuleForCourse(String courseId, String moduleName, String description) {
+        // Find the highest module number for this course
+        int highestModuleNumber = 0;
+        for (CourseModule module : getModulesForCourse(courseId)) {
+            if (module.getModuleNumber() > highestModuleNumber) {
+                highestModuleNumber = module.getModuleNumber();
+            }
+        }
+        
+        // Create new module with next number
+        int nextModuleNumber = highestModuleNumber + 1;
+        CourseModule newModule = new CourseModule(
+            courseId, 
+            moduleName != null && !moduleName.isEmpty() ? moduleName : "Module " + nextModuleNumber,
+            nextModuleNumber,
+            description != null ? description : "Content for module " + nextModuleNumber
+        );
+        
+        addModule(newModule);
+        return newModule;
+    }
+
+    /**
+     * Initializes default modules for a course if none exist.
+     * Only creates a "General" module if no modules exist for the course.
+     * 
+     * @param courseId ID of the course
+     */
+    default void initializeModulesForCourse(String courseId) {
+        if (getModulesForCourse(courseId).isEmpty()) {
+            addModule(new CourseModule(courseId, "General", 1, "General course content"));
+        }
+    }
+
+    /**
+     * Checks if a module has any grades or due dates associated with it.
+     * 
+     * @param moduleId ID of the module to check
+     * @param gradeRepository Grades to check
+     * @param dueDateRepository Due dates to check
+     * @return true if the module has associated data, false otherwise
+     */
+    default boolean moduleHasAssociatedData(String moduleId, GradeRepository gradeRepository, DueDateRepository dueDateRepository) {
+        return gradeRepository.hasGradesForModule(moduleId)
+            || !dueDateRepository.getDueDatesForModule(moduleId).isEmpty();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example;
+
+import javafx.animation.PauseTransition;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.stage.Popup;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows short notifications in the bottom right corner of the main window,
+ * such as due date reminders, without blocking the user the way an alert does.
+ *
+ * Notifications stack upwards and each one hides itself after a few seconds
+ * or when clicked. When more arrive than fit, the oldest is hidden early.
+ * All methods must be called on the JavaFX Application Thread.
+ */
+public class NotificationCenter {
+    private static final int MAX_SHOWN = 4;
+    private static final double MARGIN = 16;
+    private static final double SPACING = 8;
+    private static final Duration SHOW_TIME = Duration.seconds(10);
+
+    private final Window owner;
+    private final List<Popup> shown = new ArrayList<>(); // Oldest first
+
+    /**
+     * Creates a notification center for a window.
+     *
+     * @param owner The window the notifications appear over
+     */
+    public NotificationCenter(Window owner) {
+        this.owner = owner;
+        owner.xProperty().addListener((obs, oldVal, newVal) -> layout());
+        owner.yProperty().addListener((obs, oldVal, newVal) -> layout());
+        owner.widthProperty().addListener((obs, oldVal, newVal) -> layout());
+        owner.heightProperty().addListener((obs, oldVal, newVal) -> layout());
+    }
+
+    /**
+     * Shows a notification.
+     *
+     * @param title The first line, in bold
+     * @param message The text below it
+     */
+    public void show(String title, String message) {
+        if (!owner.isShowing()) {
+            return;
+        }
+
+        Label titleLabel = new Label(title);
+        titleLabel.getStyleClass().add("notification-title");
+        Label messageLabel = new Label(message);
+        messageLabel.setWrapText(true);
+        VBox content = new VBox(4, titleLabel, messageLabel);
+        content.getStyleClass().add("notification");
+        content.getStylesheets().add(UIHelper.STYLESHEET);
+        content.setPrefWidth(300);
+
+        Popup popup = new Popup();
+        popup.getContent().add(content);
+        content.setOnMouseClicked(e -> hide(popup));
+
+        if (shown.size() >= MAX_SHOWN) {
+            hide(shown.get(0));
+        }
+        shown.add(popup);
+        popup.show(owner);
+        layout();
+
+        PauseTransition timer = new PauseTransition(SHOW_TIME);
+        timer.setOnFinished(e -> hide(popup));
+        timer.play();
+    }
+
+    private void hide(Popup popup) {
+        if (shown.remove(popup)) {
+            popup.hide();
+            layout();
+        }
+    }
+
+    /**
+     * Stacks the notifications upwards from the bottom right corner, newest at the bottom.
+     */
+    private void layout() {
+        Rectangle2D bounds = new Rectangle2D(owner.getX(), owner.getY(), owner.getWidth(), owner.getHeight());
+        double bottom = bounds.getMaxY() - MARGIN;
+        for (int i = shown.size() - 1; i >= 0; i--) {
+            Popup popup = shown.get(i);
+            double width = popup.getWidth();
+            double height = popup.getHeight();
+            popup.setX(bounds.getMaxX() - MARGIN - width);
+            popup.setY(bottom - height);
+            bottom -= height + SPACING;
+        }
+    }
+}
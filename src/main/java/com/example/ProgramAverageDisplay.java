@@ -8,7 +8,6 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import java.util.List;
 
 /**
  * A component for displaying the program average across all courses.
@@ -52,74 +51,37 @@ public class ProgramAverageDisplay extends VBox {
     }
     
     /**
-     * Updates the display with the given student's grades.
+     * Updates the display with the given student's standing.
      * 
-     * @param gradeManager The grade manager
-     * @param studentId The student ID
+     * @param standing The student's program average and GPA, or null if no student is signed in
      */
-    public void update(GradeManager gradeManager, String studentId) {
-        if (gradeManager == null || studentId == null || studentId.isEmpty()) {
+    public void update(GpaCalculator.Standing standing) {
+        if (standing == null || !standing.hasGrades()) {
             reset();
             return;
         }
         
-        // Get all grades for the student
-        List<Grades> allGrades = gradeManager.getGradesForStudent(studentId);
+        double programAverage = standing.getAverage();
         
-        if (allGrades.isEmpty()) {
-            reset();
-            return;
-        }
-        
-        // Calculate the weighted average
-        double totalWeightedProportion = 0;
-        double totalWeight = 0;
-        double totalGradePoints = 0;
+        // Update labels
+        averageLabel.setText(String.format("%.1f%%", programAverage));
+        gpaLabel.setText(String.format("GPA: %.2f", standing.getGpa()));
         
-        for (Grades grade : allGrades) {
-            // Calculate weighted proportion
-            double proportion = grade.getScore() / grade.getMaxScore();
-            totalWeightedProportion += proportion * grade.getWeight();
-            totalWeight += grade.getWeight();
-            
-            // For GPA calculation
-            double gradePercent = proportion * 100;
-            double gradePoints = 0;
-            if (gradePercent >= 90) gradePoints = 4.0;
-            else if (gradePercent >= 80) gradePoints = 3.0;
-            else if (gradePercent >= 70) gradePoints = 2.0;
-            else if (gradePercent >= 60) gradePoints = 1.0;
-            
-            totalGradePoints += gradePoints * grade.getWeight();
-        }
-        
-        if (totalWeight > 0) {
-            // Calculate program average
-            double programAverage = (totalWeightedProportion / totalWeight) * 100;
-            double gpa = totalGradePoints / totalWeight;
-            
-            // Update labels
-            averageLabel.setText(String.format("%.1f%%", programAverage));
-            gpaLabel.setText(String.format("GPA: %.2f", gpa));
-            
-            // Update circle color based on grade
-            Color indicatorColor;
-            if (programAverage >= 90) {
-                indicatorColor = Color.web("#28a745"); // Green - A
-            } else if (programAverage >= 80) {
-                indicatorColor = Color.web("#17a2b8"); // Blue - B
-            } else if (programAverage >= 70) {
-                indicatorColor = Color.web("#ffc107"); // Yellow - C
-            } else if (programAverage >= 60) {
-                indicatorColor = Color.web("#fd7e14"); // Orange - D
-            } else {
-                indicatorColor = Color.web("#dc3545"); // Red - F
-            }
-            
-            indicatorCircle.setFill(indicatorColor);
+        // Update circle color based on grade
+        Color indicatorColor;
+        if (programAverage >= 90) {
+            indicatorColor = Color.web("#28a745"); // Green - A
+        } else if (programAverage >= 80) {
+            indicatorColor = Color.web("#17a2b8"); // Blue - B
+        } else if (programAverage >= 70) {
+            indicatorColor = Color.web("#ffc107"); // Yellow - C
+        } else if (programAverage >= 60) {
+            indicatorColor = Color.web("#fd7e14"); // Orange - D
         } else {
-            reset();
+            indicatorColor = Color.web("#dc3545"); // Red - F
         }
+        
+        indicatorCircle.setFill(indicatorColor);
     }
     
     /**
@@ -0,0 +1,304 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts entities to and from the tab-separated text records used by the
+ * journal and snapshot files.
+ *
+ * A record is "PUT", a type tag and the entity's fields, or "DEL", a type tag
+ * and the entity's ID. Tabs, newlines and backslashes inside fields are escaped
+ * and null fields are written as \N.
+ */
+public class RecordCodec {
+    public static final String PUT = "PUT";
+    public static final String DEL = "DEL";
+
+    public static final String STUDENT = "STUDENT";
+    public static final String COURSE = "COURSE";
+    public static final String MODULE = "MODULE";
+    public static final String GRADE = "GRADE";
+    public static final String DUE_DATE = "DUEDATE";
+    public static final String SERIES = "SERIES";
+
+    private static final String NULL = "\\N";
+
+    private RecordCodec() {
+    }
+
+    /**
+     * Encodes an added or updated entity as a PUT record.
+     *
+     * @param entity The entity to encode
+     * @return The encoded record
+     */
+    public static String encodePut(Object entity) {
+        List<String> fields = new ArrayList<>();
+        fields.add(PUT);
+
+        if (entity instanceof Student) {
+            Student student = (Student) entity;
+            fields.add(STUDENT);
+            fields.add(String.valueOf(student.getStudentId()));
+            fields.add(String.valueOf(student.getCoursesCompleted()));
+            fields.add(student.getFirstName());
+            fields.add(student.getLastName());
+            fields.add(student.getEmail());
+            fields.add(String.valueOf(student.getYearLevel()));
+            fields.add(""); // Enrollments are saved with the course; the field keeps the layout
+        } else if (entity instanceof Course) {
+            Course course = (Course) entity;
+            fields.add(COURSE);
+            fields.add(course.getId());
+            fields.add(course.getName());
+            fields.add(course.getCode());
+            fields.add(String.valueOf(course.getCredits()));
+            fields.add(course.getInstructor());
+            fields.add(course.getSemester());
+            fields.add(String.join(",", course.getEnrolledStudentIds()));
+        } else if (entity instanceof CourseModule) {
+            CourseModule module = (CourseModule) entity;
+            fields.add(MODULE);
+            fields.add(module.getModuleId());
+            fields.add(module.getCourseId());
+            fields.add(module.getModuleName());
+            fields.add(String.valueOf(module.getModuleNumber()));
+            fields.add(module.getDescription());
+        } else if (entity instanceof Grades) {
+            Grades grade = (Grades) entity;
+            fields.add(GRADE);
+            fields.add(grade.getGradeId());
+            fields.add(grade.getStudentId());
+            fields.add(grade.getCourseId());
+            fields.add(grade.getAssignmentName());
+            fields.add(grade.getModuleId());
+            fields.add(grade.getModuleName());
+            fields.add(String.valueOf(grade.getScore()));
+            fields.add(String.valueOf(grade.getMaxScore()));
+            fields.add(String.valueOf(grade.getWeight()));
+            fields.add(grade.getComments());
+            fields.add(grade.getDateSubmitted());
+        } else if (entity instanceof DueDate) {
+            DueDate dueDate = (DueDate) entity;
+            fields.add(DUE_DATE);
+            fields.add(dueDate.getDueDateId());
+            fields.add(dueDate.getCourseId());
+            fields.add(dueDate.getCourseName());
+            fields.add(dueDate.getModuleId());
+            fields.add(dueDate.getModuleName());
+            fields.add(dueDate.getAssignmentName());
+            fields.add(dueDate.getDescription());
+            fields.add(dueDate.getDueDate() != null ? dueDate.getDueDate().toString() : null);
+            fields.add(String.valueOf(dueDate.isCompleted()));
+            fields.add(dueDate.getPriority());
+        } else if (entity instanceof DueDateSeries) {
+            DueDateSeries series = (DueDateSeries) entity;
+            List<String> exceptions = new ArrayList<>();
+            for (LocalDate date : series.getExceptions()) {
+                exceptions.add(date.toString());
+            }
+            fields.add(SERIES);
+            fields.add(series.getSeriesId());
+            fields.add(series.getCourseId());
+            fields.add(series.getCourseName());
+            fields.add(series.getModuleId());
+            fields.add(series.getModuleName());
+            fields.add(series.getAssignmentName());
+            fields.add(series.getDescription());
+            fields.add(series.getPriority());
+            fields.add(series.getStartDate() != null ? series.getStartDate().toString() : null);
+            fields.add(series.getRule().toString());
+            fields.add(String.join(",", exceptions));
+        } else {
+            throw new IllegalArgumentException("Unsupported entity type: " + entity.getClass().getName());
+        }
+
+        return join(fields);
+    }
+
+    /**
+     * Encodes a removed entity as a DEL record.
+     *
+     * @param entity The removed entity
+     * @return The encoded record
+     */
+    public static String encodeDelete(Object entity) {
+        List<String> fields = new ArrayList<>();
+        fields.add(DEL);
+        fields.add(typeOf(entity));
+        fields.add(idOf(entity));
+        return join(fields);
+    }
+
+    /**
+     * Returns the type tag used for an entity.
+     *
+     * @param entity The entity
+     * @return The type tag
+     */
+    public static String typeOf(Object entity) {
+        if (entity instanceof Student) return STUDENT;
+        if (entity instanceof Course) return COURSE;
+        if (entity instanceof CourseModule) return MODULE;
+        if (entity instanceof Grades) return GRADE;
+        if (entity instanceof DueDate) return DUE_DATE;
+        if (entity instanceof DueDateSeries) return SERIES;
+        throw new IllegalArgumentException("Unsupported entity type: " + entity.getClass().getName());
+    }
+
+    /**
+     * Returns the ID of an entity as a string.
+     *
+     * @param entity The entity
+     * @return The entity's ID
+     */
+    public static String idOf(Object entity) {
+        if (entity instanceof Student) return String.valueOf(((Student) entity).getStudentId());
+        if (entity instanceof Course) return ((Course) entity).getId();
+        if (entity instanceof CourseModule) return ((CourseModule) entity).getModuleId();
+        if (entity instanceof Grades) return ((Grades) entity).getGradeId();
+        if (entity instanceof DueDate) return ((DueDate) entity).getDueDateId();
+        if (entity instanceof DueDateSeries) return ((DueDateSeries) entity).getSeriesId();
+        throw new IllegalArgumentException("Unsupported entity type: " + entity.getClass().getName());
+    }
+
+    /**
+     * Decodes the entity in a PUT record.
+     *
+     * @param fields The record's fields, as returned by {@link #split(String)}
+     * @return The decoded entity
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public static Object decodeEntity(String[] fields) {
+        try {
+            switch (fields[1]) {
+                case STUDENT: {
+                    Student student = new Student(Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), fields[4], fields[5]);
+                    student.setEmail(fields[6]);
+                    student.setYearLevel(Integer.parseInt(fields[7]));
+                    return student;
+                }
+                case COURSE: {
+                    Course course = new Course(fields[2], fields[3], fields[4], Integer.parseInt(fields[5]), fields[6], fields[7]);
+                    for (String studentId : splitList(fields[8])) {
+                        course.enrollStudent(studentId);
+                    }
+                    return course;
+                }
+                case MODULE:
+                    return new CourseModule(fields[2], fields[3], fields[4], Integer.parseInt(fields[5]), fields[6]);
+                case GRADE: {
+                    Grades grade = new Grades(fields[2], fields[3], fields[4], fields[5], fields[6], fields[7],
+                        Double.parseDouble(fields[8]), Double.parseDouble(fields[9]), Double.parseDouble(fields[10]), fields[12]);
+                    grade.setComments(fields[11]);
+                    return grade;
+                }
+                case DUE_DATE: {
+                    DueDate dueDate = new DueDate(fields[2], fields[3], fields[4], fields[7], fields[8],
+                        fields[9] != null ? LocalDate.parse(fields[9]) : null, fields[11]);
+                    dueDate.setModuleId(fields[5]);
+                    dueDate.setModuleName(fields[6]);
+                    dueDate.setCompleted(Boolean.parseBoolean(fields[10]));
+                    return dueDate;
+                }
+                case SERIES: {
+                    DueDateSeries series = new DueDateSeries(fields[2], fields[3], fields[4], fields[5], fields[6],
+                        fields[7], fields[8], fields[9], fields[10] != null ? LocalDate.parse(fields[10]) : null,
+                        RecurrenceRule.parse(fields[11]));
+                    for (String date : splitList(fields[12])) {
+                        series.addException(LocalDate.parse(date));
+                    }
+                    return series;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown record type: " + fields[1]);
+            }
+        } catch (ArrayIndexOutOfBoundsException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed record", e);
+        }
+    }
+
+    /**
+     * Joins fields into a single escaped line.
+     *
+     * @param fields The fields to join
+     * @return The encoded line, without a trailing newline
+     */
+    public static String join(List<String> fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            escape(fields.get(i), line);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Splits an encoded line back into unescaped fields.
+     *
+     * @param line The encoded line
+     * @return The decoded fields
+     */
+    public static String[] split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isNull = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(isNull ? null : field.toString());
+                field.setLength(0);
+                isNull = false;
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                switch (next) {
+                    case 't': field.append('\t'); break;
+                    case 'n': field.append('\n'); break;
+                    case 'r': field.append('\r'); break;
+                    case 'N': isNull = true; break;
+                    default: field.append(next); break;
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(isNull ? null : field.toString());
+
+        return fields.toArray(new String[0]);
+    }
+
+    private static void escape(String value, StringBuilder out) {
+        if (value == null) {
+            out.append(NULL);
+            return;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\t': out.append("\\t"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\\': out.append("\\\\"); break;
+                default: out.append(c); break;
+            }
+        }
+    }
+
+    private static List<String> splitList(String value) {
+        List<String> items = new ArrayList<>();
+        if (value == null || value.isEmpty()) {
+            return items;
+        }
+
+        for (String item : value.split(",")) {
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,312 @@
+package com.example;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * How often a {@link DueDateSeries} repeats: on some days of the week, every
+ * week or every few weeks, until a date or for a number of occurrences.
+ *
+ * Occurrences are never stored; {@link #getOccurrences(LocalDate, LocalDate, LocalDate)}
+ * works out the ones inside a window of dates, jumping straight to the first
+ * week of the window, so the cost follows the window rather than the length
+ * of the series. Weeks start on Monday.
+ *
+ * A rule is written as text in the form of an iCalendar RRULE, such as
+ * "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=10".
+ */
+public class RecurrenceRule {
+    private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"}; // By DayOfWeek ordinal
+
+    private final int interval; // Weeks between repeats, 1 for weekly
+    private final Set<DayOfWeek> days;
+    private final LocalDate until; // Last day an occurrence may fall on, or null
+    private final int count; // Number of occurrences, or 0 when ended by a date
+
+    /**
+     * Creates a rule.
+     *
+     * @param interval Weeks between repeats: 1 for weekly, 2 for every other week
+     * @param days Days of the week the series falls on
+     * @param until Last day an occurrence may fall on, or null to end after a count
+     * @param count Number of occurrences, or 0 to end on the until date
+     * @throws IllegalArgumentException if no days are given, the interval is not
+     *         positive, or not exactly one of until and count is set
+     */
+    public RecurrenceRule(int interval, Set<DayOfWeek> days, LocalDate until, int count) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be at least one week: " + interval);
+        }
+        if (days == null || days.isEmpty()) {
+            throw new IllegalArgumentException("A recurrence needs at least one day of the week");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        }
+        if ((until == null) == (count == 0)) {
+            throw new IllegalArgumentException("A recurrence must end either on a date or after a count");
+        }
+        this.interval = interval;
+        this.days = Collections.unmodifiableSet(EnumSet.copyOf(days));
+        this.until = until;
+        this.count = count;
+    }
+
+    /**
+     * Parses a rule written by {@link #toString()}.
+     *
+     * @param text The rule, such as "FREQ=WEEKLY;BYDAY=TU;UNTIL=20261215"
+     * @return The rule
+     * @throws IllegalArgumentException if the text is not a weekly rule this class can represent
+     */
+    public static RecurrenceRule parse(String text) {
+        int interval = 1;
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        LocalDate until = null;
+        int count = 0;
+        boolean weekly = false;
+
+        try {
+            for (String part : text.split(";")) {
+                int equals = part.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Malformed recurrence part: " + part);
+                }
+                String name = part.substring(0, equals).trim().toUpperCase();
+                String value = part.substring(equals + 1).trim().toUpperCase();
+                switch (name) {
+                    case "FREQ":
+                        weekly = value.equals("WEEKLY");
+                        break;
+                    case "INTERVAL":
+                        interval = Integer.parseInt(value);
+                        break;
+                    case "BYDAY":
+                        for (String code : value.split(",")) {
+                            days.add(dayOf(code));
+                        }
+                        break;
+                    case "UNTIL":
+                        // Only the date matters; a time part such as T235959Z is dropped
+                        until = LocalDate.parse(value.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+                        break;
+                    case "COUNT":
+                        count = Integer.parseInt(value);
+                        break;
+                    case "WKST":
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unsupported recurrence part: " + name);
+                }
+            }
+        } catch (NumberFormatException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed recurrence rule: " + text, e);
+        }
+
+        if (!weekly) {
+            throw new IllegalArgumentException("Only weekly recurrences are supported: " + text);
+        }
+        return new RecurrenceRule(interval, days, until, count);
+    }
+
+    /**
+     * Works out the occurrences of a series within a window of dates.
+     *
+     * @param start First date of the series; occurrences before it are skipped
+     * @param from First date of the window
+     * @param to Last date of the window
+     * @return The occurrence dates in the window, in order
+     */
+    public List<LocalDate> getOccurrences(LocalDate start, LocalDate from, LocalDate to) {
+        List<LocalDate> occurrences = new ArrayList<>();
+        if (until != null && until.isBefore(to)) {
+            to = until;
+        }
+        if (from.isBefore(start)) {
+            from = start;
+        }
+        if (to.isBefore(from)) {
+            return occurrences;
+        }
+
+        LocalDate firstWeek = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        int firstWeekCount = firstWeekCount(firstWeek, start);
+
+        // Skip to the first repeating week that reaches the window, counting the occurrences passed
+        long weeksToWindow = ChronoUnit.WEEKS.between(firstWeek, from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+        long week = (weeksToWindow + interval - 1) / interval * interval;
+        long index = week == 0 ? 0 : firstWeekCount + (week / interval - 1) * days.size();
+
+        for (; ; week += interval) {
+            LocalDate monday = firstWeek.plusWeeks(week);
+            if (monday.isAfter(to)) {
+                return occurrences;
+            }
+            for (DayOfWeek day : days) {
+                LocalDate date = monday.plusDays(day.ordinal());
+                if (date.isBefore(start)) {
+                    continue;
+                }
+                if ((count > 0 && index >= count) || date.isAfter(to)) {
+                    return occurrences;
+                }
+                index++;
+                if (!date.isBefore(from)) {
+                    occurrences.add(date);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the last occurrence of a series.
+     *
+     * @param start First date of the series
+     * @return The date of the last occurrence, or null if the series has none
+     */
+    public LocalDate getLastOccurrence(LocalDate start) {
+        if (until == null) {
+            // Locate occurrence number count - 1 directly
+            LocalDate firstWeek = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            int firstWeekCount = firstWeekCount(firstWeek, start);
+            List<DayOfWeek> weekDays = new ArrayList<>(days);
+            if (count <= firstWeekCount) {
+                return firstWeek.plusDays(weekDays.get(days.size() - firstWeekCount + count - 1).ordinal());
+            }
+            int remaining = count - firstWeekCount - 1;
+            long week = (long) (remaining / days.size() + 1) * interval;
+            return firstWeek.plusWeeks(week).plusDays(weekDays.get(remaining % days.size()).ordinal());
+        }
+
+        // The last repeating week before the end starts less than interval + 1 weeks before it
+        List<LocalDate> lastOccurrences = getOccurrences(start, until.minusWeeks(interval + 1L), until);
+        return lastOccurrences.isEmpty() ? null : lastOccurrences.get(lastOccurrences.size() - 1);
+    }
+
+    /**
+     * Counts the occurrences in the first week, which may begin after its Monday.
+     */
+    private int firstWeekCount(LocalDate firstWeek, LocalDate start) {
+        int firstWeekCount = 0;
+        for (DayOfWeek day : days) {
+            if (!firstWeek.plusDays(day.ordinal()).isBefore(start)) {
+                firstWeekCount++;
+            }
+        }
+        return firstWeekCount;
+    }
+    /**
+     * Gets the number of weeks between repeats.
+     *
+     * @return 1 for weekly, 2 for every other week, and so on
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Gets the days of the week the series falls on.
+     *
+     * @return Days of the week, in order from Monday
+     */
+    public Set<DayOfWeek> getDays() {
+        return days;
+    }
+
+    /**
+     * Gets the last day an occurrence may fall on.
+     *
+     * @return The end date, or null if the series ends after a count
+     */
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    /**
+     * Gets the number of occurrences.
+     *
+     * @return The count, or 0 if the series ends on a date
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Describes the rule for display, such as "Every 2 weeks on Mon, Wed, 10 times".
+     *
+     * @return A short description
+     */
+    public String getDescription() {
+        StringBuilder description = new StringBuilder(interval == 1 ? "Weekly" : "Every " + interval + " weeks");
+        description.append(" on ");
+        List<String> names = new ArrayList<>();
+        for (DayOfWeek day : days) {
+            String name = day.name();
+            names.add(name.charAt(0) + name.substring(1, 3).toLowerCase());
+        }
+        description.append(String.join(", ", names));
+        if (until != null) {
+            description.append(" until ").append(until);
+        } else {
+            description.append(", ").append(count).append(count == 1 ? " time" : " times");
+        }
+        return description.toString();
+    }
+
+    private static DayOfWeek dayOf(String code) {
+        for (int i = 0; i < DAY_CODES.length; i++) {
+            if (DAY_CODES[i].equals(code.trim())) {
+                return DayOfWeek.values()[i];
+            }
+        }
+        throw new IllegalArgumentException("Unknown day of the week: " + code);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof RecurrenceRule)) {
+            return false;
+        }
+        RecurrenceRule rule = (RecurrenceRule) other;
+        return interval == rule.interval && count == rule.count && days.equals(rule.days)
+            && (until == null ? rule.until == null : until.equals(rule.until));
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    /**
+     * Writes the rule as iCalendar RRULE text, readable by {@link #parse(String)}.
+     *
+     * @return The rule text
+     */
+    @Override
+    public String toString() {
+        List<String> codes = new ArrayList<>();
+        for (DayOfWeek day : days) {
+            codes.add(DAY_CODES[day.ordinal()]);
+        }
+        StringBuilder text = new StringBuilder("FREQ=WEEKLY");
+        if (interval != 1) {
+            text.append(";INTERVAL=").append(interval);
+        }
+        text.append(";BYDAY=").append(String.join(",", codes));
+        if (until != null) {
+            text.append(";UNTIL=").append(until.format(DateTimeFormatter.BASIC_ISO_DATE));
+        } else {
+            text.append(";COUNT=").append(count);
+        }
+        return text.toString();
+    }
+}
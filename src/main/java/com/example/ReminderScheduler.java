@@ -0,0 +1,558 @@
+package com.example;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Sends reminders a set time before each open due date, such as three days,
+ * one day and two hours before it is due.
+ *
+ * Reminders wait in a hashed timing wheel: a ring of buckets, one per tick,
+ * that a single timer thread walks one bucket per tick. A reminder goes into
+ * the bucket of the tick it is due on and fires when the walk reaches that
+ * bucket on the right lap. Each bucket is a doubly linked list and each due
+ * date keeps its reminders, so cancelling or moving a due date's reminders
+ * touches only those entries, however many are waiting. No timer is created
+ * per reminder.
+ *
+ * The scheduler follows the change events of the due date repository:
+ * moving a due date reschedules its reminders, and completing or removing it
+ * cancels them. Occurrences of repeating due dates are scheduled for the next
+ * few days only, up to the longest lead time, and the window moves on as the
+ * days pass. Reminders whose time has already passed when a due date is
+ * scheduled are skipped.
+ *
+ * Due dates have no time of day, so each is taken to be due at a configurable
+ * time, 23:59 unless set otherwise.
+ *
+ * The repository is never read while the scheduler is locked. The repository
+ * publishes its changes while holding its own lock, so reading it under the
+ * scheduler's lock could deadlock with a change being handled; reads happen
+ * first and the scheduler locks only to update the wheel.
+ */
+public class ReminderScheduler {
+    /**
+     * Lead times used when none are configured.
+     */
+    public static final String DEFAULT_LEAD_TIMES = "3d,1d,2h";
+
+    private static final long DEFAULT_TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 1024; // Buckets; a power of two
+    private static final LocalTime DEFAULT_DEADLINE_TIME = LocalTime.of(23, 59);
+
+    private final Clock clock;
+    private final DueDateRepository dueDateRepository;
+    private final List<Duration> leadTimes; // Longest first
+    private final LocalTime deadlineTime;
+    private final long tickMillis;
+    private final Reminder[] wheel = new Reminder[WHEEL_SIZE]; // Head of each bucket's list
+    private final Map<String, Reminder[]> remindersById = new HashMap<>(); // Due date ID -> pending reminders
+    private final Map<String, Set<String>> occurrenceIdsBySeries = new HashMap<>(); // Occurrences scheduled from series
+    private final ScheduledExecutorService ticker;
+    private final long startMillis; // Clock time of tick 0
+    private long currentTick; // Next tick to process
+    private LocalDate today;
+    private LocalDate horizonEnd; // Last date whose series occurrences are scheduled
+    private int pendingCount;
+    private Consumer<Reminder> listener; // Receives each reminder as it fires, or null
+
+    /**
+     * Creates a scheduler with the default lead times and deadline time.
+     *
+     * @param clock The clock that decides when reminders fire
+     * @param dueDateRepository The due dates to remind about
+     */
+    public ReminderScheduler(Clock clock, DueDateRepository dueDateRepository) {
+        this(clock, dueDateRepository, parseLeadTimes(DEFAULT_LEAD_TIMES), DEFAULT_DEADLINE_TIME, DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param clock The clock that decides when reminders fire
+     * @param dueDateRepository The due dates to remind about
+     * @param leadTimes How long before a deadline to send each reminder
+     * @param deadlineTime The time of day a due date is due
+     * @param tickMillis Length of one tick; reminders fire at most this late
+     */
+    public ReminderScheduler(Clock clock, DueDateRepository dueDateRepository, List<Duration> leadTimes,
+                             LocalTime deadlineTime, long tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be positive: " + tickMillis);
+        }
+        this.clock = clock;
+        this.dueDateRepository = dueDateRepository;
+        this.leadTimes = new ArrayList<>(leadTimes);
+        this.leadTimes.sort(Collections.reverseOrder());
+        this.deadlineTime = deadlineTime;
+        this.tickMillis = tickMillis;
+        this.startMillis = clock.millis();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "due-date-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Parses lead times written as a comma-separated list of numbers with a
+     * unit: d for days, h for hours or m for minutes, e.g. "3d,1d,2h".
+     *
+     * @param text The lead times
+     * @return The lead times, in the order written
+     * @throws IllegalArgumentException if an entry cannot be read or is not positive
+     */
+    public static List<Duration> parseLeadTimes(String text) {
+        List<Duration> leadTimes = new ArrayList<>();
+        for (String entry : text.split(",")) {
+            String value = entry.trim().toLowerCase();
+            if (value.isEmpty()) {
+                continue;
+            }
+            long amount;
+            try {
+                amount = Long.parseLong(value.substring(0, value.length() - 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid reminder lead time: " + entry.trim());
+            }
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Reminder lead time must be positive: " + entry.trim());
+            }
+            switch (value.charAt(value.length() - 1)) {
+                case 'd':
+                    leadTimes.add(Duration.ofDays(amount));
+                    break;
+                case 'h':
+                    leadTimes.add(Duration.ofHours(amount));
+                    break;
+                case 'm':
+                    leadTimes.add(Duration.ofMinutes(amount));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid reminder lead time unit (use d, h or m): " + entry.trim());
+            }
+        }
+        return leadTimes;
+    }
+
+    /**
+     * Sets what receives reminders. It is called on the scheduler's thread.
+     *
+     * @param listener Receives each reminder as it fires, or null to drop them
+     */
+    public synchronized void setListener(Consumer<Reminder> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Schedules the reminders of every open due date and starts the timer.
+     * Call it once the due dates have been loaded.
+     */
+    public void start() {
+        LocalDate day = LocalDate.now(clock);
+        LocalDate end = day.plusDays(horizonDays());
+        DueDateQuery query = new DueDateQuery();
+        query.setCompleted(false);
+        query.setDateRange(day, null);
+        List<DueDate> dueDates = dueDateRepository.findDueDates(query, null);
+        List<DueDate> occurrences = findOccurrences(day, end);
+
+        synchronized (this) {
+            today = day;
+            horizonEnd = end;
+            for (DueDate dueDate : dueDates) {
+                schedule(dueDate);
+            }
+            for (DueDate occurrence : occurrences) {
+                scheduleOccurrence(occurrence);
+            }
+        }
+
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                System.out.println("Error sending due date reminders: " + e.getMessage());
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the timer. Pending reminders are dropped.
+     */
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Updates the reminders of a due date or series that changed. Subscribe
+     * this to the event bus of the due date repository.
+     *
+     * @param event The change
+     */
+    public void handleChange(ChangeEvent event) {
+        if (event.getType() == ChangeEvent.Type.DUE_DATE_SERIES_CHANGED) {
+            handleSeriesChange(event);
+            return;
+        }
+        synchronized (this) {
+            if (today == null) {
+                return; // Not started
+            }
+            if (event.getType() == ChangeEvent.Type.DUE_DATES_ADDED) {
+                for (DueDate dueDate : event.getDueDates()) {
+                    scheduleStored(dueDate);
+                }
+            } else if (event.getType() == ChangeEvent.Type.DUE_DATE_CHANGED) {
+                DueDate dueDate = event.getDueDate();
+                if (event.getPreviousId() != null && !event.getPreviousId().equals(dueDate.getDueDateId())) {
+                    cancel(event.getPreviousId());
+                }
+                if (event.isRemoved()) {
+                    cancel(dueDate.getDueDateId());
+                } else {
+                    scheduleStored(dueDate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Schedules a due date that was stored. A stored override replaces the
+     * occurrence its series scheduled. Called with the scheduler locked.
+     */
+    private void scheduleStored(DueDate dueDate) {
+        String seriesId = dueDate.getSeriesId();
+        if (seriesId != null && occurrenceIdsBySeries.containsKey(seriesId)) {
+            occurrenceIdsBySeries.get(seriesId).remove(dueDate.getDueDateId());
+        }
+        schedule(dueDate);
+    }
+
+    /**
+     * Reschedules the occurrences of a series that changed. The occurrences
+     * that have a stored override are looked up before the scheduler locks.
+     */
+    private void handleSeriesChange(ChangeEvent event) {
+        LocalDate from;
+        LocalDate to;
+        synchronized (this) {
+            if (today == null) {
+                return; // Not started
+            }
+            from = today;
+            to = horizonEnd;
+        }
+
+        DueDateSeries series = event.getSeries();
+        List<DueDate> occurrences = new ArrayList<>();
+        if (!event.isRemoved()) {
+            for (DueDate occurrence : series.getOccurrences(from, to)) {
+                if (dueDateRepository.getDueDateById(occurrence.getDueDateId()) == null) {
+                    occurrences.add(occurrence);
+                }
+            }
+        }
+
+        synchronized (this) {
+            Set<String> occurrenceIds = occurrenceIdsBySeries.remove(series.getSeriesId());
+            if (occurrenceIds != null) {
+                for (String occurrenceId : occurrenceIds) {
+                    cancel(occurrenceId);
+                }
+            }
+            for (DueDate occurrence : occurrences) {
+                scheduleOccurrence(occurrence);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of reminders waiting to fire.
+     *
+     * @return Number of pending reminders
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Processes the ticks that have passed and sends the reminders that are due.
+     * The timer calls this once per tick; it is public so that a test can
+     * drive the scheduler with its own clock.
+     */
+    public void tick() {
+        // Occurrences entering the window on a new day are read before locking
+        LocalDate day = LocalDate.now(clock);
+        LocalDate windowStart = null;
+        LocalDate newHorizonEnd = day.plusDays(horizonDays());
+        synchronized (this) {
+            if (today != null && !day.equals(today) && newHorizonEnd.isAfter(horizonEnd)) {
+                windowStart = horizonEnd.plusDays(1);
+            }
+        }
+        List<DueDate> occurrences = windowStart != null ? findOccurrences(windowStart, newHorizonEnd) : null;
+
+        List<Reminder> due = new ArrayList<>();
+        Consumer<Reminder> target;
+        synchronized (this) {
+            if (today != null && !day.equals(today)) {
+                // Move the window of scheduled occurrences on to the new day, unless another tick already has
+                if (occurrences != null && windowStart.equals(horizonEnd.plusDays(1))) {
+                    for (DueDate occurrence : occurrences) {
+                        scheduleOccurrence(occurrence);
+                    }
+                    horizonEnd = newHorizonEnd;
+                }
+                today = day;
+            }
+
+            long nowTick = tickOf(clock.millis());
+            if (nowTick - currentTick >= WHEEL_SIZE) {
+                // After a long pause, such as the computer sleeping, one pass over every bucket is enough
+                for (int i = 0; i < WHEEL_SIZE; i++) {
+                    expire(i, nowTick, due);
+                }
+                currentTick = nowTick + 1;
+            } else {
+                for (; currentTick <= nowTick; currentTick++) {
+                    expire((int) (currentTick & (WHEEL_SIZE - 1)), currentTick, due);
+                }
+            }
+            target = listener;
+        }
+
+        // Deliver outside the lock so a slow listener does not hold up changes
+        if (target != null) {
+            for (Reminder reminder : due) {
+                target.accept(reminder);
+            }
+        }
+    }
+
+    /**
+     * Schedules the reminders of a due date, replacing any it had.
+     */
+    private void schedule(DueDate dueDate) {
+        cancel(dueDate.getDueDateId());
+        if (dueDate.isCompleted() || dueDate.getDueDate() == null) {
+            return;
+        }
+
+        LocalDateTime deadline = dueDate.getDueDate().atTime(deadlineTime);
+        long deadlineMillis = deadline.atZone(clock.getZone()).toInstant().toEpochMilli();
+        long now = clock.millis();
+        List<Reminder> reminders = new ArrayList<>(leadTimes.size());
+        for (Duration leadTime : leadTimes) {
+            long fireMillis = deadlineMillis - leadTime.toMillis();
+            if (fireMillis < now) {
+                continue; // Already past
+            }
+            Reminder reminder = new Reminder(dueDate, leadTime, deadline, Math.max(tickOf(fireMillis), currentTick));
+            insert(reminder);
+            reminders.add(reminder);
+        }
+        if (!reminders.isEmpty()) {
+            remindersById.put(dueDate.getDueDateId(), reminders.toArray(new Reminder[0]));
+        }
+    }
+
+    private void scheduleOccurrence(DueDate occurrence) {
+        schedule(occurrence);
+        occurrenceIdsBySeries.computeIfAbsent(occurrence.getSeriesId(), k -> new HashSet<>())
+            .add(occurrence.getDueDateId());
+    }
+
+    /**
+     * Reads the occurrences of every series that fall in a range of dates.
+     * Called without holding the scheduler's lock.
+     */
+    private List<DueDate> findOccurrences(LocalDate from, LocalDate to) {
+        DueDateQuery query = new DueDateQuery();
+        query.setDateRange(from, to);
+        return dueDateRepository.findOccurrences(query, null);
+    }
+
+    /**
+     * Cancels the pending reminders of a due date.
+     */
+    private void cancel(String dueDateId) {
+        Reminder[] reminders = remindersById.remove(dueDateId);
+        if (reminders != null) {
+            for (Reminder reminder : reminders) {
+                unlink(reminder);
+            }
+        }
+    }
+
+    /**
+     * Removes the reminders of one bucket that are due by a tick and adds them to a list.
+     */
+    private void expire(int bucket, long tick, List<Reminder> due) {
+        Reminder reminder = wheel[bucket];
+        while (reminder != null) {
+            Reminder next = reminder.next;
+            if (reminder.tick <= tick) {
+                unlink(reminder);
+                forget(reminder);
+                due.add(reminder);
+            }
+            reminder = next;
+        }
+    }
+
+    /**
+     * Drops a fired reminder from its due date's pending reminders.
+     */
+    private void forget(Reminder reminder) {
+        String dueDateId = reminder.dueDate.getDueDateId();
+        Reminder[] reminders = remindersById.get(dueDateId);
+        if (reminders == null) {
+            return;
+        }
+        if (reminders.length == 1) {
+            remindersById.remove(dueDateId);
+            String seriesId = reminder.dueDate.getSeriesId();
+            if (seriesId != null && occurrenceIdsBySeries.containsKey(seriesId)) {
+                occurrenceIdsBySeries.get(seriesId).remove(dueDateId);
+            }
+            return;
+        }
+        Reminder[] remaining = new Reminder[reminders.length - 1];
+        int i = 0;
+        for (Reminder pending : reminders) {
+            if (pending != reminder && i < remaining.length) {
+                remaining[i++] = pending;
+            }
+        }
+        remindersById.put(dueDateId, remaining);
+    }
+
+    private void insert(Reminder reminder) {
+        int bucket = (int) (reminder.tick & (WHEEL_SIZE - 1));
+        reminder.bucket = bucket;
+        reminder.next = wheel[bucket];
+        if (wheel[bucket] != null) {
+            wheel[bucket].previous = reminder;
+        }
+        wheel[bucket] = reminder;
+        pendingCount++;
+    }
+
+    private void unlink(Reminder reminder) {
+        if (reminder.bucket < 0) {
+            return; // Already removed
+        }
+        if (reminder.previous != null) {
+            reminder.previous.next = reminder.next;
+        } else {
+            wheel[reminder.bucket] = reminder.next;
+        }
+        if (reminder.next != null) {
+            reminder.next.previous = reminder.previous;
+        }
+        reminder.previous = null;
+        reminder.next = null;
+        reminder.bucket = -1;
+        pendingCount--;
+    }
+
+    /**
+     * Gets the tick a clock time falls in, rounding up so reminders are never early.
+     */
+    private long tickOf(long millis) {
+        return Math.floorDiv(millis - startMillis + tickMillis - 1, tickMillis);
+    }
+
+    /**
+     * Days ahead whose occurrences need scheduling: enough to cover the longest lead time.
+     */
+    private long horizonDays() {
+        return leadTimes.isEmpty() ? 0 : leadTimes.get(0).toDays() + 1;
+    }
+
+    /**
+     * A reminder about one due date, sent a lead time before its deadline.
+     */
+    public static class Reminder {
+        private final DueDate dueDate;
+        private final Duration leadTime;
+        private final LocalDateTime deadline;
+        private final long tick; // Tick the reminder fires on
+        private Reminder previous; // Neighbours in the bucket's list
+        private Reminder next;
+        private int bucket = -1; // Bucket holding the reminder, or -1 once removed
+
+        private Reminder(DueDate dueDate, Duration leadTime, LocalDateTime deadline, long tick) {
+            this.dueDate = dueDate;
+            this.leadTime = leadTime;
+            this.deadline = deadline;
+            this.tick = tick;
+        }
+
+        /**
+         * @return The due date the reminder is about
+         */
+        public DueDate getDueDate() {
+            return dueDate;
+        }
+
+        /**
+         * @return How long before the deadline the reminder is sent
+         */
+        public Duration getLeadTime() {
+            return leadTime;
+        }
+
+        /**
+         * @return When the due date is due
+         */
+        public LocalDateTime getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Describes the reminder for display, such as "Essay (History) is due in 2 hours".
+         *
+         * @return The reminder text
+         */
+        public String getMessage() {
+            return dueDate.getAssignmentName() + " (" + dueDate.getCourseName() + ") is due in " + describe(leadTime);
+        }
+
+        private static String describe(Duration duration) {
+            long amount;
+            String unit;
+            if (duration.toDays() > 0 && duration.toHours() % 24 == 0) {
+                amount = duration.toDays();
+                unit = "day";
+            } else if (duration.toHours() > 0 && duration.toMinutes() % 60 == 0) {
+                amount = duration.toHours();
+                unit = "hour";
+            } else {
+                amount = duration.toMinutes();
+                unit = "minute";
+            }
+            return amount + " " + unit + (amount == 1 ? "" : "s");
+        }
+
+        @Override
+        public String toString() {
+            return getMessage();
+        }
+    }
+}
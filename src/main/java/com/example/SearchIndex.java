@@ -0,0 +1,528 @@
+package com.example;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A text search index over a few fields of each item, kept up to date one
+ * item at a time by {@link StudentManager} and {@link CourseManager}.
+ *
+ * Field text is normalized (lower case, accents and punctuation removed) once
+ * when an item is put, and every trigram of it is added to a posting list of
+ * the items containing that trigram. An item containing the query has all of
+ * the query's trigrams, so only the items on the shortest of their posting
+ * lists are checked against their stored text, and ranked: whole field
+ * matches first, then field prefixes, word prefixes and other substrings.
+ * When those are too few, searches also count how many of the query's
+ * trigrams each item shares and look among the items sharing the most for
+ * text within one or two typos of the query, ranked after all exact matches.
+ * Queries shorter than a trigram have no trigrams to look up: searches look at
+ * the items with a word starting with the query, which have a gram of their
+ * own, and finds check every item.
+ *
+ * Items are put under the dense int keys their manager gets from its
+ * {@link IdTable}s, and the keys serve directly as positions in the index's
+ * arrays and posting lists, so there is no map from keys to positions.
+ *
+ * The index is not thread safe; the managers call it while holding their lock.
+ *
+ * @param <T> The type of the items
+ */
+class SearchIndex<T> {
+    private static final int GRAM = 3;
+    private static final int SUBSTRING_RANK = 3; // Typo matches rank after this, by distance
+    private static final int MAX_TYPO_CHECKS = 500; // Candidates checked for typos per search, most promising first
+
+    private final Map<String, Postings> postingsByGram = new HashMap<>();
+    private final List<Object> items = new ArrayList<>(); // By doc, which is the item's key; null for unused keys
+    private final List<String[]> texts = new ArrayList<>(); // Normalized fields by doc
+    private long[] sequences = new long[16]; // Order items were first put in, by doc
+    private int[] counts = new int[0]; // Shared trigrams by doc during a query, reset after
+    private long nextSequence;
+
+    /**
+     * Adds an item, or replaces the item stored under the same key. A replaced
+     * item keeps its place among items that rank equally.
+     *
+     * @param key The key of the item, at least 0
+     * @param item The item
+     * @param fields The text to search, earlier fields ranking higher on equal matches
+     */
+    void put(int key, T item, String... fields) {
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = normalize(fields[i]);
+        }
+
+        int doc = key;
+        while (items.size() <= doc) {
+            items.add(null);
+            texts.add(null);
+        }
+        if (items.get(doc) != null) {
+            removePostings(doc);
+        } else {
+            if (doc >= sequences.length) {
+                sequences = Arrays.copyOf(sequences, Math.max(sequences.length * 2, doc + 1));
+            }
+            sequences[doc] = nextSequence++;
+        }
+        items.set(doc, item);
+        texts.set(doc, normalized);
+
+        for (String gram : grams(normalized)) {
+            postingsByGram.computeIfAbsent(gram, g -> new Postings()).add(doc);
+        }
+    }
+
+    /**
+     * Removes an item.
+     *
+     * @param key The key of the item
+     */
+    void remove(int key) {
+        if (key < items.size() && items.get(key) != null) {
+            removePostings(key);
+            items.set(key, null);
+            texts.set(key, null);
+        }
+    }
+
+    /**
+     * Finds the items with a field containing the query, best matches first.
+     *
+     * @param query The text to look for, case-insensitive
+     * @param fieldCount How many of the leading fields to look in
+     * @return The matching items; every item when the query is blank
+     */
+    List<T> find(String query, int fieldCount) {
+        return search(normalize(query), fieldCount, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the items matching a query in any field, best matches first.
+     * Queries of one or two characters only match the start of a word.
+     * When there are not enough exact matches, queries of five characters or
+     * more also match text that is one typo away, and queries of ten or more
+     * text that is two typos away; a typo is a wrong, missing, extra or
+     * swapped letter. Typo matches are looked for among the items sharing the
+     * most trigrams with the query first, stopping once there are enough.
+     *
+     * @param query The text to look for, case-insensitive
+     * @param limit The most items to return
+     * @return The best matching items; none when the query is blank
+     */
+    List<T> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (normalized.length() < GRAM) {
+            TopMatches matches = new TopMatches(limit);
+            // Too short for a trigram, and a letter or two in the middle of a word is rarely what was meant
+            Postings wordStarts = postingsByGram.get(" " + normalized);
+            for (int i = 0; wordStarts != null && i < wordStarts.size; i++) {
+                addExactMatch(matches, wordStarts.docs[i], normalized, Integer.MAX_VALUE);
+            }
+            return matches.items();
+        }
+        int maxTypos = normalized.length() >= 10 ? 2 : normalized.length() >= 5 ? 1 : 0;
+        return search(normalized, Integer.MAX_VALUE, maxTypos, limit);
+    }
+
+    private List<T> search(String query, int fieldCount, int maxTypos, int limit) {
+        TopMatches matches = new TopMatches(limit);
+        if (query.length() < GRAM) {
+            for (int doc = 0; doc < items.size(); doc++) {
+                if (items.get(doc) != null) {
+                    addExactMatch(matches, doc, query, fieldCount);
+                }
+            }
+            return matches.items();
+        }
+
+        Set<String> gramSet = new LinkedHashSet<>();
+        addGrams(gramSet, query);
+        List<Postings> queryPostings = new ArrayList<>();
+        for (String gram : gramSet) {
+            Postings postings = postingsByGram.get(gram);
+            if (postings != null) {
+                queryPostings.add(postings);
+            }
+        }
+
+        // Every item containing the query has all of its trigrams, so the rarest one's postings hold them all
+        if (queryPostings.size() == gramSet.size()) {
+            Postings rarest = queryPostings.get(0);
+            for (Postings postings : queryPostings) {
+                if (postings.size < rarest.size) {
+                    rarest = postings;
+                }
+            }
+            for (int i = 0; i < rarest.size; i++) {
+                addExactMatch(matches, rarest.docs[i], query, fieldCount);
+            }
+        }
+
+        if (maxTypos > 0 && !matches.isFull()) {
+            // A typo near the start of a short query can break all its trigrams, so the word start counts too
+            Postings wordStarts = postingsByGram.get(" " + query.substring(0, GRAM - 1));
+            if (wordStarts != null) {
+                queryPostings.add(wordStarts);
+            }
+            addTypoMatches(matches, query, gramSet.size(), queryPostings, maxTypos);
+        }
+        return matches.items();
+    }
+
+    /**
+     * Adds the items within maxTypos of the query that have no exact match,
+     * checking those that share the most trigrams with it first until the
+     * matches are full or MAX_TYPO_CHECKS have been checked.
+     *
+     * @param gramCount The number of trigrams in the query itself
+     * @param queryPostings The postings of the query's trigrams that occur, and of its word start
+     */
+    private void addTypoMatches(TopMatches matches, String query, int gramCount, List<Postings> queryPostings,
+            int maxTypos) {
+        if (counts.length < items.size()) {
+            counts = new int[Math.max(items.size(), counts.length * 2)];
+        }
+
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (Postings postings : queryPostings) {
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (counts[doc]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = doc;
+                }
+            }
+        }
+
+        // Each typo breaks at most GRAM trigrams, so a match shares at least this many with the query
+        int needed = Math.max(1, gramCount - GRAM * maxTypos);
+        int most = queryPostings.size();
+        int[] levelStarts = new int[most + 2]; // By trigrams missing, the start of those candidates
+        for (int i = 0; i < touchedCount; i++) {
+            int shared = counts[touched[i]];
+            if (shared >= needed) {
+                levelStarts[most - shared + 1]++;
+            }
+        }
+        for (int level = 1; level < levelStarts.length; level++) {
+            levelStarts[level] += levelStarts[level - 1];
+        }
+        int[] candidates = new int[levelStarts[levelStarts.length - 1]];
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            int shared = counts[doc];
+            if (shared >= needed) {
+                candidates[levelStarts[most - shared]++] = doc;
+            }
+            counts[doc] = 0;
+        }
+
+        // Candidates are now ordered by shared trigrams, most first
+        for (int i = 0; i < candidates.length && i < MAX_TYPO_CHECKS && !matches.isFull(); i++) {
+            addTypoMatch(matches, candidates[i], query, maxTypos);
+        }
+    }
+
+    private void addExactMatch(TopMatches matches, int doc, String query, int fieldCount) {
+        String[] fields = texts.get(doc);
+        int best = Integer.MAX_VALUE;
+        int bestField = 0;
+        for (int i = 0; i < fields.length && i < fieldCount; i++) {
+            int rank = exactRank(fields[i], query);
+            if (rank < best) {
+                best = rank;
+                bestField = i;
+            }
+        }
+        if (best != Integer.MAX_VALUE) {
+            matches.offer(doc, best, bestField, fields[bestField].length(), sequences[doc]);
+        }
+    }
+
+    /**
+     * Adds a doc if a field is within maxTypos of the query, unless a field
+     * matches exactly, in which case the exact search has added it already.
+     */
+    private void addTypoMatch(TopMatches matches, int doc, String query, int maxTypos) {
+        String[] fields = texts.get(doc);
+        for (String text : fields) {
+            if (text.contains(query)) {
+                return;
+            }
+        }
+
+        int best = maxTypos + 1;
+        int bestField = 0;
+        for (int i = 0; i < fields.length; i++) {
+            int typos = typos(query, fields[i], best - 1);
+            if (typos < best) {
+                best = typos;
+                bestField = i;
+            }
+        }
+        if (best <= maxTypos) {
+            matches.offer(doc, SUBSTRING_RANK + best, bestField, fields[bestField].length(), sequences[doc]);
+        }
+    }
+
+    /**
+     * Ranks an exact match: 0 for the whole field, 1 for a prefix of it,
+     * 2 for a prefix of a word in it and 3 for any other substring.
+     */
+    private static int exactRank(String text, String query) {
+        if (text.startsWith(query)) {
+            return text.length() == query.length() ? 0 : 1;
+        }
+        int index = text.indexOf(query);
+        if (index < 0) {
+            return Integer.MAX_VALUE;
+        }
+        while (index > 0) {
+            if (text.charAt(index - 1) == ' ') {
+                return 2;
+            }
+            index = text.indexOf(query, index + 1);
+        }
+        return SUBSTRING_RANK;
+    }
+
+    /**
+     * Counts the fewest typos that turn the query into a substring of the
+     * text, counting a swap of two adjacent letters as one typo.
+     *
+     * @return The number of typos, or more than maxTypos when there are more
+     */
+    static int typos(String query, String text, int maxTypos) {
+        int m = query.length();
+        int n = text.length();
+        // Row i holds the fewest typos matching query[0, i) to text ending at j; any start is free
+        int[] twoBack = new int[n + 1];
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        int previousMin = 0;
+        for (int i = 1; i <= m; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char q = query.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                char t = text.charAt(j - 1);
+                int cost = Math.min(previous[j - 1] + (q == t ? 0 : 1), Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && q == text.charAt(j - 2) && query.charAt(i - 2) == t) {
+                    cost = Math.min(cost, twoBack[j - 2] + 1);
+                }
+                current[j] = cost;
+                rowMin = Math.min(rowMin, cost);
+            }
+            // A later row is no better than this one, or than the one before plus a swap
+            if (rowMin > maxTypos && previousMin >= maxTypos) {
+                return rowMin;
+            }
+            previousMin = rowMin;
+            int[] recycled = twoBack;
+            twoBack = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        int best = m;
+        for (int j = 0; j <= n; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    /**
+     * Normalizes text for indexing and searching: lower case, accents removed,
+     * and each run of punctuation or spaces turned into a single space.
+     *
+     * @param text The text, or null
+     * @return The normalized text, empty for null
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        boolean space = true; // Drops leading spaces
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                result.append(Character.toLowerCase(c));
+                space = false;
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && !space) {
+                result.append(' ');
+                space = true;
+            }
+        }
+        if (space && result.length() > 0) {
+            result.setLength(result.length() - 1);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Gets the grams a doc is indexed under: every trigram of each field with a
+     * space added at either end, so word starts and ends have trigrams of their
+     * own, and a space and the first letter of each word for one letter queries.
+     */
+    private static Set<String> grams(String[] fields) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String field : fields) {
+            if (!field.isEmpty()) {
+                String padded = " " + field + " ";
+                addGrams(grams, padded);
+                for (int i = 0; i + 1 < padded.length(); i++) {
+                    if (padded.charAt(i) == ' ') {
+                        grams.add(padded.substring(i, i + 2));
+                    }
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static void addGrams(Set<String> grams, String text) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+    }
+
+    private void removePostings(int doc) {
+        for (String gram : grams(texts.get(doc))) {
+            Postings postings = postingsByGram.get(gram);
+            if (postings != null && postings.remove(doc) && postings.size == 0) {
+                postingsByGram.remove(gram);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(int doc) {
+        return (T) items.get(doc);
+    }
+
+    /**
+     * The docs containing one trigram, kept sorted so a doc is found by
+     * binary search. New keys are usually the highest, so most adds append.
+     */
+    private static class Postings {
+        int[] docs = new int[2];
+        int size;
+
+        void add(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            docs[index] = doc;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Keeps the best matches up to a limit, dropping the worst as better ones arrive.
+     */
+    private class TopMatches {
+        private final int limit;
+        private final PriorityQueue<Match> worstFirst = new PriorityQueue<>(Collections.reverseOrder());
+
+        TopMatches(int limit) {
+            this.limit = limit;
+        }
+
+        boolean isFull() {
+            return worstFirst.size() >= limit;
+        }
+
+        void offer(int doc, int rank, int field, int length, long sequence) {
+            if (worstFirst.size() < limit) {
+                worstFirst.add(new Match(doc, rank, field, length, sequence));
+            } else if (limit > 0 && worstFirst.peek().compareTo(rank, field, length, sequence) > 0) {
+                worstFirst.poll();
+                worstFirst.add(new Match(doc, rank, field, length, sequence));
+            }
+        }
+
+        List<T> items() {
+            List<Match> sorted = new ArrayList<>(worstFirst);
+            sorted.sort(null);
+            List<T> result = new ArrayList<>(sorted.size());
+            for (Match match : sorted) {
+                result.add(item(match.doc));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A matching doc and what it is ranked by: how it matched, then which
+     * field, then how short that field is, then the order it was first put in.
+     */
+    private static class Match implements Comparable<Match> {
+        final int doc;
+        final int rank;
+        final int field;
+        final int length;
+        final long sequence;
+
+        Match(int doc, int rank, int field, int length, long sequence) {
+            this.doc = doc;
+            this.rank = rank;
+            this.field = field;
+            this.length = length;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            return compareTo(other.rank, other.field, other.length, other.sequence);
+        }
+
+        int compareTo(int otherRank, int otherField, int otherLength, long otherSequence) {
+            if (rank != otherRank) {
+                return Integer.compare(rank, otherRank);
+            }
+            if (field != otherField) {
+                return Integer.compare(field, otherField);
+            }
+            if (length != otherLength) {
+                return Integer.compare(length, otherLength);
+            }
+            return Long.compare(sequence, otherSequence);
+        }
+    }
+}
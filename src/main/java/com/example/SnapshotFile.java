@@ -0,0 +1,454 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of every student, course, module, grade, due date and
+ * due date series.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header      magic, version, LSN, dictionary offset
+ *   sections    for each entity type: type, row count, row width, rows
+ *   dictionary  entry count, entry end offsets, UTF-8 bytes
+ * </pre>
+ * Every string is stored once in the dictionary and referenced from rows by
+ * index, so repeated course IDs, module names and dates cost four bytes each.
+ * With strings as indexes all rows of a type have the same width, which lets
+ * a mapped file be read row by row without parsing what comes before it.
+ * Dictionary strings are only decoded the first time a row uses them.
+ */
+public class SnapshotFile {
+    private static final int MAGIC = 0x47545331; // "GTS1"
+    private static final int VERSION = 3; // Version 1 was the text snapshot; version 2 had no series
+    private static final int OLDEST_READABLE_VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+    private static final int NULL_STRING = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private static final int STUDENT = 1;
+    private static final int COURSE = 2;
+    private static final int MODULE = 3;
+    private static final int GRADE = 4;
+    private static final int DUE_DATE = 5;
+    private static final int SERIES = 6;
+
+    private static final int STUDENT_ROW = 7 * 4;
+    private static final int COURSE_ROW = 7 * 4;
+    private static final int MODULE_ROW = 5 * 4;
+    private static final int GRADE_ROW = 8 * 4 + 3 * 8;
+    private static final int DUE_DATE_ROW = 8 * 4 + 8 + 1;
+    private static final int SERIES_ROW = 10 * 4 + 8;
+
+    private final MappedByteBuffer buffer;
+    private final long lsn;
+    private final int[] sectionStart = new int[SERIES + 1]; // Offset of the first row, by type
+    private final int[] sectionRows = new int[SERIES + 1];
+    private final int dictionaryCount;
+    private final int dictionaryEnds; // Offset of the entry end offsets
+    private final int dictionaryData; // Offset of the first entry's bytes
+    private final String[] strings; // Decoded dictionary entries, filled on first use
+
+    private SnapshotFile(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a snapshot file");
+        }
+        if (buffer.getInt(4) < OLDEST_READABLE_VERSION || buffer.getInt(4) > VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getInt(4));
+        }
+
+        this.lsn = buffer.getLong(8);
+        int dictionaryOffset = (int) buffer.getLong(16);
+
+        int position = HEADER_SIZE;
+        while (position < dictionaryOffset) {
+            int type = buffer.getInt(position);
+            int rows = buffer.getInt(position + 4);
+            int width = buffer.getInt(position + 8);
+            if (type < STUDENT || type > SERIES || width != rowWidth(type)) {
+                throw new IOException("Corrupt snapshot section at offset " + position);
+            }
+            sectionStart[type] = position + 12;
+            sectionRows[type] = rows;
+            position += 12 + rows * width;
+        }
+
+        this.dictionaryCount = buffer.getInt(dictionaryOffset);
+        this.dictionaryEnds = dictionaryOffset + 4;
+        this.dictionaryData = dictionaryEnds + dictionaryCount * 4;
+        this.strings = new String[dictionaryCount];
+    }
+
+    /**
+     * Maps a snapshot file and reads its header. No rows are decoded yet.
+     *
+     * @param file The snapshot file
+     * @return The opened snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static SnapshotFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new SnapshotFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated snapshot file: " + file, e);
+        }
+    }
+
+    /**
+     * Returns the LSN of the last journal record included in this snapshot.
+     *
+     * @return The snapshot LSN
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * Returns the number of grades in this snapshot.
+     *
+     * @return Grade count
+     */
+    public int getGradeCount() {
+        return sectionRows[GRADE];
+    }
+
+    /**
+     * Returns the number of due dates in this snapshot.
+     *
+     * @return Due date count
+     */
+    public int getDueDateCount() {
+        return sectionRows[DUE_DATE];
+    }
+
+    /**
+     * Decodes all students.
+     *
+     * @return The students, in the order they were written
+     */
+    public List<Student> readStudents() {
+        List<Student> students = new ArrayList<>();
+        for (int row = 0; row < sectionRows[STUDENT]; row++) {
+            int p = rowOffset(STUDENT, row);
+            Student student = new Student(buffer.getInt(p), buffer.getInt(p + 4), string(p + 8), string(p + 12));
+            student.setEmail(string(p + 16));
+            student.setYearLevel(buffer.getInt(p + 20));
+            students.add(student);
+        }
+        return students;
+    }
+
+    /**
+     * Decodes all courses.
+     *
+     * @return The courses, in the order they were written
+     */
+    public List<Course> readCourses() {
+        List<Course> courses = new ArrayList<>();
+        for (int row = 0; row < sectionRows[COURSE]; row++) {
+            int p = rowOffset(COURSE, row);
+            Course course = new Course(string(p), string(p + 4), string(p + 8), buffer.getInt(p + 12),
+                string(p + 16), string(p + 20));
+            for (String studentId : splitList(string(p + 24))) {
+                course.enrollStudent(studentId);
+            }
+            courses.add(course);
+        }
+        return courses;
+    }
+
+    /**
+     * Decodes all modules.
+     *
+     * @return The modules, in the order they were written
+     */
+    public List<CourseModule> readModules() {
+        List<CourseModule> modules = new ArrayList<>();
+        for (int row = 0; row < sectionRows[MODULE]; row++) {
+            int p = rowOffset(MODULE, row);
+            modules.add(new CourseModule(string(p), string(p + 4), string(p + 8), buffer.getInt(p + 12), string(p + 16)));
+        }
+        return modules;
+    }
+
+    /**
+     * Decodes all due date series.
+     *
+     * @return The series, in the order they were written
+     */
+    public List<DueDateSeries> readSeries() {
+        List<DueDateSeries> series = new ArrayList<>();
+        for (int row = 0; row < sectionRows[SERIES]; row++) {
+            int p = rowOffset(SERIES, row);
+            long epochDay = buffer.getLong(p + 40);
+            DueDateSeries decoded = new DueDateSeries(string(p), string(p + 4), string(p + 8), string(p + 12),
+                string(p + 16), string(p + 20), string(p + 24), string(p + 28),
+                epochDay != NULL_DATE ? LocalDate.ofEpochDay(epochDay) : null, RecurrenceRule.parse(string(p + 32)));
+            for (String date : splitList(string(p + 36))) {
+                decoded.addException(LocalDate.parse(date));
+            }
+            series.add(decoded);
+        }
+        return series;
+    }
+
+    /**
+     * Decodes a single grade.
+     *
+     * @param row Index of the grade, from 0 to {@link #getGradeCount()} - 1
+     * @return The grade
+     */
+    public Grades readGrade(int row) {
+        int p = rowOffset(GRADE, row);
+        Grades grade = new Grades(string(p), string(p + 4), string(p + 8), string(p + 12), string(p + 16),
+            string(p + 20), buffer.getDouble(p + 32), buffer.getDouble(p + 40), buffer.getDouble(p + 48),
+            string(p + 28));
+        grade.setComments(string(p + 24));
+        return grade;
+    }
+
+    /**
+     * Decodes a single due date.
+     *
+     * @param row Index of the due date, from 0 to {@link #getDueDateCount()} - 1
+     * @return The due date
+     */
+    public DueDate readDueDate(int row) {
+        int p = rowOffset(DUE_DATE, row);
+        long epochDay = buffer.getLong(p + 32);
+        DueDate dueDate = new DueDate(string(p), string(p + 4), string(p + 8), string(p + 20), string(p + 24),
+            epochDay != NULL_DATE ? LocalDate.ofEpochDay(epochDay) : null, string(p + 28));
+        dueDate.setModuleId(string(p + 12));
+        dueDate.setModuleName(string(p + 16));
+        dueDate.setCompleted(buffer.get(p + 40) != 0);
+        return dueDate;
+    }
+
+    private int rowOffset(int type, int row) {
+        if (row < 0 || row >= sectionRows[type]) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + sectionRows[type]);
+        }
+        return sectionStart[type] + row * rowWidth(type);
+    }
+
+    /**
+     * Returns the dictionary string referenced at a row position.
+     */
+    private String string(int position) {
+        int index = buffer.getInt(position);
+        if (index == NULL_STRING) {
+            return null;
+        }
+
+        String value = strings[index];
+        if (value == null) {
+            int start = index == 0 ? 0 : buffer.getInt(dictionaryEnds + (index - 1) * 4);
+            int end = buffer.getInt(dictionaryEnds + index * 4);
+            byte[] bytes = new byte[end - start];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(dictionaryData + start);
+            slice.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    private static int rowWidth(int type) {
+        switch (type) {
+            case STUDENT: return STUDENT_ROW;
+            case COURSE: return COURSE_ROW;
+            case MODULE: return MODULE_ROW;
+            case GRADE: return GRADE_ROW;
+            case DUE_DATE: return DUE_DATE_ROW;
+            case SERIES: return SERIES_ROW;
+            default: throw new IllegalArgumentException("Unknown section type: " + type);
+        }
+    }
+
+    private static List<String> splitList(String value) {
+        List<String> items = new ArrayList<>();
+        if (value == null || value.isEmpty()) {
+            return items;
+        }
+
+        for (String item : value.split(",")) {
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Encodes the given entities as a snapshot. The result does not share any
+     * state with the entities, so it can be written to disk on another thread.
+     *
+     * @param lsn LSN of the last journal record reflected in the entities
+     * @param students All students
+     * @param courses All courses
+     * @param modules All modules
+     * @param grades All grades
+     * @param dueDates All due dates
+     * @param series All due date series
+     * @return The encoded snapshot
+     */
+    public static byte[] encode(long lsn, List<Student> students, List<Course> courses, List<CourseModule> modules,
+                                List<Grades> grades, List<DueDate> dueDates, List<DueDateSeries> series) {
+        try {
+            Dictionary dictionary = new Dictionary();
+            ByteArrayOutputStream sectionBytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(sectionBytes);
+
+            writeSectionHeader(out, STUDENT, students.size());
+            for (Student student : students) {
+                out.writeInt(student.getStudentId());
+                out.writeInt(student.getCoursesCompleted());
+                out.writeInt(dictionary.indexOf(student.getFirstName()));
+                out.writeInt(dictionary.indexOf(student.getLastName()));
+                out.writeInt(dictionary.indexOf(student.getEmail()));
+                out.writeInt(student.getYearLevel());
+                out.writeInt(dictionary.indexOf("")); // Enrollments are saved with the course; the field keeps the layout
+            }
+
+            writeSectionHeader(out, COURSE, courses.size());
+            for (Course course : courses) {
+                out.writeInt(dictionary.indexOf(course.getId()));
+                out.writeInt(dictionary.indexOf(course.getName()));
+                out.writeInt(dictionary.indexOf(course.getCode()));
+                out.writeInt(course.getCredits());
+                out.writeInt(dictionary.indexOf(course.getInstructor()));
+                out.writeInt(dictionary.indexOf(course.getSemester()));
+                out.writeInt(dictionary.indexOf(String.join(",", course.getEnrolledStudentIds())));
+            }
+
+            writeSectionHeader(out, MODULE, modules.size());
+            for (CourseModule module : modules) {
+                out.writeInt(dictionary.indexOf(module.getModuleId()));
+                out.writeInt(dictionary.indexOf(module.getCourseId()));
+                out.writeInt(dictionary.indexOf(module.getModuleName()));
+                out.writeInt(module.getModuleNumber());
+                out.writeInt(dictionary.indexOf(module.getDescription()));
+            }
+
+            writeSectionHeader(out, GRADE, grades.size());
+            for (Grades grade : grades) {
+                out.writeInt(dictionary.indexOf(grade.getGradeId()));
+                out.writeInt(dictionary.indexOf(grade.getStudentId()));
+                out.writeInt(dictionary.indexOf(grade.getCourseId()));
+                out.writeInt(dictionary.indexOf(grade.getAssignmentName()));
+                out.writeInt(dictionary.indexOf(grade.getModuleId()));
+                out.writeInt(dictionary.indexOf(grade.getModuleName()));
+                out.writeInt(dictionary.indexOf(grade.getComments()));
+                out.writeInt(dictionary.indexOf(grade.getDateSubmitted()));
+                out.writeDouble(grade.getScore());
+                out.writeDouble(grade.getMaxScore());
+                out.writeDouble(grade.getWeight());
+            }
+
+            writeSectionHeader(out, DUE_DATE, dueDates.size());
+            for (DueDate dueDate : dueDates) {
+                out.writeInt(dictionary.indexOf(dueDate.getDueDateId()));
+                out.writeInt(dictionary.indexOf(dueDate.getCourseId()));
+                out.writeInt(dictionary.indexOf(dueDate.getCourseName()));
+                out.writeInt(dictionary.indexOf(dueDate.getModuleId()));
+                out.writeInt(dictionary.indexOf(dueDate.getModuleName()));
+                out.writeInt(dictionary.indexOf(dueDate.getAssignmentName()));
+                out.writeInt(dictionary.indexOf(dueDate.getDescription()));
+                out.writeInt(dictionary.indexOf(dueDate.getPriority()));
+                out.writeLong(dueDate.getDueDate() != null ? dueDate.getDueDate().toEpochDay() : NULL_DATE);
+                out.writeByte(dueDate.isCompleted() ? 1 : 0);
+            }
+
+            writeSectionHeader(out, SERIES, series.size());
+            for (DueDateSeries entry : series) {
+                List<String> exceptions = new ArrayList<>();
+                for (LocalDate date : entry.getExceptions()) {
+                    exceptions.add(date.toString());
+                }
+                out.writeInt(dictionary.indexOf(entry.getSeriesId()));
+                out.writeInt(dictionary.indexOf(entry.getCourseId()));
+                out.writeInt(dictionary.indexOf(entry.getCourseName()));
+                out.writeInt(dictionary.indexOf(entry.getModuleId()));
+                out.writeInt(dictionary.indexOf(entry.getModuleName()));
+                out.writeInt(dictionary.indexOf(entry.getAssignmentName()));
+                out.writeInt(dictionary.indexOf(entry.getDescription()));
+                out.writeInt(dictionary.indexOf(entry.getPriority()));
+                out.writeInt(dictionary.indexOf(entry.getRule().toString()));
+                out.writeInt(dictionary.indexOf(String.join(",", exceptions)));
+                out.writeLong(entry.getStartDate() != null ? entry.getStartDate().toEpochDay() : NULL_DATE);
+            }
+            out.flush();
+
+            ByteArrayOutputStream file = new ByteArrayOutputStream(HEADER_SIZE + sectionBytes.size());
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeLong(lsn);
+            header.writeLong(HEADER_SIZE + sectionBytes.size());
+            sectionBytes.writeTo(header);
+            dictionary.writeTo(header);
+            header.flush();
+
+            return file.toByteArray();
+        } catch (IOException e) {
+            // Only in-memory streams are involved
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeSectionHeader(DataOutputStream out, int type, int rows) throws IOException {
+        out.writeInt(type);
+        out.writeInt(rows);
+        out.writeInt(rowWidth(type));
+    }
+
+    /**
+     * Assigns each distinct string an index while a snapshot is encoded.
+     */
+    private static class Dictionary {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> entries = new ArrayList<>();
+
+        private int indexOf(String value) {
+            if (value == null) {
+                return NULL_STRING;
+            }
+
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = entries.size();
+                indexes.put(value, index);
+                entries.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return index;
+        }
+
+        private void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(entries.size());
+
+            int end = 0;
+            for (byte[] entry : entries) {
+                end += entry.length;
+                out.writeInt(end);
+            }
+            for (byte[] entry : entries) {
+                out.write(entry);
+            }
+        }
+    }
+}
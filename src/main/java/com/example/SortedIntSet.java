@@ -0,0 +1,79 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * A small set of ints kept in a sorted array, used by {@link DueDateManager}
+ * for the slots of the due dates on one day. A day holds a handful of due
+ * dates, so the set costs a few ints however many due dates there are in
+ * total, where a BitSet would be as long as the highest slot.
+ */
+class SortedIntSet {
+    private int[] values = new int[2];
+    private int size;
+
+    /**
+     * Adds a value.
+     *
+     * @param value The value
+     * @return true if the value was added, false if it was already there
+     */
+    boolean add(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value The value
+     * @return true if the value was removed, false if it was not there
+     */
+    boolean remove(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the number of values.
+     *
+     * @return Number of values
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Tells whether the set is empty.
+     *
+     * @return true if there are no values
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets a value by its position in ascending order.
+     *
+     * @param index Position, from 0 to size() - 1
+     * @return The value
+     */
+    int get(int index) {
+        return values[index];
+    }
+}
@@ -1,10 +1,11 @@
 package com.example;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents a student in the grade tracking application.
+ *
+ * A student's enrollments are kept by the course repository, which is the
+ * one place they are stored; use
+ * {@link CourseRepository#getCourseIdsForStudent(String)} to read them.
  */
 public class Student 
 {
@@ -15,7 +16,6 @@ public class Student
     private String fullName;
     private String email; // Added field
     private int yearLevel; // Added field
-    private List<String> enrolledCourseIds; // Added field
 
     /**
      * The constructor `Student` initializes the fields of the `Student` class with the provided values.
@@ -32,7 +32,6 @@ public class Student
         this.coursesCompleted = coursesCompleted;
         this.firstName = firstName;
         this.lastName = lastName;
-        this.enrolledCourseIds = new ArrayList<>(); // Initialize the list
     }
 
     /**
@@ -155,48 +154,4 @@ public class Student
     public void setYearLevel(int yearLevel) {
         this.yearLevel = yearLevel;
     }
-    
-    // Added methods for enrollment management
-    /**
-     * Enrolls the student in a course.
-     * 
-     * @param courseId The ID of the course to enroll in
-     * @return true if enrollment was successful, false if already enrolled
-     */
-    public boolean enrollInCourse(String courseId) {
-        if (!enrolledCourseIds.contains(courseId)) {
-            enrolledCourseIds.add(courseId);
-            return true;
-        }
-        return false;
-    }
-    
-    /**
-     * Unenrolls the student from a course.
-     * 
-     * @param courseId The ID of the course to unenroll from
-     * @return true if unenrollment was successful, false if not enrolled
-     */
-    public boolean unenrollFromCourse(String courseId) {
-        return enrolledCourseIds.remove(courseId);
-    }
-    
-    /**
-     * Checks if the student is enrolled in a course.
-     * 
-     * @param courseId The ID of the course to check
-     * @return true if enrolled, false otherwise
-     */
-    public boolean isEnrolledIn(String courseId) {
-        return enrolledCourseIds.contains(courseId);
-    }
-    
-    /**
-     * Gets the list of course IDs the student is enrolled in.
-     * 
-     * @return List of enrolled course IDs
-     */
-    public List<String> getEnrolledCourseIds() {
-        return new ArrayList<>(enrolledCourseIds);
-    }
-}
\ No newline at end of file
+}
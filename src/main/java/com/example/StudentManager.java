@@ -1,21 +1,50 @@
 package com.example;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Manages the collection of students in the application.
  * Provides methods to add, retrieve, update, and delete students.
+ * Students are kept in an {@link IntObjectHashMap} keyed by student ID, so
+ * adding, finding, updating and removing a student takes constant time while
+ * the list of all students stays in the order they were added. Names and
+ * emails are also kept in a {@link SearchIndex}, so searching them only looks
+ * at the students that share text with the query. The search index is keyed
+ * by the {@link IdTable} key of each student's ID, which the manager holds
+ * while the student is in the collection.
  */
-public class StudentManager {
+public class StudentManager implements StudentRepository {
     
-    private final List<Student> students;
+    private final IntObjectHashMap<Student> studentsById;
+    private final SearchIndex<Student> searchIndex; // Full name, then email
+    private Journal journal; // Receives every change, or null when changes are not persisted
+    private final IdTables ids; // Keys of the student IDs the search index is keyed by
     
     /**
-     * Creates a new StudentManager with an empty collection of students.
+     * Creates a new StudentManager with an empty collection of students and ID keys of its own.
      */
     public StudentManager() {
-        this.students = new ArrayList<>();
+        this(new IdTables());
+    }
+    
+    /**
+     * Creates a new StudentManager with an empty collection of students.
+     * 
+     * @param ids The ID keys shared by the managers this one is used with
+     */
+    public StudentManager(IdTables ids) {
+        this.ids = ids;
+        this.studentsById = new IntObjectHashMap<>();
+        this.searchIndex = new SearchIndex<>();
+    }
+    
+    /**
+     * Sets the journal that records changes made through this manager.
+     * 
+     * @param journal The journal, or null to stop recording changes
+     */
+    public synchronized void setJournal(Journal journal) {
+        this.journal = journal;
     }
     
     /**
@@ -24,15 +53,16 @@ public class StudentManager {
      * @param student Student to add
      * @return true if the student was added, false if a student with the same ID already exists
      */
-    public boolean addStudent(Student student) {
+    public synchronized boolean addStudent(Student student) {
         // Check if a student with the same ID already exists
-        for (Student existingStudent : students) {
-            if (existingStudent.getStudentId() == student.getStudentId()) {
-                return false;
-            }
+        if (studentsById.containsKey(student.getStudentId())) {
+            return false;
         }
         
-        students.add(student);
+        store(student);
+        if (journal != null) {
+            journal.recordSaved(student);
+        }
         return true;
     }
     
@@ -42,13 +72,8 @@ public class StudentManager {
      * @param studentId ID of the student to retrieve
      * @return Student with the specified ID, or null if not found
      */
-    public Student getStudentById(int studentId) {
-        for (Student student : students) {
-            if (student.getStudentId() == studentId) {
-                return student;
-            }
-        }
-        return null;
+    public synchronized Student getStudentById(int studentId) {
+        return studentsById.get(studentId);
     }
     
     /**
@@ -56,8 +81,8 @@ public class StudentManager {
      * 
      * @return List of all students
      */
-    public List<Student> getAllStudents() {
-        return new ArrayList<>(students); // Return a copy to prevent external modification
+    public synchronized List<Student> getAllStudents() {
+        return studentsById.values(); // A new list, so callers cannot modify the collection
     }
     
     /**
@@ -67,14 +92,24 @@ public class StudentManager {
      * @param updatedStudent Updated student data
      * @return true if the student was updated, false if the student was not found
      */
-    public boolean updateStudent(int studentId, Student updatedStudent) {
-        for (int i = 0; i < students.size(); i++) {
-            if (students.get(i).getStudentId() == studentId) {
-                students.set(i, updatedStudent);
-                return true;
+    public synchronized boolean updateStudent(int studentId, Student updatedStudent) {
+        Student existing = studentsById.get(studentId);
+        if (existing == null) {
+            return false;
+        }
+        
+        if (updatedStudent.getStudentId() != studentId) {
+            // The student ID itself changed, so the student moves to its new key
+            discard(studentId);
+            if (journal != null) {
+                journal.recordRemoved(existing);
             }
         }
-        return false;
+        store(updatedStudent);
+        if (journal != null) {
+            journal.recordSaved(updatedStudent);
+        }
+        return true;
     }
     
     /**
@@ -83,14 +118,17 @@ public class StudentManager {
      * @param studentId ID of the student to remove
      * @return true if the student was removed, false if the student was not found
      */
-    public boolean removeStudent(int studentId) {
-        for (int i = 0; i < students.size(); i++) {
-            if (students.get(i).getStudentId() == studentId) {
-                students.remove(i);
-                return true;
-            }
+    public synchronized boolean removeStudent(int studentId) {
+        Student removed = studentsById.get(studentId);
+        if (removed == null) {
+            return false;
+        }
+        
+        discard(studentId);
+        if (journal != null) {
+            journal.recordRemoved(removed);
         }
-        return false;
+        return true;
     }
     
     /**
@@ -98,28 +136,58 @@ public class StudentManager {
      * 
      * @return The number of students
      */
-    public int getStudentCount() {
-        return students.size();
+    public synchronized int getStudentCount() {
+        return studentsById.size();
     }
     
     /**
      * Finds students by name (case-insensitive partial match).
+     * Students whose name starts with the search term come first.
      * 
      * @param searchName The search term to match against student names
      * @return List of students that match the search term
      */
-    public List<Student> findStudentsByName(String searchName) {
-        String term = searchName.toLowerCase();
-        List<Student> result = new ArrayList<>();
+    public synchronized List<Student> findStudentsByName(String searchName) {
+        return searchIndex.find(searchName, 1);
+    }
+    
+    /**
+     * Searches student names and the part of their email before the domain,
+     * tolerating typos in longer queries, for search-as-you-type lookups.
+     * 
+     * @param query The text typed so far
+     * @param limit The most students to return
+     * @return The best matching students, best first
+     */
+    public synchronized List<Student> searchStudents(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+    
+    /**
+     * Puts a student in the collection and the search index, replacing any
+     * student with the same ID. The student's ID key is acquired the first
+     * time it is stored and held until it is discarded.
+     */
+    private void store(Student student) {
+        String id = String.valueOf(student.getStudentId());
+        int key = studentsById.put(student.getStudentId(), student) == null ? ids.students.acquire(id) : ids.students.find(id);
         
-        for (Student student : students) {
-            if (student.getFirstName().toLowerCase().contains(term) || 
-                student.getLastName().toLowerCase().contains(term) ||
-                student.getFullName().toLowerCase().contains(term)) {
-                result.add(student);
-            }
+        // The domain is shared by most students, so only the part before it helps tell them apart
+        String email = student.getEmail();
+        if (email != null && email.indexOf('@') >= 0) {
+            email = email.substring(0, email.indexOf('@'));
+        }
+        searchIndex.put(key, student, student.getFullName(), email);
+    }
+    
+    /**
+     * Removes a student from the collection and the search index, releasing its ID key.
+     */
+    private void discard(int studentId) {
+        if (studentsById.remove(studentId) != null) {
+            int key = ids.students.find(String.valueOf(studentId));
+            searchIndex.remove(key);
+            ids.students.release(key);
         }
-        
-        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * Storage for students. {@link StudentManager} keeps students in memory;
+ * {@link JdbcStudentRepository} keeps them in an embedded database.
+ */
+public interface StudentRepository {
+
+    /**
+     * Adds a new student.
+     * 
+     * @param student Student to add
+     * @return true if the student was added, false if a student with the same ID already exists
+     */
+    boolean addStudent(Student student);
+
+    /**
+     * Retrieves a student by their ID.
+     * 
+     * @param studentId ID of the student to retrieve
+     * @return Student with the specified ID, or null if not found
+     */
+    Student getStudentById(int studentId);
+
+    /**
+     * Gets a list of all students.
+     * 
+     * @return List of all students
+     */
+    List<Student> getAllStudents();
+
+    /**
+     * Updates an existing student.
+     * 
+     * @param studentId ID of the student to update
+     * @param updatedStudent Updated student data
+     * @return true if the student was updated, false if the student was not found
+     */
+    boolean updateStudent(int studentId, Student updatedStudent);
+
+    /**
+     * Removes a student.
+     * 
+     * @param studentId ID of the student to remove
+     * @return true if the student was removed, false if the student was not found
+     */
+    boolean removeStudent(int studentId);
+
+    /**
+     * Gets the number of students.
+     * 
+     * @return The number of students
+     */
+    int getStudentCount();
+
+    /**
+     * Finds students by name (case-insensitive partial match).
+     * Students whose name starts with the search term come first.
+     * 
+     * @param searchName The search term to match against student names
+     * @return List of students that match the search term
+     */
+    List<Student> findStudentsByName(String searchName);
+
+    /**
+     * Searches student names and emails for search-as-you-type lookups.
+     * Implementations may also match text a typo or two away from the query.
+     * 
+     * @param query The text typed so far
+     * @param limit The most students to return
+     * @return The best matching students, best first
+     */
+    List<Student> searchStudents(String query, int limit);
+}
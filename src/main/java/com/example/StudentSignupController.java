@@ -16,7 +16,7 @@ import javafx.scene.text.FontWeight;
  * Controller for the student sign-up view.
  */
 public class StudentSignupController {
-    private StudentManager studentManager;
+    private StudentRepository studentManager;
     private GradeController gradeController;
     private CourseController courseController;
     private DueDateController dueDateController;
@@ -34,7 +34,7 @@ public class StudentSignupController {
      * 
      * @param studentManager The student manager
      */
-    public StudentSignupController(StudentManager studentManager) {
+    public StudentSignupController(StudentRepository studentManager) {
         this.studentManager = studentManager;
     }
     
@@ -199,37 +199,19 @@ public class StudentSignupController {
             
             // Add student to manager
             if (studentManager.addStudent(newStudent)) {
-                currentStudent = newStudent;
-                
-                // Show success message
                 UIHelper.showAlert("Success", "Student account created successfully!");
-                
-                // Update profile display
-                updateProfileDisplay(newStudent);
-                
-                // Enable course enrollment in the course controller
-                courseController.setCurrentStudent(currentStudent);
-                courseController.enableEnrollment();
-                
-                // Update the grades view
-                gradeController.setCurrentStudent(currentStudent);
-                gradeController.refreshGradesView();
-                
-                // Update the due dates view
-                if (dueDateController != null) {
-                    dueDateController.setCurrentStudent(currentStudent);
-                    dueDateController.refreshDueDatesView();
-                }
-                
-                // Switch to courses tab
-                TabPane tabPane = (TabPane) profileBox.getScene().getRoot();
-                tabPane.getSelectionModel().select(1);
-                
-                // Clear form fields
-                clearFormFields();
-                
+                signIn(newStudent);
             } else {
-                UIHelper.showAlert("Error", "A student with this ID already exists.");
+                // A saved student signing in again with the same details
+                Student existingStudent = studentManager.getStudentById(studentId);
+                if (existingStudent != null &&
+                    existingStudent.getFirstName().equalsIgnoreCase(firstName) &&
+                    existingStudent.getLastName().equalsIgnoreCase(lastName)) {
+                    UIHelper.showAlert("Welcome back", "Signed in as " + existingStudent.getFullName() + ".");
+                    signIn(existingStudent);
+                } else {
+                    UIHelper.showAlert("Error", "A student with this ID already exists.");
+                }
             }
         } catch (NumberFormatException e) {
             UIHelper.showAlert("Error", "Invalid student ID format.");
@@ -240,6 +222,39 @@ public class StudentSignupController {
         }
     }
     
+    /**
+     * Makes a student the current student and updates the other tabs.
+     * 
+     * @param student The student to sign in
+     */
+    private void signIn(Student student) {
+        currentStudent = student;
+        
+        // Update profile display
+        updateProfileDisplay(student);
+        
+        // Enable course enrollment in the course controller
+        courseController.setCurrentStudent(currentStudent);
+        courseController.enableEnrollment();
+        
+        // Update the grades view
+        gradeController.setCurrentStudent(currentStudent);
+        gradeController.refreshGradesView();
+        
+        // Update the due dates view
+        if (dueDateController != null) {
+            dueDateController.setCurrentStudent(currentStudent);
+            dueDateController.refreshDueDatesView();
+        }
+        
+        // Switch to courses tab
+        TabPane tabPane = (TabPane) profileBox.getScene().getRoot();
+        tabPane.getSelectionModel().select(1);
+        
+        // Clear form fields
+        clearFormFields();
+    }
+    
     /**
      * Updates the profile display with student information.
      * 
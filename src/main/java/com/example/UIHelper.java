@@ -9,6 +9,11 @@ import javafx.collections.*;
  */
 public class UIHelper {
     
+    /**
+     * The application stylesheet, which styles the list cells.
+     */
+    public static final String STYLESHEET = UIHelper.class.getResource("gradetracker.css").toExternalForm();
+    
     /**
      * Shows an alert dialog with the specified title and message.
      * 
@@ -0,0 +1,105 @@
+package com.example;
+
+import javafx.concurrent.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs view recomputation on background threads and hands the result back to
+ * the JavaFX Application Thread.
+ *
+ * Each refresh is submitted under a key, such as "grades" or "dueDates".
+ * Submitting a new refresh cancels the one still running under the same key,
+ * and only the most recent refresh for a key is ever published, so switching
+ * course quickly never shows an out-of-date view.
+ *
+ * All methods must be called on the JavaFX Application Thread. The compute
+ * step runs on a worker thread and must only read thread-safe data, such as
+ * the repositories; the publish step runs on the JavaFX thread and is where
+ * the UI is updated.
+ */
+public class ViewRefreshService {
+    private static final int THREAD_COUNT = 2;
+
+    private final ExecutorService executor;
+    private final Map<String, Task<?>> runningTasks; // Latest task per key
+
+    /**
+     * Creates a service with its own pool of daemon worker threads.
+     */
+    public ViewRefreshService() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "view-refresh-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(THREAD_COUNT, threadFactory);
+        this.runningTasks = new HashMap<>();
+    }
+
+    /**
+     * Computes a value in the background and publishes it on the JavaFX
+     * thread, replacing any refresh still pending under the same key.
+     *
+     * @param key Identifies the part of the view being refreshed
+     * @param compute Builds the view model; runs on a worker thread
+     * @param publish Applies the view model to the UI; runs on the JavaFX thread
+     */
+    public <T> void submit(String key, Callable<T> compute, Consumer<T> publish) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return compute.call();
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            // A newer refresh may have been submitted after this one finished
+            if (runningTasks.get(key) == task) {
+                runningTasks.remove(key);
+                publish.accept(task.getValue());
+            }
+        });
+        task.setOnFailed(e -> {
+            if (runningTasks.get(key) == task) {
+                runningTasks.remove(key);
+            }
+            System.out.println("Error refreshing " + key + ": " + task.getException());
+        });
+
+        Task<?> previous = runningTasks.put(key, task);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        executor.execute(task);
+    }
+
+    /**
+     * Tells whether a refresh submitted under a key has not been published yet.
+     *
+     * @param key Identifies the part of the view being refreshed
+     * @return true if a refresh for the key is still running or queued
+     */
+    public boolean isPending(String key) {
+        return runningTasks.containsKey(key);
+    }
+
+    /**
+     * Cancels every pending refresh and stops the worker threads.
+     */
+    public void shutdown() {
+        for (Task<?> task : runningTasks.values()) {
+            task.cancel(true);
+        }
+        runningTasks.clear();
+        executor.shutdownNow();
+    }
+}
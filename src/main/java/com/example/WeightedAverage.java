@@ -0,0 +1,108 @@
+package com.example;
+
+/**
+ * Running weighted average of a group of grades.
+ * Keeps the sum of (score / max score) * weight and the sum of weights so a
+ * grade can be added or removed without revisiting the rest of the group.
+ */
+public class WeightedAverage {
+    // Weight sums below this are treated as zero to absorb rounding left over from removals
+    private static final double EPSILON = 1e-9;
+
+    private double totalWeightedScore;
+    private double totalWeight;
+    private int gradeCount;
+    private int invalidCount; // Grades whose proportion is not a finite number (e.g. max score of 0)
+
+    /**
+     * Adds a grade's contribution to the average.
+     *
+     * @param grade Grade to add
+     */
+    public void add(Grades grade) {
+        apply(grade, 1);
+    }
+
+    /**
+     * Removes a grade's contribution from the average.
+     * The grade must have the same score, max score and weight it had when added.
+     *
+     * @param grade Grade to remove
+     */
+    public void remove(Grades grade) {
+        apply(grade, -1);
+    }
+
+    private void apply(Grades grade, int sign) {
+        gradeCount += sign;
+
+        double weightedScore = (grade.getScore() / grade.getMaxScore()) * grade.getWeight();
+        if (Double.isFinite(weightedScore)) {
+            totalWeightedScore += sign * weightedScore;
+            totalWeight += sign * grade.getWeight();
+        } else {
+            invalidCount += sign;
+        }
+
+        if (gradeCount == 0) {
+            // Start from exact zeros again so rounding does not accumulate
+            totalWeightedScore = 0;
+            totalWeight = 0;
+            invalidCount = 0;
+        }
+    }
+
+    /**
+     * Checks whether any grades are part of this average.
+     *
+     * @return true if no grades have been added
+     */
+    public boolean isEmpty() {
+        return gradeCount == 0;
+    }
+
+    /**
+     * Returns the total weight of the grades in this average.
+     *
+     * @return Sum of weights
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Returns the weighted average as a percentage.
+     *
+     * @return Weighted average as a percentage, or -1 if there are no grades or no weight
+     */
+    public double getAverage() {
+        return averageOf(totalWeightedScore, totalWeight, gradeCount, invalidCount);
+    }
+
+    /**
+     * Turns sums over a group of grades into a percentage, the same way
+     * {@link #getAverage()} does. Used where the sums come from elsewhere,
+     * such as a database query.
+     *
+     * @param totalWeightedScore Sum of (score / max score) * weight over valid grades
+     * @param totalWeight Sum of weights over valid grades
+     * @param gradeCount Number of grades in the group
+     * @param invalidCount Number of grades whose proportion is not a finite number
+     * @return Weighted average as a percentage, -1 if there are no grades or no weight, or NaN
+     */
+    static double averageOf(double totalWeightedScore, double totalWeight, int gradeCount, int invalidCount) {
+        if (gradeCount == 0) {
+            return -1;
+        }
+
+        if (invalidCount > 0) {
+            return Double.NaN;
+        }
+
+        if (Math.abs(totalWeight) < EPSILON) {
+            return -1;
+        }
+
+        return (totalWeightedScore / totalWeight) * 100;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The number of open due dates on each day, as returned by
+ * {@link DueDateRepository#getWorkload(DueDateQuery, CourseRepository)}.
+ *
+ * Only the days that have due dates are stored, in order, with prefix sums
+ * over their counts, so the count for any range of days takes two binary
+ * searches however far apart the earliest and latest due dates are. A
+ * workload is a snapshot: it does not change when due dates are added,
+ * moved or completed afterwards.
+ */
+public class Workload {
+    /**
+     * A workload with no due dates.
+     */
+    public static final Workload EMPTY = new Workload(new long[0], new int[] {0});
+
+    private final long[] days; // Epoch days that have due dates, ascending
+    private final int[] prefixSums; // prefixSums[i] = due dates on days[0 .. i - 1]
+
+    /**
+     * Creates a workload from its days and prefix sums.
+     *
+     * @param days Epoch days that have due dates, ascending; the array is kept, not copied
+     * @param prefixSums Running totals, starting with 0, one longer than days; the array is kept, not copied
+     */
+    Workload(long[] days, int[] prefixSums) {
+        this.days = days;
+        this.prefixSums = prefixSums;
+    }
+
+    /**
+     * Creates a workload from counts by day.
+     *
+     * @param countsByDay Due dates on each epoch day, ascending; days counted as 0 are left out
+     * @return The workload
+     */
+    static Workload fromDayCounts(NavigableMap<Long, Integer> countsByDay) {
+        long[] days = new long[countsByDay.size()];
+        int[] prefixSums = new int[days.length + 1];
+        int size = 0;
+        for (Map.Entry<Long, Integer> entry : countsByDay.entrySet()) {
+            if (entry.getValue() != 0) {
+                days[size] = entry.getKey();
+                prefixSums[size + 1] = prefixSums[size] + entry.getValue();
+                size++;
+            }
+        }
+        if (size == 0) {
+            return EMPTY;
+        }
+        return new Workload(Arrays.copyOf(days, size), Arrays.copyOf(prefixSums, size + 1));
+    }
+
+    /**
+     * Creates a workload from counts by date.
+     *
+     * @param countsByDate Due dates on each date that has any
+     * @return The workload
+     */
+    static Workload fromCounts(Map<LocalDate, Integer> countsByDate) {
+        NavigableMap<Long, Integer> countsByDay = new TreeMap<>();
+        for (Map.Entry<LocalDate, Integer> entry : countsByDate.entrySet()) {
+            countsByDay.merge(entry.getKey().toEpochDay(), entry.getValue(), Integer::sum);
+        }
+        return fromDayCounts(countsByDay);
+    }
+
+    /**
+     * Adds due dates to the counts, such as occurrences of a series, which
+     * are not stored and so are not part of a repository's workload.
+     *
+     * @param dueDates The due dates to add; completion is not checked
+     * @return A new workload with the due dates counted
+     */
+    public Workload plus(List<DueDate> dueDates) {
+        if (dueDates.isEmpty()) {
+            return this;
+        }
+
+        NavigableMap<Long, Integer> countsByDay = new TreeMap<>();
+        for (int i = 0; i < days.length; i++) {
+            countsByDay.put(days[i], prefixSums[i + 1] - prefixSums[i]);
+        }
+        for (DueDate dueDate : dueDates) {
+            countsByDay.merge(dueDate.getDueDate().toEpochDay(), 1, Integer::sum);
+        }
+        return fromDayCounts(countsByDay);
+    }
+
+    /**
+     * Gets the number of due dates on one day.
+     *
+     * @param date The day
+     * @return Number of due dates on that day
+     */
+    public int getCount(LocalDate date) {
+        return getCount(date, date);
+    }
+
+    /**
+     * Gets the number of due dates in a range of days, both ends included.
+     *
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return Number of due dates in the range, or 0 if it ends before it starts
+     */
+    public int getCount(LocalDate startDate, LocalDate endDate) {
+        return sum(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Finds the seven days in a range with the most due dates.
+     *
+     * @param startDate First day the week may start on
+     * @param endDate Last day the week may end on
+     * @return The first day of the busiest week, the earliest if several tie,
+     *         or null if the range is shorter than a week or has no due dates
+     */
+    public LocalDate getBusiestWeek(LocalDate startDate, LocalDate endDate) {
+        long lastStart = endDate.toEpochDay() - 6;
+        long bestStart = -1;
+        int bestCount = 0;
+        for (long day = startDate.toEpochDay(); day <= lastStart; day++) {
+            int count = sum(day, day + 6);
+            if (count > bestCount) {
+                bestCount = count;
+                bestStart = day;
+            }
+        }
+        return bestCount > 0 ? LocalDate.ofEpochDay(bestStart) : null;
+    }
+
+    /**
+     * Gets the largest number of due dates on any one day of a range.
+     *
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return The highest daily count, or 0 if there are no due dates
+     */
+    public int getMaxDailyCount(LocalDate startDate, LocalDate endDate) {
+        int max = 0;
+        for (int i = indexOf(startDate.toEpochDay()); i < days.length && days[i] <= endDate.toEpochDay(); i++) {
+            max = Math.max(max, prefixSums[i + 1] - prefixSums[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Gets the total number of due dates counted.
+     *
+     * @return Number of due dates
+     */
+    public int getTotal() {
+        return prefixSums[prefixSums.length - 1];
+    }
+
+    /**
+     * Sums the counts of the days from first to last.
+     */
+    private int sum(long first, long last) {
+        if (first > last) {
+            return 0;
+        }
+        return prefixSums[indexOf(last + 1)] - prefixSums[indexOf(first)];
+    }
+
+    /**
+     * Finds the index of the first stored day on or after a day.
+     */
+    private int indexOf(long day) {
+        int index = Arrays.binarySearch(days, day);
+        return index >= 0 ? index : -index - 1;
+    }
+}
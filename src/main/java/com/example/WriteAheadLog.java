@@ -0,0 +1,472 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of change records, split into segment files named
+ * journal-&lt;first LSN&gt;.log.
+ *
+ * Records are given increasing log sequence numbers (LSNs) and handed to a
+ * single writer thread. The writer collects everything appended within a short
+ * window and writes it with one fsync (group commit), so callers never wait on
+ * the disk. Tasks submitted with {@link #submit(Runnable)} run on the writer
+ * thread once every record appended before them is durable.
+ *
+ * Each record is one line: its LSN, a CRC32 checksum of the LSN and record,
+ * and the record, separated by tabs and ended by a newline. A record is only
+ * read back if it has its newline and its checksum matches, so a record torn
+ * by a crash is never mistaken for a shorter one. See {@link SegmentReader}.
+ */
+public class WriteAheadLog implements Closeable {
+    private static final long GROUP_COMMIT_WINDOW_MILLIS = 5;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final Object lock = new Object();
+    private final Thread writer;
+
+    // Guarded by lock
+    private List<Entry> pending = new ArrayList<>();
+    private long nextLsn;
+    private long durableLsn;
+    private boolean closed;
+    private IOException failure;
+
+    // Only used by the writer thread
+    private FileChannel channel;
+
+    /**
+     * Opens a new log segment in the given directory.
+     *
+     * @param directory Directory holding the segment files
+     * @param firstLsn LSN to give the first appended record
+     * @throws IOException if the segment cannot be created
+     */
+    public WriteAheadLog(Path directory, long firstLsn) throws IOException {
+        this.directory = directory;
+        this.nextLsn = firstLsn;
+        this.durableLsn = firstLsn - 1;
+        this.channel = openSegment(firstLsn);
+
+        this.writer = new Thread(this::runWriter, "journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Appends a record to the log. Returns immediately; the record becomes
+     * durable with the next group commit.
+     *
+     * @param record The encoded record, without a trailing newline
+     * @return The LSN given to the record
+     */
+    public long append(String record) {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+
+            long lsn = nextLsn++;
+            pending.add(new Entry(lsn, frame(lsn, record), null));
+            lock.notifyAll();
+            return lsn;
+        }
+    }
+
+    /**
+     * Appends several records to the log in one step, so they get
+     * consecutive LSNs and the writer is woken once for all of them.
+     *
+     * @param records The encoded records, without trailing newlines
+     * @return The LSN given to the last record
+     */
+    public long append(List<String> records) {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+
+            for (String record : records) {
+                long lsn = nextLsn++;
+                pending.add(new Entry(lsn, frame(lsn, record), null));
+            }
+            lock.notifyAll();
+            return nextLsn - 1;
+        }
+    }
+
+    private static String frame(long lsn, String record) {
+        String body = lsn + "\t" + record;
+        return lsn + "\t" + String.format("%08x", checksum(body)) + "\t" + record + "\n";
+    }
+
+    private static long checksum(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Returns the LSN of the most recently appended record.
+     *
+     * @return The last LSN, or one less than the first LSN if nothing was appended
+     */
+    public long getLastLsn() {
+        synchronized (lock) {
+            return nextLsn - 1;
+        }
+    }
+
+    /**
+     * Starts a new segment file for records appended after this call.
+     *
+     * @return The LSN the new segment starts at
+     */
+    public long rotate() {
+        synchronized (lock) {
+            long startLsn = nextLsn;
+            enqueueTask(() -> {
+                try {
+                    channel.close();
+                    channel = openSegment(startLsn);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            });
+            return startLsn;
+        }
+    }
+
+    /**
+     * Runs a task on the writer thread after all records appended so far are durable.
+     *
+     * @param task The task to run
+     */
+    public void submit(Runnable task) {
+        synchronized (lock) {
+            enqueueTask(task);
+        }
+    }
+
+    private void enqueueTask(Runnable task) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        pending.add(new Entry(nextLsn - 1, null, task));
+        lock.notifyAll();
+    }
+
+    /**
+     * Blocks until every record appended so far has been written and synced.
+     *
+     * @throws IOException if the writer failed
+     */
+    public void sync() throws IOException {
+        synchronized (lock) {
+            long target = nextLsn - 1;
+            while (durableLsn < target && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal", e);
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Writes any pending records and tasks, then stops the writer thread.
+     *
+     * @throws IOException if the writer failed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        channel.close();
+
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            List<Entry> batch;
+            synchronized (lock) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                if (pending.isEmpty()) {
+                    return; // Closed and drained
+                }
+
+                // Give other records a moment to join this commit
+                if (!closed) {
+                    try {
+                        lock.wait(GROUP_COMMIT_WINDOW_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        StringBuilder buffer = new StringBuilder();
+        long lastLsn = -1;
+
+        for (Entry entry : batch) {
+            if (entry.task == null) {
+                buffer.append(entry.line);
+                lastLsn = entry.lsn;
+            } else {
+                // Everything before a task must be durable before it runs
+                commit(buffer, lastLsn);
+                buffer.setLength(0);
+                entry.task.run();
+            }
+        }
+
+        commit(buffer, lastLsn);
+    }
+
+    private void commit(StringBuilder buffer, long lastLsn) {
+        if (buffer.length() == 0) {
+            return;
+        }
+
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+
+            synchronized (lock) {
+                durableLsn = lastLsn;
+                lock.notifyAll();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        System.out.println("Journal write failed: " + e.getMessage());
+        synchronized (lock) {
+            if (failure == null) {
+                failure = e;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private FileChannel openSegment(long firstLsn) throws IOException {
+        Path segment = directory.resolve(SEGMENT_PREFIX + firstLsn + SEGMENT_SUFFIX);
+        return FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Lists the segment files in a directory, oldest first.
+     *
+     * @param directory Directory holding the segment files
+     * @return Segment paths ordered by their first LSN
+     * @throws IOException if the directory cannot be read
+     */
+    public static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                if (segmentStart(path) >= 0) {
+                    segments.add(path);
+                }
+            }
+        }
+
+        segments.sort(Comparator.comparingLong(WriteAheadLog::segmentStart));
+        return segments;
+    }
+
+    /**
+     * Returns the first LSN of a segment file from its name.
+     *
+     * @param segment The segment path
+     * @return The segment's first LSN, or -1 if the name is not a segment name
+     */
+    public static long segmentStart(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads the records of one segment file in order, stopping at the first
+     * record that is not intact: one without its newline, with a checksum that
+     * does not match, or that cannot be split into its parts. After a crash
+     * that is the record being written when the crash happened, and nothing
+     * after it in the segment was committed.
+     */
+    public static class SegmentReader implements Closeable {
+        private final InputStream in;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private boolean torn;
+
+        /**
+         * Opens a segment file for reading.
+         *
+         * @param segment The segment path
+         * @throws IOException if the file cannot be opened
+         */
+        public SegmentReader(Path segment) throws IOException {
+            this.in = new BufferedInputStream(Files.newInputStream(segment));
+        }
+
+        /**
+         * Reads the next intact record.
+         *
+         * @return The record, or null at the end of the segment or at a record that is not intact
+         * @throws IOException if the file cannot be read
+         */
+        public Record next() throws IOException {
+            if (torn) {
+                return null;
+            }
+
+            line.reset();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    torn = line.size() > 0; // Data without its newline was cut short
+                    return null;
+                }
+                line.write(b);
+            }
+
+            String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+            int first = text.indexOf('\t');
+            int second = first < 0 ? -1 : text.indexOf('\t', first + 1);
+            try {
+                long lsn = Long.parseLong(text.substring(0, first));
+                long crc = Long.parseLong(text.substring(first + 1, second), 16);
+                String record = text.substring(second + 1);
+                if (crc == checksum(lsn + "\t" + record)) {
+                    return new Record(lsn, record);
+                }
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                // Falls through to the torn record below
+            }
+            torn = true;
+            return null;
+        }
+
+        /**
+         * Tells whether reading stopped at a record that was not intact.
+         *
+         * @return true if a damaged record ended the segment
+         */
+        public boolean isTorn() {
+            return torn;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * A record read back from a segment.
+     */
+    public static class Record {
+        private final long lsn;
+        private final String text;
+
+        private Record(long lsn, String text) {
+            this.lsn = lsn;
+            this.text = text;
+        }
+
+        /**
+         * @return The record's LSN
+         */
+        public long getLsn() {
+            return lsn;
+        }
+
+        /**
+         * @return The encoded record, as it was appended
+         */
+        public String getText() {
+            return text;
+        }
+    }
+
+    /**
+     * A pending record or task.
+     */
+    private static class Entry {
+        private final long lsn;
+        private final String line;
+        private final Runnable task;
+
+        private Entry(long lsn, String line, Runnable task) {
+            this.lsn = lsn;
+            this.line = line;
+            this.task = task;
+        }
+    }
+}